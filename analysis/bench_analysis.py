@@ -5,12 +5,14 @@ FAANG-style analysis for graph benchmark CSVs.
 Inputs:
   - ../data/all_graph_algorithms_verbose.csv  (master CSV from Java)
   - ../results/*.csv                          (per-run verbose logs; used to extract MaxFlow's flow)
+  - ../data/jmh_results.json or .csv          (optional, from jmh/target/benchmarks.jar)
 
 Outputs (saved in analysis/figures/):
   - runtime_vs_nodes.png
   - runtime_vs_density.png
   - memory_vs_runtime.png
   - maxflow_flow_vs_runtime.png (if MaxFlow runs exist)
+  - jmh_avgt_vs_nodes.png / jmh_alloc_vs_nodes.png (if JMH results exist)
 
 Usage:
   cd analysis
@@ -20,6 +22,7 @@ import os
 import math
 import glob
 import csv
+import json
 from pathlib import Path
 
 import numpy as np
@@ -30,6 +33,7 @@ import matplotlib.pyplot as plt
 # ---------- configuration ----------
 MASTER_CSV = Path(__file__).resolve().parent.parent / "data" / "all_graph_algorithms_verbose.csv"
 RESULTS_DIR = Path(__file__).resolve().parent.parent / "results"
+JMH_RESULTS = [Path(__file__).resolve().parent.parent / "data" / f"jmh_results.{ext}" for ext in ("json", "csv")]
 FIG_DIR = Path(__file__).resolve().parent / "figures"
 FIG_DIR.mkdir(parents=True, exist_ok=True)
 
@@ -87,8 +91,12 @@ def add_maxflow_flow(df: pd.DataFrame) -> pd.DataFrame:
     if not mask.any():
         return df
 
+    # newer master CSVs carry the flow value directly
+    if "Flow" in df.columns:
+        df.loc[mask, "MaxFlowValue"] = pd.to_numeric(df.loc[mask, "Flow"], errors="coerce")
+
     # Try to locate per-run verbose files and extract final flow
-    for idx, row in df[mask].iterrows():
+    for idx, row in df[mask & df["MaxFlowValue"].isna()].iterrows():
         algo = row["Algorithm"]
         n = int(row["Nodes"])
         seed = int(row["Seed"])
@@ -173,16 +181,113 @@ def plot_maxflow_flow_vs_runtime(df: pd.DataFrame):
     plt.close()
 
 
+_JMH_PARAMS = {"n": "Nodes", "density": "Density", "directed": "Directed", "seed": "Seed", "queue": "Queue", "model": "Model"}
+
+
+def load_jmh(path: Path) -> pd.DataFrame:
+    """
+    Flatten JMH results (JSON or CSV result format) to one row per (benchmark, mode, params):
+    Algorithm, Mode, Nodes, Density, Directed, Seed, Queue, Score, ScoreError, Unit, AllocBytesPerOp.
+    """
+    rows = []
+    if path.suffix == ".json":
+        with open(path) as f:
+            for entry in json.load(f):
+                params = entry.get("params", {})
+                pm = entry["primaryMetric"]
+                alloc = entry.get("secondaryMetrics", {}).get("gc.alloc.rate.norm", {}).get("score")
+                row = {
+                    "Algorithm": entry["benchmark"].rsplit(".", 1)[-1],
+                    "Mode": entry["mode"],
+                    "Score": pm["score"],
+                    "ScoreError": pm.get("scoreError"),
+                    "Unit": pm["scoreUnit"],
+                    "AllocBytesPerOp": alloc,
+                }
+                for k, col in _JMH_PARAMS.items():
+                    row[col] = params.get(k)
+                rows.append(row)
+    else:
+        raw = pd.read_csv(path)
+        param_cols = {f"Param: {k}": col for k, col in _JMH_PARAMS.items() if f"Param: {k}" in raw.columns}
+        key_cols = ["Mode"] + list(param_cols)
+        primary = raw[~raw["Benchmark"].str.contains(":")]
+        alloc = raw[raw["Benchmark"].str.endswith(":gc.alloc.rate.norm")].copy()
+        alloc["Benchmark"] = alloc["Benchmark"].str.replace(":gc.alloc.rate.norm", "", regex=False)
+        merged = primary.merge(alloc[["Benchmark"] + key_cols + ["Score"]], on=["Benchmark"] + key_cols,
+                               how="left", suffixes=("", "_alloc"))
+        for _, r in merged.iterrows():
+            row = {
+                "Algorithm": r["Benchmark"].rsplit(".", 1)[-1],
+                "Mode": r["Mode"],
+                "Score": r["Score"],
+                "ScoreError": r.get("Score Error (99.9%)"),
+                "Unit": r["Unit"],
+                "AllocBytesPerOp": r.get("Score_alloc"),
+            }
+            for src, col in param_cols.items():
+                row[col] = r[src]
+            rows.append(row)
+
+    df = pd.DataFrame(rows)
+    if df.empty:
+        return df
+    for col in ["Nodes", "Density", "Seed", "Score", "ScoreError", "AllocBytesPerOp"]:
+        df[col] = pd.to_numeric(df.get(col), errors="coerce")
+    df["Directed"] = df["Directed"].astype(str).str.lower().map({"true": True, "false": False})
+    # Dijkstra/AStar are parameterised by queue; keep the variants apart like the master CSV does
+    queue = df["Queue"].fillna("").astype(str)
+    df["Label"] = np.where(queue.isin(["", "nan", "None"]), df["Algorithm"], df["Algorithm"] + "_" + queue)
+    return df
+
+
+def _plot_jmh_vs_nodes(df: pd.DataFrame, value: str, ylabel: str, title: str, filename: str):
+    grouped = df.groupby(["Label", "Nodes"])[value].median().reset_index()
+    if grouped[value].dropna().empty:
+        return
+    plt.figure(figsize=(9, 6))
+    for label, sub in grouped.groupby("Label"):
+        sub = sub.sort_values("Nodes")
+        plt.plot(sub["Nodes"], sub[value], marker="o", label=label)
+    plt.xscale("log")
+    plt.yscale("log")
+    plt.xlabel("Nodes (V)")
+    plt.ylabel(ylabel)
+    plt.title(title)
+    plt.legend(fontsize="small", ncol=2)
+    out = FIG_DIR / filename
+    plt.tight_layout()
+    plt.savefig(out, dpi=160)
+    plt.close()
+
+
+def plot_jmh(df: pd.DataFrame):
+    avgt = df[df["Mode"] == "avgt"]
+    if avgt.empty:
+        return
+    unit = avgt["Unit"].iloc[0]
+    _plot_jmh_vs_nodes(avgt, "Score", f"Average time ({unit}) — median over params",
+                       "JMH: Average Time vs. Number of Nodes", "jmh_avgt_vs_nodes.png")
+    _plot_jmh_vs_nodes(avgt, "AllocBytesPerOp", "Allocated bytes / op — median over params",
+                       "JMH: Allocation vs. Number of Nodes", "jmh_alloc_vs_nodes.png")
+
+
 def main():
-    if not MASTER_CSV.exists():
+    jmh_path = next((p for p in JMH_RESULTS if p.exists()), None)
+    if not MASTER_CSV.exists() and jmh_path is None:
         raise SystemExit(f"Master CSV not found: {MASTER_CSV}\nRun the Java benchmark first.")
-    df = load_master(MASTER_CSV)
-    df = add_maxflow_flow(df)
 
-    plot_runtime_vs_nodes(df)
-    plot_runtime_vs_density(df)
-    plot_memory_vs_runtime(df)
-    plot_maxflow_flow_vs_runtime(df)
+    if MASTER_CSV.exists():
+        df = load_master(MASTER_CSV)
+        df = add_maxflow_flow(df)
+
+        plot_runtime_vs_nodes(df)
+        plot_runtime_vs_density(df)
+        plot_memory_vs_runtime(df)
+        plot_maxflow_flow_vs_runtime(df)
+
+    if jmh_path is not None:
+        plot_jmh(load_jmh(jmh_path))
 
     print(f"✅ Figures saved to: {FIG_DIR}")
 
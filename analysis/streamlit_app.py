@@ -117,6 +117,9 @@ if any(dfv["Algorithm"].str.contains("MaxFlow", case=False, na=False)):
     dfm = dfv[dfv["Algorithm"].str.contains("MaxFlow", case=False, na=False)].copy()
     flows = []
     for _, r in dfm.iterrows():
+        if "Flow" in dfm.columns and pd.notna(r["Flow"]):
+            flows.append(float(r["Flow"]))
+            continue
         vf = find_verbose_file(r["Algorithm"], int(r["Nodes"]), int(r["Seed"]), int(r["Run"]), weighted=True)
         if vf:
             val = extract_maxflow(vf)
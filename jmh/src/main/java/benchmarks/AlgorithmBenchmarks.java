@@ -0,0 +1,182 @@
+package benchmarks;
+
+import algorithms.*;
+import org.openjdk.jmh.annotations.*;
+import utils.PriorityQueueType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One benchmark per algorithm in {@code algorithms}, on the CSR fast paths.
+ * Each call is a full run from a fresh start node; results are returned so JMH consumes them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class AlgorithmBenchmarks {
+
+    /** Queue choice for Dijkstra; only its benchmark picks up this parameter. */
+    @State(Scope.Benchmark)
+    public static class QueueState {
+        @Param({"BINARY_HEAP", "DARY4_HEAP", "DARY8_HEAP", "PAIRING_HEAP", "RADIX_HEAP", "DIAL"})
+        public PriorityQueueType queue;
+
+        public Dijkstra dijkstra;
+
+        @Setup(Level.Trial)
+        public void build() {
+            dijkstra = new Dijkstra(queue);
+        }
+    }
+
+    /** Queue choice for AStar: no monotone queues, since its node-label heuristic is not consistent. */
+    @State(Scope.Benchmark)
+    public static class AStarQueueState {
+        @Param({"BINARY_HEAP", "DARY4_HEAP", "DARY8_HEAP", "PAIRING_HEAP"})
+        public PriorityQueueType queue;
+
+        public AStar aStar;
+
+        @Setup(Level.Trial)
+        public void build() {
+            aStar = new AStar(queue);
+        }
+    }
+
+    /** Pool size for the fork-join algorithms; only their benchmarks pick up this parameter. */
+    @State(Scope.Benchmark)
+    public static class ParallelState {
+        @Param({"1", "2", "4"})
+        public int threads;
+
+        public ParallelBFS parallelBfs;
+        public DeltaStepping deltaStepping;
+        public ParallelBellmanFord bellmanFord;
+        public ConnectedComponents components;
+        public ParallelBipartiteCheck bipartite;
+
+        @Setup(Level.Trial)
+        public void build() {
+            parallelBfs = new ParallelBFS(threads);
+            deltaStepping = new DeltaStepping(threads);
+            bellmanFord = new ParallelBellmanFord(threads);
+            components = new ConnectedComponents(threads);
+            bipartite = new ParallelBipartiteCheck(threads);
+        }
+    }
+
+    private final BFSAlgorithm bfs = new BFSAlgorithm();
+    private final DFSAlgorithm dfs = new DFSAlgorithm();
+    private final BipartiteCheck bipartite = new BipartiteCheck();
+    private final TarjanSCC scc = new TarjanSCC();
+    private final TopologicalSort topologicalSort = new TopologicalSort();
+    private final ArticulationPoints articulationPoints = new ArticulationPoints();
+    private final BellmanFord bellmanFord = new BellmanFord();
+    private final SPFA spfa = new SPFA();
+    private final MaxFlow edmondsKarp = new MaxFlow();
+    private final Dinic dinic = new Dinic();
+    private final PushRelabel pushRelabelFifo = new PushRelabel(PushRelabel.Selection.FIFO);
+    private final PushRelabel pushRelabelHighest = new PushRelabel(PushRelabel.Selection.HIGHEST_LABEL);
+
+    @Benchmark
+    public GraphResult bfs(GraphState g) {
+        return bfs.runUnweighted(g.unweighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult parallelBfs(GraphState g, ParallelState p) {
+        return p.parallelBfs.runUnweighted(g.unweighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult dfs(GraphState g) {
+        return dfs.runUnweighted(g.unweighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult bipartiteCheck(GraphState g) {
+        return bipartite.runUnweighted(g.unweighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult tarjanScc(GraphState g) {
+        return scc.runUnweighted(g.unweighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult topologicalSort(GraphState g) {
+        return topologicalSort.runUnweighted(g.unweighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult articulationPoints(GraphState g) {
+        return articulationPoints.runUnweighted(g.unweighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult parallelBipartiteCheck(GraphState g, ParallelState p) {
+        return p.bipartite.runUnweighted(g.unweighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult connectedComponents(GraphState g, ParallelState p) {
+        return p.components.runUnweighted(g.unweighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult dijkstra(GraphState g, QueueState q) {
+        return q.dijkstra.runWeighted(g.weighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult deltaStepping(GraphState g, ParallelState p) {
+        return p.deltaStepping.runWeighted(g.weighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public GraphResult bellmanFord(GraphState g) {
+        return bellmanFord.runWeighted(g.weighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public ShortestPathResult spfa(GraphState g) {
+        return spfa.shortestPaths(g.weighted, g.nextStart());
+    }
+
+    @Benchmark
+    public ShortestPathResult parallelBellmanFord(GraphState g, ParallelState p) {
+        return p.bellmanFord.shortestPaths(g.weighted, g.nextStart());
+    }
+
+    @Benchmark
+    public GraphResult aStar(GraphState g, AStarQueueState q) {
+        return q.aStar.runWeighted(g.weighted, g.nextStart(), false);
+    }
+
+    @Benchmark
+    public FlowResult maxFlowEdmondsKarp(GraphState g) {
+        int s = g.nextStart();
+        return edmondsKarp.maxFlow(g.weighted, s, MaxFlowAlgorithm.sinkFor(s, g.n));
+    }
+
+    @Benchmark
+    public FlowResult maxFlowDinic(GraphState g) {
+        int s = g.nextStart();
+        return dinic.maxFlow(g.weighted, s, MaxFlowAlgorithm.sinkFor(s, g.n));
+    }
+
+    @Benchmark
+    public FlowResult maxFlowPushRelabelFifo(GraphState g) {
+        int s = g.nextStart();
+        return pushRelabelFifo.maxFlow(g.weighted, s, MaxFlowAlgorithm.sinkFor(s, g.n));
+    }
+
+    @Benchmark
+    public FlowResult maxFlowPushRelabelHighestLabel(GraphState g) {
+        int s = g.nextStart();
+        return pushRelabelHighest.maxFlow(g.weighted, s, MaxFlowAlgorithm.sinkFor(s, g.n));
+    }
+}
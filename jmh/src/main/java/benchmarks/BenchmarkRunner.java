@@ -0,0 +1,44 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Entry point of benchmarks.jar: runs the JMH suite with the GC/allocation profiler and writes
+ * a machine-readable result file for analysis/bench_analysis.py.
+ * <p>
+ * Usage: {@code java -jar jmh/target/benchmarks.jar [includeRegex] [json|csv] [outputFile] [-p name=v1,v2 ...]}.
+ * For the full JMH command line use {@code java -cp jmh/target/benchmarks.jar org.openjdk.jmh.Main}.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : AlgorithmBenchmarks.class.getSimpleName();
+        ResultFormatType format = args.length > 1 ? ResultFormatType.valueOf(args[1].toUpperCase()) : ResultFormatType.JSON;
+        String output = args.length > 2 ? args[2] : "data/jmh_results." + format.name().toLowerCase();
+
+        ChainedOptionsBuilder opts = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(format)
+                .result(output);
+        // trailing "-p name=v1,v2" pairs override @Param values, e.g. -p n=100000 -p density=0.0001
+        for (int i = 3; i + 1 < args.length; i += 2) {
+            if (!"-p".equals(args[i])) throw new IllegalArgumentException("expected -p name=values, got " + args[i]);
+            String[] kv = args[i + 1].split("=", 2);
+            opts.param(kv[0], kv[1].split(","));
+        }
+
+        File parent = new File(output).getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        new Runner(opts.build()).run();
+    }
+}
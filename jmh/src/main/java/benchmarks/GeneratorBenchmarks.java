@@ -0,0 +1,50 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utils.CSRGraph;
+import utils.GraphModel;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Graph generation cost per model and pool size; DENSE is the original one-draw-per-pair generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class GeneratorBenchmarks {
+
+    @Param({"10000"})
+    public int n;
+
+    @Param({"0.001"})
+    public double density;
+
+    @Param({"DENSE", "ERDOS_RENYI", "RMAT", "GEOMETRIC", "GRID", "BARABASI_ALBERT"})
+    public GraphModel model;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void build() {
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public CSRGraph generate() {
+        return model.generate(n, density, true, seed++, true, pool);
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utils.CSRGraph;
+import utils.GraphModel;
+
+import java.util.Random;
+
+/**
+ * Graphs for one (model, n, density, directed, seed) cell, built once per trial.
+ * Start nodes rotate through a fixed seeded sample so no single start dominates a score.
+ */
+@State(Scope.Thread)
+public class GraphState {
+
+    @Param({"1000", "10000"})
+    public int n;
+
+    @Param({"0.001", "0.01"})
+    public double density;
+
+    @Param({"true", "false"})
+    public boolean directed;
+
+    @Param({"42"})
+    public long seed;
+
+    @Param({"ERDOS_RENYI"})
+    public GraphModel model;
+
+    public CSRGraph unweighted;
+    public CSRGraph weighted;
+
+    private static final int STARTS = 64; // power of two
+    private final int[] starts = new int[STARTS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        unweighted = model.generate(n, density, directed, seed, false);
+        weighted = model.generate(n, density, directed, seed, true);
+        Random rnd = new Random(seed);
+        for (int i = 0; i < STARTS; i++) starts[i] = rnd.nextInt(n);
+    }
+
+    public int nextStart() {
+        int s = starts[next];
+        next = (next + 1) & (STARTS - 1);
+        return s;
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import algorithms.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BFS from a batch of sources on the unweighted graph of a {@link GraphState} cell: the sequential BFS once per
+ * source against bit-parallel {@link MultiSourceBFS} at several word widths and pool sizes. One operation is
+ * the whole batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MultiSourceBenchmarks {
+
+    @Param({"64", "1024"})
+    public int sources;
+
+    @Param({"1", "4"})
+    public int width;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private int[] batch;
+    private MultiSourceBFS msBfs;
+    private final BFSAlgorithm bfs = new BFSAlgorithm();
+
+    @Setup(Level.Trial)
+    public void build(GraphState g) {
+        Random rnd = new Random(g.seed);
+        batch = new int[sources];
+        for (int i = 0; i < sources; i++) batch[i] = rnd.nextInt(g.n);
+        msBfs = new MultiSourceBFS(threads, width);
+    }
+
+    @Benchmark
+    public long bfsLoop(GraphState g) {
+        long reached = 0;
+        for (int s : batch) reached += bfs.runUnweighted(g.unweighted, s, false).visited();
+        return reached;
+    }
+
+    @Benchmark
+    public MultiSourceResult multiSourceBfs(GraphState g) {
+        return msBfs.run(g.unweighted, batch);
+    }
+}
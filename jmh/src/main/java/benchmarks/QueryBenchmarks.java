@@ -0,0 +1,89 @@
+package benchmarks;
+
+import algorithms.*;
+import org.openjdk.jmh.annotations.*;
+import utils.CSRGraph;
+import utils.GraphModel;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-to-point queries on one weighted graph: Dijkstra stopping at the target against bidirectional Dijkstra,
+ * Contraction Hierarchies and A* with landmark (ALT) and, on models with coordinates, Euclidean bounds. Preprocessing runs once per
+ * trial, untimed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class QueryBenchmarks {
+
+    @Param({"100000"})
+    public int n;
+
+    @Param({"0.0001"})
+    public double density;
+
+    @Param({"GEOMETRIC", "GRID", "ERDOS_RENYI"})
+    public GraphModel model;
+
+    @Param({"16"})
+    public int landmarks;
+
+    private static final int PAIRS = 64; // power of two
+
+    private CSRGraph graph;
+    private Heuristic alt, euclidean;
+    private QueryEngine bidirectional, ch;
+    private final AStar aStar = new AStar();
+    private final int[] sources = new int[PAIRS], targets = new int[PAIRS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        graph = model.generate(n, density, true, 42, true);
+        alt = Landmarks.build(graph, landmarks, 42);
+        bidirectional = new BidirectionalDijkstra(graph);
+        double[] coords = model.coordinates(n, 42);
+        // contracting the dense core of the random models takes far too long at this size; there the CH
+        // benchmark degenerates to bidirectional Dijkstra
+        ch = coords != null ? ContractionHierarchy.build(graph) : bidirectional;
+        // without coordinates the Euclidean benchmark degenerates to Dijkstra
+        euclidean = coords != null ? new EuclideanHeuristic(graph, coords) : Heuristic.ZERO;
+        Random rnd = new Random(42);
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = rnd.nextInt(n);
+            targets[i] = rnd.nextInt(n);
+        }
+    }
+
+    @Benchmark
+    public GraphResult dijkstra() { return query(Heuristic.ZERO); }
+
+    @Benchmark
+    public int bidirectional() { return query(bidirectional); }
+
+    @Benchmark
+    public int ch() { return query(ch); }
+
+    @Benchmark
+    public GraphResult alt() { return query(alt); }
+
+    @Benchmark
+    public GraphResult euclidean() { return query(euclidean); }
+
+    private GraphResult query(Heuristic h) {
+        int i = next;
+        next = (next + 1) & (PAIRS - 1);
+        return aStar.search(graph, sources[i], targets[i], h, false);
+    }
+
+    private int query(QueryEngine e) {
+        int i = next;
+        next = (next + 1) & (PAIRS - 1);
+        return e.distance(sources[i], targets[i]);
+    }
+}
@@ -1,57 +1,76 @@
 package algorithms;
 
-import utils.CSVUtils;
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Deadline;
+import utils.IntPriorityQueue;
+import utils.PriorityQueueType;
+import utils.TraceLayout;
+import utils.TraceWriter;
 
-import java.io.FileWriter;
 import java.util.*;
 
-public class AStar implements WeightedGraphAlgorithm {
+public class AStar implements WeightedGraphAlgorithm, PriorityQueueAlgorithm {
+
+    private static final int POP = TraceLayout.ASTAR.action("Pop");
+    private static final int REACHED_GOAL = TraceLayout.ASTAR.action("ReachedGoal");
+    private static final int RELAX = TraceLayout.ASTAR.action("Relax");
+
+    private final PriorityQueueType queueType;
+
+    public AStar() { this(PriorityQueueType.BINARY_HEAP); }
+
+    public AStar(PriorityQueueType queueType) { this.queueType = queueType; }
 
     @Override
-    public String name() { return "AStar"; }
+    public String name() {
+        return queueType == PriorityQueueType.BINARY_HEAP ? "AStar" : "AStar_" + queueType.label();
+    }
+
+    @Override
+    public PriorityQueueType queueType() { return queueType; }
 
     @Override
     public List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath) {
+        checkQueue(false);
         // For benchmark, we don’t have a specific goal; we’ll pick goal = start+1 mod n.
         int n = graph.size();
         int goal = (start + 1) % n;
 
+        int maxWeight = 0;
         Map<Integer, Integer> gScore = new HashMap<>();
         Map<Integer, Integer> fScore = new HashMap<>();
-        for (Integer node : graph.keySet()) {
-            gScore.put(node, Integer.MAX_VALUE);
-            fScore.put(node, Integer.MAX_VALUE);
+        for (Map.Entry<Integer, Map<Integer, Integer>> row : graph.entrySet()) {
+            gScore.put(row.getKey(), Integer.MAX_VALUE);
+            fScore.put(row.getKey(), Integer.MAX_VALUE);
+            for (int w : row.getValue().values()) maxWeight = Math.max(maxWeight, w);
         }
         gScore.put(start, 0);
         fScore.put(start, heuristic(start, goal));
 
-        PriorityQueue<int[]> open = new PriorityQueue<>(Comparator.comparingInt(a -> a[1]));
-        open.offer(new int[]{start, fScore.get(start)});
+        // f can rise by at most w + |h(v) - h(u)| <= maxWeight + n over the current minimum
+        IntPriorityQueue open = queueType.create(n, maxWeight + n);
+        open.insert(start, fScore.get(start));
 
-        Set<Integer> closed = new HashSet<>();
+        boolean[] closed = new boolean[n];
         List<Integer> order = new ArrayList<>();
 
-        FileWriter fw = null;
+        TraceWriter tw = null;
         try {
-            if (verbose && verbosePath != null) {
-                fw = new FileWriter(verbosePath);
-                fw.append("Step,Action,Node,Neighbor,OldG,NewG,H,NewF,OpenSize\n");
-            }
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.ASTAR);
             int step = 0;
 
             while (!open.isEmpty()) {
-                int[] cur = open.poll();
-                int u = cur[0];
-                if (closed.contains(u)) continue;
-                closed.add(u);
+                int u = open.pollMin();
+                closed[u] = true;
                 order.add(u);
 
-                if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "Pop", String.valueOf(u),
-                        "", "", "", "", "", String.valueOf(open.size()));
+                if (tw != null) tw.event(step++, POP, u, TraceWriter.NO_NODE,
+                        TraceWriter.NONE, TraceWriter.NONE, TraceWriter.NONE, open.size());
 
                 if (u == goal) {
-                    if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "ReachedGoal", String.valueOf(u),
-                            "", "", "", "", "", String.valueOf(open.size()));
+                    if (tw != null) tw.event(step++, REACHED_GOAL, u, TraceWriter.NO_NODE,
+                            TraceWriter.NONE, TraceWriter.NONE, TraceWriter.NONE, open.size());
                     break;
                 }
 
@@ -66,24 +85,94 @@ public class AStar implements WeightedGraphAlgorithm {
                         int h = heuristic(v, goal);
                         int nf = tentativeG + h;
                         fScore.put(v, nf);
-                        open.offer(new int[]{v, nf});
-                        if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "Relax",
-                                String.valueOf(u), String.valueOf(v), String.valueOf(oldG),
-                                String.valueOf(tentativeG), String.valueOf(h), String.valueOf(nf),
-                                String.valueOf(open.size()));
+                        if (!closed[v]) open.insertOrDecrease(v, nf);
+                        if (tw != null) tw.event(step++, RELAX, u, v, oldG, tentativeG, h, open.size());
                     }
                 }
             }
         } catch (Exception e) {
         } finally {
-            CSVUtils.closeQuietly(fw);
+            TraceWriter.closeQuietly(tw);
         }
 
         return order;
     }
 
+    /** A monotone queue would raise the keys an inconsistent heuristic lets fall, and search for something else. */
+    private void checkQueue(boolean consistent) {
+        if (!consistent && queueType.monotone())
+            throw new IllegalArgumentException(name() + " needs a consistent heuristic");
+    }
+
     // simple admissible heuristic over integer-labeled nodes
     private int heuristic(int a, int b) {
         return Math.abs(a - b);
     }
+
+    /** Searches start -> (start+1) % n like the map version; value() is the goal distance or -1. */
+    @Override
+    public GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder) {
+        int n = graph.nodeCount();
+        return search(graph, start, (start + 1) % n, Heuristic.labelDistance(n), trackOrder);
+    }
+
+    /**
+     * Point-to-point query guided by heuristic; visited() is the number of settled nodes and value() the
+     * distance to goal, or -1 when it is unreachable. Exact when heuristic is consistent; an inconsistent one
+     * needs a queue that is not {@link PriorityQueueType#monotone()}.
+     */
+    public GraphResult search(CSRGraph graph, int source, int goal, Heuristic heuristic, boolean trackOrder) {
+        checkQueue(heuristic.consistent());
+        int n = graph.nodeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int[] wt = graph.weights();
+        int[] g = new int[n];
+        int[] parent = new int[n];
+        boolean[] closed = new boolean[n];
+        Arrays.fill(g, GraphResult.UNREACHED);
+        Arrays.fill(parent, -1);
+        int[] order = trackOrder ? new int[n] : null;
+
+        // f can rise by at most w + h(v) - h(u) <= maxWeight + maxEstimate over the current minimum
+        IntPriorityQueue open = queueType.create(n, graph.maxWeight() + heuristic.maxEstimate());
+        g[source] = 0;
+        int h0 = heuristic.estimate(source, goal);
+        if (h0 != GraphResult.UNREACHED) open.insert(source, h0);
+        int closedCount = 0;
+        long scanned = 0, relaxed = 0, pushed = open.size();
+
+        while (!open.isEmpty()) {
+            int u = open.pollMin();
+            closed[u] = true;
+            if (order != null) order[closedCount] = u;
+            closedCount++;
+            if (u == goal) break;
+            if ((closedCount & 4095) == 0) Deadline.check(); // every 4096 pops
+
+            int gu = g[u];
+            scanned += off[u + 1] - off[u];
+            for (int i = off[u], end = off[u + 1]; i < end; i++) {
+                int v = adj[i];
+                int tentativeG = gu + wt[i];
+                if (tentativeG < g[v]) {
+                    boolean discovered = g[v] == GraphResult.UNREACHED;
+                    g[v] = tentativeG;
+                    parent[v] = u;
+                    relaxed++;
+                    if (closed[v]) continue;
+                    int h = heuristic.estimate(v, goal);
+                    if (h == GraphResult.UNREACHED) continue;
+                    open.insertOrDecrease(v, tentativeG + h);
+                    if (discovered) pushed++;
+                }
+            }
+        }
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.RELAXATIONS.add(relaxed);
+        Counter.QUEUE_PUSHES.add(pushed);
+        Counter.QUEUE_POPS.add(closedCount);
+        return new GraphResult(g, parent, order, trackOrder ? closedCount : 0, closedCount,
+                closed[goal] ? g[goal] : -1);
+    }
 }
@@ -0,0 +1,122 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.IntArrayList;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.util.*;
+
+/**
+ * Articulation points and bridges by Hopcroft-Tarjan low points on the {@link DepthFirstSearch} engine.
+ * <p>
+ * A node's low point is the smallest preorder number reachable from its subtree by one non-tree edge. A tree
+ * edge p -> u is a bridge when low[u] > pre[p], and a non-root p is an articulation point when some child
+ * has low[u] >= pre[p]; a root is one when it has two or more children. The edge back to the parent is
+ * skipped once, so parallel edges count as the cycles they are. Runs on {@link CSRGraph#undirected()}: the
+ * graph itself when it is symmetric, else its underlying undirected graph.
+ */
+public class ArticulationPoints implements UnweightedGraphAlgorithm {
+
+    @Override
+    public String name() { return "ArticulationPoints"; }
+
+    /** Covers the whole graph, searching from start first; returns the articulation points. */
+    @Override
+    public List<Integer> runUnweighted(Map<Integer, List<Integer>> graph, int start, boolean verbose, String verbosePath) {
+        TraceWriter tw = null;
+        ArticulationResult r = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.DEPTH_FIRST);
+            r = run(CSRGraph.fromAdjacency(graph), start, null, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        List<Integer> points = new ArrayList<>();
+        if (r != null) for (int v : r.articulationPoints()) points.add(v);
+        return points;
+    }
+
+    /**
+     * value() is the number of articulation points; the order, when tracked, lists them in ascending order.
+     */
+    @Override
+    public GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder) {
+        int[] visited = new int[1];
+        ArticulationResult r = run(graph, start, visited, null);
+        int[] points = r.articulationPoints();
+        return new GraphResult(null, null, trackOrder ? points : null, trackOrder ? points.length : 0,
+                visited[0], points.length);
+    }
+
+    /** Articulation points and bridges of the whole graph. */
+    public ArticulationResult find(CSRGraph graph) {
+        return run(graph, 0, null, null);
+    }
+
+    private ArticulationResult run(CSRGraph graph, int start, int[] visited, TraceWriter tw) {
+        CSRGraph g = graph.undirected();
+        int n = g.nodeCount();
+        DepthFirstSearch dfs = new DepthFirstSearch(n);
+        Cuts cuts = new Cuts(dfs, n);
+        DepthFirstSearch.Traced traced = tw == null ? null : new DepthFirstSearch.Traced(dfs, cuts, tw);
+        int found = n == 0 ? 0 : dfs.searchAll(g, start, traced == null ? cuts : traced);
+        if (visited != null) visited[0] = found;
+
+        IntArrayList points = new IntArrayList();
+        for (int u = 0; u < n; u++) if (cuts.cut[u]) points.add(u);
+        int[] bridges = cuts.bridges.toArray();
+        if (traced != null) {
+            for (int i = 0; i < points.size(); i++) traced.event("ArticulationPoint", points.get(i), TraceWriter.NO_NODE, TraceWriter.NONE);
+            for (int i = 0; i < bridges.length; i += 2) traced.event("Bridge", bridges[i], bridges[i + 1], TraceWriter.NONE);
+        }
+        return new ArticulationResult(points.toArray(), bridges);
+    }
+
+    private static final class Cuts implements DepthFirstSearch.Visitor {
+        final DepthFirstSearch dfs;
+        final int[] low;
+        final boolean[] parentSkipped, cut;
+        final IntArrayList bridges = new IntArrayList();
+        int rootChildren;
+
+        Cuts(DepthFirstSearch dfs, int n) {
+            this.dfs = dfs;
+            low = new int[n];
+            parentSkipped = new boolean[n];
+            cut = new boolean[n];
+        }
+
+        @Override
+        public void discover(int u, int parent) {
+            low[u] = dfs.preorder(u);
+            if (parent < 0) rootChildren = 0;
+        }
+
+        @Override
+        public void nonTreeEdge(int u, int v, int e) {
+            if (v == dfs.parent(u) && !parentSkipped[u]) {
+                parentSkipped[u] = true; // the tree edge seen from below
+                return;
+            }
+            low[u] = Math.min(low[u], dfs.preorder(v));
+        }
+
+        @Override
+        public void finish(int u, int parent) {
+            if (parent < 0) {
+                cut[u] = rootChildren >= 2;
+                return;
+            }
+            low[parent] = Math.min(low[parent], low[u]);
+            int pre = dfs.preorder(parent);
+            if (low[u] > pre) {
+                bridges.add(parent);
+                bridges.add(u);
+            }
+            if (dfs.parent(parent) < 0) rootChildren++;
+            else if (low[u] >= pre) cut[parent] = true;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package algorithms;
+
+/**
+ * Cut structure of an undirected graph: the articulation points (nodes whose removal disconnects their
+ * component) and the bridges (edges whose removal does).
+ */
+public final class ArticulationResult {
+
+    private final int[] points;
+    private final int[] bridges;
+
+    /**
+     * @param points articulation points in ascending order
+     * @param bridges bridge endpoints in pairs: bridge i joins bridges[2i] (the DFS parent) and bridges[2i + 1]
+     */
+    public ArticulationResult(int[] points, int[] bridges) {
+        this.points = points;
+        this.bridges = bridges;
+    }
+
+    public int[] articulationPoints() { return points; }
+
+    public int bridgeCount() { return bridges.length / 2; }
+
+    /** @return endpoints in pairs, see the constructor */
+    public int[] bridges() { return bridges; }
+}
@@ -1,12 +1,18 @@
 package algorithms;
 
-import utils.CSVUtils;
+import utils.CSRGraph;
+import utils.Counter;
+import utils.TraceLayout;
+import utils.TraceWriter;
 
-import java.io.FileWriter;
 import java.util.*;
 
 public class BFSAlgorithm implements UnweightedGraphAlgorithm {
 
+    private static final int ENQUEUE_START = TraceLayout.BFS.action("EnqueueStart");
+    private static final int DEQUEUE = TraceLayout.BFS.action("Dequeue");
+    private static final int ENQUEUE = TraceLayout.BFS.action("Enqueue");
+
     @Override
     public String name() { return "BFS"; }
 
@@ -16,39 +22,69 @@ public class BFSAlgorithm implements UnweightedGraphAlgorithm {
         Set<Integer> visited = new HashSet<>();
         Deque<Integer> q = new ArrayDeque<>();
 
-        FileWriter fw = null;
+        TraceWriter tw = null;
         try {
-            if (verbose && verbosePath != null) {
-                fw = new FileWriter(verbosePath);
-                fw.append("Step,Action,Node,QueueState,VisitedSet\n");
-            }
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.BFS);
 
             q.add(start);
             visited.add(start);
-            if (fw != null) CSVUtils.writeRow(fw, "0", "EnqueueStart", String.valueOf(start),
-                    q.toString(), visited.toString());
+            if (tw != null) tw.event(0, ENQUEUE_START, start);
 
             int step = 1;
             while (!q.isEmpty()) {
                 int u = q.poll();
                 visitOrder.add(u);
-                if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "Dequeue", String.valueOf(u),
-                        q.toString(), visited.toString());
+                if (tw != null) tw.event(step++, DEQUEUE, u);
 
                 for (int v : graph.getOrDefault(u, Collections.emptyList())) {
                     if (!visited.contains(v)) {
                         visited.add(v);
                         q.add(v);
-                        if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "Enqueue", String.valueOf(v),
-                                q.toString(), visited.toString());
+                        if (tw != null) tw.event(step++, ENQUEUE, v);
                     }
                 }
             }
         } catch (Exception e) {
             // swallow to keep benchmark running
         } finally {
-            CSVUtils.closeQuietly(fw);
+            TraceWriter.closeQuietly(tw);
         }
         return visitOrder;
     }
+
+    @Override
+    public GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder) {
+        int n = graph.nodeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, GraphResult.UNREACHED);
+        Arrays.fill(parent, -1);
+
+        // every node is enqueued at most once, so the queue array is also the visit order
+        int[] q = new int[n];
+        int head = 0, tail = 0;
+        q[tail++] = start;
+        dist[start] = 0;
+        long scanned = 0;
+        while (head < tail) {
+            int u = q[head++];
+            int next = dist[u] + 1;
+            scanned += off[u + 1] - off[u];
+            for (int i = off[u], end = off[u + 1]; i < end; i++) {
+                int v = adj[i];
+                if (dist[v] == GraphResult.UNREACHED) {
+                    dist[v] = next;
+                    parent[v] = u;
+                    q[tail++] = v;
+                }
+            }
+        }
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.QUEUE_PUSHES.add(tail);
+        Counter.QUEUE_POPS.add(tail);
+        Counter.SWEEPS.add(dist[q[tail - 1]] + 1); // levels
+        return new GraphResult(dist, parent, trackOrder ? q : null, trackOrder ? tail : 0, tail, 0);
+    }
 }
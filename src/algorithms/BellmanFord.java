@@ -1,63 +1,120 @@
 package algorithms;
 
-import utils.CSVUtils;
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Deadline;
+import utils.TraceLayout;
+import utils.TraceWriter;
 
-import java.io.FileWriter;
 import java.util.*;
 
-public class BellmanFord implements WeightedGraphAlgorithm {
+public class BellmanFord implements ShortestPathAlgorithm {
+
+    private static final int RELAX = TraceLayout.BELLMAN_FORD.action("Relax");
+    private static final int NEGATIVE_CYCLE = TraceLayout.BELLMAN_FORD.action("NegativeCycle");
 
     @Override
     public String name() { return "BellmanFord"; }
 
+    /** Returns nodes in the order they were first reached; a negative cycle is logged edge by edge as NC rows. */
     @Override
     public List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath) {
-        int n = graph.size();
-        Map<Integer, Integer> dist = new HashMap<>();
-        for (Integer node : graph.keySet()) dist.put(node, Integer.MAX_VALUE);
-        dist.put(start, 0);
-
-        FileWriter fw = null;
-        List<Integer> sweepOrder = new ArrayList<>();
+        TraceWriter tw = null;
+        int[] order = new int[graph.size()];
+        ShortestPathResult r = null;
         try {
-            if (verbose && verbosePath != null) {
-                fw = new FileWriter(verbosePath);
-                fw.append("Iteration,Action,U,V,OldDist,NewDist\n");
-            }
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.BELLMAN_FORD);
+            r = sweep(CSRGraph.fromWeighted(graph), start, order, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        List<Integer> reachOrder = new ArrayList<>();
+        if (r != null) for (int i = 0; i < r.reached(); i++) reachOrder.add(order[i]);
+        return reachOrder;
+    }
 
-            for (int i = 1; i <= n - 1; i++) {
-                boolean changed = false;
-                for (int u : graph.keySet()) {
-                    sweepOrder.add(u);
-                    for (Map.Entry<Integer, Integer> e : graph.get(u).entrySet()) {
-                        int v = e.getKey(), w = e.getValue();
-                        if (dist.get(u) != Integer.MAX_VALUE && dist.get(u) + w < dist.get(v)) {
-                            int old = dist.get(v);
-                            int nd = dist.get(u) + w;
-                            dist.put(v, nd);
-                            changed = true;
-                            if (fw != null) CSVUtils.writeRow(fw, String.valueOf(i), "Relax",
-                                    String.valueOf(u), String.valueOf(v), String.valueOf(old), String.valueOf(nd));
+    /**
+     * Flat edge sweeps with early exit. order() lists nodes as they are first reached,
+     * value() is the number of sweeps run, or -1 if a negative cycle is reachable from start.
+     */
+    @Override
+    public GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder) {
+        int[] order = trackOrder ? new int[graph.nodeCount()] : null;
+        ShortestPathResult r = shortestPaths(graph, start, order);
+        return new GraphResult(r.dist(), r.parent(), order, trackOrder ? r.reached() : 0, r.reached(),
+                r.hasNegativeCycle() ? -1 : r.rounds());
+    }
+
+    @Override
+    public ShortestPathResult shortestPaths(CSRGraph graph, int source) {
+        return shortestPaths(graph, source, null);
+    }
+
+    private ShortestPathResult shortestPaths(CSRGraph graph, int source, int[] order) {
+        return sweep(graph, source, order, null);
+    }
+
+    /**
+     * Sweeps until nothing changes. Without a negative cycle that takes at most n; a change in a later
+     * sweep means one exists, and sweeping goes on until it closes in the parent pointers.
+     * Sweeps update in place, so later edges already see this sweep's distances.
+     */
+    private ShortestPathResult sweep(CSRGraph graph, int start, int[] order, TraceWriter tw) {
+        int n = graph.nodeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int[] wt = graph.weights();
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, GraphResult.UNREACHED);
+        Arrays.fill(parent, -1);
+        dist[start] = 0;
+        if (order != null) order[0] = start;
+        int reached = 1;
+        long relaxations = 0, scanned = 0;
+
+        int sweeps = 0;
+        int[] cycle = null;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            sweeps++;
+            Deadline.check();
+            for (int u = 0; u < n; u++) {
+                int du = dist[u];
+                if (du == GraphResult.UNREACHED) continue;
+                scanned += off[u + 1] - off[u];
+                for (int i = off[u], end = off[u + 1]; i < end; i++) {
+                    int v = adj[i];
+                    int nd = du + wt[i];
+                    if (nd < dist[v]) {
+                        if (dist[v] == GraphResult.UNREACHED) {
+                            if (order != null) order[reached] = v;
+                            reached++;
                         }
+                        if (tw != null) tw.event(sweeps, RELAX, u, v, dist[v], nd);
+                        dist[v] = nd;
+                        parent[v] = u;
+                        relaxations++;
+                        changed = true;
                     }
                 }
-                if (!changed) break;
             }
+            if (changed && sweeps >= n && (cycle = ShortestPathAlgorithm.parentCycle(parent)) != null) break;
+        }
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.RELAXATIONS.add(relaxations);
+        Counter.SWEEPS.add(sweeps);
 
-            // Optional negative cycle check (logged)
-            for (int u : graph.keySet()) {
-                for (Map.Entry<Integer, Integer> e : graph.get(u).entrySet()) {
-                    int v = e.getKey(), w = e.getValue();
-                    if (dist.get(u) != Integer.MAX_VALUE && dist.get(u) + w < dist.get(v)) {
-                        if (fw != null) CSVUtils.writeRow(fw, "NC", "NegativeCycle", String.valueOf(u),
-                                String.valueOf(v), String.valueOf(dist.get(v)), String.valueOf(dist.get(u) + w));
-                    }
-                }
+        if (cycle != null && tw != null) {
+            for (int i = 0; i < cycle.length; i++) {
+                int u = cycle[i], v = cycle[(i + 1) % cycle.length];
+                long nd = Long.MAX_VALUE;
+                for (int e = off[u]; e < off[u + 1]; e++) if (adj[e] == v) nd = Math.min(nd, (long) dist[u] + wt[e]);
+                tw.event(TraceWriter.NO_NODE, NEGATIVE_CYCLE, u, v, dist[v], nd);
             }
-        } catch (Exception e) {
-        } finally {
-            CSVUtils.closeQuietly(fw);
         }
-        return sweepOrder;
+        return new ShortestPathResult(dist, parent, cycle, reached, sweeps, relaxations);
     }
 }
@@ -0,0 +1,142 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+
+/**
+ * Bidirectional Dijkstra over one graph and its reverse, for repeated point-to-point queries.
+ * <p>
+ * The two searches take turns by frontier size and stop as soon as the smallest forward and backward keys
+ * add up to the best meeting distance found so far. Each thread owns a {@link Search} made of two
+ * {@link SearchSide}s, so a query neither clears nor allocates per-node state.
+ */
+public final class BidirectionalDijkstra implements QueryEngine {
+
+    private static final int UNREACHED = GraphResult.UNREACHED;
+
+    private final CSRGraph forward, backward;
+    private final ThreadLocal<Search> searches;
+
+    /** @param graph weighted CSR graph with non-negative weights; its reverse is built here once */
+    public BidirectionalDijkstra(CSRGraph graph) {
+        this.forward = graph;
+        this.backward = graph.reverse();
+        int n = graph.nodeCount();
+        this.searches = ThreadLocal.withInitial(() -> new Search(n));
+    }
+
+    @Override
+    public int distance(int source, int target) {
+        return searches.get().run(source, target);
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        Search s = searches.get();
+        if (s.run(source, target) == UNREACHED) return null;
+        return s.path(source, target);
+    }
+
+    @Override
+    public int lastSettled() { return searches.get().settled; }
+
+    /** Per-thread search state, reused by every query the thread runs. */
+    private final class Search {
+        final SearchSide fwd, bwd;
+        int version;
+        int settled;
+        long scanned, relaxed, pushed;
+        int meetFrom, meetTo; // best path so far: source ~> meetFrom -> meetTo ~> target
+
+        Search(int n) {
+            fwd = new SearchSide(n);
+            bwd = new SearchSide(n);
+        }
+
+        int run(int source, int target) {
+            int ver = version = SearchSide.nextVersion(version, fwd, bwd);
+            settled = 0;
+            scanned = relaxed = pushed = 0;
+            meetFrom = meetTo = -1;
+            if (source == target) {
+                fwd.reach(source, 0, -1, ver);
+                bwd.reach(target, 0, -1, ver);
+                meetFrom = meetTo = source;
+                settled = 1;
+                return 0;
+            }
+            fwd.reach(source, 0, -1, ver);
+            fwd.heap.insert(source, 0);
+            bwd.reach(target, 0, -1, ver);
+            bwd.heap.insert(target, 0);
+            pushed = 2;
+            long best = UNREACHED;
+            try {
+                while (!fwd.heap.isEmpty() && !bwd.heap.isEmpty()) {
+                    int topF = fwd.heap.key(fwd.heap.peekMin());
+                    int topB = bwd.heap.key(bwd.heap.peekMin());
+                    if ((long) topF + topB >= best) break;
+                    boolean forwardTurn = fwd.heap.size() <= bwd.heap.size();
+                    best = forwardTurn ? expand(forward, fwd, bwd, best, ver, true)
+                            : expand(backward, bwd, fwd, best, ver, false);
+                }
+            } finally {
+                fwd.heap.clear();
+                bwd.heap.clear();
+                Counter.EDGES_SCANNED.add(scanned);
+                Counter.RELAXATIONS.add(relaxed);
+                Counter.QUEUE_PUSHES.add(pushed);
+                Counter.QUEUE_POPS.add(settled);
+            }
+            return (int) best;
+        }
+
+        /** Settle the top of side's heap and relax its edges; returns the improved meeting distance. */
+        private long expand(CSRGraph g, SearchSide side, SearchSide other, long best, int ver, boolean forwardTurn) {
+            int[] off = g.offsets();
+            int[] adj = g.targets();
+            int[] wt = g.weights();
+            int u = side.heap.pollMin();
+            settled++;
+            int du = side.dist[u];
+            scanned += off[u + 1] - off[u];
+            for (int i = off[u], end = off[u + 1]; i < end; i++) {
+                int v = adj[i];
+                if (v == u) continue; // a self-loop never shortens a path, and would break the meet pair
+                int nd = du + wt[i];
+                int cur = side.dist(v, ver);
+                if (nd < cur) {
+                    if (cur == UNREACHED) pushed++;
+                    relaxed++;
+                    side.reach(v, nd, u, ver);
+                    side.heap.insertOrDecrease(v, nd);
+                }
+                int dv = other.dist(v, ver);
+                if (dv != UNREACHED && (long) nd + dv < best) {
+                    best = (long) nd + dv;
+                    meetFrom = forwardTurn ? u : v;
+                    meetTo = forwardTurn ? v : u;
+                }
+            }
+            return best;
+        }
+
+        /** Path of the last successful run: forward parents back from meetFrom, backward parents on from meetTo. */
+        int[] path(int source, int target) {
+            int ver = version;
+            int len = 0;
+            for (int v = meetFrom; v >= 0; v = fwd.stamp[v] == ver ? fwd.parent[v] : -1) len++;
+            if (meetTo != meetFrom) for (int v = meetTo; v >= 0; v = bwd.stamp[v] == ver ? bwd.parent[v] : -1) len++;
+            int[] path = new int[len];
+            int i = 0;
+            for (int v = meetFrom; v >= 0; v = fwd.parent[v]) path[i++] = v;
+            for (int a = 0, b = i - 1; a < b; a++, b--) {
+                int t = path[a];
+                path[a] = path[b];
+                path[b] = t;
+            }
+            if (meetTo != meetFrom) for (int v = meetTo; v >= 0; v = bwd.parent[v]) path[i++] = v;
+            return path;
+        }
+    }
+}
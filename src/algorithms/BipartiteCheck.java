@@ -1,12 +1,18 @@
 package algorithms;
 
-import utils.CSVUtils;
+import utils.CSRGraph;
+import utils.Counter;
+import utils.TraceLayout;
+import utils.TraceWriter;
 
-import java.io.FileWriter;
 import java.util.*;
 
 public class BipartiteCheck implements UnweightedGraphAlgorithm {
 
+    private static final int COLOR_START = TraceLayout.BIPARTITE.action("ColorStart");
+    private static final int COLOR_ASSIGN = TraceLayout.BIPARTITE.action("ColorAssign");
+    private static final int CONFLICT = TraceLayout.BIPARTITE.action("Conflict");
+
     @Override
     public String name() { return "BipartiteCheck"; }
 
@@ -16,21 +22,17 @@ public class BipartiteCheck implements UnweightedGraphAlgorithm {
         int[] color = new int[n];
         Arrays.fill(color, -1);
         List<Integer> visit = new ArrayList<>();
-        FileWriter fw = null;
+        TraceWriter tw = null;
 
         try {
-            if (verbose && verbosePath != null) {
-                fw = new FileWriter(verbosePath);
-                fw.append("Step,Action,Node,Neighbor,ColorNode,ColorNeighbor\n");
-            }
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.BIPARTITE);
             int step = 0;
             for (int s = 0; s < n; s++) {
                 if (color[s] != -1) continue;
                 Deque<Integer> q = new ArrayDeque<>();
                 q.add(s);
                 color[s] = 0;
-                if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "ColorStart", String.valueOf(s),
-                        "", String.valueOf(color[s]), "");
+                if (tw != null) tw.event(step++, COLOR_START, s, TraceWriter.NO_NODE, color[s]);
 
                 while (!q.isEmpty()) {
                     int u = q.poll();
@@ -39,11 +41,9 @@ public class BipartiteCheck implements UnweightedGraphAlgorithm {
                         if (color[v] == -1) {
                             color[v] = 1 - color[u];
                             q.add(v);
-                            if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "ColorAssign",
-                                    String.valueOf(u), String.valueOf(v), String.valueOf(color[u]), String.valueOf(color[v]));
+                            if (tw != null) tw.event(step++, COLOR_ASSIGN, u, v, color[u], color[v]);
                         } else if (color[v] == color[u]) {
-                            if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "Conflict",
-                                    String.valueOf(u), String.valueOf(v), String.valueOf(color[u]), String.valueOf(color[v]));
+                            if (tw != null) tw.event(step++, CONFLICT, u, v, color[u], color[v]);
                             // not bipartite, but we still return collected visit order
                             return visit;
                         }
@@ -52,8 +52,56 @@ public class BipartiteCheck implements UnweightedGraphAlgorithm {
             }
         } catch (Exception e) {
         } finally {
-            CSVUtils.closeQuietly(fw);
+            TraceWriter.closeQuietly(tw);
         }
         return visit;
     }
+
+    /**
+     * Colours every component; dist() holds the 0/1 colour (UNREACHED past a conflict),
+     * value() is 1 when the graph is bipartite and 0 when a conflict was found.
+     */
+    @Override
+    public GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder) {
+        int n = graph.nodeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int[] color = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(color, GraphResult.UNREACHED);
+        Arrays.fill(parent, -1);
+
+        // components are coloured one after another, so a single queue array doubles as the visit order
+        int[] q = new int[n];
+        int head = 0, tail = 0;
+        long scanned = 0;
+        for (int s = 0; s < n; s++) {
+            if (color[s] != GraphResult.UNREACHED) continue;
+            color[s] = 0;
+            q[tail++] = s;
+            while (head < tail) {
+                int u = q[head++];
+                scanned += off[u + 1] - off[u];
+                for (int i = off[u], end = off[u + 1]; i < end; i++) {
+                    int v = adj[i];
+                    if (color[v] == GraphResult.UNREACHED) {
+                        color[v] = 1 - color[u];
+                        parent[v] = u;
+                        q[tail++] = v;
+                    } else if (color[v] == color[u]) {
+                        count(scanned - (end - i - 1), tail, head);
+                        return new GraphResult(color, parent, trackOrder ? q : null, trackOrder ? head : 0, head, 0);
+                    }
+                }
+            }
+        }
+        count(scanned, tail, head);
+        return new GraphResult(color, parent, trackOrder ? q : null, trackOrder ? head : 0, head, 1);
+    }
+
+    private static void count(long scanned, int pushed, int popped) {
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.QUEUE_PUSHES.add(pushed);
+        Counter.QUEUE_POPS.add(popped);
+    }
 }
@@ -0,0 +1,38 @@
+package algorithms;
+
+/**
+ * Outcome of a whole-graph bipartiteness check. A bipartite graph gets a 2-colouring and its component
+ * labels; otherwise the check stops at the first conflict and reports an odd cycle through it instead.
+ */
+public final class BipartiteResult {
+
+    private final int[] colour;
+    private final int[] component;
+    private final long components;
+    private final int[] oddCycle;
+
+    /**
+     * @param colour per-node side 0/1, the smallest node of each component on side 0 (null when not bipartite)
+     * @param component per-node component label, the smallest node id in it (null when not bipartite)
+     * @param components number of components, 0 when not bipartite
+     * @param oddCycle nodes of an odd cycle in order (consecutive entries, and the last and first, are
+     *                 joined by an edge in one direction or the other), or null when bipartite
+     */
+    public BipartiteResult(int[] colour, int[] component, long components, int[] oddCycle) {
+        this.colour = colour;
+        this.component = component;
+        this.components = components;
+        this.oddCycle = oddCycle;
+    }
+
+    public int[] colour() { return colour; }
+
+    public int[] component() { return component; }
+
+    public long components() { return components; }
+
+    /** @return the odd cycle found, or null */
+    public int[] oddCycle() { return oddCycle; }
+
+    public boolean isBipartite() { return oddCycle == null; }
+}
@@ -0,0 +1,45 @@
+package algorithms;
+
+import utils.CSRGraph;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link CachedWeightedAlgorithm} for unweighted algorithms: CSR runs that do not track the order are answered
+ * from the {@link ResultCache} when it holds the same graph content, algorithm and start.
+ */
+public class CachedUnweightedAlgorithm implements UnweightedGraphAlgorithm {
+
+    private final UnweightedGraphAlgorithm algorithm;
+    private final ResultCache cache;
+
+    public CachedUnweightedAlgorithm(UnweightedGraphAlgorithm algorithm, ResultCache cache) {
+        this.algorithm = algorithm;
+        this.cache = cache;
+    }
+
+    /** The wrapped algorithm's name with a _cached suffix; entries are stored under the wrapped name. */
+    @Override
+    public String name() { return algorithm.name() + "_cached"; }
+
+    public UnweightedGraphAlgorithm algorithm() { return algorithm; }
+
+    public ResultCache cache() { return cache; }
+
+    @Override
+    public List<Integer> runUnweighted(Map<Integer, List<Integer>> graph, int start, boolean verbose, String verbosePath) {
+        return algorithm.runUnweighted(graph, start, verbose, verbosePath);
+    }
+
+    @Override
+    public GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder) {
+        if (trackOrder) return algorithm.runUnweighted(graph, start, true);
+        GraphResult r = cache.get(graph, algorithm.name(), start);
+        if (r == null) {
+            r = algorithm.runUnweighted(graph, start, false);
+            cache.put(graph, algorithm.name(), start, r);
+        }
+        return r;
+    }
+}
@@ -0,0 +1,47 @@
+package algorithms;
+
+import utils.CSRGraph;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link WeightedGraphAlgorithm} whose CSR fast path answers repeated (graph, start) runs from a
+ * {@link ResultCache}: a hit returns copies of the cached distances and parents with the recorded visited
+ * count and value, a miss runs the wrapped algorithm and stores its result. Runs that track the order, and
+ * the map-based overload (which traces and returns the order), always run the wrapped algorithm.
+ */
+public class CachedWeightedAlgorithm implements WeightedGraphAlgorithm {
+
+    private final WeightedGraphAlgorithm algorithm;
+    private final ResultCache cache;
+
+    public CachedWeightedAlgorithm(WeightedGraphAlgorithm algorithm, ResultCache cache) {
+        this.algorithm = algorithm;
+        this.cache = cache;
+    }
+
+    /** The wrapped algorithm's name with a _cached suffix; entries are stored under the wrapped name. */
+    @Override
+    public String name() { return algorithm.name() + "_cached"; }
+
+    public WeightedGraphAlgorithm algorithm() { return algorithm; }
+
+    public ResultCache cache() { return cache; }
+
+    @Override
+    public List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath) {
+        return algorithm.runWeighted(graph, start, verbose, verbosePath);
+    }
+
+    @Override
+    public GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder) {
+        if (trackOrder) return algorithm.runWeighted(graph, start, true);
+        GraphResult r = cache.get(graph, algorithm.name(), start);
+        if (r == null) {
+            r = algorithm.runWeighted(graph, start, false);
+            cache.put(graph, algorithm.name(), start, r);
+        }
+        return r;
+    }
+}
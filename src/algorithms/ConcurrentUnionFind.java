@@ -0,0 +1,71 @@
+package algorithms;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free union-find with parity, shared by the parallel components and bipartiteness checks.
+ * <p>
+ * Each node's word packs its parent (upper 31 bits) and the parity of the edge to that parent (low bit), so
+ * a parent pointer and its parity always change together in one CAS. Roots are hooked only under a smaller
+ * root, which keeps the forest acyclic however unions interleave; finds shorten paths by splitting (each
+ * node on the way is CASed to its grandparent, parities XORed), and a lost CAS is simply skipped. Parities
+ * relative to a root never change once set, so a (root, parity) pair read at any moment stays true.
+ */
+final class ConcurrentUnionFind {
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /** Largest node count whose ids fit the 31 parent bits. */
+    static final int MAX_NODES = 1 << 30;
+
+    private final int[] state;
+
+    ConcurrentUnionFind(int n) {
+        if (n > MAX_NODES) throw new IllegalArgumentException("too many nodes for union-find: " + n);
+        state = new int[n];
+        for (int v = 0; v < n; v++) state[v] = v << 1;
+    }
+
+    int size() { return state.length; }
+
+    /** @return root of x's set */
+    int find(int x) { return findWithParity(x) >>> 1; }
+
+    /** @return root of x's set in the upper bits, parity of x relative to it in the low bit */
+    int findWithParity(int x) {
+        int parity = 0;
+        while (true) {
+            int sx = (int) INTS.getVolatile(state, x);
+            int p = sx >>> 1;
+            if (p == x) return x << 1 | parity;
+            int sp = (int) INTS.getVolatile(state, p);
+            int gp = sp >>> 1;
+            if (gp != p) INTS.compareAndSet(state, x, sx, gp << 1 | ((sx ^ sp) & 1));
+            parity ^= sx & 1;
+            x = p;
+        }
+    }
+
+    /**
+     * Join the sets of u and v so that parity(u) ^ parity(v) == odd.
+     * @return false if they already were joined with the other parity (an odd cycle for odd = 1)
+     */
+    boolean union(int u, int v, int odd) {
+        while (true) {
+            int ru = findWithParity(u), rv = findWithParity(v);
+            int a = ru >>> 1, b = rv >>> 1;
+            int bit = (ru ^ rv ^ odd) & 1;
+            if (a == b) return bit == 0;
+            int hi = Math.max(a, b), lo = Math.min(a, b);
+            if (INTS.compareAndSet(state, hi, hi << 1, lo << 1 | bit)) return true;
+        }
+    }
+
+    /** Point x straight at its root; only safe once no union runs concurrently. */
+    void compress(int x) {
+        state[x] = findWithParity(x);
+    }
+
+    boolean isRoot(int x) { return state[x] >>> 1 == x; }
+}
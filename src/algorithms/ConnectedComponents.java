@@ -0,0 +1,185 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Parallel;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel connected components by lock-free union-find, Afforest style (Sutton et al.).
+ * <p>
+ * A few rounds link every node to its first neighbours only, which on most graphs already merges the giant
+ * component. A sample of nodes then names the largest set, and the final pass links the remaining edges of
+ * the nodes outside it; nodes inside are skipped, because every edge leaving the giant set is also seen from
+ * its other end (as an out-edge, or as an in-edge through the cached reverse graph). Edge direction is
+ * ignored, so directed graphs get their weakly connected components. Roots hook under smaller roots, so a
+ * component's label is its smallest node id, whatever the thread count.
+ */
+public class ConnectedComponents implements UnweightedGraphAlgorithm, ParallelAlgorithm {
+
+    private static final int NEIGHBOR_ROUNDS = 2;
+    private static final int SAMPLES = 1024;
+    private static final int GRAIN = 4096;         // nodes per task
+    private static final int NEIGHBOR_ROUND = TraceLayout.CONNECTED_COMPONENTS.action("NeighborRound");
+    private static final int LARGEST = TraceLayout.CONNECTED_COMPONENTS.action("LargestComponent");
+    private static final int FINISH = TraceLayout.CONNECTED_COMPONENTS.action("Finish");
+
+    private final int threads;
+    private final ForkJoinPool pool;
+
+    public ConnectedComponents() { this(Runtime.getRuntime().availableProcessors()); }
+
+    public ConnectedComponents(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    @Override
+    public String name() { return "ConnectedComponents_t" + threads; }
+
+    @Override
+    public int threads() { return threads; }
+
+    /** Labels the whole graph, so start is ignored; the visit order lists the nodes component by component. */
+    @Override
+    public List<Integer> runUnweighted(Map<Integer, List<Integer>> graph, int start, boolean verbose, String verbosePath) {
+        TraceWriter tw = null;
+        GraphResult r = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.CONNECTED_COMPONENTS);
+            r = run(CSRGraph.fromAdjacency(graph), true, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        List<Integer> visitOrder = new ArrayList<>();
+        if (r != null) for (int i = 0; i < r.orderSize(); i++) visitOrder.add(r.order()[i]);
+        return visitOrder;
+    }
+
+    /**
+     * dist() holds each node's component label (the smallest node id in it), value() the number of
+     * components; the order, when tracked, lists the nodes grouped by component in label order.
+     */
+    @Override
+    public GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder) {
+        return run(graph, trackOrder, null);
+    }
+
+    /** Component label of every node: the smallest node id of its (weakly) connected component. */
+    public int[] components(CSRGraph graph) {
+        return run(graph, false, null).dist();
+    }
+
+    private GraphResult run(CSRGraph graph, boolean trackOrder, TraceWriter tw) {
+        int n = graph.nodeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        AtomicLong work = new AtomicLong();
+
+        // link along the first few edges of every node, compressing after each round
+        for (int r = 0; r < NEIGHBOR_ROUNDS; r++) {
+            int round = r;
+            work.set(0);
+            Parallel.forRange(pool, 0, n, GRAIN, (lo, hi) -> {
+                long linked = 0;
+                for (int u = lo; u < hi; u++) {
+                    int e = off[u] + round;
+                    if (e < off[u + 1]) {
+                        uf.union(u, adj[e], 1);
+                        linked++;
+                    }
+                }
+                work.addAndGet(linked);
+                Counter.EDGES_SCANNED.add(linked);
+            });
+            Parallel.forRange(pool, 0, n, GRAIN, (lo, hi) -> {
+                for (int u = lo; u < hi; u++) uf.compress(u);
+            });
+            if (tw != null) tw.event(r, NEIGHBOR_ROUND, TraceWriter.NO_NODE, TraceWriter.NO_NODE, work.get(), sets(uf));
+        }
+
+        int[] hits = new int[1];
+        int giant = n == 0 ? -1 : largestSet(uf, hits);
+        if (tw != null) tw.event(NEIGHBOR_ROUNDS, LARGEST, giant, TraceWriter.NO_NODE, hits[0], sets(uf));
+
+        // the remaining out-edges and all in-edges of every node outside the giant set
+        CSRGraph rev = graph.reverse();
+        int[] roff = rev.offsets();
+        int[] radj = rev.targets();
+        work.set(0);
+        Parallel.forRange(pool, 0, n, GRAIN, (lo, hi) -> {
+            long scanned = 0, edges = 0;
+            for (int u = lo; u < hi; u++) {
+                if (uf.find(u) == giant) continue;
+                scanned++;
+                edges += Math.max(0, off[u + 1] - off[u] - NEIGHBOR_ROUNDS) + roff[u + 1] - roff[u];
+                for (int e = off[u] + NEIGHBOR_ROUNDS, end = off[u + 1]; e < end; e++) uf.union(u, adj[e], 1);
+                for (int e = roff[u], end = roff[u + 1]; e < end; e++) uf.union(u, radj[e], 1);
+            }
+            work.addAndGet(scanned);
+            Counter.EDGES_SCANNED.add(edges);
+        });
+
+        int[] label = new int[n];
+        AtomicLong components = new AtomicLong();
+        Parallel.forRange(pool, 0, n, GRAIN, (lo, hi) -> {
+            long roots = 0;
+            for (int u = lo; u < hi; u++) {
+                label[u] = uf.find(u);
+                if (label[u] == u) roots++;
+            }
+            components.addAndGet(roots);
+        });
+        if (tw != null) tw.event(NEIGHBOR_ROUNDS + 1, FINISH, TraceWriter.NO_NODE, TraceWriter.NO_NODE, work.get(), components.get());
+
+        Counter.SWEEPS.add(NEIGHBOR_ROUNDS + 1);
+
+        int[] order = trackOrder ? groupByLabel(label) : null;
+        return new GraphResult(label, null, order, trackOrder ? n : 0, n, components.get());
+    }
+
+    /** Root that most of SAMPLES seeded random nodes belong to; hits[0] gets its count. */
+    private static int largestSet(ConcurrentUnionFind uf, int[] hits) {
+        int n = uf.size();
+        SplittableRandom rnd = new SplittableRandom(n);
+        int[] roots = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) roots[i] = uf.find(rnd.nextInt(n));
+        Arrays.sort(roots);
+        int best = roots[0], bestRun = 0;
+        for (int i = 0, j; i < SAMPLES; i = j) {
+            for (j = i; j < SAMPLES && roots[j] == roots[i]; j++) { }
+            if (j - i > bestRun) {
+                best = roots[i];
+                bestRun = j - i;
+            }
+        }
+        hits[0] = bestRun;
+        return best;
+    }
+
+    /** Current number of sets, for traces only. */
+    private static long sets(ConcurrentUnionFind uf) {
+        long roots = 0;
+        for (int u = 0; u < uf.size(); u++) if (uf.isRoot(u)) roots++;
+        return roots;
+    }
+
+    /** Counting sort of the nodes by label; within a component nodes keep id order. */
+    private static int[] groupByLabel(int[] label) {
+        int n = label.length;
+        int[] start = new int[n + 1];
+        for (int l : label) start[l + 1]++;
+        for (int i = 0; i < n; i++) start[i + 1] += start[i];
+        int[] order = new int[n];
+        for (int u = 0; u < n; u++) order[start[label[u]]++] = u;
+        return order;
+    }
+}
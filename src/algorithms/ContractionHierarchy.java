@@ -0,0 +1,516 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.DaryHeap;
+import utils.GraphFile;
+import utils.IntArrayList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Contraction Hierarchies: nodes are contracted one by one in order of importance, adding a shortcut u -> x
+ * wherever the only shortest u -> x path runs through the contracted node, and queries then search only
+ * upwards in that order from both ends.
+ * <p>
+ * The order comes from a lazily updated priority queue keyed by edge difference (shortcuts added minus arcs
+ * removed) plus the number of already contracted neighbours: a popped node is re-evaluated and put back if it
+ * is no longer the minimum. Witness searches are Dijkstra runs that skip the contracted node and stop once every
+ * out-neighbour is settled or WITNESS_SETTLE_LIMIT nodes are (PRIORITY_SETTLE_LIMIT when only estimating a
+ * priority); a witness they miss only costs a redundant shortcut. The result is two CSR graphs:
+ * up (u -> x with rank[x] &gt; rank[u]) and down (x -> u for every edge u -> x with rank[u] &gt; rank[x]),
+ * each arc carrying the node it shortcuts or -1, so queries can unpack full paths. {@link #save} and
+ * {@link #load} store that augmented graph next to the graph files.
+ */
+public final class ContractionHierarchy implements QueryEngine {
+
+    public static final int MAGIC = 0x52484843; // "CHHR" little-endian
+    public static final int VERSION = 1;
+
+    /** Nodes a witness search may settle before it gives up. */
+    public static final int WITNESS_SETTLE_LIMIT = 500;
+    /** The same limit while only estimating a node's priority; extra shortcuts there merely skew the order. */
+    public static final int PRIORITY_SETTLE_LIMIT = 50;
+
+    private static final int UNREACHED = GraphResult.UNREACHED;
+    private static final int HEADER_BYTES = GraphFile.HEADER_BYTES;
+
+    private final int n;
+    private final int[] rank;
+    private final CSRGraph up, down;
+    private final int[] upMid, downMid;
+    private final int shortcuts;
+    private final ThreadLocal<Search> searches;
+
+    private ContractionHierarchy(int[] rank, CSRGraph up, int[] upMid, CSRGraph down, int[] downMid, int shortcuts) {
+        this.n = rank.length;
+        this.rank = rank;
+        this.up = up;
+        this.upMid = upMid;
+        this.down = down;
+        this.downMid = downMid;
+        this.shortcuts = shortcuts;
+        this.searches = ThreadLocal.withInitial(() -> new Search(n));
+    }
+
+    /** @param graph weighted CSR graph with non-negative weights */
+    public static ContractionHierarchy build(CSRGraph graph) {
+        if (!graph.isWeighted()) throw new IllegalArgumentException("contraction needs a weighted graph");
+        return new Contraction(graph).run();
+    }
+
+    public int nodeCount() { return n; }
+
+    /** Arcs in the up and down graphs together: the original edges (parallel edges merged) plus shortcuts. */
+    public int arcCount() { return up.edgeCount() + down.edgeCount(); }
+
+    public int shortcutCount() { return shortcuts; }
+
+    /** Position of v in the contraction order, 0 for the first node contracted. */
+    public int rank(int v) { return rank[v]; }
+
+    /** Bytes held by the rank array and both arc graphs with their shortcut middles. */
+    public long indexBytes() {
+        long ints = n + 2L * (n + 1) + 3L * up.edgeCount() + 3L * down.edgeCount();
+        return 4 * ints;
+    }
+
+    @Override
+    public int distance(int source, int target) {
+        return searches.get().run(source, target);
+    }
+
+    @Override
+    public int[] path(int source, int target) {
+        Search s = searches.get();
+        if (s.run(source, target) == UNREACHED) return null;
+        return s.path(source, target);
+    }
+
+    @Override
+    public int lastSettled() { return searches.get().settled; }
+
+    // ---- queries ----
+
+    /** Per-thread query state: an upward search from the source and one from the target over down. */
+    private final class Search {
+        final SearchSide fwd, bwd;
+        int version;
+        int settled;
+        long scanned, relaxed, pushed;
+        int meet;
+
+        Search(int n) {
+            fwd = new SearchSide(n);
+            bwd = new SearchSide(n);
+        }
+
+        int run(int source, int target) {
+            int ver = version = SearchSide.nextVersion(version, fwd, bwd);
+            settled = 0;
+            scanned = relaxed = 0;
+            pushed = 2;
+            meet = -1;
+            fwd.reach(source, 0, -1, ver);
+            fwd.heap.insert(source, 0);
+            bwd.reach(target, 0, -1, ver);
+            bwd.heap.insert(target, 0);
+            long best = UNREACHED;
+            try {
+                // unlike plain bidirectional Dijkstra each side runs until its own minimum reaches best:
+                // the top node of the shortest path may be settled late by either side
+                while (true) {
+                    boolean fwdLive = !fwd.heap.isEmpty() && fwd.heap.key(fwd.heap.peekMin()) < best;
+                    boolean bwdLive = !bwd.heap.isEmpty() && bwd.heap.key(bwd.heap.peekMin()) < best;
+                    if (!fwdLive && !bwdLive) break;
+                    boolean forwardTurn = fwdLive && (!bwdLive || fwd.heap.size() <= bwd.heap.size());
+                    best = forwardTurn ? settle(up, fwd, bwd, best, ver) : settle(down, bwd, fwd, best, ver);
+                }
+            } finally {
+                fwd.heap.clear();
+                bwd.heap.clear();
+                Counter.EDGES_SCANNED.add(scanned);
+                Counter.RELAXATIONS.add(relaxed);
+                Counter.QUEUE_PUSHES.add(pushed);
+                Counter.QUEUE_POPS.add(settled);
+            }
+            return (int) best;
+        }
+
+        /** Settle the top of side's heap, meet the other side there if it got that far, relax upward arcs. */
+        private long settle(CSRGraph g, SearchSide side, SearchSide other, long best, int ver) {
+            int[] off = g.offsets();
+            int[] adj = g.targets();
+            int[] wt = g.weights();
+            int u = side.heap.pollMin();
+            settled++;
+            int du = side.dist[u];
+            int ou = other.dist(u, ver);
+            if (ou != UNREACHED && (long) du + ou < best) {
+                best = (long) du + ou;
+                meet = u;
+            }
+            scanned += off[u + 1] - off[u];
+            for (int i = off[u], end = off[u + 1]; i < end; i++) {
+                int v = adj[i];
+                int nd = du + wt[i];
+                int cur = side.dist(v, ver);
+                if (nd < cur) {
+                    if (cur == UNREACHED) pushed++;
+                    relaxed++;
+                    side.reach(v, nd, u, ver);
+                    side.heap.insertOrDecrease(v, nd);
+                }
+            }
+            return best;
+        }
+
+        /** Unpacked path of the last successful run: source ~> meet up the forward tree, meet ~> target down. */
+        int[] path(int source, int target) {
+            IntArrayList hops = new IntArrayList();
+            for (int v = meet; v >= 0; v = fwd.parent[v]) hops.add(v);
+            int[] h = hops.array();
+            for (int a = 0, b = hops.size() - 1; a < b; a++, b--) {
+                int t = h[a];
+                h[a] = h[b];
+                h[b] = t;
+            }
+            for (int v = bwd.parent[meet]; v >= 0; v = bwd.parent[v]) hops.add(v);
+
+            IntArrayList out = new IntArrayList(hops.size() * 2);
+            IntArrayList stack = new IntArrayList();
+            out.add(hops.get(0));
+            for (int i = 1; i < hops.size(); i++) unpack(hops.get(i - 1), hops.get(i), stack, out);
+            return out.toArray();
+        }
+    }
+
+    /** Append the original nodes after a on the arc a -> b (a shortcut or an edge), ending with b. */
+    private void unpack(int a, int b, IntArrayList stack, IntArrayList out) {
+        stack.add(a);
+        stack.add(b);
+        while (!stack.isEmpty()) {
+            int y = stack.pop(), x = stack.pop();
+            int mid = rank[x] < rank[y] ? middle(up, upMid, x, y) : middle(down, downMid, y, x);
+            if (mid < 0) {
+                out.add(y);
+            } else {
+                // x -> mid first: pushed last
+                stack.add(mid);
+                stack.add(y);
+                stack.add(x);
+                stack.add(mid);
+            }
+        }
+    }
+
+    private static int middle(CSRGraph g, int[] mids, int from, int to) {
+        int[] off = g.offsets();
+        int[] adj = g.targets();
+        for (int i = off[from], end = off[from + 1]; i < end; i++) if (adj[i] == to) return mids[i];
+        throw new IllegalStateException("no arc " + from + " -> " + to);
+    }
+
+    // ---- preprocessing ----
+
+    /** Arcs of one node to not yet contracted neighbours, at most one per neighbour (the lightest). */
+    private static final class Arcs {
+        int[] node = new int[4], weight = new int[4], mid = new int[4];
+        int size;
+
+        int indexOf(int v) {
+            for (int i = 0; i < size; i++) if (node[i] == v) return i;
+            return -1;
+        }
+
+        /** Add v at weight w via m, or lower an existing arc to v; false if the existing arc is no heavier. */
+        boolean addOrLower(int v, int w, int m) {
+            int i = indexOf(v);
+            if (i >= 0) {
+                if (weight[i] <= w) return false;
+                weight[i] = w;
+                mid[i] = m;
+                return true;
+            }
+            if (size == node.length) {
+                node = Arrays.copyOf(node, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+                mid = Arrays.copyOf(mid, size * 2);
+            }
+            node[size] = v;
+            weight[size] = w;
+            mid[size++] = m;
+            return true;
+        }
+
+        void remove(int v) {
+            int i = indexOf(v);
+            if (i < 0) return;
+            size--;
+            node[i] = node[size];
+            weight[i] = weight[size];
+            mid[i] = mid[size];
+        }
+    }
+
+    /** One preprocessing run; the remaining graph shrinks as nodes are contracted. */
+    private static final class Contraction {
+        final int n;
+        final Arcs[] out, in;
+        final int[] contractedNeighbours;
+        final SearchSide witness;
+        final int[] targetStamp; // == version for out-neighbours the current witness search has not settled yet
+        final IntArrayList pending = new IntArrayList(); // (u, x, weight) shortcuts of the node being contracted
+        int version;
+        int shortcuts;
+
+        Contraction(CSRGraph g) {
+            n = g.nodeCount();
+            out = new Arcs[n];
+            in = new Arcs[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new Arcs();
+                in[v] = new Arcs();
+            }
+            int[] off = g.offsets(), adj = g.targets(), wt = g.weights();
+            for (int u = 0; u < n; u++) {
+                for (int i = off[u]; i < off[u + 1]; i++) {
+                    int v = adj[i];
+                    if (v == u) continue;
+                    if (out[u].addOrLower(v, wt[i], -1)) in[v].addOrLower(u, wt[i], -1);
+                }
+            }
+            contractedNeighbours = new int[n];
+            witness = new SearchSide(n);
+            targetStamp = new int[n];
+        }
+
+        ContractionHierarchy run() {
+            DaryHeap queue = new DaryHeap(n, 4);
+            for (int v = 0; v < n; v++) queue.insert(v, priority(v));
+            int[] rank = new int[n];
+            int next = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.pollMin();
+                int p = priority(v);
+                if (!queue.isEmpty() && p > queue.key(queue.peekMin())) {
+                    queue.insert(v, p);
+                    continue;
+                }
+                contract(v);
+                rank[v] = next++;
+            }
+
+            // each node keeps exactly the arcs it had to higher-ranked neighbours when it was contracted
+            int[] upMid = new int[countArcs(out)], downMid = new int[countArcs(in)];
+            CSRGraph up = pack(out, upMid), down = pack(in, downMid);
+            return new ContractionHierarchy(rank, up, upMid, down, downMid, shortcuts);
+        }
+
+        int priority(int v) {
+            int added = witnessSearches(v, false);
+            return added - out[v].size - in[v].size + contractedNeighbours[v];
+        }
+
+        void contract(int v) {
+            witnessSearches(v, true);
+            Arcs o = out[v], i = in[v];
+            for (int k = 0; k < o.size; k++) {
+                in[o.node[k]].remove(v);
+                contractedNeighbours[o.node[k]]++;
+            }
+            for (int k = 0; k < i.size; k++) {
+                out[i.node[k]].remove(v);
+                contractedNeighbours[i.node[k]]++;
+            }
+            int[] p = pending.array();
+            for (int k = 0; k < pending.size(); k += 3) {
+                if (out[p[k]].addOrLower(p[k + 1], p[k + 2], v)) {
+                    in[p[k + 1]].addOrLower(p[k], p[k + 2], v);
+                    shortcuts++;
+                }
+            }
+            pending.clear();
+        }
+
+        /**
+         * Shortcuts needed to contract v: for each in-neighbour u a bounded Dijkstra from u that avoids v, and
+         * a shortcut u -> x for each out-neighbour x it cannot reach within w(u, v) + w(v, x). With record
+         * the shortcuts are queued in pending for {@link #contract}.
+         */
+        int witnessSearches(int v, boolean record) {
+            Arcs o = out[v], i = in[v];
+            int count = 0;
+            for (int a = 0; a < i.size; a++) {
+                int u = i.node[a];
+                long wu = i.weight[a];
+                long limit = -1;
+                for (int b = 0; b < o.size; b++) if (o.node[b] != u) limit = Math.max(limit, wu + o.weight[b]);
+                if (limit < 0) continue; // u is v's only neighbour
+                int ver = version = SearchSide.nextVersion(version, witness);
+                if (ver == 1) Arrays.fill(targetStamp, 0);
+                int targets = 0;
+                for (int b = 0; b < o.size; b++) {
+                    if (o.node[b] != u) {
+                        targetStamp[o.node[b]] = ver;
+                        targets++;
+                    }
+                }
+                boundedSearch(u, v, limit, targets, record ? WITNESS_SETTLE_LIMIT : PRIORITY_SETTLE_LIMIT, ver);
+                for (int b = 0; b < o.size; b++) {
+                    int x = o.node[b];
+                    if (x == u) continue;
+                    long via = wu + o.weight[b];
+                    if (witness.dist(x, ver) > via) {
+                        count++;
+                        if (record) {
+                            pending.add(u);
+                            pending.add(x);
+                            pending.add((int) via);
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /** Dijkstra from s over the remaining graph without skip, until targets are settled or a limit is hit. */
+        void boundedSearch(int s, int skip, long limit, int targets, int maxSettled, int ver) {
+            DaryHeap heap = witness.heap;
+            witness.reach(s, 0, -1, ver);
+            heap.insert(s, 0);
+            int settled = 0;
+            try {
+                while (!heap.isEmpty() && settled < maxSettled && targets > 0) {
+                    int u = heap.pollMin();
+                    int du = witness.dist[u];
+                    if (du > limit) break;
+                    settled++;
+                    if (targetStamp[u] == ver) {
+                        targetStamp[u] = 0;
+                        targets--;
+                    }
+                    Arcs a = out[u];
+                    for (int k = 0; k < a.size; k++) {
+                        int x = a.node[k];
+                        if (x == skip) continue;
+                        long nd = (long) du + a.weight[k];
+                        if (nd <= limit && nd < witness.dist(x, ver)) {
+                            witness.reach(x, (int) nd, u, ver);
+                            heap.insertOrDecrease(x, (int) nd);
+                        }
+                    }
+                }
+            } finally {
+                heap.clear();
+            }
+        }
+
+        static int countArcs(Arcs[] rows) {
+            int m = 0;
+            for (Arcs a : rows) m += a.size;
+            return m;
+        }
+
+        static CSRGraph pack(Arcs[] rows, int[] mids) {
+            int n = rows.length;
+            int[] off = new int[n + 1];
+            for (int v = 0; v < n; v++) off[v + 1] = off[v] + rows[v].size;
+            int[] adj = new int[off[n]], wt = new int[off[n]];
+            for (int v = 0; v < n; v++) {
+                Arcs a = rows[v];
+                System.arraycopy(a.node, 0, adj, off[v], a.size);
+                System.arraycopy(a.weight, 0, wt, off[v], a.size);
+                System.arraycopy(a.mid, 0, mids, off[v], a.size);
+            }
+            return new CSRGraph(off, adj, wt);
+        }
+    }
+
+    // ---- file format ----
+
+    /**
+     * Write the hierarchy to path (replacing it) via a temporary file, in the {@link GraphFile} style: a
+     * HEADER_BYTES header (int MAGIC, int VERSION, int 0, int shortcuts, long n, long up arcs, long down arcs,
+     * long CRC32C of the body), then rank, up offsets/targets/weights/middles and the same for down.
+     */
+    public void save(Path path) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ch.position(HEADER_BYTES);
+                CRC32C crc = new CRC32C();
+                ByteBuffer buf = ByteBuffer.allocateDirect(1 << 18).order(ByteOrder.LITTLE_ENDIAN);
+                for (int[] a : sections()) GraphFile.writeInts(ch, buf, crc, a);
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(0).putInt(shortcuts)
+                        .putLong(n).putLong(up.edgeCount()).putLong(down.edgeCount()).putLong(crc.getValue());
+                header.clear();
+                while (header.hasRemaining()) ch.write(header, header.position());
+                ch.force(false);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private int[][] sections() {
+        return new int[][]{rank, up.offsets(), up.targets(), up.weights(), upMid,
+                down.offsets(), down.targets(), down.weights(), downMid};
+    }
+
+    /** Read a file written by {@link #save}, checking its header, size and checksum. */
+    public static ContractionHierarchy load(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES) throw new IOException(path + " is not a hierarchy file");
+            ByteBuffer h = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (h.getInt(0) != MAGIC) throw new IOException(path + " is not a hierarchy file");
+            int version = h.getInt(4);
+            if (version != VERSION) throw new IOException(path + ": unsupported hierarchy file version " + version);
+            long n = h.getLong(16), mu = h.getLong(24), md = h.getLong(32);
+            long body = 4 * (n + 2 * (n + 1) + 3 * mu + 3 * md);
+            if (n < 0 || mu < 0 || md < 0 || n >= Integer.MAX_VALUE || mu > Integer.MAX_VALUE
+                    || md > Integer.MAX_VALUE || size != HEADER_BYTES + body)
+                throw new IOException(path + ": size " + size + " does not match n=" + n + ", arcs=" + mu + "+" + md);
+
+            ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(body, 1 << 18)).order(ByteOrder.LITTLE_ENDIAN);
+            CRC32C crc = new CRC32C();
+            ch.position(HEADER_BYTES);
+            int[] rank = readInts(ch, bytes, crc, n);
+            int[] upOff = readInts(ch, bytes, crc, n + 1), upAdj = readInts(ch, bytes, crc, mu),
+                    upWt = readInts(ch, bytes, crc, mu), upMid = readInts(ch, bytes, crc, mu);
+            int[] downOff = readInts(ch, bytes, crc, n + 1), downAdj = readInts(ch, bytes, crc, md),
+                    downWt = readInts(ch, bytes, crc, md), downMid = readInts(ch, bytes, crc, md);
+            if (crc.getValue() != h.getLong(40)) throw new IOException(path + ": checksum mismatch");
+            return new ContractionHierarchy(rank, new CSRGraph(upOff, upAdj, upWt), upMid,
+                    new CSRGraph(downOff, downAdj, downWt), downMid, h.getInt(12));
+        }
+    }
+
+    private static int[] readInts(FileChannel ch, ByteBuffer buf, CRC32C crc, long count) throws IOException {
+        int[] a = new int[(int) count];
+        int chunk = buf.capacity() / 4;
+        for (int i = 0; i < a.length; i += chunk) {
+            int len = Math.min(chunk, a.length - i);
+            buf.clear().limit(4 * len);
+            while (buf.hasRemaining()) if (ch.read(buf) < 0) throw new IOException("unexpected end of file");
+            buf.flip();
+            crc.update(buf.duplicate());
+            IntBuffer ints = buf.asIntBuffer();
+            ints.get(a, i, len);
+        }
+        return a;
+    }
+}
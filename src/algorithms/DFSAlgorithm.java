@@ -1,12 +1,18 @@
 package algorithms;
 
-import utils.CSVUtils;
+import utils.CSRGraph;
+import utils.Counter;
+import utils.TraceLayout;
+import utils.TraceWriter;
 
-import java.io.FileWriter;
 import java.util.*;
 
 public class DFSAlgorithm implements UnweightedGraphAlgorithm {
 
+    private static final int PUSH_START = TraceLayout.DFS.action("PushStart");
+    private static final int VISIT = TraceLayout.DFS.action("Visit");
+    private static final int PUSH = TraceLayout.DFS.action("Push");
+
     @Override
     public String name() { return "DFS"; }
 
@@ -16,41 +22,84 @@ public class DFSAlgorithm implements UnweightedGraphAlgorithm {
         Set<Integer> visited = new HashSet<>();
         Deque<Integer> stack = new ArrayDeque<>();
 
-        FileWriter fw = null;
+        TraceWriter tw = null;
         try {
-            if (verbose && verbosePath != null) {
-                fw = new FileWriter(verbosePath);
-                fw.append("Step,Action,Node,StackState,VisitedSet\n");
-            }
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.DFS);
 
             stack.push(start);
             int step = 0;
-            if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "PushStart", String.valueOf(start),
-                    stack.toString(), visited.toString());
+            if (tw != null) tw.event(step++, PUSH_START, start);
 
+            int skipped = 0; // pops of already-visited nodes since the last Visit, for replaying the stack
             while (!stack.isEmpty()) {
                 int u = stack.pop();
                 if (!visited.contains(u)) {
                     visited.add(u);
                     visitOrder.add(u);
-                    if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "Visit", String.valueOf(u),
-                            stack.toString(), visited.toString());
+                    if (tw != null) tw.event(step++, VISIT, u, TraceWriter.NO_NODE, skipped);
+                    skipped = 0;
                     // push neighbors in reverse to mimic recursive order
-                    List<Integer> nbrs = new ArrayList<>(graph.getOrDefault(u, Collections.emptyList()));
-                    Collections.reverse(nbrs);
-                    for (int v : nbrs) {
+                    List<Integer> nbrs = graph.getOrDefault(u, Collections.emptyList());
+                    for (int i = nbrs.size() - 1; i >= 0; i--) {
+                        int v = nbrs.get(i);
                         if (!visited.contains(v)) {
                             stack.push(v);
-                            if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "Push", String.valueOf(v),
-                                    stack.toString(), visited.toString());
+                            if (tw != null) tw.event(step++, PUSH, v);
                         }
                     }
+                } else {
+                    skipped++;
                 }
             }
         } catch (Exception e) {
         } finally {
-            CSVUtils.closeQuietly(fw);
+            TraceWriter.closeQuietly(tw);
         }
         return visitOrder;
     }
+
+    @Override
+    public GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder) {
+        int n = graph.nodeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int[] depth = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(depth, GraphResult.UNREACHED);
+        Arrays.fill(parent, -1);
+        int[] order = trackOrder ? new int[n] : null;
+
+        // explicit (vertex, next edge) stack: same preorder as the recursive DFS, O(n) stack
+        int[] stack = new int[n];
+        int[] nextEdge = new int[n];
+        int sp = 0, visited = 0;
+        long scanned = 0;
+        stack[sp++] = start;
+        depth[start] = 0;
+        nextEdge[start] = off[start];
+        if (order != null) order[visited] = start;
+        visited++;
+
+        while (sp > 0) {
+            int u = stack[sp - 1];
+            if (nextEdge[u] == off[u + 1]) {
+                sp--;
+                continue;
+            }
+            int v = adj[nextEdge[u]++];
+            scanned++;
+            if (depth[v] == GraphResult.UNREACHED) {
+                depth[v] = depth[u] + 1;
+                parent[v] = u;
+                nextEdge[v] = off[v];
+                stack[sp++] = v;
+                if (order != null) order[visited] = v;
+                visited++;
+            }
+        }
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.QUEUE_PUSHES.add(visited);
+        Counter.QUEUE_POPS.add(visited);
+        return new GraphResult(depth, parent, order, trackOrder ? visited : 0, visited, 0);
+    }
 }
@@ -0,0 +1,240 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.IntArrayList;
+import utils.Parallel;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Delta-stepping single-source shortest paths (Meyer and Sanders) on a fork-join pool.
+ * <p>
+ * Tentative distances live in buckets of width delta. The lowest non-empty bucket is drained in
+ * phases that relax light edges (weight <= delta) of its nodes in parallel until it stays empty,
+ * then the heavy edges of every node settled in it are relaxed once. Each relaxation is an atomic
+ * min on a packed (distance, parent) long, so distances equal {@link Dijkstra}'s and the parent is
+ * the smallest-id predecessor on a shortest path, whatever the thread interleaving.
+ * Weights must be non-negative.
+ */
+public class DeltaStepping implements WeightedGraphAlgorithm, ParallelAlgorithm {
+
+    private static final int GRAIN = 256;         // frontier nodes per relaxation task
+    private static final int SEQUENTIAL_NODES = 512;
+    private static final long NONE = Long.MAX_VALUE;
+    private static final int LIGHT = TraceLayout.DELTA_STEPPING.action("Light");
+    private static final int HEAVY = TraceLayout.DELTA_STEPPING.action("Heavy");
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int threads;
+    private final int delta; // <= 0: pick per graph, see deltaFor
+    private final ForkJoinPool pool;
+
+    public DeltaStepping() { this(Runtime.getRuntime().availableProcessors()); }
+
+    public DeltaStepping(int threads) { this(threads, 0); }
+
+    /** @param delta bucket width; 0 picks maxWeight / average degree for each graph */
+    public DeltaStepping(int threads, int delta) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        if (delta < 0) throw new IllegalArgumentException("delta must be >= 0");
+        this.threads = threads;
+        this.delta = delta;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    @Override
+    public String name() {
+        return "DeltaStepping" + (delta > 0 ? "_d" + delta : "") + "_t" + threads;
+    }
+
+    @Override
+    public int threads() { return threads; }
+
+    /** Bucket width used on graph: the configured delta, or maxWeight / average degree (at least 1). */
+    public int deltaFor(CSRGraph graph) {
+        if (delta > 0) return delta;
+        long m = Math.max(1, graph.edgeCount());
+        return (int) Math.max(1, (long) graph.maxWeight() * graph.nodeCount() / m);
+    }
+
+    @Override
+    public List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath) {
+        TraceWriter tw = null;
+        GraphResult r = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.DELTA_STEPPING);
+            r = run(CSRGraph.fromWeighted(graph), start, true, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        List<Integer> order = new ArrayList<>();
+        if (r != null) for (int i = 0; i < r.orderSize(); i++) order.add(r.order()[i]);
+        return order;
+    }
+
+    /** {@inheritDoc} value() is the number of relaxation phases. */
+    @Override
+    public GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder) {
+        return run(graph, start, trackOrder, null);
+    }
+
+    private GraphResult run(CSRGraph graph, int start, boolean trackOrder, TraceWriter tw) {
+        return new Search(graph, deltaFor(graph)).run(start, trackOrder, tw);
+    }
+
+    /** Per-run state. Buckets are a ring of maxWeight / delta + 2 lists, enough to hold every tentative distance. */
+    private final class Search {
+        final int n, delta;
+        final boolean heavyEdges;
+        final int[] off, adj, wt;
+        final long[] best;        // (dist << 32) | parent, NONE when unreached
+        final int[] relaxedAt;    // distance at which a node last relaxed its light edges
+        final int[] settledIn;    // last bucket a node was settled in
+        final IntArrayList[] ring;
+        int pending;              // entries across all ring slots, stale ones included
+        long pushes, pops, stale, relaxed;
+
+        Search(CSRGraph graph, int delta) {
+            this.delta = delta;
+            n = graph.nodeCount();
+            off = graph.offsets();
+            adj = graph.targets();
+            wt = graph.weights();
+            best = new long[n];
+            relaxedAt = new int[n];
+            settledIn = new int[n];
+            Arrays.fill(best, NONE);
+            Arrays.fill(relaxedAt, -1);
+            Arrays.fill(settledIn, -1);
+            heavyEdges = graph.maxWeight() > delta;
+            ring = new IntArrayList[graph.maxWeight() / delta + 2];
+            for (int i = 0; i < ring.length; i++) ring[i] = new IntArrayList();
+        }
+
+        GraphResult run(int start, boolean trackOrder, TraceWriter tw) {
+            best[start] = 0xFFFFFFFFL; // dist 0, parent -1
+            push(start);
+            IntArrayList order = new IntArrayList();
+            IntArrayList frontier = new IntArrayList();
+            IntArrayList settled = new IntArrayList();
+            int phases = 0;
+
+            for (int bucket = 0; pending > 0; bucket++) {
+                IntArrayList slot = ring[bucket % ring.length];
+                if (slot.size() == 0) continue;
+                settled.clear();
+                while (slot.size() > 0) {
+                    // current members whose light edges have not been relaxed at their present distance
+                    frontier.clear();
+                    for (int i = 0; i < slot.size(); i++) {
+                        int v = slot.get(i);
+                        int d = dist(v);
+                        if (d / delta != bucket || relaxedAt[v] == d) {
+                            stale++;
+                            continue;
+                        }
+                        relaxedAt[v] = d;
+                        frontier.add(v);
+                        if (settledIn[v] != bucket) {
+                            settledIn[v] = bucket;
+                            settled.add(v);
+                        }
+                    }
+                    pending -= slot.size();
+                    pops += slot.size();
+                    slot.clear();
+                    if (frontier.size() == 0) break;
+                    int improved = relax(frontier, true);
+                    phases++;
+                    if (tw != null) tw.event(phases, LIGHT, TraceWriter.NO_NODE, TraceWriter.NO_NODE,
+                            bucket, frontier.size(), improved);
+                }
+                if (heavyEdges && settled.size() > 0) {
+                    int improved = relax(settled, false);
+                    phases++;
+                    if (tw != null) tw.event(phases, HEAVY, TraceWriter.NO_NODE, TraceWriter.NO_NODE,
+                            bucket, settled.size(), improved);
+                }
+                if (trackOrder) for (int i = 0; i < settled.size(); i++) order.add(settled.get(i));
+            }
+
+            Counter.RELAXATIONS.add(relaxed);
+            Counter.QUEUE_PUSHES.add(pushes);
+            Counter.QUEUE_POPS.add(pops);
+            Counter.STALE_POPS.add(stale);
+            Counter.SWEEPS.add(phases);
+
+            int[] dist = new int[n];
+            int[] parent = new int[n];
+            int reached = 0;
+            for (int v = 0; v < n; v++) {
+                if (best[v] == NONE) {
+                    dist[v] = GraphResult.UNREACHED;
+                    parent[v] = -1;
+                } else {
+                    dist[v] = (int) (best[v] >>> 32);
+                    parent[v] = (int) best[v];
+                    reached++;
+                }
+            }
+            return new GraphResult(dist, parent, trackOrder ? order.array() : null, trackOrder ? order.size() : 0,
+                    reached, phases);
+        }
+
+        /** Relax the light or heavy out-edges of nodes; improved targets go to their buckets. @return improvements */
+        int relax(IntArrayList nodes, boolean light) {
+            int size = nodes.size();
+            int[] src = nodes.array();
+            int chunks = size < SEQUENTIAL_NODES ? 1 : Math.min((size + GRAIN - 1) / GRAIN, threads * 4);
+            IntArrayList[] out = new IntArrayList[chunks];
+            Parallel.forEach(pool, chunks, k -> {
+                IntArrayList improved = new IntArrayList();
+                long scanned = 0;
+                for (int i = (int) ((long) size * k / chunks), end = (int) ((long) size * (k + 1) / chunks); i < end; i++) {
+                    int u = src[i];
+                    long du = best[u] >>> 32;
+                    scanned += off[u + 1] - off[u];
+                    for (int e = off[u], ee = off[u + 1]; e < ee; e++) {
+                        int w = wt[e];
+                        if ((w <= delta) != light) continue;
+                        if (lowerTo(adj[e], ((du + w) << 32) | u)) improved.add(adj[e]);
+                    }
+                }
+                out[k] = improved;
+                Counter.EDGES_SCANNED.add(scanned); // counted by the worker that scanned them
+            });
+            // bucket by the final distance of this phase; duplicates and stale entries are dropped on drain
+            int count = 0;
+            for (IntArrayList improved : out) {
+                for (int i = 0; i < improved.size(); i++) push(improved.get(i));
+                count += improved.size();
+            }
+            relaxed += count;
+            return count;
+        }
+
+        boolean lowerTo(int v, long key) {
+            long cur;
+            while (key < (cur = (long) LONGS.getVolatile(best, v))) {
+                if (LONGS.compareAndSet(best, v, cur, key)) return true;
+            }
+            return false;
+        }
+
+        void push(int v) {
+            ring[(dist(v) / delta) % ring.length].add(v);
+            pending++;
+            pushes++;
+        }
+
+        int dist(int v) { return (int) (best[v] >>> 32); }
+    }
+}
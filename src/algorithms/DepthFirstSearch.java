@@ -0,0 +1,176 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.util.Arrays;
+
+/**
+ * Reusable iterative depth-first search over a {@link CSRGraph}, the core of the DFS-based algorithms.
+ * <p>
+ * The stack holds (node, next edge index) pairs, one per node on the current path, so it never grows past n
+ * and no search recurses or allocates per visit, whatever the depth. Callers plug in a {@link Visitor} for
+ * discovery, non-tree edges and finish, which is all that low-link style algorithms need. Nodes stay
+ * discovered across searches until {@link #reset()}, so repeated {@link #search} calls grow a DFS forest;
+ * reset is one version increment rather than clearing the arrays. Not thread-safe.
+ */
+public final class DepthFirstSearch {
+
+    /** Hooks of one search; every default does nothing. */
+    public interface Visitor {
+        /** u is reached for the first time, over a tree edge from parent (-1 for a root). */
+        default void discover(int u, int parent) {}
+
+        /** Edge u -> v, at index e of the graph, leads to an already discovered node: back, forward or cross. */
+        default void nonTreeEdge(int u, int v, int e) {}
+
+        /** All of u's out-edges are done; parent as in discover. */
+        default void finish(int u, int parent) {}
+    }
+
+    private final int[] stack, nextEdge, pre, parent, seen, done;
+    private int version = 1;
+    private int discovered;
+    private boolean stopped;
+
+    /** @param n node capacity: graphs searched must have at most n nodes */
+    public DepthFirstSearch(int n) {
+        stack = new int[n];
+        nextEdge = new int[n];
+        pre = new int[n];
+        parent = new int[n];
+        seen = new int[n];
+        done = new int[n];
+    }
+
+    /** Forget every discovered node; preorder numbers start again at 0. */
+    public void reset() {
+        if (++version == 0) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(done, 0);
+            version = 1;
+        }
+        discovered = 0;
+        stopped = false;
+    }
+
+    /**
+     * Search from root unless it is already discovered.
+     * @return nodes this call discovered
+     */
+    public int search(CSRGraph graph, int root, Visitor visitor) {
+        if (graph.nodeCount() > seen.length) throw new IllegalArgumentException("graph larger than the search capacity");
+        if (seen[root] == version || stopped) return 0;
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int before = discovered;
+        int sp = 0;
+        long scanned = 0;
+        enter(root, -1, off);
+        stack[sp++] = root;
+        visitor.discover(root, -1);
+
+        while (sp > 0 && !stopped) {
+            int u = stack[sp - 1];
+            int e = nextEdge[u];
+            if (e == off[u + 1]) {
+                sp--;
+                done[u] = version;
+                visitor.finish(u, parent[u]);
+                continue;
+            }
+            nextEdge[u] = e + 1;
+            scanned++;
+            int v = adj[e];
+            if (seen[v] != version) {
+                enter(v, u, off);
+                stack[sp++] = v;
+                visitor.discover(v, u);
+            } else {
+                visitor.nonTreeEdge(u, v, e);
+            }
+        }
+        // a node is pushed when discovered; a stopped search leaves the rest of its path unpopped
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.QUEUE_PUSHES.add(discovered - before);
+        Counter.QUEUE_POPS.add(discovered - before - sp);
+        return discovered - before;
+    }
+
+    /**
+     * Search from first, then from every node still undiscovered in id order, so the forest covers the graph.
+     * @return nodes discovered
+     */
+    public int searchAll(CSRGraph graph, int first, Visitor visitor) {
+        int found = search(graph, first, visitor);
+        for (int u = 0, n = graph.nodeCount(); u < n && !stopped; u++) found += search(graph, u, visitor);
+        return found;
+    }
+
+    private void enter(int u, int p, int[] off) {
+        seen[u] = version;
+        pre[u] = discovered++;
+        parent[u] = p;
+        nextEdge[u] = off[u];
+    }
+
+    /** Abandon the search in progress after the current hook; later searches return at once until reset. */
+    public void stop() { stopped = true; }
+
+    public boolean stopped() { return stopped; }
+
+    public boolean isDiscovered(int u) { return seen[u] == version; }
+
+    /** Discovered but not yet finished, i.e. on the current DFS path. */
+    public boolean isActive(int u) { return seen[u] == version && done[u] != version; }
+
+    /** Discovery index of a discovered node, counted across searches since the last reset. */
+    public int preorder(int u) { return pre[u]; }
+
+    /** Tree parent of a discovered node, -1 for a root. */
+    public int parent(int u) { return parent[u]; }
+
+    /** Nodes discovered since the last reset. */
+    public int discoveredCount() { return discovered; }
+
+    /**
+     * Visitor that records Discover and Finish events in the {@link TraceLayout#DEPTH_FIRST} layout before
+     * passing them on; the algorithms add their result events through {@link #event} with the same step count.
+     */
+    static final class Traced implements Visitor {
+        private static final int DISCOVER = TraceLayout.DEPTH_FIRST.action("Discover");
+        private static final int FINISH = TraceLayout.DEPTH_FIRST.action("Finish");
+
+        private final DepthFirstSearch dfs;
+        private final Visitor inner;
+        private final TraceWriter tw;
+        private int step;
+
+        Traced(DepthFirstSearch dfs, Visitor inner, TraceWriter tw) {
+            this.dfs = dfs;
+            this.inner = inner;
+            this.tw = tw;
+        }
+
+        @Override
+        public void discover(int u, int parent) {
+            tw.event(step++, DISCOVER, u, parent < 0 ? TraceWriter.NO_NODE : parent, dfs.preorder(u));
+            inner.discover(u, parent);
+        }
+
+        @Override
+        public void nonTreeEdge(int u, int v, int e) { inner.nonTreeEdge(u, v, e); }
+
+        @Override
+        public void finish(int u, int parent) {
+            tw.event(step++, FINISH, u, parent < 0 ? TraceWriter.NO_NODE : parent);
+            inner.finish(u, parent);
+        }
+
+        void event(String action, int node, int neighbor, long value) {
+            tw.event(step++, TraceLayout.DEPTH_FIRST.action(action), node, neighbor, value);
+        }
+    }
+}
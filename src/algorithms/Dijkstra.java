@@ -1,62 +1,120 @@
 package algorithms;
 
-import utils.CSVUtils;
+import utils.CSRGraph;
+import utils.Counter;
+import utils.IntPriorityQueue;
+import utils.PriorityQueueType;
+import utils.TraceLayout;
+import utils.TraceWriter;
 
-import java.io.FileWriter;
 import java.util.*;
 
-public class Dijkstra implements WeightedGraphAlgorithm {
+public class Dijkstra implements WeightedGraphAlgorithm, PriorityQueueAlgorithm {
+
+    private static final int SETTLE = TraceLayout.DIJKSTRA.action("Settle");
+    private static final int RELAX = TraceLayout.DIJKSTRA.action("Relax");
+
+    private final PriorityQueueType queueType;
+
+    public Dijkstra() { this(PriorityQueueType.BINARY_HEAP); }
+
+    public Dijkstra(PriorityQueueType queueType) { this.queueType = queueType; }
 
     @Override
-    public String name() { return "Dijkstra"; }
+    public String name() {
+        return queueType == PriorityQueueType.BINARY_HEAP ? "Dijkstra" : "Dijkstra_" + queueType.label();
+    }
+
+    @Override
+    public PriorityQueueType queueType() { return queueType; }
 
     @Override
     public List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath) {
         int n = graph.size();
+        int maxWeight = 0;
         Map<Integer, Integer> dist = new HashMap<>();
-        for (Integer node : graph.keySet()) dist.put(node, Integer.MAX_VALUE);
+        for (Map.Entry<Integer, Map<Integer, Integer>> row : graph.entrySet()) {
+            dist.put(row.getKey(), Integer.MAX_VALUE);
+            for (int w : row.getValue().values()) maxWeight = Math.max(maxWeight, w);
+        }
         dist.put(start, 0);
 
-        PriorityQueue<int[]> pq = new PriorityQueue<>(Comparator.comparingInt(a -> a[1]));
-        pq.offer(new int[]{start, 0});
+        // indexed queue with decrease-key: one entry per node, no settled set needed
+        IntPriorityQueue pq = queueType.create(n, maxWeight);
+        pq.insert(start, 0);
 
-        Set<Integer> settled = new HashSet<>();
         List<Integer> order = new ArrayList<>();
 
-        FileWriter fw = null;
+        TraceWriter tw = null;
         try {
-            if (verbose && verbosePath != null) {
-                fw = new FileWriter(verbosePath);
-                fw.append("Step,Action,Node,Neighbor,OldDist,NewDist,QueueSize\n");
-            }
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.DIJKSTRA);
             int step = 0;
 
             while (!pq.isEmpty()) {
-                int[] cur = pq.poll();
-                int u = cur[0];
-                if (settled.contains(u)) continue;
-                settled.add(u);
+                int u = pq.pollMin();
                 order.add(u);
-                if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "Settle", String.valueOf(u),
-                        "", "", "", String.valueOf(pq.size()));
+                if (tw != null) tw.event(step++, SETTLE, u, TraceWriter.NO_NODE, TraceWriter.NONE, TraceWriter.NONE, pq.size());
 
+                int du = dist.get(u);
                 for (Map.Entry<Integer, Integer> e : graph.getOrDefault(u, Collections.emptyMap()).entrySet()) {
                     int v = e.getKey();
                     int w = e.getValue();
-                    if (dist.get(u) != Integer.MAX_VALUE && dist.get(u) + w < dist.get(v)) {
+                    if (du + w < dist.get(v)) {
                         int old = dist.get(v);
-                        int nd = dist.get(u) + w;
+                        int nd = du + w;
                         dist.put(v, nd);
-                        pq.offer(new int[]{v, nd});
-                        if (fw != null) CSVUtils.writeRow(fw, String.valueOf(step++), "Relax", String.valueOf(u),
-                                String.valueOf(v), String.valueOf(old), String.valueOf(nd), String.valueOf(pq.size()));
+                        pq.insertOrDecrease(v, nd);
+                        if (tw != null) tw.event(step++, RELAX, u, v, old, nd, pq.size());
                     }
                 }
             }
         } catch (Exception e) {
         } finally {
-            CSVUtils.closeQuietly(fw);
+            TraceWriter.closeQuietly(tw);
         }
         return order;
     }
+
+    @Override
+    public GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder) {
+        int n = graph.nodeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int[] wt = graph.weights();
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, GraphResult.UNREACHED);
+        Arrays.fill(parent, -1);
+        int[] order = trackOrder ? new int[n] : null;
+
+        IntPriorityQueue pq = queueType.create(n, graph.maxWeight());
+        dist[start] = 0;
+        pq.insert(start, 0);
+        int settled = 0;
+        long scanned = 0, relaxed = 0;
+
+        while (!pq.isEmpty()) {
+            int u = pq.pollMin();
+            int du = dist[u];
+            if (order != null) order[settled] = u;
+            settled++;
+            scanned += off[u + 1] - off[u];
+            for (int i = off[u], end = off[u + 1]; i < end; i++) {
+                int v = adj[i];
+                int nd = du + wt[i];
+                if (nd < dist[v]) {
+                    dist[v] = nd;
+                    parent[v] = u;
+                    pq.insertOrDecrease(v, nd);
+                    relaxed++;
+                }
+            }
+        }
+        // decrease-key queue: one entry per node, so pushes = pops = settled and nothing goes stale
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.RELAXATIONS.add(relaxed);
+        Counter.QUEUE_PUSHES.add(settled);
+        Counter.QUEUE_POPS.add(settled);
+        return new GraphResult(dist, parent, order, trackOrder ? settled : 0, settled, 0);
+    }
 }
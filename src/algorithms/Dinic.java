@@ -0,0 +1,144 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Deadline;
+import utils.IntArrayList;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.util.*;
+
+/**
+ * Dinic's max flow: BFS level graph per phase, then a blocking flow found by an iterative DFS
+ * that only follows level-increasing arcs and resumes from each node's current-arc pointer.
+ */
+public class Dinic implements MaxFlowAlgorithm {
+
+    private static final int PATH_NODE = TraceLayout.DINIC.action("PathNode");
+    private static final int AUGMENT = TraceLayout.DINIC.action("Augment");
+
+    @Override
+    public String name() { return "MaxFlow_Dinic"; }
+
+    @Override
+    public List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath) {
+        int sink = MaxFlowAlgorithm.sinkFor(start, graph.size());
+        IntArrayList visitOrder = new IntArrayList();
+
+        TraceWriter tw = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.DINIC);
+            run(ResidualGraph.fromWeighted(graph), start, sink, visitOrder, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        return visitOrder.toList();
+    }
+
+    /** value() is the flow, visited() the number of augmenting paths; order() concatenates the paths. */
+    @Override
+    public GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder) {
+        IntArrayList order = trackOrder ? new IntArrayList() : null;
+        FlowResult r = run(ResidualGraph.fromCsr(graph), start, MaxFlowAlgorithm.sinkFor(start, graph.nodeCount()), order, null);
+        return new GraphResult(null, null, order == null ? null : order.array(), order == null ? 0 : order.size(),
+                r.augments(), r.flow());
+    }
+
+    @Override
+    public FlowResult maxFlow(CSRGraph graph, int source, int sink) {
+        return run(ResidualGraph.fromCsr(graph), source, sink, null, null);
+    }
+
+    static FlowResult run(ResidualGraph r, int s, int t, IntArrayList order, TraceWriter tw) {
+        int n = r.n;
+        int[] off = r.off, head = r.head, cap = r.cap, rev = r.rev;
+        int[] level = new int[n];
+        int[] it = new int[n];
+        int[] q = new int[n];
+        int[] pathArcs = new int[n]; // arcs of the current DFS path, s first
+        long flow = 0;
+        int augments = 0, phases = 0;
+        long scanned = 0, queued = 0;
+        if (s == t) return new FlowResult(s, t, 0, 0, 0);
+
+        while (true) {
+            Deadline.check();
+            // BFS level graph
+            Arrays.fill(level, -1);
+            level[s] = 0;
+            int qh = 0, qt = 0;
+            q[qt++] = s;
+            while (qh < qt) {
+                int u = q[qh++];
+                scanned += off[u + 1] - off[u];
+                for (int a = off[u], end = off[u + 1]; a < end; a++) {
+                    int v = head[a];
+                    if (level[v] < 0 && cap[a] > 0) {
+                        level[v] = level[u] + 1;
+                        q[qt++] = v;
+                    }
+                }
+            }
+            queued += qt;
+            if (level[t] < 0) break;
+            phases++;
+            System.arraycopy(off, 0, it, 0, n);
+
+            // blocking flow
+            int depth = 0;
+            int u = s;
+            while (true) {
+                if (u == t) {
+                    int pathFlow = Integer.MAX_VALUE;
+                    for (int i = 0; i < depth; i++) pathFlow = Math.min(pathFlow, cap[pathArcs[i]]);
+                    int firstSaturated = -1;
+                    for (int i = 0; i < depth; i++) {
+                        int a = pathArcs[i];
+                        cap[a] -= pathFlow;
+                        cap[rev[a]] += pathFlow;
+                        if (cap[a] == 0 && firstSaturated < 0) firstSaturated = i;
+                    }
+                    flow += pathFlow;
+                    augments++;
+                    if (order != null || tw != null) {
+                        q[0] = s;
+                        for (int i = 0; i < depth; i++) q[i + 1] = head[pathArcs[i]];
+                        if (order != null) for (int i = 0; i <= depth; i++) order.add(q[i]);
+                        if (tw != null) {
+                            for (int i = 0; i <= depth; i++) tw.event(phases, PATH_NODE, q[i]);
+                            tw.event(phases, AUGMENT, TraceWriter.NO_NODE, TraceWriter.NO_NODE, pathFlow, flow);
+                        }
+                    }
+                    // retreat to the tail of the first saturated arc
+                    depth = firstSaturated;
+                    u = r.tail(pathArcs[depth]);
+                    continue;
+                }
+                int end = off[u + 1];
+                int a = it[u];
+                while (a < end && (cap[a] == 0 || level[head[a]] != level[u] + 1)) a++;
+                scanned += a - it[u] + (a < end ? 1 : 0);
+                it[u] = a;
+                if (a == end) {
+                    // dead end: prune u from this level graph and step back
+                    level[u] = -1;
+                    if (depth == 0) break;
+                    u = r.tail(pathArcs[--depth]);
+                    it[u]++;
+                    continue;
+                }
+                pathArcs[depth++] = a;
+                u = head[a];
+            }
+        }
+        // every level-graph BFS pops all it pushes
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.QUEUE_PUSHES.add(queued);
+        Counter.QUEUE_POPS.add(queued);
+        Counter.AUGMENTATIONS.add(augments);
+        Counter.SWEEPS.add(phases);
+        return new FlowResult(s, t, flow, augments, phases);
+    }
+}
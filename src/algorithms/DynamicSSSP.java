@@ -0,0 +1,181 @@
+package algorithms;
+
+import utils.Counter;
+import utils.DaryHeap;
+import utils.DynamicGraph;
+
+import java.util.Arrays;
+
+/**
+ * Single-source shortest paths kept up to date under edge updates of a {@link DynamicGraph}, in the style of
+ * Ramalingam and Reps: each update repairs only the nodes whose distance it can change.
+ * <p>
+ * An insertion or weight decrease on u -> v that shortens v's distance runs Dijkstra outwards from v, stopping
+ * wherever distances do not improve. A deletion or weight increase matters only on a shortest-path-tree edge;
+ * then the subtree below v is collected through the parent pointers, each of its nodes is seeded with its
+ * best in-edge from outside the subtree, and Dijkstra inside the subtree settles the rest. Off-tree updates
+ * cost O(1) besides the graph update itself. Updates must go through this class so the tree stays in sync.
+ */
+public final class DynamicSSSP {
+
+    private static final int UNREACHED = GraphResult.UNREACHED;
+    private static final int HEAP_ARITY = 4;
+
+    private final DynamicGraph graph;
+    private final int source;
+    private final int[] dist, parent;
+    private final DaryHeap heap;
+    private final int[] mark; // == stamp for nodes in the subtree being repaired
+    private final int[] subtree;
+    private int stamp;
+    private int lastAffected;
+
+    /** Full Dijkstra from source over graph; later updates are incremental. */
+    public DynamicSSSP(DynamicGraph graph, int source) {
+        int n = graph.nodeCount();
+        this.graph = graph;
+        this.source = source;
+        this.dist = new int[n];
+        this.parent = new int[n];
+        this.heap = new DaryHeap(n, HEAP_ARITY);
+        this.mark = new int[n];
+        this.subtree = new int[n];
+        recompute();
+    }
+
+    public DynamicGraph graph() { return graph; }
+
+    public int source() { return source; }
+
+    /** @return distance from the source, UNREACHED if there is no path */
+    public int dist(int v) { return dist[v]; }
+
+    /** @return predecessor on the current shortest path, -1 for the source and unreached nodes */
+    public int parent(int v) { return parent[v]; }
+
+    /** Copy of all distances. */
+    public int[] distances() { return dist.clone(); }
+
+    /** Nodes whose distance the last update (or recompute) settled again. */
+    public int lastAffected() { return lastAffected; }
+
+    /** Insert u -> v or change its weight to w, and repair; returns the number of nodes repaired. */
+    public int setEdge(int u, int v, int w) {
+        int old = graph.setEdge(u, v, w);
+        if (old == DynamicGraph.NO_EDGE || w < old) return lastAffected = decreased(u, v, w);
+        if (w > old) return lastAffected = increased(u, v);
+        return lastAffected = 0;
+    }
+
+    /** Delete u -> v if present, and repair; returns the number of nodes repaired. */
+    public int removeEdge(int u, int v) {
+        int old = graph.removeEdge(u, v);
+        return lastAffected = old == DynamicGraph.NO_EDGE ? 0 : increased(u, v);
+    }
+
+    /** Throw the tree away and run Dijkstra from scratch, as a baseline for the incremental updates. */
+    public void recompute() {
+        Arrays.fill(dist, UNREACHED);
+        Arrays.fill(parent, -1);
+        dist[source] = 0;
+        heap.insert(source, 0);
+        lastAffected = propagate(false);
+    }
+
+    /** u -> v got lighter (or appeared) at weight w. */
+    private int decreased(int u, int v, int w) {
+        if (dist[u] == UNREACHED || u == v) return 0;
+        long nd = (long) dist[u] + w;
+        if (nd >= dist[v]) return 0;
+        dist[v] = (int) nd;
+        parent[v] = u;
+        heap.insert(v, (int) nd);
+        return propagate(false);
+    }
+
+    /** u -> v got heavier or disappeared: only v's subtree can lose, and only if the edge is in the tree. */
+    private int increased(int u, int v) {
+        if (parent[v] != u) return 0;
+        int st = ++stamp;
+        if (st == 0) {
+            Arrays.fill(mark, 0);
+            st = stamp = 1;
+        }
+
+        // the subtree hanging off v, found top-down along tree edges
+        int size = 0;
+        long scanned = 0;
+        subtree[size++] = v;
+        mark[v] = st;
+        for (int i = 0; i < size; i++) {
+            int x = subtree[i];
+            int[] to = graph.outTargets(x);
+            scanned += graph.outDegree(x);
+            for (int k = 0, d = graph.outDegree(x); k < d; k++) {
+                int y = to[k];
+                if (parent[y] == x && mark[y] != st) {
+                    mark[y] = st;
+                    subtree[size++] = y;
+                }
+            }
+        }
+
+        // seed every subtree node with its best in-edge from outside the subtree
+        for (int i = 0; i < size; i++) {
+            int y = subtree[i];
+            int best = UNREACHED, bestParent = -1;
+            int[] from = graph.inSources(y), wt = graph.inWeights(y);
+            scanned += graph.inDegree(y);
+            for (int k = 0, d = graph.inDegree(y); k < d; k++) {
+                int z = from[k];
+                if (mark[z] == st || dist[z] == UNREACHED) continue;
+                long nd = (long) dist[z] + wt[k];
+                if (nd < best) {
+                    best = (int) nd;
+                    bestParent = z;
+                }
+            }
+            dist[y] = best;
+            parent[y] = bestParent;
+            if (best != UNREACHED) heap.insert(y, best);
+        }
+        Counter.EDGES_SCANNED.add(scanned);
+        propagate(true);
+        return size;
+    }
+
+    /**
+     * Dijkstra from whatever is queued, relaxing out-edges until nothing improves; with insideSubtree only
+     * nodes marked for the current repair can improve, so the others are not even looked at.
+     * Returns the nodes settled.
+     */
+    private int propagate(boolean insideSubtree) {
+        int settled = 0;
+        long scanned = 0, relaxed = 0;
+        int st = stamp;
+        while (!heap.isEmpty()) {
+            int x = heap.pollMin();
+            settled++;
+            int dx = dist[x];
+            int[] to = graph.outTargets(x), wt = graph.outWeights(x);
+            scanned += graph.outDegree(x);
+            for (int k = 0, d = graph.outDegree(x); k < d; k++) {
+                int y = to[k];
+                if (insideSubtree && mark[y] != st) continue;
+                long nd = (long) dx + wt[k];
+                if (nd < dist[y]) {
+                    dist[y] = (int) nd;
+                    parent[y] = x;
+                    heap.insertOrDecrease(y, (int) nd);
+                    relaxed++;
+                }
+            }
+        }
+        // decrease-key heap: every node queued is settled exactly once
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.RELAXATIONS.add(relaxed);
+        Counter.QUEUE_PUSHES.add(settled);
+        Counter.QUEUE_POPS.add(settled);
+        return settled;
+    }
+}
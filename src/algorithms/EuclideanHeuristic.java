@@ -0,0 +1,50 @@
+package algorithms;
+
+import utils.CSRGraph;
+
+/**
+ * Straight-line distance to the goal, scaled by the smallest weight per unit length over all edges so that
+ * no edge is shorter than its span: that ratio makes the bound consistent whatever the weights are.
+ * Needs node coordinates, e.g. from {@link utils.GraphModel#coordinates}.
+ */
+public final class EuclideanHeuristic implements Heuristic {
+
+    private final double[] xy;
+    private final double scale;
+    private final int maxEstimate;
+
+    /** @param coords x at 2u and y at 2u+1 for every node of graph */
+    public EuclideanHeuristic(CSRGraph graph, double[] coords) {
+        int n = graph.nodeCount();
+        if (coords.length != 2 * n) throw new IllegalArgumentException("need 2n coordinates");
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int[] wt = graph.weights();
+        double s = Double.POSITIVE_INFINITY;
+        double minX = Double.POSITIVE_INFINITY, minY = minX, maxX = Double.NEGATIVE_INFINITY, maxY = maxX;
+        for (int u = 0; u < n; u++) {
+            for (int i = off[u]; i < off[u + 1]; i++) {
+                double d = dist(coords, u, adj[i]);
+                if (d > 0) s = Math.min(s, (wt == null ? 1 : wt[i]) / d);
+            }
+            minX = Math.min(minX, coords[2 * u]);
+            maxX = Math.max(maxX, coords[2 * u]);
+            minY = Math.min(minY, coords[2 * u + 1]);
+            maxY = Math.max(maxY, coords[2 * u + 1]);
+        }
+        // shave a little off so rounding in dist() cannot push an estimate past an edge weight
+        this.scale = s == Double.POSITIVE_INFINITY ? 0 : s * (1 - 1e-9);
+        this.xy = coords;
+        this.maxEstimate = n == 0 ? 0 : (int) Math.min(Integer.MAX_VALUE - 1, scale * Math.hypot(maxX - minX, maxY - minY));
+    }
+
+    @Override
+    public int estimate(int v, int goal) { return (int) (scale * dist(xy, v, goal)); }
+
+    @Override
+    public int maxEstimate() { return maxEstimate; }
+
+    private static double dist(double[] xy, int u, int v) {
+        return Math.hypot(xy[2 * u] - xy[2 * v], xy[2 * u + 1] - xy[2 * v + 1]);
+    }
+}
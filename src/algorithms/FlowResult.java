@@ -0,0 +1,35 @@
+package algorithms;
+
+/**
+ * Outcome of one max-flow computation.
+ */
+public final class FlowResult {
+
+    private final int source;
+    private final int sink;
+    private final long flow;
+    private final int augments;
+    private final int phases;
+
+    /**
+     * @param augments augmenting paths (Edmonds-Karp, Dinic) or pushes (push-relabel)
+     * @param phases BFS rounds (Edmonds-Karp, Dinic) or global relabels (push-relabel)
+     */
+    public FlowResult(int source, int sink, long flow, int augments, int phases) {
+        this.source = source;
+        this.sink = sink;
+        this.flow = flow;
+        this.augments = augments;
+        this.phases = phases;
+    }
+
+    public int source() { return source; }
+
+    public int sink() { return sink; }
+
+    public long flow() { return flow; }
+
+    public int augments() { return augments; }
+
+    public int phases() { return phases; }
+}
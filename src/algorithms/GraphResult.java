@@ -0,0 +1,48 @@
+package algorithms;
+
+/**
+ * Primitive result of a run over a {@link utils.CSRGraph}.
+ * Arrays are indexed by node id and any of them may be null when the algorithm has nothing
+ * meaningful to put there (e.g. MaxFlow has no distances).
+ */
+public final class GraphResult {
+
+    /** Distance of a node that was never reached. */
+    public static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final int[] dist;
+    private final int[] parent;
+    private final int[] order;
+    private final int orderSize;
+    private final int visited;
+    private final long value;
+
+    /**
+     * @param dist per-node distance/level/colour, UNREACHED when not reached (may be null)
+     * @param parent per-node predecessor, -1 for roots and unreached nodes (may be null)
+     * @param order processed nodes in order; only the first orderSize entries are valid (null when not tracked)
+     * @param orderSize number of valid entries in order
+     * @param visited number of processed nodes, counted even when order is not tracked
+     * @param value algorithm-specific scalar (flow value, 1/0 for bipartite, ...)
+     */
+    public GraphResult(int[] dist, int[] parent, int[] order, int orderSize, int visited, long value) {
+        this.dist = dist;
+        this.parent = parent;
+        this.order = order;
+        this.orderSize = orderSize;
+        this.visited = visited;
+        this.value = value;
+    }
+
+    public int[] dist() { return dist; }
+
+    public int[] parent() { return parent; }
+
+    public int[] order() { return order; }
+
+    public int orderSize() { return orderSize; }
+
+    public int visited() { return visited; }
+
+    public long value() { return value; }
+}
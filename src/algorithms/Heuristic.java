@@ -0,0 +1,42 @@
+package algorithms;
+
+/**
+ * Lower bound on the remaining distance to the goal, for {@link AStar#search}.
+ * <p>
+ * Estimates must be consistent (h(u) <= w(u, v) + h(v) on every edge), which makes them admissible and
+ * lets A* settle each node once. {@link GraphResult#UNREACHED} means the goal is provably unreachable
+ * from the node, and A* never queues it.
+ */
+public interface Heuristic {
+
+    /** No guidance: A* settles nodes exactly like Dijkstra and stops at the goal. */
+    Heuristic ZERO = new Heuristic() {
+        @Override
+        public int estimate(int v, int goal) { return 0; }
+
+        @Override
+        public int maxEstimate() { return 0; }
+    };
+
+    int estimate(int v, int goal);
+
+    /** Largest finite estimate this heuristic returns, for bucket queues sized by key spread. */
+    int maxEstimate();
+
+    /** Whether the estimates are consistent; A* refuses a monotone queue for a heuristic that is not. */
+    default boolean consistent() { return true; }
+
+    /** |v - goal| over node ids: the original AStar heuristic, neither consistent nor admissible in general. */
+    static Heuristic labelDistance(int n) {
+        return new Heuristic() {
+            @Override
+            public int estimate(int v, int goal) { return Math.abs(v - goal); }
+
+            @Override
+            public int maxEstimate() { return n; }
+
+            @Override
+            public boolean consistent() { return false; }
+        };
+    }
+}
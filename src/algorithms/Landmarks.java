@@ -0,0 +1,106 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.PriorityQueueType;
+
+import java.util.*;
+
+/**
+ * ALT heuristic (A*, landmarks, triangle inequality): exact distances from and to k landmarks, from which
+ * d(v, t) >= d(L, t) - d(L, v) and d(v, t) >= d(v, L) - d(t, L) for every landmark L.
+ * <p>
+ * Landmarks are chosen farthest-first: each new one is the reached node farthest from all landmarks so far
+ * (isolated nodes and other components would make useless landmarks; their estimates stay 0). Tables are node-major (n rows of k ints),
+ * so one estimate reads two short contiguous rows. Preprocessing is 2k Dijkstra runs, k on a symmetric graph.
+ */
+public final class Landmarks implements Heuristic {
+
+    private static final int UNREACHED = GraphResult.UNREACHED;
+
+    private final int k;
+    private final int[] landmarks;
+    private final int[] from; // from[v*k + i] = d(landmark i, v)
+    private final int[] to;   // to[v*k + i] = d(v, landmark i); the same array when the graph is symmetric
+    private final int maxEstimate;
+
+    private Landmarks(int[] landmarks, int[] from, int[] to, int maxEstimate) {
+        this.k = landmarks.length;
+        this.landmarks = landmarks;
+        this.from = from;
+        this.to = to;
+        this.maxEstimate = maxEstimate;
+    }
+
+    /**
+     * @param graph weighted CSR graph with non-negative weights
+     * @param k number of landmarks, capped at the node count
+     * @param seed picks the node the farthest-first selection starts from
+     */
+    public static Landmarks build(CSRGraph graph, int k, long seed) {
+        int n = graph.nodeCount();
+        if (k < 1) throw new IllegalArgumentException("need at least one landmark");
+        k = Math.min(k, n);
+        Dijkstra dijkstra = new Dijkstra(PriorityQueueType.RADIX_HEAP);
+        CSRGraph reverse = graph.reverse();
+        boolean symmetric = Arrays.equals(graph.offsets(), reverse.offsets())
+                && Arrays.equals(graph.targets(), reverse.targets())
+                && Arrays.equals(graph.weights(), reverse.weights());
+
+        int[] chosen = new int[k];
+        int[] from = new int[n * k];
+        int[] to = symmetric ? from : new int[n * k];
+        // nearest[v] = min over chosen landmarks of d(L, v); UNREACHED until some landmark reaches v
+        int[] nearest = new int[n];
+        int next = farthest(dijkstra.runWeighted(graph, new Random(seed).nextInt(n), false).dist());
+        Arrays.fill(nearest, UNREACHED);
+        int max = 0;
+        for (int i = 0; i < k; i++) {
+            chosen[i] = next;
+            int[] d = dijkstra.runWeighted(graph, next, false).dist();
+            int[] r = symmetric ? d : dijkstra.runWeighted(reverse, next, false).dist();
+            for (int v = 0; v < n; v++) {
+                from[v * k + i] = d[v];
+                if (!symmetric) to[v * k + i] = r[v];
+                if (d[v] != UNREACHED) max = Math.max(max, d[v]);
+                if (r[v] != UNREACHED) max = Math.max(max, r[v]);
+                nearest[v] = Math.min(nearest[v], d[v]);
+            }
+            next = farthest(nearest);
+        }
+        return new Landmarks(chosen, from, to, max);
+    }
+
+    /** Reached node with the largest distance; ties go to the smallest id. */
+    private static int farthest(int[] dist) {
+        int best = -1;
+        for (int v = 0; v < dist.length; v++) {
+            if (dist[v] != UNREACHED && (best < 0 || dist[v] > dist[best])) best = v;
+        }
+        return best;
+    }
+
+    public int[] landmarks() { return landmarks.clone(); }
+
+    @Override
+    public int estimate(int v, int goal) {
+        int h = 0;
+        for (int i = 0, bv = v * k, bt = goal * k; i < k; i++) {
+            int lv = from[bv + i], lt = from[bt + i];
+            if (lv != UNREACHED) {
+                // L reaches v but not the goal, so v cannot reach it either
+                if (lt == UNREACHED) return UNREACHED;
+                h = Math.max(h, lt - lv);
+            }
+            int vl = to[bv + i], tl = to[bt + i];
+            if (tl != UNREACHED) {
+                // the goal reaches L but v does not, so v cannot reach the goal
+                if (vl == UNREACHED) return UNREACHED;
+                h = Math.max(h, vl - tl);
+            }
+        }
+        return h;
+    }
+
+    @Override
+    public int maxEstimate() { return maxEstimate; }
+}
@@ -1,11 +1,18 @@
 package algorithms;
 
-import utils.CSVUtils;
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Deadline;
+import utils.IntArrayList;
+import utils.TraceLayout;
+import utils.TraceWriter;
 
-import java.io.FileWriter;
 import java.util.*;
 
-public class MaxFlow implements WeightedGraphAlgorithm {
+public class MaxFlow implements MaxFlowAlgorithm {
+
+    private static final int PATH_NODE = TraceLayout.EDMONDS_KARP.action("PathNode");
+    private static final int AUGMENT = TraceLayout.EDMONDS_KARP.action("Augment");
 
     @Override
     public String name() { return "MaxFlow_EdmondsKarp"; }
@@ -13,74 +20,105 @@ public class MaxFlow implements WeightedGraphAlgorithm {
     @Override
     public List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath) {
         // Interpret start as source; sink = (start+1) % n
-        int n = graph.size();
-        int sink = (start + 1) % n;
+        int sink = MaxFlowAlgorithm.sinkFor(start, graph.size());
+        IntArrayList visitOrder = new IntArrayList();
 
-        int[][] cap = new int[n][n];
-        for (int u : graph.keySet()) {
-            for (Map.Entry<Integer, Integer> e : graph.get(u).entrySet()) {
-                cap[u][e.getKey()] += Math.max(0, e.getValue());
-            }
+        TraceWriter tw = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.EDMONDS_KARP);
+            run(ResidualGraph.fromWeighted(graph), start, sink, visitOrder, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
         }
+        return visitOrder.toList();
+    }
 
-        int flow = 0;
-        int[] parent = new int[n];
+    /** value() is the flow, visited() the number of augmenting paths; order() concatenates the paths. */
+    @Override
+    public GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder) {
+        IntArrayList order = trackOrder ? new IntArrayList() : null;
+        FlowResult r = run(ResidualGraph.fromCsr(graph), start, MaxFlowAlgorithm.sinkFor(start, graph.nodeCount()), order);
+        return new GraphResult(null, null, order == null ? null : order.array(), order == null ? 0 : order.size(),
+                r.augments(), r.flow());
+    }
 
-        FileWriter fw = null;
-        List<Integer> visitOrder = new ArrayList<>();
-        try {
-            if (verbose && verbosePath != null) {
-                fw = new FileWriter(verbosePath);
-                fw.append("Augment,Path,PathFlow,TotalFlow\n");
-            }
+    @Override
+    public FlowResult maxFlow(CSRGraph graph, int source, int sink) {
+        return run(ResidualGraph.fromCsr(graph), source, sink, null);
+    }
 
-            while (bfs(cap, start, sink, parent)) {
-                int pathFlow = Integer.MAX_VALUE;
-                List<Integer> path = new ArrayList<>();
-                for (int v = sink; v != start; v = parent[v]) {
-                    int u = parent[v];
-                    path.add(v);
-                    pathFlow = Math.min(pathFlow, cap[u][v]);
-                }
-                path.add(start);
-                Collections.reverse(path);
-                visitOrder.addAll(path);
+    static FlowResult run(ResidualGraph r, int s, int t, IntArrayList order) {
+        return run(r, s, t, order, null);
+    }
 
-                for (int v = sink; v != start; v = parent[v]) {
-                    int u = parent[v];
-                    cap[u][v] -= pathFlow;
-                    cap[v][u] += pathFlow;
-                }
-                flow += pathFlow;
+    /**
+     * Edmonds-Karp: repeatedly augment along a BFS-shortest path in the residual network.
+     * @param order if non-null, receives each augmenting path source..sink
+     * @param tw trace writer, may be null
+     */
+    static FlowResult run(ResidualGraph r, int s, int t, IntArrayList order, TraceWriter tw) {
+        int n = r.n;
+        int[] off = r.off, head = r.head, cap = r.cap;
+        int[] parentArc = new int[n];
+        int[] q = new int[n];
+        long flow = 0;
+        int augments = 0, phases = 0;
+        long scanned = 0, queued = 0, popped = 0;
 
-                if (fw != null) CSVUtils.writeRow(fw, String.valueOf(flow), path.toString(),
-                        String.valueOf(pathFlow), String.valueOf(flow));
+        while (s != t) {
+            phases++;
+            Deadline.check();
+            Arrays.fill(parentArc, -1);
+            parentArc[s] = -2;
+            int qh = 0, qt = 0;
+            q[qt++] = s;
+            while (qh < qt && parentArc[t] == -1) {
+                int u = q[qh++];
+                scanned += off[u + 1] - off[u];
+                for (int a = off[u], end = off[u + 1]; a < end; a++) {
+                    int v = head[a];
+                    if (parentArc[v] == -1 && cap[a] > 0) {
+                        parentArc[v] = a;
+                        q[qt++] = v;
+                    }
+                }
             }
-        } catch (Exception e) {
-        } finally {
-            CSVUtils.closeQuietly(fw);
-        }
-
-        return visitOrder;
-    }
+            queued += qt;
+            popped += qh;
+            if (parentArc[t] == -1) break;
 
-    private boolean bfs(int[][] cap, int s, int t, int[] parent) {
-        Arrays.fill(parent, -1);
-        parent[s] = -2;
-        Deque<int[]> q = new ArrayDeque<>();
-        q.add(new int[]{s, Integer.MAX_VALUE});
+            int pathFlow = Integer.MAX_VALUE;
+            int pathLen = 1;
+            for (int v = t; v != s; v = r.tail(parentArc[v])) {
+                pathFlow = Math.min(pathFlow, cap[parentArc[v]]);
+                pathLen++;
+            }
+            for (int v = t; v != s; v = r.tail(parentArc[v])) {
+                int a = parentArc[v];
+                cap[a] -= pathFlow;
+                cap[r.rev[a]] += pathFlow;
+            }
+            flow += pathFlow;
+            augments++;
 
-        while (!q.isEmpty()) {
-            int[] cur = q.poll();
-            int u = cur[0];
-            for (int v = 0; v < cap.length; v++) {
-                if (parent[v] == -1 && cap[u][v] > 0) {
-                    parent[v] = u;
-                    if (v == t) return true;
-                    q.add(new int[]{v, Math.min(cur[1], cap[u][v])});
+            if (order != null || tw != null) {
+                // q is free again: reuse it to lay the path out source -> sink
+                int i = pathLen;
+                for (int v = t; v != s; v = r.tail(parentArc[v])) q[--i] = v;
+                q[0] = s;
+                if (order != null) for (int k = 0; k < pathLen; k++) order.add(q[k]);
+                if (tw != null) {
+                    for (int k = 0; k < pathLen; k++) tw.event(augments, PATH_NODE, q[k]);
+                    tw.event(augments, AUGMENT, TraceWriter.NO_NODE, TraceWriter.NO_NODE, pathFlow, flow);
                 }
             }
         }
-        return false;
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.QUEUE_PUSHES.add(queued);
+        Counter.QUEUE_POPS.add(popped);
+        Counter.AUGMENTATIONS.add(augments);
+        Counter.SWEEPS.add(phases);
+        return new FlowResult(s, t, flow, augments, phases);
     }
 }
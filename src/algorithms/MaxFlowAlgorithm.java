@@ -0,0 +1,18 @@
+package algorithms;
+
+import utils.CSRGraph;
+
+/**
+ * Max-flow algorithms. runWeighted treats start as the source and {@link #sinkFor} as the sink.
+ */
+public interface MaxFlowAlgorithm extends WeightedGraphAlgorithm {
+
+    /** Sink paired with a source by runWeighted and the benchmark: (source + 1) % n. */
+    static int sinkFor(int source, int n) { return (source + 1) % n; }
+
+    /**
+     * @param graph weighted CSR graph, weights are capacities
+     * @return flow value and work counters
+     */
+    FlowResult maxFlow(CSRGraph graph, int source, int sink);
+}
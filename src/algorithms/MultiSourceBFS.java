@@ -0,0 +1,249 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Parallel;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bit-parallel multi-source BFS (MS-BFS, Then et al.): one traversal serves a batch of 64 * width sources.
+ * <p>
+ * Every node has width words each of seen, visit (reached at the current level) and next; bit b of a node's
+ * words stands for source b of the batch. A level ORs the visit row of each frontier node into the next rows of
+ * its out-neighbours, then keeps only the bits not seen before, so a node reached by many sources at the same
+ * level has its edges scanned once for all of them. Small frontiers are node lists, so a level costs its edges
+ * rather than n; large ones are found by scanning every node, which is cheaper than listing them. Sharing only
+ * happens where sources reach a node at the same level, so the gain is large on low-diameter graphs and small
+ * (or negative) on grids with scattered sources, where batching nearby sources together helps.
+ * <p>
+ * Batches are independent and run as fork-join tasks; each keeps its bit rows in a state object reused by the
+ * next batch on any thread, so a run allocates at most one state per worker.
+ */
+public class MultiSourceBFS implements ParallelAlgorithm {
+
+    /** Scan all nodes instead of the frontier list once the frontier holds more than n / DENSE_FRONTIER nodes. */
+    private static final int DENSE_FRONTIER = 8;
+
+    /**
+     * Called for every node a batch reaches, once per level and 64-source word: bit b of sources stands for
+     * source sourceBase + b of the run. Batches call it concurrently.
+     */
+    public interface Visitor {
+        void reached(int sourceBase, int node, int level, long sources);
+    }
+
+    private final int threads;
+    private final int width;
+    private final ForkJoinPool pool;
+
+    public MultiSourceBFS() { this(Runtime.getRuntime().availableProcessors()); }
+
+    public MultiSourceBFS(int threads) { this(threads, 1); }
+
+    /** @param width 64-bit words per node, so a batch holds 64 * width sources */
+    public MultiSourceBFS(int threads, int width) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        if (width < 1) throw new IllegalArgumentException("width must be >= 1");
+        this.threads = threads;
+        this.width = width;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    public String name() { return "MultiSourceBFS_w" + width + "_t" + threads; }
+
+    @Override
+    public int threads() { return threads; }
+
+    /** Sources one traversal handles. */
+    public int batchSize() { return 64 * width; }
+
+    /** BFS from every source with no depth limit. */
+    public MultiSourceResult run(CSRGraph graph, int[] sources) {
+        return run(graph, sources, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * BFS from every source, stopping at maxDepth levels (e.g. 2 for 2-hop neighbourhoods).
+     * @param visitor also told about every (node, level, sources) it reaches, or null
+     */
+    public MultiSourceResult run(CSRGraph graph, int[] sources, int maxDepth, Visitor visitor) {
+        if (maxDepth < 0) throw new IllegalArgumentException("maxDepth must be >= 0");
+        int n = graph.nodeCount();
+        for (int s : sources) if (s < 0 || s >= n) throw new IllegalArgumentException("source " + s + " out of range");
+        int k = sources.length;
+        int[] src = sources.clone();
+        int[] reached = new int[k];
+        long[] distanceSum = new long[k];
+        int[] eccentricity = new int[k];
+        int batch = batchSize();
+        int batches = (k + batch - 1) / batch;
+        ConcurrentLinkedQueue<State> free = new ConcurrentLinkedQueue<>();
+        Parallel.forEach(pool, batches, b -> {
+            State st = free.poll();
+            if (st == null) st = new State(n, width);
+            int from = b * batch;
+            st.run(graph, src, from, Math.min(k, from + batch), maxDepth, visitor, reached, distanceSum, eccentricity);
+            free.add(st);
+        });
+        return new MultiSourceResult(src, maxDepth, reached, distanceSum, eccentricity);
+    }
+
+    /** Level of every node from every source: row i is the BFS distance array of sources[i]. */
+    public int[][] distances(CSRGraph graph, int[] sources) {
+        int n = graph.nodeCount();
+        int[][] dist = new int[sources.length][n];
+        for (int[] row : dist) Arrays.fill(row, GraphResult.UNREACHED);
+        run(graph, sources, Integer.MAX_VALUE, (base, node, level, bits) -> {
+            for (long m = bits; m != 0; m &= m - 1) dist[base + Long.numberOfTrailingZeros(m)][node] = level;
+        });
+        return dist;
+    }
+
+    /** Bit rows and frontier lists of one batch; cleared again by the batch that used them. */
+    private static final class State {
+        final int w;
+        final long[] seen, visit, next;
+        final int[] mark;     // == stamp when the node is already listed for the current level
+        int[] frontier, nextFrontier;
+        int stamp;
+        long scanned; // edges read by the current batch, see run()
+
+        State(int n, int w) {
+            this.w = w;
+            seen = new long[n * w];
+            visit = new long[n * w];
+            next = new long[n * w];
+            mark = new int[n];
+            frontier = new int[n];
+            nextFrontier = new int[n];
+        }
+
+        private int nextStamp() {
+            if (++stamp == 0) {
+                Arrays.fill(mark, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+
+        /** OR the frontier rows into their out-neighbours' next rows; returns how many neighbours it listed. */
+        private int pushSparse(int size, int[] off, int[] adj) {
+            int st = nextStamp();
+            int touched = 0;
+            for (int f = 0; f < size; f++) {
+                int v = frontier[f];
+                int base = v * w;
+                scanned += off[v + 1] - off[v];
+                for (int e = off[v], end = off[v + 1]; e < end; e++) {
+                    int t = adj[e];
+                    if (mark[t] != st) {
+                        mark[t] = st;
+                        nextFrontier[touched++] = t;
+                    }
+                    if (w == 1) next[t] |= visit[v];
+                    else for (int k = 0, tb = t * w; k < w; k++) next[tb + k] |= visit[base + k];
+                }
+            }
+            return touched;
+        }
+
+        /** The same by a scan over all nodes, without listing neighbours; returns -1. */
+        private int pushDense(int n, int[] off, int[] adj) {
+            for (int v = 0; v < n; v++) {
+                int base = v * w;
+                if (w == 1) {
+                    long f = visit[v];
+                    if (f == 0) continue;
+                    scanned += off[v + 1] - off[v];
+                    for (int e = off[v], end = off[v + 1]; e < end; e++) next[adj[e]] |= f;
+                } else {
+                    long any = 0;
+                    for (int k = 0; k < w; k++) any |= visit[base + k];
+                    if (any == 0) continue;
+                    scanned += off[v + 1] - off[v];
+                    for (int e = off[v], end = off[v + 1]; e < end; e++) {
+                        int t = adj[e] * w;
+                        for (int k = 0; k < w; k++) next[t + k] |= visit[base + k];
+                    }
+                }
+            }
+            return -1;
+        }
+
+        void run(CSRGraph g, int[] sources, int from, int to, int maxDepth, Visitor visitor,
+                 int[] reached, long[] distanceSum, int[] eccentricity) {
+            int n = g.nodeCount();
+            int[] off = g.offsets();
+            int[] adj = g.targets();
+            int size = 0;
+            int st = nextStamp();
+            long listed = 0, levels = 0;
+            scanned = 0;
+            for (int i = from; i < to; i++) {
+                int b = i - from;
+                int v = sources[i];
+                int slot = v * w + (b >>> 6);
+                seen[slot] |= 1L << b;
+                visit[slot] |= 1L << b;
+                if (mark[v] != st) {
+                    mark[v] = st;
+                    frontier[size++] = v;
+                }
+                reached[i] = 1;
+                if (visitor != null) visitor.reached(from + (b & ~63), v, 0, 1L << b);
+            }
+
+            listed += size;
+            for (int level = 1; size > 0 && level <= maxDepth; level++) {
+                levels++;
+                int touched = (long) size * DENSE_FRONTIER > n ? pushDense(n, off, adj) : pushSparse(size, off, adj);
+                if (touched < 0) {
+                    // dense: every node is a candidate for the next frontier, in id order
+                    touched = n;
+                    for (int u = 0; u < n; u++) nextFrontier[u] = u;
+                } else {
+                    for (int f = 0; f < size; f++) Arrays.fill(visit, frontier[f] * w, frontier[f] * w + w, 0);
+                }
+
+                // keep the bits each touched node sees for the first time; those nodes form the next frontier
+                int kept = 0;
+                for (int f = 0; f < touched; f++) {
+                    int u = nextFrontier[f];
+                    boolean any = false;
+                    for (int k = 0, slot = u * w; k < w; k++, slot++) {
+                        long d = next[slot] & ~seen[slot];
+                        next[slot] = 0;
+                        visit[slot] = d;
+                        if (d == 0) continue;
+                        seen[slot] |= d;
+                        any = true;
+                        int base = from + 64 * k;
+                        for (long m = d; m != 0; m &= m - 1) {
+                            int i = base + Long.numberOfTrailingZeros(m);
+                            reached[i]++;
+                            distanceSum[i] += level;
+                            eccentricity[i] = level;
+                        }
+                        if (visitor != null) visitor.reached(base, u, level, d);
+                    }
+                    if (any) nextFrontier[kept++] = u;
+                }
+                int[] t = frontier;
+                frontier = nextFrontier;
+                nextFrontier = t;
+                size = kept;
+                listed += kept;
+            }
+            // per batch, on the worker that ran it; frontier entries are the queue, levels the sweeps
+            Counter.EDGES_SCANNED.add(scanned);
+            Counter.QUEUE_PUSHES.add(listed);
+            Counter.QUEUE_POPS.add(listed - size); // a frontier cut off by maxDepth is never expanded
+            Counter.SWEEPS.add(levels);
+            for (int f = 0; f < size; f++) Arrays.fill(visit, frontier[f] * w, frontier[f] * w + w, 0);
+            Arrays.fill(seen, 0);
+        }
+    }
+}
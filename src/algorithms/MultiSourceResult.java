@@ -0,0 +1,47 @@
+package algorithms;
+
+/**
+ * Per-source summary of one {@link MultiSourceBFS} run: how many nodes each source reached within the depth
+ * limit, the sum of their levels and the deepest level, which is enough for closeness estimates and k-hop
+ * neighbourhood sizes without keeping a distance row per source.
+ */
+public final class MultiSourceResult {
+
+    private final int[] sources;
+    private final int maxDepth;
+    private final int[] reached;
+    private final long[] distanceSum;
+    private final int[] eccentricity;
+
+    /**
+     * @param sources source nodes; entry i of every other array belongs to sources[i]
+     * @param maxDepth level limit of the run, Integer.MAX_VALUE for none
+     * @param reached nodes at level &lt;= maxDepth, the source included
+     * @param distanceSum sum of the levels of those nodes
+     * @param eccentricity deepest level reached (within maxDepth)
+     */
+    public MultiSourceResult(int[] sources, int maxDepth, int[] reached, long[] distanceSum, int[] eccentricity) {
+        this.sources = sources;
+        this.maxDepth = maxDepth;
+        this.reached = reached;
+        this.distanceSum = distanceSum;
+        this.eccentricity = eccentricity;
+    }
+
+    public int size() { return sources.length; }
+
+    public int source(int i) { return sources[i]; }
+
+    public int maxDepth() { return maxDepth; }
+
+    public int reached(int i) { return reached[i]; }
+
+    public long distanceSum(int i) { return distanceSum[i]; }
+
+    public int eccentricity(int i) { return eccentricity[i]; }
+
+    /** (reached - 1) / distanceSum: closeness of sources[i] within its reach, 0 when it reaches nothing. */
+    public double closeness(int i) {
+        return distanceSum[i] == 0 ? 0 : (reached[i] - 1) / (double) distanceSum[i];
+    }
+}
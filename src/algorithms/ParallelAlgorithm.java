@@ -0,0 +1,9 @@
+package algorithms;
+
+/**
+ * Implemented by algorithms that run on their own fork-join pool, so the benchmark can report
+ * the thread count a run used.
+ */
+public interface ParallelAlgorithm {
+    int threads();
+}
@@ -0,0 +1,271 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.IntArrayList;
+import utils.Parallel;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Level-synchronous, direction-optimizing BFS (Beamer et al.) on a fork-join pool.
+ * <p>
+ * Top-down steps claim each newly reached node for the frontier node with the smallest frontier
+ * index (atomic min), then emit claimed nodes chunk by chunk in frontier order. Bottom-up steps let
+ * every unvisited node scan its in-edges for the frontier parent with the smallest (frontier index,
+ * edge index) key, and sort the new frontier by that key. Either way the frontier order, levels and
+ * parents are exactly those of the sequential {@link BFSAlgorithm}.
+ * With exactParents=false bottom-up stops at the first frontier in-neighbour: levels stay exact,
+ * parents are any valid BFS parent.
+ */
+public class ParallelBFS implements UnweightedGraphAlgorithm, ParallelAlgorithm {
+
+    private static final int ALPHA = 14;          // go bottom-up when frontier edges > unexplored edges / ALPHA
+    private static final int BETA = 24;           // go back top-down when frontier < n / BETA and shrinking
+    private static final int CHUNK = 1024;        // nodes per bottom-up task, a multiple of 64
+    private static final int SEQUENTIAL_EDGES = 4096;
+    private static final int TOP_DOWN = TraceLayout.PARALLEL_BFS.action("TopDown");
+    private static final int BOTTOM_UP = TraceLayout.PARALLEL_BFS.action("BottomUp");
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int threads;
+    private final boolean exactParents;
+    private final ForkJoinPool pool;
+
+    public ParallelBFS() { this(Runtime.getRuntime().availableProcessors()); }
+
+    public ParallelBFS(int threads) { this(threads, true); }
+
+    public ParallelBFS(int threads, boolean exactParents) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        this.threads = threads;
+        this.exactParents = exactParents;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    @Override
+    public String name() { return "ParallelBFS_t" + threads; }
+
+    @Override
+    public int threads() { return threads; }
+
+    @Override
+    public List<Integer> runUnweighted(Map<Integer, List<Integer>> graph, int start, boolean verbose, String verbosePath) {
+        TraceWriter tw = null;
+        GraphResult r = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.PARALLEL_BFS);
+            r = run(CSRGraph.fromAdjacency(graph), start, true, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        List<Integer> visitOrder = new ArrayList<>();
+        if (r != null) for (int i = 0; i < r.orderSize(); i++) visitOrder.add(r.order()[i]);
+        return visitOrder;
+    }
+
+    @Override
+    public GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder) {
+        return run(graph, start, trackOrder, null);
+    }
+
+    private GraphResult run(CSRGraph graph, int start, boolean trackOrder, TraceWriter tw) {
+        return new Search(graph).run(start, trackOrder, tw);
+    }
+
+    /** Per-run state; frontiers are laid out back to back in order[], which is also the visit order. */
+    private final class Search {
+        final CSRGraph graph;
+        final int n;
+        final int[] off, adj;
+        final int[] level, parent, claim, order;
+        final long[] visited;
+        final long[] degPrefix;
+        int[] frontierIndex;   // bottom-up only
+        long[] keys;           // bottom-up only
+        CSRGraph reverse;      // bottom-up only, cached on the graph
+        int[] reverseEdge;     // reverse position -> forward edge index
+
+        Search(CSRGraph graph) {
+            this.graph = graph;
+            n = graph.nodeCount();
+            off = graph.offsets();
+            adj = graph.targets();
+            level = new int[n];
+            parent = new int[n];
+            claim = new int[n];
+            order = new int[n];
+            visited = new long[(n + 63) >>> 6];
+            degPrefix = new long[n + 1];
+            Arrays.fill(level, GraphResult.UNREACHED);
+            Arrays.fill(parent, -1);
+            Arrays.fill(claim, Integer.MAX_VALUE);
+        }
+
+        GraphResult run(int start, boolean trackOrder, TraceWriter tw) {
+            order[0] = start;
+            level[start] = 0;
+            markVisited(start);
+            long unexplored = adj.length - (off[start + 1] - off[start]);
+            int lo = 0, hi = 1, depth = 0, prevSize = 0;
+            boolean bottomUp = false;
+            long topDownScanned = 0;
+
+            while (lo < hi) {
+                int size = hi - lo;
+                degPrefix[0] = 0;
+                for (int i = 0; i < size; i++) {
+                    int u = order[lo + i];
+                    degPrefix[i + 1] = degPrefix[i] + (off[u + 1] - off[u]);
+                }
+                long frontierEdges = degPrefix[size];
+                if (!bottomUp && frontierEdges > unexplored / ALPHA) bottomUp = true;
+                else if (bottomUp && size < n / BETA && size < prevSize) bottomUp = false;
+                if (tw != null) tw.event(depth, bottomUp ? BOTTOM_UP : TOP_DOWN, TraceWriter.NO_NODE, TraceWriter.NO_NODE,
+                        size, frontierEdges, unexplored);
+
+                if (!bottomUp) topDownScanned += 2 * frontierEdges; // claim pass, then emit pass
+                int next = bottomUp ? bottomUpStep(lo, hi, depth) : topDownStep(lo, hi, depth, frontierEdges);
+                for (int i = hi; i < next; i++) unexplored -= off[order[i] + 1] - off[order[i]];
+                prevSize = size;
+                lo = hi;
+                hi = next;
+                depth++;
+            }
+            Counter.EDGES_SCANNED.add(topDownScanned);
+            Counter.QUEUE_PUSHES.add(hi);
+            Counter.QUEUE_POPS.add(hi);
+            Counter.SWEEPS.add(depth);
+            return new GraphResult(level, parent, trackOrder ? order : null, trackOrder ? hi : 0, hi, 0);
+        }
+
+        int topDownStep(int lo, int hi, int depth, long frontierEdges) {
+            int size = hi - lo;
+            int chunks = frontierEdges < SEQUENTIAL_EDGES ? 1 : (int) Math.min(size, threads * 8L);
+            // split the frontier into chunks of roughly equal edge count
+            int[] bounds = new int[chunks + 1];
+            for (int k = 1; k < chunks; k++) {
+                long target = frontierEdges * k / chunks;
+                int a = bounds[k - 1], b = size;
+                while (a < b) {
+                    int mid = (a + b) >>> 1;
+                    if (degPrefix[mid] < target) a = mid + 1;
+                    else b = mid;
+                }
+                bounds[k] = a;
+            }
+            bounds[chunks] = size;
+
+            // phase 1: every unvisited neighbour remembers the smallest frontier index that reaches it
+            Parallel.forEach(pool, chunks, k -> {
+                for (int i = bounds[k]; i < bounds[k + 1]; i++) {
+                    int u = order[lo + i];
+                    for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                        int v = adj[e];
+                        if (claim[v] <= i || isVisited(v)) continue;
+                        int cur;
+                        while ((cur = (int) INTS.getVolatile(claim, v)) > i && !INTS.compareAndSet(claim, v, cur, i)) { }
+                    }
+                }
+            });
+
+            // phase 2: the winning frontier node emits its nodes in adjacency order
+            IntArrayList[] emitted = new IntArrayList[chunks];
+            Parallel.forEach(pool, chunks, k -> {
+                IntArrayList out = new IntArrayList();
+                for (int i = bounds[k]; i < bounds[k + 1]; i++) {
+                    int u = order[lo + i];
+                    for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                        int v = adj[e];
+                        if (claim[v] == i && !isVisited(v)) {
+                            markVisited(v);
+                            level[v] = depth + 1;
+                            parent[v] = u;
+                            out.add(v);
+                        }
+                    }
+                }
+                emitted[k] = out;
+            });
+
+            int next = hi;
+            for (IntArrayList out : emitted) {
+                System.arraycopy(out.array(), 0, order, next, out.size());
+                next += out.size();
+            }
+            return next;
+        }
+
+        int bottomUpStep(int lo, int hi, int depth) {
+            if (reverse == null) {
+                reverse = graph.reverse();
+                reverseEdge = graph.reverseEdgeIds();
+                frontierIndex = new int[n];
+                keys = new long[n];
+            }
+            int[] rOff = reverse.offsets(), rAdj = reverse.targets();
+            Parallel.forRange(pool, lo, hi, CHUNK, (a, b) -> {
+                for (int i = a; i < b; i++) frontierIndex[order[i]] = i - lo;
+            });
+
+            AtomicInteger count = new AtomicInteger();
+            int chunks = (n + CHUNK - 1) / CHUNK;
+            Parallel.forEach(pool, chunks, k -> {
+                long[] local = new long[64];
+                int cnt = 0;
+                long scanned = 0;
+                for (int v = k * CHUNK, end = Math.min(n, v + CHUNK); v < end; v++) {
+                    if (isVisited(v)) continue;
+                    long best = Long.MAX_VALUE;
+                    for (int j = rOff[v], je = rOff[v + 1]; j < je; j++) {
+                        int u = rAdj[j];
+                        scanned++;
+                        if (level[u] != depth) continue;
+                        long key = ((long) frontierIndex[u] << 32) | reverseEdge[j];
+                        if (key < best) best = key;
+                        if (!exactParents) break;
+                    }
+                    if (best == Long.MAX_VALUE) continue;
+                    level[v] = depth + 1;
+                    parent[v] = order[lo + (int) (best >>> 32)];
+                    if (cnt == local.length) local = Arrays.copyOf(local, cnt * 2);
+                    local[cnt++] = best;
+                }
+                // chunks are 64-aligned, so no other task touches these bitmap words
+                for (int i = 0; i < cnt; i++) {
+                    int v = adj[(int) local[i]];
+                    visited[v >>> 6] |= 1L << v;
+                }
+                System.arraycopy(local, 0, keys, count.getAndAdd(cnt), cnt);
+                Counter.EDGES_SCANNED.add(scanned);
+            });
+
+            int found = count.get();
+            if (found > SEQUENTIAL_EDGES && threads > 1) pool.submit(() -> Arrays.parallelSort(keys, 0, found)).join();
+            else Arrays.sort(keys, 0, found);
+            for (int i = 0; i < found; i++) order[hi + i] = adj[(int) keys[i]];
+            return hi + found;
+        }
+
+        boolean isVisited(int v) {
+            return (visited[v >>> 6] & (1L << v)) != 0;
+        }
+
+        void markVisited(int v) {
+            int w = v >>> 6;
+            long bit = 1L << v;
+            long cur;
+            while (((cur = (long) LONGS.getVolatile(visited, w)) & bit) == 0
+                    && !LONGS.compareAndSet(visited, w, cur, cur | bit)) { }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Deadline;
+import utils.Parallel;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bellman-Ford rounds over a flat edge array, split across a fork-join pool.
+ * <p>
+ * Each round relaxes every edge whose tail changed in the previous or current round, with an atomic
+ * min on a packed (distance, parent) long per node, so a round never does worse than a sequential sweep
+ * and parents are the smallest-id predecessor at the final distance. A change after n rounds means a
+ * negative cycle; rounds go on until it closes in the parent pointers.
+ */
+public class ParallelBellmanFord implements ShortestPathAlgorithm, ParallelAlgorithm {
+
+    private static final int EDGE_GRAIN = 8192;
+    private static final long NONE = Long.MAX_VALUE;
+    private static final int ROUND = TraceLayout.PARALLEL_BELLMAN_FORD.action("Round");
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int threads;
+    private final ForkJoinPool pool;
+
+    public ParallelBellmanFord() { this(Runtime.getRuntime().availableProcessors()); }
+
+    public ParallelBellmanFord(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    @Override
+    public String name() { return "BellmanFord_Parallel_t" + threads; }
+
+    @Override
+    public int threads() { return threads; }
+
+    /** Returns reached nodes by distance (ties by id); the trace has one row per round. */
+    @Override
+    public List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath) {
+        TraceWriter tw = null;
+        ShortestPathResult r = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.PARALLEL_BELLMAN_FORD);
+            r = run(CSRGraph.fromWeighted(graph), start, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        List<Integer> order = new ArrayList<>();
+        if (r != null) for (int v : byDistance(r)) order.add(v);
+        return order;
+    }
+
+    /** Same layout as {@link BellmanFord}, except order() lists reached nodes by distance. */
+    @Override
+    public GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder) {
+        ShortestPathResult r = shortestPaths(graph, start);
+        int[] order = trackOrder ? byDistance(r) : null;
+        return new GraphResult(r.dist(), r.parent(), order, trackOrder ? r.reached() : 0, r.reached(),
+                r.hasNegativeCycle() ? -1 : r.rounds());
+    }
+
+    @Override
+    public ShortestPathResult shortestPaths(CSRGraph graph, int source) {
+        return run(graph, source, null);
+    }
+
+    private ShortestPathResult run(CSRGraph graph, int start, TraceWriter tw) {
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int[] wt = graph.weights();
+        int[] tail = new int[m];
+        Parallel.forRange(pool, 0, n, Math.max(1, EDGE_GRAIN / 8), (a, b) -> {
+            for (int u = a; u < b; u++) Arrays.fill(tail, off[u], off[u + 1], u);
+        });
+
+        // signed distance in the high word, parent as an unsigned low word: long order is (dist, parent)
+        long[] best = new long[n];
+        int[] changedIn = new int[n]; // last round that lowered the node, -1 never
+        Arrays.fill(best, NONE);
+        Arrays.fill(changedIn, -1);
+        best[start] = 0xFFFFFFFFL; // dist 0, parent -1
+        changedIn[start] = 0;
+
+        LongAdder relaxations = new LongAdder();
+        LongAdder active = new LongAdder();
+        int[] parent = new int[n];
+        int[] cycle = null;
+        int rounds = 0;
+        boolean changed = true;
+        while (changed) {
+            int round = ++rounds;
+            Deadline.check();
+            long before = relaxations.sum();
+            Parallel.forRange(pool, 0, m, EDGE_GRAIN, (a, b) -> {
+                long relaxed = 0, scanned = 0;
+                for (int e = a; e < b; e++) {
+                    int u = tail[e];
+                    if (changedIn[u] < round - 1) continue;
+                    scanned++;
+                    long bu = (long) LONGS.getVolatile(best, u);
+                    long key = (((bu >> 32) + wt[e]) << 32) | u;
+                    int v = adj[e];
+                    long cur;
+                    while (key < (cur = (long) LONGS.getVolatile(best, v))) {
+                        if (LONGS.compareAndSet(best, v, cur, key)) {
+                            changedIn[v] = round;
+                            relaxed++;
+                            break;
+                        }
+                    }
+                }
+                relaxations.add(relaxed);
+                active.add(scanned);
+                Counter.EDGES_SCANNED.add(scanned);
+            });
+            changed = relaxations.sum() > before;
+            if (changed && rounds >= n) {
+                for (int v = 0; v < n; v++) parent[v] = best[v] == NONE ? -1 : (int) best[v];
+                cycle = ShortestPathAlgorithm.parentCycle(parent);
+            }
+            if (tw != null) tw.event(round, ROUND, TraceWriter.NO_NODE, TraceWriter.NO_NODE, active.sumThenReset(),
+                    relaxations.sum() - before, cycle == null ? TraceWriter.NONE : cycle.length);
+            if (cycle != null) break;
+        }
+
+        Counter.RELAXATIONS.add(relaxations.sum());
+        Counter.SWEEPS.add(rounds);
+
+        int[] dist = new int[n];
+        int reached = 0;
+        for (int v = 0; v < n; v++) {
+            if (best[v] == NONE) {
+                dist[v] = GraphResult.UNREACHED;
+                parent[v] = -1;
+            } else {
+                dist[v] = (int) (best[v] >> 32);
+                parent[v] = (int) best[v];
+                reached++;
+            }
+        }
+        return new ShortestPathResult(dist, parent, cycle, reached, rounds, relaxations.sum());
+    }
+
+    private static int[] byDistance(ShortestPathResult r) {
+        int[] dist = r.dist();
+        Integer[] nodes = new Integer[r.reached()];
+        int k = 0;
+        for (int v = 0; v < dist.length; v++) if (dist[v] != GraphResult.UNREACHED) nodes[k++] = v;
+        Arrays.sort(nodes, Comparator.<Integer>comparingInt(v -> dist[v]).thenComparingInt(v -> v));
+        int[] order = new int[nodes.length];
+        for (int i = 0; i < order.length; i++) order[i] = nodes[i];
+        return order;
+    }
+}
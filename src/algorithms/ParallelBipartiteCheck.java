@@ -0,0 +1,187 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Parallel;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel bipartiteness check on a parity union-find: every edge joins its ends with odd parity, and an
+ * edge whose ends are already joined with even parity closes an odd cycle. Edges are processed by all
+ * threads at once in any order, and all of them stop at the first conflict.
+ * <p>
+ * A conflict only names one edge, so the cycle itself comes from a sequential BFS from that edge's source
+ * over its component, which stops at the first edge between two nodes of the same level; the tree paths
+ * from both ends up to their common ancestor plus that edge form an odd cycle. Edge direction is ignored
+ * (unlike {@link BipartiteCheck}, which follows out-edges only), and on a bipartite graph the colours and
+ * component labels match what the sequential check and {@link ConnectedComponents} give.
+ */
+public class ParallelBipartiteCheck implements UnweightedGraphAlgorithm, ParallelAlgorithm {
+
+    private static final int GRAIN = 4096;         // nodes per task
+    private static final long NO_CONFLICT = -1;
+    private static final int CONFLICT = TraceLayout.PARALLEL_BIPARTITE.action("Conflict");
+    private static final int CYCLE_NODE = TraceLayout.PARALLEL_BIPARTITE.action("CycleNode");
+    private static final int BIPARTITE = TraceLayout.PARALLEL_BIPARTITE.action("Bipartite");
+
+    private final int threads;
+    private final ForkJoinPool pool;
+
+    public ParallelBipartiteCheck() { this(Runtime.getRuntime().availableProcessors()); }
+
+    public ParallelBipartiteCheck(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1");
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    @Override
+    public String name() { return "ParallelBipartiteCheck_t" + threads; }
+
+    @Override
+    public int threads() { return threads; }
+
+    /** Checks the whole graph, so start is ignored; returns the odd cycle, empty when the graph is bipartite. */
+    @Override
+    public List<Integer> runUnweighted(Map<Integer, List<Integer>> graph, int start, boolean verbose, String verbosePath) {
+        TraceWriter tw = null;
+        BipartiteResult r = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.PARALLEL_BIPARTITE);
+            r = run(CSRGraph.fromAdjacency(graph), null, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        List<Integer> cycle = new ArrayList<>();
+        if (r != null && !r.isBipartite()) for (int v : r.oddCycle()) cycle.add(v);
+        return cycle;
+    }
+
+    /**
+     * dist() holds the 0/1 colours (null when not bipartite), value() is 1 when the graph is bipartite and 0
+     * otherwise; visited() counts the nodes whose edges were scanned, and the order, when tracked, is the
+     * odd cycle.
+     */
+    @Override
+    public GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder) {
+        int[] scanned = new int[1];
+        BipartiteResult r = run(graph, scanned, null);
+        int[] cycle = r.oddCycle();
+        return new GraphResult(r.colour(), null, trackOrder ? cycle : null,
+                trackOrder && cycle != null ? cycle.length : 0, scanned[0], r.isBipartite() ? 1 : 0);
+    }
+
+    /** Colours and components of a bipartite graph, or an odd cycle. */
+    public BipartiteResult check(CSRGraph graph) {
+        return run(graph, null, null);
+    }
+
+    private BipartiteResult run(CSRGraph graph, int[] scanned, TraceWriter tw) {
+        int n = graph.nodeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        AtomicLong conflict = new AtomicLong(NO_CONFLICT); // u << 32 | v of the first odd edge
+        AtomicInteger nodes = new AtomicInteger();
+
+        Parallel.forRange(pool, 0, n, GRAIN, (lo, hi) -> {
+            int done = 0;
+            long edges = 0;
+            for (int u = lo; u < hi && conflict.get() == NO_CONFLICT; u++) {
+                done++;
+                for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                    edges++;
+                    if (!uf.union(u, adj[e], 1)) {
+                        conflict.compareAndSet(NO_CONFLICT, (long) u << 32 | adj[e]);
+                        break;
+                    }
+                }
+            }
+            nodes.addAndGet(done);
+            Counter.EDGES_SCANNED.add(edges);
+        });
+        Counter.SWEEPS.add(1);
+        if (scanned != null) scanned[0] = nodes.get();
+
+        long c = conflict.get();
+        if (c != NO_CONFLICT) {
+            int u = (int) (c >>> 32), v = (int) c;
+            int[] cycle = oddCycle(graph, u);
+            if (tw != null) {
+                tw.event(0, CONFLICT, u, v, cycle.length);
+                for (int i = 0; i < cycle.length; i++) tw.event(i, CYCLE_NODE, cycle[i]);
+            }
+            return new BipartiteResult(null, null, 0, cycle);
+        }
+
+        int[] colour = new int[n];
+        int[] label = new int[n];
+        AtomicLong components = new AtomicLong();
+        Parallel.forRange(pool, 0, n, GRAIN, (lo, hi) -> {
+            long roots = 0;
+            for (int x = lo; x < hi; x++) {
+                int rp = uf.findWithParity(x);
+                colour[x] = rp & 1;
+                label[x] = rp >>> 1;
+                if (label[x] == x) roots++;
+            }
+            components.addAndGet(roots);
+        });
+        if (tw != null) tw.event(0, BIPARTITE, TraceWriter.NO_NODE, TraceWriter.NO_NODE, components.get());
+        return new BipartiteResult(colour, label, components.get(), null);
+    }
+
+    /** BFS from s over out- and in-edges until an edge joins two nodes of the same level. */
+    private static int[] oddCycle(CSRGraph graph, int s) {
+        int n = graph.nodeCount();
+        CSRGraph rev = graph.reverse();
+        int[][] offs = {graph.offsets(), rev.offsets()};
+        int[][] adjs = {graph.targets(), rev.targets()};
+        int[] level = new int[n];
+        int[] parent = new int[n];
+        int[] q = new int[n];
+        Arrays.fill(level, -1);
+        level[s] = 0;
+        parent[s] = -1;
+        int head = 0, tail = 0;
+        q[tail++] = s;
+        while (head < tail) {
+            int x = q[head++];
+            for (int side = 0; side < 2; side++) {
+                int[] off = offs[side], adj = adjs[side];
+                for (int e = off[x], end = off[x + 1]; e < end; e++) {
+                    int y = adj[e];
+                    if (level[y] == -1) {
+                        level[y] = level[x] + 1;
+                        parent[y] = x;
+                        q[tail++] = y;
+                    } else if (level[y] == level[x]) {
+                        return cycleThrough(x, y, parent);
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("no odd cycle in the component of node " + s);
+    }
+
+    /** x, its ancestors up to the one it shares with y, then y's side back down to y. */
+    private static int[] cycleThrough(int x, int y, int[] parent) {
+        int k = 0;
+        for (int a = x, b = y; a != b; a = parent[a], b = parent[b]) k++;
+        int[] cycle = new int[2 * k + 1];
+        int a = x, b = y;
+        for (int i = 0; i < k; i++, a = parent[a], b = parent[b]) {
+            cycle[i] = a;
+            cycle[2 * k - i] = b;
+        }
+        cycle[k] = a;
+        return cycle;
+    }
+}
@@ -0,0 +1,11 @@
+package algorithms;
+
+import utils.PriorityQueueType;
+
+/**
+ * Implemented by algorithms whose running time hinges on a configurable priority queue,
+ * so the benchmark can report which queue a run used.
+ */
+public interface PriorityQueueAlgorithm {
+    PriorityQueueType queueType();
+}
@@ -0,0 +1,304 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Deadline;
+import utils.IntArrayList;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.util.*;
+
+/**
+ * Push-relabel max flow (preflow phase only, which is enough for the flow value) with
+ * current-arc pointers, the gap heuristic and periodic global relabelling by reverse BFS
+ * from the sink. Active nodes are selected FIFO or highest-label first.
+ */
+public class PushRelabel implements MaxFlowAlgorithm {
+
+    public enum Selection { FIFO, HIGHEST_LABEL }
+
+    private static final int PUSH = TraceLayout.PUSH_RELABEL.action("Push");
+    private static final int RELABEL = TraceLayout.PUSH_RELABEL.action("Relabel");
+    private static final int GAP = TraceLayout.PUSH_RELABEL.action("Gap");
+    private static final int GLOBAL_RELABEL = TraceLayout.PUSH_RELABEL.action("GlobalRelabel");
+
+    private final Selection selection;
+
+    public PushRelabel() { this(Selection.HIGHEST_LABEL); }
+
+    public PushRelabel(Selection selection) { this.selection = selection; }
+
+    @Override
+    public String name() {
+        return selection == Selection.FIFO ? "MaxFlow_PushRelabelFIFO" : "MaxFlow_PushRelabelHL";
+    }
+
+    @Override
+    public List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath) {
+        int sink = MaxFlowAlgorithm.sinkFor(start, graph.size());
+        IntArrayList dischargeOrder = new IntArrayList();
+
+        TraceWriter tw = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.PUSH_RELABEL);
+            new Engine(ResidualGraph.fromWeighted(graph), start, sink, selection, dischargeOrder, tw).run();
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        return dischargeOrder.toList();
+    }
+
+    /** value() is the flow, visited() the number of pushes; order() lists discharged nodes. */
+    @Override
+    public GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder) {
+        IntArrayList order = trackOrder ? new IntArrayList() : null;
+        FlowResult r = run(ResidualGraph.fromCsr(graph), start, MaxFlowAlgorithm.sinkFor(start, graph.nodeCount()), order);
+        return new GraphResult(null, null, order == null ? null : order.array(), order == null ? 0 : order.size(),
+                r.augments(), r.flow());
+    }
+
+    @Override
+    public FlowResult maxFlow(CSRGraph graph, int source, int sink) {
+        return run(ResidualGraph.fromCsr(graph), source, sink, null);
+    }
+
+    private FlowResult run(ResidualGraph r, int s, int t, IntArrayList order) {
+        return new Engine(r, s, t, selection, order, null).run();
+    }
+
+    private static final class Engine {
+        final ResidualGraph r;
+        final int n, s, t;
+        final int[] off, head, cap, rev;
+        final boolean fifo;
+        final IntArrayList order;
+        final TraceWriter tw;
+
+        final int[] height;
+        final long[] excess;
+        final int[] it;
+        final int[] count;      // nodes per height below n, for the gap heuristic
+        final int[] q;          // FIFO ring / BFS queue
+        final boolean[] queued; // FIFO membership
+        int qHead, qSize;
+        final int[] bucketHead; // highest-label: doubly linked active lists per height
+        final int[] bucketNext, bucketPrev;
+        final boolean[] inBucket;
+        int maxActive;
+
+        int pushes, relabels, globalRelabels, step;
+        long scanned, activated, polled, stale;
+
+        Engine(ResidualGraph r, int s, int t, Selection selection, IntArrayList order, TraceWriter tw) {
+            this.r = r;
+            this.n = r.n;
+            this.s = s;
+            this.t = t;
+            this.off = r.off;
+            this.head = r.head;
+            this.cap = r.cap;
+            this.rev = r.rev;
+            this.fifo = selection == Selection.FIFO;
+            this.order = order;
+            this.tw = tw;
+            height = new int[n];
+            excess = new long[n];
+            it = new int[n];
+            count = new int[n + 1];
+            q = new int[n];
+            queued = fifo ? new boolean[n] : null;
+            bucketHead = fifo ? null : new int[n + 1];
+            bucketNext = fifo ? null : new int[n];
+            bucketPrev = fifo ? null : new int[n];
+            inBucket = fifo ? null : new boolean[n];
+        }
+
+        FlowResult run() {
+            if (s == t) return new FlowResult(s, t, 0, 0, 0);
+            if (!fifo) Arrays.fill(bucketHead, -1);
+            globalRelabel();
+            // saturate every arc out of the source
+            for (int a = off[s]; a < off[s + 1]; a++) {
+                if (cap[a] > 0) push(s, a, cap[a]);
+            }
+
+            int relabelsAtLastGlobal = 0;
+            while (true) {
+                int u = fifo ? pollFifo() : pollHighest();
+                if (u < 0) break;
+                Deadline.check();
+                if (order != null) order.add(u);
+                discharge(u);
+                if (relabels - relabelsAtLastGlobal >= n) {
+                    globalRelabel();
+                    relabelsAtLastGlobal = relabels;
+                }
+            }
+            Counter.EDGES_SCANNED.add(scanned);
+            Counter.RELAXATIONS.add(pushes);
+            Counter.QUEUE_PUSHES.add(activated);
+            Counter.QUEUE_POPS.add(polled);
+            Counter.STALE_POPS.add(stale);
+            Counter.AUGMENTATIONS.add(relabels);
+            Counter.SWEEPS.add(globalRelabels);
+            return new FlowResult(s, t, excess[t], pushes, globalRelabels);
+        }
+
+        void discharge(int u) {
+            while (excess[u] > 0) {
+                int a = it[u];
+                if (a == off[u + 1]) {
+                    relabel(u);
+                    if (height[u] >= n) return;
+                    continue;
+                }
+                int v = head[a];
+                scanned++;
+                if (cap[a] > 0 && height[u] == height[v] + 1) {
+                    push(u, a, (int) Math.min(excess[u], cap[a]));
+                    if (cap[a] == 0) it[u]++;
+                } else {
+                    it[u]++;
+                }
+            }
+        }
+
+        void push(int u, int a, int delta) {
+            int v = head[a];
+            cap[a] -= delta;
+            cap[rev[a]] += delta;
+            excess[u] -= delta;
+            boolean wasIdle = excess[v] == 0;
+            excess[v] += delta;
+            pushes++;
+            if (wasIdle && v != s && v != t && height[v] < n) activate(v);
+            if (tw != null) tw.event(step++, PUSH, u, v, delta, height[u], excess[t]);
+        }
+
+        void relabel(int u) {
+            int old = height[u];
+            int minH = 2 * n;
+            scanned += off[u + 1] - off[u];
+            for (int a = off[u], end = off[u + 1]; a < end; a++) {
+                if (cap[a] > 0) minH = Math.min(minH, height[head[a]]);
+            }
+            int h = Math.min(minH + 1, n);
+            height[u] = h;
+            it[u] = off[u];
+            relabels++;
+            count[old]--;
+            count[h]++;
+            if (tw != null) tw.event(step++, RELABEL, u, TraceWriter.NO_NODE, TraceWriter.NONE, h, excess[t]);
+            if (count[old] == 0 && old < n) gap(old);
+        }
+
+        // no node is left at height g, so nothing above it can reach the sink any more
+        void gap(int g) {
+            for (int v = 0; v < n; v++) {
+                int h = height[v];
+                if (h > g && h < n && v != s) {
+                    count[h]--;
+                    count[n]++;
+                    if (!fifo && inBucket[v]) unbucket(v);
+                    height[v] = n;
+                }
+            }
+            if (tw != null) tw.event(step++, GAP, TraceWriter.NO_NODE, TraceWriter.NO_NODE, TraceWriter.NONE, g, excess[t]);
+        }
+
+        // exact distance-to-sink labels by reverse BFS over arcs with residual capacity
+        void globalRelabel() {
+            Arrays.fill(height, n);
+            height[t] = 0;
+            int qh = 0, qt = 0;
+            q[qt++] = t;
+            while (qh < qt) {
+                int v = q[qh++];
+                scanned += off[v + 1] - off[v];
+                for (int a = off[v], end = off[v + 1]; a < end; a++) {
+                    int u = head[a];
+                    if (height[u] == n && u != s && cap[rev[a]] > 0) {
+                        height[u] = height[v] + 1;
+                        q[qt++] = u;
+                    }
+                }
+            }
+            Arrays.fill(count, 0);
+            for (int v = 0; v < n; v++) count[height[v]]++;
+            System.arraycopy(off, 0, it, 0, n);
+            globalRelabels++;
+
+            // rebuild the active set under the new labels
+            if (fifo) {
+                qHead = 0;
+                qSize = 0;
+                Arrays.fill(queued, false);
+            } else {
+                Arrays.fill(bucketHead, -1);
+                Arrays.fill(inBucket, false);
+                maxActive = 0;
+            }
+            for (int v = 0; v < n; v++) {
+                if (excess[v] > 0 && v != s && v != t && height[v] < n) activate(v);
+            }
+            if (tw != null) tw.event(step++, GLOBAL_RELABEL, TraceWriter.NO_NODE, TraceWriter.NO_NODE,
+                    TraceWriter.NONE, height[s], excess[t]);
+        }
+
+        void activate(int v) {
+            if (fifo) {
+                if (queued[v]) return;
+                queued[v] = true;
+                activated++;
+                q[(qHead + qSize++) % n] = v;
+            } else {
+                if (inBucket[v]) return;
+                int h = height[v];
+                inBucket[v] = true;
+                activated++;
+                bucketPrev[v] = -1;
+                bucketNext[v] = bucketHead[h];
+                if (bucketHead[h] >= 0) bucketPrev[bucketHead[h]] = v;
+                bucketHead[h] = v;
+                if (h > maxActive) maxActive = h;
+            }
+        }
+
+        int pollFifo() {
+            while (qSize > 0) {
+                int v = q[qHead];
+                qHead = (qHead + 1) % n;
+                qSize--;
+                queued[v] = false;
+                polled++;
+                if (excess[v] > 0 && height[v] < n) return v;
+                stale++;
+            }
+            return -1;
+        }
+
+        int pollHighest() {
+            while (maxActive >= 0) {
+                int v = bucketHead[maxActive];
+                if (v >= 0) {
+                    unbucket(v);
+                    polled++;
+                    return v;
+                }
+                maxActive--;
+            }
+            maxActive = 0;
+            return -1;
+        }
+
+        void unbucket(int v) {
+            int p = bucketPrev[v], nx = bucketNext[v];
+            if (p >= 0) bucketNext[p] = nx;
+            else bucketHead[height[v]] = nx;
+            if (nx >= 0) bucketPrev[nx] = p;
+            inBucket[v] = false;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package algorithms;
+
+import utils.Parallel;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Answers many point-to-point shortest-path queries on one fixed weighted graph.
+ * <p>
+ * Implementations keep their search state per thread and reuse it across queries, so they are safe to call
+ * from any number of threads at once and allocate nothing per query beyond the returned path.
+ */
+public interface QueryEngine {
+
+    /** Queries handed to one fork-join task by {@link #distances}. */
+    int BATCH_GRAIN = 64;
+
+    /** @return shortest distance from source to target, {@link GraphResult#UNREACHED} if there is no path */
+    int distance(int source, int target);
+
+    /** @return nodes of a shortest path from source to target inclusive, or null if there is none */
+    int[] path(int source, int target);
+
+    /** Nodes settled by the calling thread's last query. */
+    int lastSettled();
+
+    /** distance(sources[i], targets[i]) for every i, fanned out over pool. */
+    default int[] distances(int[] sources, int[] targets, ForkJoinPool pool) {
+        if (sources.length != targets.length) throw new IllegalArgumentException("sources and targets differ in length");
+        int[] out = new int[sources.length];
+        Parallel.forRange(pool, 0, sources.length, BATCH_GRAIN, (from, to) -> {
+            for (int i = from; i < to; i++) out[i] = distance(sources[i], targets[i]);
+        });
+        return out;
+    }
+}
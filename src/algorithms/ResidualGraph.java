@@ -0,0 +1,111 @@
+package algorithms;
+
+import utils.CSRGraph;
+
+import java.util.*;
+
+/**
+ * Residual network for the max-flow algorithms, sized to the edge count.
+ * Every input edge (u, v, c) becomes a forward arc u->v with capacity c and a reverse arc
+ * v->u with capacity 0; rev[a] is the partner of arc a. Arcs leaving u are stored in
+ * off[u] .. off[u+1]-1 of head/cap/rev, so scans stay on flat arrays.
+ */
+public final class ResidualGraph {
+
+    final int n;
+    final int[] off;
+    final int[] head;
+    final int[] cap;
+    final int[] rev;
+    private final int[] initialCap;
+
+    private ResidualGraph(int n, int[] off, int[] head, int[] cap, int[] rev) {
+        this.n = n;
+        this.off = off;
+        this.head = head;
+        this.cap = cap;
+        this.rev = rev;
+        this.initialCap = cap.clone();
+    }
+
+    public int nodeCount() { return n; }
+
+    public int arcCount() { return head.length; }
+
+    /** Tail of arc a. */
+    int tail(int a) { return head[rev[a]]; }
+
+    /** Restore all capacities so the network can be reused for another (source, sink) pair. */
+    public void reset() {
+        System.arraycopy(initialCap, 0, cap, 0, cap.length);
+    }
+
+    /** Negative weights are treated as capacity 0. */
+    public static ResidualGraph fromCsr(CSRGraph graph) {
+        int n = graph.nodeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int[] wt = graph.weights();
+        int[] deg = new int[n];
+        for (int u = 0; u < n; u++) {
+            for (int i = off[u]; i < off[u + 1]; i++) {
+                deg[u]++;
+                deg[adj[i]]++;
+            }
+        }
+        Builder b = new Builder(deg);
+        for (int u = 0; u < n; u++) {
+            for (int i = off[u]; i < off[u + 1]; i++) b.add(u, adj[i], wt == null ? 1 : wt[i]);
+        }
+        return b.build();
+    }
+
+    /** Same as fromCsr for a weighted adjacency map keyed 0..n-1. */
+    public static ResidualGraph fromWeighted(Map<Integer, Map<Integer, Integer>> graph) {
+        int n = graph.size();
+        int[] deg = new int[n];
+        for (int u = 0; u < n; u++) {
+            for (int v : graph.getOrDefault(u, Collections.emptyMap()).keySet()) {
+                deg[u]++;
+                deg[v]++;
+            }
+        }
+        Builder b = new Builder(deg);
+        for (int u = 0; u < n; u++) {
+            for (Map.Entry<Integer, Integer> e : graph.getOrDefault(u, Collections.emptyMap()).entrySet()) {
+                b.add(u, e.getKey(), e.getValue());
+            }
+        }
+        return b.build();
+    }
+
+    private static final class Builder {
+        final int n;
+        final int[] off;
+        final int[] fill;
+        final int[] head;
+        final int[] cap;
+        final int[] rev;
+
+        Builder(int[] deg) {
+            n = deg.length;
+            off = new int[n + 1];
+            for (int u = 0; u < n; u++) off[u + 1] = off[u] + deg[u];
+            fill = Arrays.copyOf(off, n);
+            head = new int[off[n]];
+            cap = new int[off[n]];
+            rev = new int[off[n]];
+        }
+
+        void add(int u, int v, int c) {
+            int a = fill[u]++, b = fill[v]++;
+            head[a] = v;
+            cap[a] = Math.max(0, c);
+            rev[a] = b;
+            head[b] = u;
+            rev[b] = a;
+        }
+
+        ResidualGraph build() { return new ResidualGraph(n, off, head, cap, rev); }
+    }
+}
@@ -0,0 +1,352 @@
+package algorithms;
+
+import utils.CSRGraph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded cache of single-source results, keyed by graph {@link CSRGraph#fingerprint() fingerprint},
+ * algorithm name and source node.
+ * <p>
+ * An entry keeps the distances and parents of a {@link GraphResult} (not the order) plus its visited count and
+ * value, each array packed at 1, 2 or 4 bytes per node, whichever its largest value needs (BFS levels and
+ * parents of graphs under 64k nodes take a quarter and a half of an int[]). Entries live in heap buffers, or
+ * in direct buffers outside the Java heap with offHeap. Since the key holds the graph's content hash, a graph
+ * that changed in any way (a new snapshot of a {@link utils.DynamicGraph}, a rebuilt map graph) never hits
+ * the entries of its old content; they age out, or {@link #invalidate} drops them at once.
+ * <p>
+ * Eviction is LRU, or W-TinyLFU: new entries enter a window LRU of WINDOW of the capacity, and an entry
+ * leaving the window only displaces the least recently used entries of the main LRU when a count-min sketch
+ * of recent lookups has seen it more often than each of them; otherwise it is rejected. That keeps
+ * one-off sources from flushing the popular ones. All methods are thread-safe.
+ */
+public final class ResultCache {
+
+    /** Eviction policy. */
+    public enum Policy {
+        LRU("lru"), TINY_LFU("tinylfu");
+
+        private final String label;
+
+        Policy(String label) { this.label = label; }
+
+        public String label() { return label; }
+    }
+
+    private static final int ENTRY_OVERHEAD = 96; // key, entry, buffer object and map node, roughly
+    private static final double WINDOW = 0.01;
+
+    private final long capacity;
+    private final Policy policy;
+    private final boolean offHeap;
+    private final LinkedHashMap<Key, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Key, Entry> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final long windowCapacity, mainCapacity;
+    private final FrequencySketch sketch; // null for LRU
+    private long windowBytes, mainBytes;
+    private long hits, misses, evictions, rejections;
+
+    /** @param capacityBytes bound on the packed arrays plus a fixed per-entry overhead */
+    public ResultCache(long capacityBytes, Policy policy, boolean offHeap) {
+        if (capacityBytes < 0) throw new IllegalArgumentException("capacity must be >= 0");
+        this.capacity = capacityBytes;
+        this.policy = policy;
+        this.offHeap = offHeap;
+        windowCapacity = policy == Policy.TINY_LFU ? (long) (WINDOW * capacityBytes) : 0;
+        mainCapacity = capacityBytes - windowCapacity;
+        sketch = policy == Policy.TINY_LFU ? new FrequencySketch(capacityBytes) : null;
+    }
+
+    /** @return a fresh copy of the cached result, or null on a miss */
+    public GraphResult get(CSRGraph graph, String algorithm, int source) {
+        Key key = new Key(graph.fingerprint(), algorithm, source);
+        Entry e;
+        synchronized (this) {
+            if (sketch != null) sketch.increment(key.hashCode());
+            e = window.get(key);
+            if (e == null) e = main.get(key);
+            if (e == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        return e.decode(); // entries are immutable once stored
+    }
+
+    /** Store what algorithm computed on graph from source; the result's order is not kept. */
+    public void put(CSRGraph graph, String algorithm, int source, GraphResult result) {
+        Key key = new Key(graph.fingerprint(), algorithm, source);
+        Entry e = Entry.encode(result, offHeap);
+        synchronized (this) {
+            remove(key);
+            if (e.bytes > (policy == Policy.LRU ? capacity : mainCapacity)) {
+                rejections++;
+                return;
+            }
+            if (policy == Policy.LRU) {
+                main.put(key, e);
+                mainBytes += e.bytes;
+                makeRoom();
+                return;
+            }
+            window.put(key, e);
+            windowBytes += e.bytes;
+            while (windowBytes > windowCapacity) {
+                Map.Entry<Key, Entry> oldest = window.entrySet().iterator().next();
+                window.remove(oldest.getKey());
+                windowBytes -= oldest.getValue().bytes;
+                admit(oldest.getKey(), oldest.getValue());
+            }
+        }
+    }
+
+    /** Drop every entry computed on graph. */
+    public void invalidate(CSRGraph graph) { invalidate(graph.fingerprint()); }
+
+    /** Drop every entry of the graph with this fingerprint. */
+    public synchronized void invalidate(long fingerprint) {
+        windowBytes -= drop(window, fingerprint);
+        mainBytes -= drop(main, fingerprint);
+    }
+
+    public synchronized void clear() {
+        window.clear();
+        main.clear();
+        windowBytes = mainBytes = 0;
+    }
+
+    public Policy policy() { return policy; }
+
+    public boolean offHeap() { return offHeap; }
+
+    public long capacity() { return capacity; }
+
+    public synchronized int size() { return window.size() + main.size(); }
+
+    /** Bytes held, per-entry overhead included. */
+    public synchronized long bytes() { return windowBytes + mainBytes; }
+
+    public synchronized long hits() { return hits; }
+
+    public synchronized long misses() { return misses; }
+
+    /** Entries removed to make room for others. */
+    public synchronized long evictions() { return evictions; }
+
+    /** Entries never stored: larger than the cache, or turned away by the TinyLFU admission filter. */
+    public synchronized long rejections() { return rejections; }
+
+    public synchronized double hitRate() { return hits + misses == 0 ? 0 : (double) hits / (hits + misses); }
+
+    /** Window candidate into the main LRU, if it is used more often than everything it would displace. */
+    private void admit(Key key, Entry e) {
+        long need = mainBytes + e.bytes - mainCapacity;
+        if (need > 0) {
+            int freq = sketch.frequency(key.hashCode());
+            long freed = 0;
+            for (Iterator<Map.Entry<Key, Entry>> it = main.entrySet().iterator(); freed < need; ) {
+                Map.Entry<Key, Entry> victim = it.next();
+                if (sketch.frequency(victim.getKey().hashCode()) >= freq) {
+                    rejections++;
+                    return;
+                }
+                freed += victim.getValue().bytes;
+            }
+        }
+        main.put(key, e);
+        mainBytes += e.bytes;
+        makeRoom();
+    }
+
+    /** Evict least recently used main entries until it fits mainCapacity. */
+    private void makeRoom() {
+        Iterator<Map.Entry<Key, Entry>> it = main.entrySet().iterator();
+        while (mainBytes > mainCapacity && it.hasNext()) {
+            mainBytes -= it.next().getValue().bytes;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private void remove(Key key) {
+        Entry old = window.remove(key);
+        if (old != null) windowBytes -= old.bytes;
+        old = main.remove(key);
+        if (old != null) mainBytes -= old.bytes;
+    }
+
+    private static long drop(Map<Key, Entry> map, long fingerprint) {
+        long bytes = 0;
+        for (Iterator<Map.Entry<Key, Entry>> it = map.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().graph == fingerprint) {
+                bytes += e.getValue().bytes;
+                it.remove();
+            }
+        }
+        return bytes;
+    }
+
+    private static final class Key {
+        final long graph;
+        final String algorithm;
+        final int source;
+        final int hash;
+
+        Key(long graph, String algorithm, int source) {
+            this.graph = graph;
+            this.algorithm = algorithm;
+            this.source = source;
+            this.hash = (31 * (31 * Long.hashCode(graph) + algorithm.hashCode()) + source) * 0x9E3779B9;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return graph == k.graph && source == k.source && algorithm.equals(k.algorithm);
+        }
+
+        @Override
+        public int hashCode() { return hash; }
+    }
+
+    /** A result's arrays packed into one buffer: distances, then parents. */
+    private static final class Entry {
+        final ByteBuffer data;
+        final int distLength, parentLength; // -1 for a null array
+        final int distWidth, parentWidth;   // bytes per value
+        final int visited;
+        final long value;
+        final long bytes;
+
+        private Entry(ByteBuffer data, int distLength, int distWidth, int parentLength, int parentWidth, int visited,
+                      long value) {
+            this.data = data;
+            this.distLength = distLength;
+            this.distWidth = distWidth;
+            this.parentLength = parentLength;
+            this.parentWidth = parentWidth;
+            this.visited = visited;
+            this.value = value;
+            this.bytes = data.capacity() + ENTRY_OVERHEAD;
+        }
+
+        static Entry encode(GraphResult r, boolean offHeap) {
+            int[] dist = r.dist(), parent = r.parent();
+            int dw = width(dist, GraphResult.UNREACHED), pw = width(parent, -1);
+            int dLen = dist == null ? -1 : dist.length, pLen = parent == null ? -1 : parent.length;
+            int size = Math.max(0, dLen) * dw + Math.max(0, pLen) * pw;
+            ByteBuffer buf = (offHeap ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            pack(buf, 0, dist, dw, GraphResult.UNREACHED);
+            pack(buf, Math.max(0, dLen) * dw, parent, pw, -1);
+            return new Entry(buf, dLen, dw, pLen, pw, r.visited(), r.value());
+        }
+
+        GraphResult decode() {
+            int[] dist = unpack(data, 0, distLength, distWidth, GraphResult.UNREACHED);
+            int[] parent = unpack(data, Math.max(0, distLength) * distWidth, parentLength, parentWidth, -1);
+            return new GraphResult(dist, parent, null, 0, visited, value);
+        }
+
+        /**
+         * Bytes per value: 1 or 2 when every value but the absent marker lies below 0xFF or 0xFFFF, which
+         * then stand for the marker; else 4, stored as is.
+         */
+        private static int width(int[] a, int absent) {
+            if (a == null) return 0;
+            int min = 0, max = 0;
+            for (int x : a) {
+                if (x == absent) continue;
+                min = Math.min(min, x);
+                max = Math.max(max, x);
+            }
+            if (min < 0) return 4;
+            return max < 0xFF ? 1 : max < 0xFFFF ? 2 : 4;
+        }
+
+        private static void pack(ByteBuffer buf, int at, int[] a, int width, int absent) {
+            if (a == null) return;
+            if (width == 4) {
+                buf.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(at).asIntBuffer().put(a);
+                return;
+            }
+            for (int i = 0; i < a.length; i++, at += width) {
+                int x = a[i];
+                switch (width) {
+                    case 1: buf.put(at, (byte) (x == absent ? 0xFF : x)); break;
+                    case 2: buf.putShort(at, (short) (x == absent ? 0xFFFF : x)); break;
+                    default: buf.putInt(at, x);
+                }
+            }
+        }
+
+        private static int[] unpack(ByteBuffer buf, int at, int length, int width, int absent) {
+            if (length < 0) return null;
+            int[] a = new int[length];
+            if (width == 4) {
+                buf.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(at).asIntBuffer().get(a);
+                return a;
+            }
+            for (int i = 0; i < length; i++, at += width) {
+                int x;
+                switch (width) {
+                    case 1: x = buf.get(at) & 0xFF; a[i] = x == 0xFF ? absent : x; break;
+                    case 2: x = buf.getShort(at) & 0xFFFF; a[i] = x == 0xFFFF ? absent : x; break;
+                    default: a[i] = buf.getInt(at);
+                }
+            }
+            return a;
+        }
+    }
+
+    /**
+     * Count-min sketch of key hashes: DEPTH rows of counters capped at MAX_COUNT, all halved once
+     * RESET_FACTOR * width increments have been added, so old popularity fades.
+     */
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int RESET_FACTOR = 10;
+        private static final long[] SEEDS = {0x97CB3127L, 0xB22F3BE9L, 0xC2B2AE35L, 0x85EBCA6BL};
+
+        private final byte[][] rows = new byte[DEPTH][];
+        private final int mask;
+        private long additions;
+
+        /** Width of about one counter per KB of capacity, 1k to 1M. */
+        FrequencySketch(long capacityBytes) {
+            int width = (int) Math.min(1 << 20, Math.max(1 << 10, Long.highestOneBit(Math.max(1, capacityBytes >> 10))));
+            for (int d = 0; d < DEPTH; d++) rows[d] = new byte[width];
+            mask = width - 1;
+        }
+
+        void increment(int hash) {
+            for (int d = 0; d < DEPTH; d++) {
+                int i = index(hash, d);
+                if (rows[d][i] < MAX_COUNT) rows[d][i]++;
+            }
+            if (++additions >= (long) RESET_FACTOR * (mask + 1)) {
+                for (byte[] row : rows) for (int i = 0; i < row.length; i++) row[i] >>= 1;
+                additions /= 2;
+            }
+        }
+
+        int frequency(int hash) {
+            int f = MAX_COUNT;
+            for (int d = 0; d < DEPTH; d++) f = Math.min(f, rows[d][index(hash, d)]);
+            return f;
+        }
+
+        private int index(int hash, int d) {
+            long h = (hash + SEEDS[d]) * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 40) & mask;
+        }
+    }
+}
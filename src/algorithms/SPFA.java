@@ -0,0 +1,147 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Deadline;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.util.*;
+
+/**
+ * Queue-based Bellman-Ford (SPFA): only nodes whose distance dropped are scanned again.
+ * <p>
+ * Parent checking (Cherkassky and Goldberg): a dequeued node whose parent is back in the queue is
+ * skipped, since the parent's scan will lower it again. Negative cycles are found by amortized search:
+ * after every n relaxations the parent pointers are checked for a cycle in O(n).
+ */
+public class SPFA implements ShortestPathAlgorithm {
+
+    private static final int SKIP = TraceLayout.SPFA.action("Skip");
+    private static final int RELAX = TraceLayout.SPFA.action("Relax");
+    private static final int NEGATIVE_CYCLE = TraceLayout.SPFA.action("NegativeCycle");
+
+    @Override
+    public String name() { return "BellmanFord_SPFA"; }
+
+    /** Returns nodes in the order they were first reached. */
+    @Override
+    public List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath) {
+        TraceWriter tw = null;
+        int[] order = new int[graph.size()];
+        ShortestPathResult r = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.SPFA);
+            r = run(CSRGraph.fromWeighted(graph), start, order, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        List<Integer> reachOrder = new ArrayList<>();
+        if (r != null) for (int i = 0; i < r.reached(); i++) reachOrder.add(order[i]);
+        return reachOrder;
+    }
+
+    /** Same layout as {@link BellmanFord}: value() is the number of queue passes, or -1 for a negative cycle. */
+    @Override
+    public GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder) {
+        int[] order = trackOrder ? new int[graph.nodeCount()] : null;
+        ShortestPathResult r = run(graph, start, order);
+        return new GraphResult(r.dist(), r.parent(), order, trackOrder ? r.reached() : 0, r.reached(),
+                r.hasNegativeCycle() ? -1 : r.rounds());
+    }
+
+    @Override
+    public ShortestPathResult shortestPaths(CSRGraph graph, int source) {
+        return run(graph, source, null);
+    }
+
+    private ShortestPathResult run(CSRGraph graph, int source, int[] order) {
+        return run(graph, source, order, null);
+    }
+
+    private ShortestPathResult run(CSRGraph graph, int start, int[] order, TraceWriter tw) {
+        int n = graph.nodeCount();
+        int[] off = graph.offsets();
+        int[] adj = graph.targets();
+        int[] wt = graph.weights();
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        boolean[] queued = new boolean[n];
+        int[] queue = new int[n]; // ring; a node is in it at most once
+        Arrays.fill(dist, GraphResult.UNREACHED);
+        Arrays.fill(parent, -1);
+        dist[start] = 0;
+        if (order != null) order[0] = start;
+        int reached = 1;
+
+        int head = 0, size = 1;
+        queue[0] = start;
+        queued[start] = true;
+        int passLeft = 1;  // dequeues left in the current pass
+        int passes = 1;
+        long relaxations = 0, nextCheck = n;
+        long pushes = 1, pops = 0, skipped = 0, scanned = 0;
+        int[] cycle = null;
+        int step = 0;
+
+        while (size > 0) {
+            if (passLeft == 0) {
+                passLeft = size;
+                passes++;
+                Deadline.check();
+            }
+            passLeft--;
+            int u = queue[head];
+            head = head + 1 == n ? 0 : head + 1;
+            size--;
+            queued[u] = false;
+            pops++;
+
+            if (parent[u] >= 0 && queued[parent[u]]) {
+                skipped++;
+                if (tw != null) tw.event(step++, SKIP, u, parent[u], TraceWriter.NONE, TraceWriter.NONE, size);
+                continue;
+            }
+            int du = dist[u];
+            scanned += off[u + 1] - off[u];
+            for (int i = off[u], end = off[u + 1]; i < end; i++) {
+                int v = adj[i];
+                int nd = du + wt[i];
+                if (nd >= dist[v]) continue;
+                if (dist[v] == GraphResult.UNREACHED) {
+                    if (order != null) order[reached] = v;
+                    reached++;
+                }
+                if (tw != null) tw.event(step++, RELAX, u, v, dist[v], nd, size);
+                dist[v] = nd;
+                parent[v] = u;
+                relaxations++;
+                if (!queued[v]) {
+                    queue[(head + size) % n] = v;
+                    queued[v] = true;
+                    size++;
+                    pushes++;
+                }
+            }
+            if (relaxations >= nextCheck) {
+                nextCheck = relaxations + n;
+                if ((cycle = ShortestPathAlgorithm.parentCycle(parent)) != null) break;
+            }
+        }
+        Counter.EDGES_SCANNED.add(scanned);
+        Counter.RELAXATIONS.add(relaxations);
+        Counter.QUEUE_PUSHES.add(pushes);
+        Counter.QUEUE_POPS.add(pops);
+        Counter.STALE_POPS.add(skipped); // parent still queued: u's distance is about to change again
+        Counter.SWEEPS.add(passes);
+
+        if (cycle != null && tw != null) {
+            for (int i = 0; i < cycle.length; i++) {
+                tw.event(step++, NEGATIVE_CYCLE, cycle[i], cycle[(i + 1) % cycle.length],
+                        TraceWriter.NONE, TraceWriter.NONE, size);
+            }
+        }
+        return new ShortestPathResult(dist, parent, cycle, reached, passes, relaxations);
+    }
+}
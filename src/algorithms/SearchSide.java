@@ -0,0 +1,41 @@
+package algorithms;
+
+import utils.DaryHeap;
+
+import java.util.Arrays;
+
+/**
+ * One direction of a reusable point-to-point search: distances and parents that are valid only where their
+ * stamp equals the current query's version, plus a heap emptied in O(size) after each query. Starting a
+ * query is then one version increment instead of clearing O(n) arrays.
+ */
+final class SearchSide {
+
+    private static final int UNREACHED = GraphResult.UNREACHED;
+    private static final int HEAP_ARITY = 4;
+
+    final int[] dist, parent, stamp;
+    final DaryHeap heap;
+
+    SearchSide(int n) {
+        dist = new int[n];
+        parent = new int[n];
+        stamp = new int[n];
+        heap = new DaryHeap(n, HEAP_ARITY);
+    }
+
+    int dist(int v, int version) { return stamp[v] == version ? dist[v] : UNREACHED; }
+
+    void reach(int v, int d, int p, int version) {
+        dist[v] = d;
+        parent[v] = p;
+        stamp[v] = version;
+    }
+
+    /** Version after current for every side of one search; stamps are reset once when the counter wraps to 0. */
+    static int nextVersion(int current, SearchSide... sides) {
+        if (++current != 0) return current;
+        for (SearchSide s : sides) Arrays.fill(s.stamp, 0);
+        return 1;
+    }
+}
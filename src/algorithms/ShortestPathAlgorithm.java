@@ -0,0 +1,44 @@
+package algorithms;
+
+import utils.CSRGraph;
+
+/**
+ * Single-source shortest paths that tolerate negative weights and report a negative cycle
+ * instead of distances when one is reachable.
+ */
+public interface ShortestPathAlgorithm extends WeightedGraphAlgorithm {
+
+    /**
+     * @param graph weighted CSR graph, weights may be negative
+     * @return distances and parents, or the negative cycle reachable from source
+     */
+    ShortestPathResult shortestPaths(CSRGraph graph, int source);
+
+    /**
+     * A cycle in the parent pointers, in edge order, or null if they form a forest.
+     * Any such cycle left by edge relaxations has negative total weight.
+     */
+    static int[] parentCycle(int[] parent) {
+        int n = parent.length;
+        int[] seenFrom = new int[n]; // 0 = unseen, otherwise 1 + the node whose walk first saw it
+        for (int s = 0; s < n; s++) {
+            int v = s;
+            while (v >= 0 && seenFrom[v] == 0) {
+                seenFrom[v] = s + 1;
+                v = parent[v];
+            }
+            if (v < 0 || seenFrom[v] != s + 1) continue;
+            // v is on a cycle closed during this walk; collect it backwards, then reverse
+            int len = 1;
+            for (int u = parent[v]; u != v; u = parent[u]) len++;
+            int[] cycle = new int[len];
+            int u = v;
+            for (int i = len - 1; i >= 0; i--) {
+                cycle[i] = u;
+                u = parent[u];
+            }
+            return cycle;
+        }
+        return null;
+    }
+}
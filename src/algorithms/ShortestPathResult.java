@@ -0,0 +1,49 @@
+package algorithms;
+
+/**
+ * Outcome of one single-source shortest-path computation that allows negative weights.
+ * When a negative cycle is reachable from the source, dist and parent hold the state at the
+ * moment it was found and are not shortest distances.
+ */
+public final class ShortestPathResult {
+
+    private final int[] dist;
+    private final int[] parent;
+    private final int[] negativeCycle;
+    private final int reached;
+    private final int rounds;
+    private final long relaxations;
+
+    /**
+     * @param dist per-node distance, GraphResult.UNREACHED when not reached
+     * @param parent per-node predecessor, -1 for the source and unreached nodes
+     * @param negativeCycle nodes of a negative cycle in edge order (each entry's parent is the one
+     *                      before it, cyclically), or null when there is none
+     * @param reached nodes with a finite distance, source included
+     * @param rounds sweeps (Bellman-Ford) or queue passes (SPFA)
+     * @param relaxations edge relaxations that lowered a distance
+     */
+    public ShortestPathResult(int[] dist, int[] parent, int[] negativeCycle, int reached, int rounds, long relaxations) {
+        this.dist = dist;
+        this.parent = parent;
+        this.negativeCycle = negativeCycle;
+        this.reached = reached;
+        this.rounds = rounds;
+        this.relaxations = relaxations;
+    }
+
+    public int[] dist() { return dist; }
+
+    public int[] parent() { return parent; }
+
+    /** @return the negative cycle found, or null */
+    public int[] negativeCycle() { return negativeCycle; }
+
+    public boolean hasNegativeCycle() { return negativeCycle != null; }
+
+    public int reached() { return reached; }
+
+    public int rounds() { return rounds; }
+
+    public long relaxations() { return relaxations; }
+}
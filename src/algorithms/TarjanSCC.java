@@ -0,0 +1,109 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.util.*;
+
+/**
+ * Strongly connected components by Tarjan's low-link algorithm on the {@link DepthFirstSearch} engine, so it
+ * needs no recursion and runs on graphs of any depth. A node's low link is the smallest preorder number it
+ * reaches through its subtree and one non-tree edge into a node still on the component stack; a node whose
+ * low link is its own preorder number roots a component, which is popped off that stack when it finishes.
+ * Components are numbered in the order they complete, a reverse topological order of the condensation.
+ */
+public class TarjanSCC implements UnweightedGraphAlgorithm {
+
+    @Override
+    public String name() { return "TarjanSCC"; }
+
+    /** Labels the whole graph, searching from start first; the visit order is the DFS preorder. */
+    @Override
+    public List<Integer> runUnweighted(Map<Integer, List<Integer>> graph, int start, boolean verbose, String verbosePath) {
+        TraceWriter tw = null;
+        GraphResult r = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.DEPTH_FIRST);
+            r = run(CSRGraph.fromAdjacency(graph), start, true, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        List<Integer> visitOrder = new ArrayList<>();
+        if (r != null) for (int i = 0; i < r.orderSize(); i++) visitOrder.add(r.order()[i]);
+        return visitOrder;
+    }
+
+    /**
+     * dist() holds each node's component id, parent() the DFS forest and value() the number of components;
+     * the order, when tracked, is the DFS preorder.
+     */
+    @Override
+    public GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder) {
+        return run(graph, start, trackOrder, null);
+    }
+
+    /** Component id of every node, ids in reverse topological order of the condensation. */
+    public int[] components(CSRGraph graph) {
+        return run(graph, 0, false, null).dist();
+    }
+
+    private GraphResult run(CSRGraph graph, int start, boolean trackOrder, TraceWriter tw) {
+        int n = graph.nodeCount();
+        DepthFirstSearch dfs = new DepthFirstSearch(n);
+        Scc scc = new Scc(dfs, n, trackOrder);
+        DepthFirstSearch.Traced traced = tw == null ? null : new DepthFirstSearch.Traced(dfs, scc, tw);
+        scc.trace = traced;
+        int visited = n == 0 ? 0 : dfs.searchAll(graph, start, traced == null ? scc : traced);
+
+        int[] parent = new int[n];
+        for (int u = 0; u < n; u++) parent[u] = dfs.parent(u);
+        return new GraphResult(scc.comp, parent, scc.order, trackOrder ? visited : 0, visited, scc.count);
+    }
+
+    private static final class Scc implements DepthFirstSearch.Visitor {
+        final DepthFirstSearch dfs;
+        final int[] low, comp, stack, order;
+        DepthFirstSearch.Traced trace;
+        int top, count;
+
+        Scc(DepthFirstSearch dfs, int n, boolean trackOrder) {
+            this.dfs = dfs;
+            low = new int[n];
+            comp = new int[n];
+            stack = new int[n];
+            order = trackOrder ? new int[n] : null;
+            Arrays.fill(comp, -1);
+        }
+
+        @Override
+        public void discover(int u, int parent) {
+            int pre = dfs.preorder(u);
+            low[u] = pre;
+            stack[top++] = u;
+            if (order != null) order[pre] = u;
+        }
+
+        @Override
+        public void nonTreeEdge(int u, int v, int e) {
+            // discovered and not yet in a component means still on the stack
+            if (comp[v] < 0) low[u] = Math.min(low[u], dfs.preorder(v));
+        }
+
+        @Override
+        public void finish(int u, int parent) {
+            if (low[u] == dfs.preorder(u)) {
+                int size = 0, w;
+                do {
+                    w = stack[--top];
+                    comp[w] = count;
+                    size++;
+                } while (w != u);
+                if (trace != null) trace.event("Component", u, TraceWriter.NO_NODE, size);
+                count++;
+            }
+            if (parent >= 0) low[parent] = Math.min(low[parent], low[u]);
+        }
+    }
+}
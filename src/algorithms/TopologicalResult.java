@@ -0,0 +1,28 @@
+package algorithms;
+
+/**
+ * Outcome of a topological sort: an order of all nodes in which every edge points forward, or, when the
+ * graph has a directed cycle, the first cycle found instead.
+ */
+public final class TopologicalResult {
+
+    private final int[] order;
+    private final int[] cycle;
+
+    /**
+     * @param order every node, each edge u -> v with u before v (null when there is a cycle)
+     * @param cycle nodes of a directed cycle in edge order, the last one's edge leading back to the first
+     *              (null when the graph is acyclic)
+     */
+    public TopologicalResult(int[] order, int[] cycle) {
+        this.order = order;
+        this.cycle = cycle;
+    }
+
+    public int[] order() { return order; }
+
+    /** @return the cycle found, or null */
+    public int[] cycle() { return cycle; }
+
+    public boolean isAcyclic() { return cycle == null; }
+}
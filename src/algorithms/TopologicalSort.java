@@ -0,0 +1,96 @@
+package algorithms;
+
+import utils.CSRGraph;
+import utils.TraceLayout;
+import utils.TraceWriter;
+
+import java.util.*;
+
+/**
+ * Topological sort by reverse DFS finish order on the {@link DepthFirstSearch} engine. An edge into a node
+ * that is still on the DFS path is a back edge, and the tree path from that node down to the edge's source
+ * closes a directed cycle; the search stops there and reports it. Undirected graphs (every edge stored both
+ * ways) therefore always have a two-node cycle.
+ */
+public class TopologicalSort implements UnweightedGraphAlgorithm {
+
+    @Override
+    public String name() { return "TopologicalSort"; }
+
+    /** Sorts the whole graph, searching from start first; returns the order, or the cycle if there is one. */
+    @Override
+    public List<Integer> runUnweighted(Map<Integer, List<Integer>> graph, int start, boolean verbose, String verbosePath) {
+        TraceWriter tw = null;
+        TopologicalResult r = null;
+        try {
+            if (verbose && verbosePath != null) tw = TraceWriter.open(verbosePath, TraceLayout.DEPTH_FIRST);
+            r = run(CSRGraph.fromAdjacency(graph), start, null, tw);
+        } catch (Exception e) {
+        } finally {
+            TraceWriter.closeQuietly(tw);
+        }
+        List<Integer> visitOrder = new ArrayList<>();
+        if (r != null) for (int v : r.isAcyclic() ? r.order() : r.cycle()) visitOrder.add(v);
+        return visitOrder;
+    }
+
+    /**
+     * value() is 1 for an acyclic graph and 0 otherwise, visited() counts the nodes discovered before the
+     * search ended; the order, when tracked, is the topological order or the cycle.
+     */
+    @Override
+    public GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder) {
+        int[] visited = new int[1];
+        TopologicalResult r = run(graph, start, visited, null);
+        int[] shown = r.isAcyclic() ? r.order() : r.cycle();
+        return new GraphResult(null, null, trackOrder ? shown : null, trackOrder ? shown.length : 0,
+                visited[0], r.isAcyclic() ? 1 : 0);
+    }
+
+    /** Topological order of every node, or a directed cycle. */
+    public TopologicalResult sort(CSRGraph graph) {
+        return run(graph, 0, null, null);
+    }
+
+    private TopologicalResult run(CSRGraph graph, int start, int[] visited, TraceWriter tw) {
+        int n = graph.nodeCount();
+        DepthFirstSearch dfs = new DepthFirstSearch(n);
+        Sort sort = new Sort(dfs, n);
+        DepthFirstSearch.Traced traced = tw == null ? null : new DepthFirstSearch.Traced(dfs, sort, tw);
+        int found = n == 0 ? 0 : dfs.searchAll(graph, start, traced == null ? sort : traced);
+        if (visited != null) visited[0] = found;
+
+        int[] cycle = sort.cycle;
+        if (traced != null && cycle != null) for (int v : cycle) traced.event("CycleNode", v, TraceWriter.NO_NODE, cycle.length);
+        return new TopologicalResult(cycle == null ? sort.order : null, cycle);
+    }
+
+    private static final class Sort implements DepthFirstSearch.Visitor {
+        final DepthFirstSearch dfs;
+        final int[] order;
+        int[] cycle;
+        int next;
+
+        Sort(DepthFirstSearch dfs, int n) {
+            this.dfs = dfs;
+            order = new int[n];
+            next = n;
+        }
+
+        @Override
+        public void nonTreeEdge(int u, int v, int e) {
+            if (!dfs.isActive(v)) return;
+            // back edge: v is an ancestor of u (or u itself), so v -> ... -> u -> v is a cycle
+            int len = 1;
+            for (int x = u; x != v; x = dfs.parent(x)) len++;
+            cycle = new int[len];
+            for (int x = u, i = len - 1; i >= 0; x = dfs.parent(x), i--) cycle[i] = x;
+            dfs.stop();
+        }
+
+        @Override
+        public void finish(int u, int parent) {
+            order[--next] = u;
+        }
+    }
+}
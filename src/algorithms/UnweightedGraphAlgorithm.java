@@ -1,5 +1,7 @@
 package algorithms;
 
+import utils.CSRGraph;
+
 import java.util.List;
 import java.util.Map;
 
@@ -9,9 +11,18 @@ public interface UnweightedGraphAlgorithm {
     /**
      * @param graph adjacency list: node -> list of neighbors
      * @param start start node (0..n-1)
-     * @param verbose if true, write step-by-step CSV to verbosePath
-     * @param verbosePath file path for per-run CSV (may be null when verbose=false)
+     * @param verbose if true, write a step-by-step binary trace to verbosePath (see utils.TraceWriter)
+     * @param verbosePath file path for the per-run trace (may be null when verbose=false)
      * @return list of visited nodes in order
      */
     List<Integer> runUnweighted(Map<Integer, List<Integer>> graph, int start, boolean verbose, String verbosePath);
+
+    /**
+     * Primitive fast path: no tracing, no boxing.
+     * @param graph CSR graph (targets only are used)
+     * @param start start node (0..n-1)
+     * @param trackOrder if true, fill GraphResult.order() with the visit order
+     * @return distances/levels, parents and (optionally) visit order
+     */
+    GraphResult runUnweighted(CSRGraph graph, int start, boolean trackOrder);
 }
@@ -1,5 +1,7 @@
 package algorithms;
 
+import utils.CSRGraph;
+
 import java.util.List;
 import java.util.Map;
 
@@ -9,9 +11,18 @@ public interface WeightedGraphAlgorithm {
     /**
      * @param graph weighted adjacency map: u -> (v -> weight)
      * @param start start node (0..n-1). For MaxFlow we’ll assume start is the source and sink=start+1 (unless you change it)
-     * @param verbose if true, write step-by-step CSV to verbosePath
-     * @param verbosePath file path for per-run CSV (may be null when verbose=false)
+     * @param verbose if true, write a step-by-step binary trace to verbosePath (see utils.TraceWriter)
+     * @param verbosePath file path for the per-run trace (may be null when verbose=false)
      * @return list of processed/visited nodes in order (algorithm-specific)
      */
     List<Integer> runWeighted(Map<Integer, Map<Integer, Integer>> graph, int start, boolean verbose, String verbosePath);
+
+    /**
+     * Primitive fast path: no tracing, no boxing.
+     * @param graph weighted CSR graph
+     * @param start start node (0..n-1), same meaning as in the map-based overload
+     * @param trackOrder if true, fill GraphResult.order() with the processing order
+     * @return distances, parents and (optionally) processing order (algorithm-specific)
+     */
+    GraphResult runWeighted(CSRGraph graph, int start, boolean trackOrder);
 }
@@ -0,0 +1,117 @@
+package experiments;
+
+import algorithms.BFSAlgorithm;
+import algorithms.GraphResult;
+import algorithms.MultiSourceBFS;
+import algorithms.MultiSourceResult;
+import experiments.GraphCache.Cell;
+import utils.CSRGraph;
+import utils.GraphModel;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * BFS from batchSources random sources per unweighted cell of the {@link BenchmarkConfig} matrix: the
+ * sequential {@link BFSAlgorithm} once per source against {@link MultiSourceBFS} at every batchWidths width
+ * and configured thread count. Each variant gets warmups untimed and minRuns timed runs; one row per variant
+ * records the median time, sources per second and speedup over the loop. Every source's reached count and
+ * distance sum are checked against the loop. Usage as for the main harness, e.g.
+ * {@code java experiments.BatchBfsBenchmark models=RMAT,GRID nodes=100000 densities=0.0001 batchSources=4096}.
+ */
+public class BatchBfsBenchmark {
+
+    static final String HEADER = "Algorithm,Model,Directed,Nodes,Edges,Density,Seed,Sources,Width,Threads,MedianMs,SourcesPerSec,Speedup";
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkConfig cfg = BenchmarkConfig.parse(args);
+        File outDir = new File(cfg.batchOutput).getAbsoluteFile().getParentFile();
+        if (outDir != null) outDir.mkdirs();
+
+        List<Cell> cells = new ArrayList<>();
+        for (GraphModel model : cfg.models)
+            for (boolean directed : cfg.directed)
+                for (int n : cfg.nodes)
+                    for (double density : cfg.densities)
+                        for (long seed : cfg.seeds)
+                            cells.add(new Cell(cells.size(), model, directed, n, density, seed));
+
+        try (CsvSink csv = new CsvSink(cfg.batchOutput, HEADER)) {
+            for (Cell cell : cells) {
+                CSRGraph g = GraphAlgorithmBenchmarkVerbose.graph(cfg.graphDir, cell, false);
+                runCell(cfg, cell, g, csv);
+            }
+        }
+        System.out.println("Multi-source BFS benchmark complete. CSV saved to " + cfg.batchOutput);
+    }
+
+    static void runCell(BenchmarkConfig cfg, Cell cell, CSRGraph g, CsvSink csv) throws Exception {
+        Random rnd = new Random(GraphAlgorithmBenchmarkVerbose.startSeed(cell));
+        int[] sources = new int[cfg.batchSources];
+        for (int i = 0; i < sources.length; i++) sources[i] = rnd.nextInt(cell.n);
+
+        BFSAlgorithm bfs = new BFSAlgorithm();
+        int[] reached = new int[sources.length];
+        long[] distanceSum = new long[sources.length];
+        RunStats loop = time(cfg, () -> {
+            for (int i = 0; i < sources.length; i++) {
+                GraphResult r = bfs.runUnweighted(g, sources[i], false);
+                long sum = 0;
+                for (int d : r.dist()) if (d != GraphResult.UNREACHED) sum += d;
+                reached[i] = r.visited();
+                distanceSum[i] = sum;
+            }
+        });
+        System.out.printf("%s %s n=%d d=%s seed=%d%n", cell.model.label(), cell.directed ? "directed" : "undirected",
+                cell.n, cell.density, cell.seed);
+        row(csv, cell, g, "BFS_Loop", sources.length, "", "", loop, loop);
+
+        for (int width : cfg.batchWidths) {
+            for (int threads : cfg.threads) {
+                MultiSourceBFS ms = new MultiSourceBFS(threads, width);
+                MultiSourceResult[] last = new MultiSourceResult[1];
+                RunStats stats = time(cfg, () -> last[0] = ms.run(g, sources));
+                for (int i = 0; i < sources.length; i++) {
+                    if (last[0].reached(i) != reached[i] || last[0].distanceSum(i) != distanceSum[i]) {
+                        throw new IllegalStateException(String.format("%s: source %d reached %d (sum %d), BFS %d (sum %d)",
+                                ms.name(), sources[i], last[0].reached(i), last[0].distanceSum(i), reached[i], distanceSum[i]));
+                    }
+                }
+                row(csv, cell, g, ms.name(), sources.length, String.valueOf(width), String.valueOf(threads), stats, loop);
+            }
+        }
+    }
+
+    private static RunStats time(BenchmarkConfig cfg, Runnable body) {
+        for (int w = 0; w < cfg.warmups; w++) body.run();
+        RunStats stats = new RunStats();
+        for (int r = 0; r < cfg.minRuns; r++) {
+            long t0 = System.nanoTime();
+            body.run();
+            stats.add((System.nanoTime() - t0) / 1e6);
+        }
+        return stats;
+    }
+
+    private static void row(CsvSink csv, Cell cell, CSRGraph g, String name, int sources, String width, String threads,
+                            RunStats stats, RunStats loop) throws Exception {
+        double ms = stats.median();
+        csv.row(
+                name,
+                cell.model.label(),
+                String.valueOf(cell.directed),
+                String.valueOf(cell.n),
+                String.valueOf(g.edgeCount()),
+                String.valueOf(cell.density),
+                String.valueOf(cell.seed),
+                String.valueOf(sources),
+                width,
+                threads,
+                String.valueOf(ms),
+                String.valueOf(sources / (ms / 1e3)),
+                String.valueOf(loop.median() / ms)
+        );
+        System.out.printf("  %-24s median %10.2f ms  %10.0f sources/s  x%.1f%n", name, ms, sources / (ms / 1e3),
+                loop.median() / ms);
+    }
+}
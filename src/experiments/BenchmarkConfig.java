@@ -0,0 +1,279 @@
+package experiments;
+
+import algorithms.ResultCache;
+import utils.GraphModel;
+import utils.GraphOrdering;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Benchmark matrix and harness settings, read from a properties file and then from key=value arguments.
+ * <p>
+ * Usage: GraphAlgorithmBenchmarkVerbose [--config file.properties] [key=value ...]. Without --config,
+ * ../config/benchmark.properties is read when it exists. List values are comma-separated; see
+ * config/benchmark.properties for every key.
+ */
+public final class BenchmarkConfig {
+
+    public static final String DEFAULT_FILE = "../config/benchmark.properties";
+
+    // ----- matrix -----
+    public boolean[] directed = {true, false};
+    public int[] nodes = {100, 500};
+    public double[] densities = {0.01, 0.05, 0.1};
+    public long[] seeds = {42, 1337, 2024};
+    public GraphModel[] models = {GraphModel.ERDOS_RENYI};
+    public int warmups = 1;         // untimed runs per algorithm and cell before sampling
+    public int minRuns = 3;
+    public int maxRuns = 30;
+    public double targetCi = 0.05;  // stop once the 95% CI half-width is within this fraction of the mean
+    public long budgetMs = 1000;    // or once this much wall-clock time went into the algorithm on the cell
+    public long deadlineMs = 30000; // hard limit: a run still going at this point is abandoned
+    public int[] threads = threadCounts(Runtime.getRuntime().availableProcessors());
+    public String algorithms = ".*"; // regex on algorithm names
+
+    // ----- point-to-point queries (QueryBenchmark) -----
+    public int queries = 100;       // random (source, target) pairs per cell
+    public int landmarks = 16;      // ALT landmarks
+
+    // ----- multi-source BFS (BatchBfsBenchmark) -----
+    public int batchSources = 1024;  // BFS sources per cell
+    public int[] batchWidths = {1, 4}; // 64-bit words per node, i.e. 64 * width sources per traversal
+
+    // ----- dynamic shortest paths (DynamicBenchmark) -----
+    public int updates = 1000;          // edge updates per cell
+    public int recomputeSamples = 20;   // full recomputations timed (and checked against) along the stream
+
+    // ----- graph reordering (ReorderBenchmark) -----
+    public GraphOrdering[] orderings = GraphOrdering.values();
+
+    // ----- shortest-path-tree cache (CacheBenchmark) -----
+    public int cacheQueries = 2000;     // start nodes per cell and algorithm
+    public double cacheSkew = 1.0;      // Zipf exponent of the start distribution
+    public int[] cacheMB = {16, 128};
+    public ResultCache.Policy[] cachePolicies = ResultCache.Policy.values();
+    public boolean[] cacheOffHeap = {false};
+
+    // ----- edge-list ingestion (IngestBenchmark) -----
+    public String[] edgeLists = {};          // text edge lists to read; empty: the matrix cells, written out
+    public boolean edgeListWeighted = false; // take weights from the third column of edgeLists
+
+    // ----- query server (QueryServer, LoadGenerator) -----
+    public int serverPort = 8080;            // 0: any free port
+    public int serverMaxInFlight = 64;       // queries admitted at once
+    public long serverQueueMs = 100;         // wait for admission before answering 503
+    public long serverTimeLimitMs = 1000;    // per query; answered 504 past it
+    public String serverUrl = "";            // LoadGenerator target; empty: an embedded server on a free port
+    public LoadGenerator.Mode[] loadModes = LoadGenerator.Mode.values();
+    public int[] loadClients = {1, 4, 16};   // closed loop: clients, each sending its next query on an answer
+    public int[] loadRates = {100, 400};     // open loop: Poisson arrivals per second, whatever the answers
+    public long loadDurationMs = 5000;       // per load level
+    public QueryServer.Op[] loadOps = QueryServer.Op.values(); // query mix, picked uniformly
+    public int loadHops = 2;                 // k of the khop queries
+
+    // ----- measurement -----
+    public boolean measureMemory = true;
+    public boolean gcBeforeRun = false;
+    public boolean verbose = true;
+    public boolean tracesToCsv = true;
+    public boolean primitiveGraphs = true;
+    public boolean counters = true;          // per-run work counters (EdgesScanned ... Sweeps columns)
+
+    // ----- scheduling -----
+    public int workers = 1;
+    public boolean pinTimedRuns = true;
+    public int cachedCells = 4;
+
+    // ----- files -----
+    public String output = "../data/all_graph_algorithms_verbose.csv";
+    public String summary = "../data/all_graph_algorithms_summary.csv";
+    public String queryOutput = "../data/point_to_point_queries.csv";
+    public String queryThroughputOutput = "../data/query_throughput.csv";
+    public String querySummaryOutput = "../data/query_summary.csv";
+    public String batchOutput = "../data/multi_source_bfs.csv";
+    public String dynamicOutput = "../data/dynamic_sssp.csv";
+    public String reorderOutput = "../data/reordering.csv";
+    public String ingestOutput = "../data/ingestion.csv";
+    public String cacheOutput = "../data/result_cache.csv";
+    public String serverOutput = "../data/query_server_load.csv";
+    public String jfrOutput = "";              // flight recording of the main harness; empty: none
+    public String resultsDir = "../results";
+    public String graphDir = "../data/graphs"; // empty: regenerate every time
+
+    public static BenchmarkConfig parse(String[] args) throws IOException {
+        BenchmarkConfig c = new BenchmarkConfig();
+        List<String> overrides = new ArrayList<>();
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--config")) {
+                if (i + 1 == args.length) throw new IllegalArgumentException("--config needs a file");
+                file = args[++i];
+            } else {
+                overrides.add(args[i]);
+            }
+        }
+        Path path = Paths.get(file != null ? file : DEFAULT_FILE);
+        if (file != null || Files.exists(path)) {
+            Properties p = new Properties();
+            try (Reader r = Files.newBufferedReader(path)) {
+                p.load(r);
+            }
+            for (String key : new TreeSet<>(p.stringPropertyNames())) c.set(key, p.getProperty(key).trim());
+        }
+        for (String kv : overrides) {
+            int eq = kv.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("expected key=value, got " + kv);
+            c.set(kv.substring(0, eq).trim(), kv.substring(eq + 1).trim());
+        }
+        c.check();
+        return c;
+    }
+
+    public void set(String key, String value) {
+        switch (key) {
+            case "directed": directed = booleans(value); break;
+            case "nodes": nodes = ints(value); break;
+            case "densities": densities = Arrays.stream(split(value)).mapToDouble(Double::parseDouble).toArray(); break;
+            case "seeds": seeds = Arrays.stream(split(value)).mapToLong(Long::parseLong).toArray(); break;
+            case "models": models = Arrays.stream(split(value)).map(BenchmarkConfig::model).toArray(GraphModel[]::new); break;
+            case "runs": minRuns = maxRuns = Integer.parseInt(value); break; // fixed sample count
+            case "warmups": warmups = Integer.parseInt(value); break;
+            case "minRuns": minRuns = Integer.parseInt(value); break;
+            case "maxRuns": maxRuns = Integer.parseInt(value); break;
+            case "targetCi": targetCi = Double.parseDouble(value); break;
+            case "budgetMs": budgetMs = Long.parseLong(value); break;
+            case "deadlineMs": deadlineMs = Long.parseLong(value); break;
+            case "threads":
+                threads = value.equals("auto") ? threadCounts(Runtime.getRuntime().availableProcessors()) : ints(value);
+                break;
+            case "algorithms": algorithms = value.isEmpty() ? ".*" : value; break;
+            case "queries": queries = Integer.parseInt(value); break;
+            case "landmarks": landmarks = Integer.parseInt(value); break;
+            case "batchSources": batchSources = Integer.parseInt(value); break;
+            case "batchWidths": batchWidths = ints(value); break;
+            case "updates": updates = Integer.parseInt(value); break;
+            case "recomputeSamples": recomputeSamples = Integer.parseInt(value); break;
+            case "orderings": orderings = Arrays.stream(split(value)).map(BenchmarkConfig::ordering).toArray(GraphOrdering[]::new); break;
+            case "cacheQueries": cacheQueries = Integer.parseInt(value); break;
+            case "cacheSkew": cacheSkew = Double.parseDouble(value); break;
+            case "cacheMB": cacheMB = ints(value); break;
+            case "cachePolicies": cachePolicies = Arrays.stream(split(value)).map(BenchmarkConfig::policy).toArray(ResultCache.Policy[]::new); break;
+            case "cacheOffHeap": cacheOffHeap = booleans(value); break;
+            case "edgeLists": edgeLists = split(value); break;
+            case "edgeListWeighted": edgeListWeighted = bool(value); break;
+            case "serverPort": serverPort = Integer.parseInt(value); break;
+            case "serverMaxInFlight": serverMaxInFlight = Integer.parseInt(value); break;
+            case "serverQueueMs": serverQueueMs = Long.parseLong(value); break;
+            case "serverTimeLimitMs": serverTimeLimitMs = Long.parseLong(value); break;
+            case "serverUrl": serverUrl = value; break;
+            case "loadModes": loadModes = Arrays.stream(split(value)).map(BenchmarkConfig::mode).toArray(LoadGenerator.Mode[]::new); break;
+            case "loadClients": loadClients = ints(value); break;
+            case "loadRates": loadRates = ints(value); break;
+            case "loadDurationMs": loadDurationMs = Long.parseLong(value); break;
+            case "loadOps": loadOps = Arrays.stream(split(value)).map(BenchmarkConfig::op).toArray(QueryServer.Op[]::new); break;
+            case "loadHops": loadHops = Integer.parseInt(value); break;
+            case "measureMemory": measureMemory = bool(value); break;
+            case "gcBeforeRun": gcBeforeRun = bool(value); break;
+            case "verbose": verbose = bool(value); break;
+            case "tracesToCsv": tracesToCsv = bool(value); break;
+            case "primitiveGraphs": primitiveGraphs = bool(value); break;
+            case "counters": counters = bool(value); break;
+            case "workers": workers = Integer.parseInt(value); break;
+            case "pinTimedRuns": pinTimedRuns = bool(value); break;
+            case "cachedCells": cachedCells = Integer.parseInt(value); break;
+            case "output": output = value; break;
+            case "summary": summary = value; break;
+            case "queryOutput": queryOutput = value; break;
+            case "queryThroughputOutput": queryThroughputOutput = value; break;
+            case "querySummaryOutput": querySummaryOutput = value; break;
+            case "batchOutput": batchOutput = value; break;
+            case "dynamicOutput": dynamicOutput = value; break;
+            case "reorderOutput": reorderOutput = value; break;
+            case "ingestOutput": ingestOutput = value; break;
+            case "cacheOutput": cacheOutput = value; break;
+            case "serverOutput": serverOutput = value; break;
+            case "jfrOutput": jfrOutput = value; break;
+            case "resultsDir": resultsDir = value; break;
+            case "graphDir": graphDir = value; break;
+            default: throw new IllegalArgumentException("unknown benchmark setting " + key);
+        }
+    }
+
+    private void check() {
+        if (minRuns < 1 || maxRuns < minRuns) throw new IllegalArgumentException("need 1 <= minRuns <= maxRuns");
+        if (warmups < 0) throw new IllegalArgumentException("warmups must be >= 0");
+        if (queries < 0 || landmarks < 1) throw new IllegalArgumentException("need queries >= 0 and landmarks >= 1");
+        if (batchSources < 0 || Arrays.stream(batchWidths).anyMatch(w -> w < 1))
+            throw new IllegalArgumentException("need batchSources >= 0 and batchWidths >= 1");
+        if (updates < 0 || recomputeSamples < 0) throw new IllegalArgumentException("need updates and recomputeSamples >= 0");
+        if (cacheQueries < 0 || cacheSkew < 0 || Arrays.stream(cacheMB).anyMatch(mb -> mb < 0))
+            throw new IllegalArgumentException("need cacheQueries, cacheSkew and cacheMB >= 0");
+        if (serverPort < 0 || serverMaxInFlight < 1 || serverQueueMs < 0 || serverTimeLimitMs < 1)
+            throw new IllegalArgumentException("need serverPort >= 0, serverMaxInFlight >= 1, serverQueueMs >= 0 and serverTimeLimitMs >= 1");
+        if (loadDurationMs < 1 || loadHops < 0 || loadOps.length == 0 || Arrays.stream(loadClients).anyMatch(c -> c < 1)
+                || Arrays.stream(loadRates).anyMatch(r -> r < 1))
+            throw new IllegalArgumentException("need loadDurationMs, loadClients and loadRates >= 1, loadHops >= 0 and some loadOps");
+        if (deadlineMs < 1) throw new IllegalArgumentException("deadlineMs must be >= 1");
+        if (workers < 1) throw new IllegalArgumentException("workers must be >= 1");
+        if (cachedCells < 1) throw new IllegalArgumentException("cachedCells must be >= 1");
+        for (int n : nodes) if (n < 2) throw new IllegalArgumentException("nodes must be >= 2 (max-flow needs a sink)");
+        for (int t : threads) if (t < 1) throw new IllegalArgumentException("threads must be >= 1");
+    }
+
+    /** 1, 2, 4, ... up to and including the core count. */
+    static int[] threadCounts(int cores) {
+        List<Integer> counts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) counts.add(t);
+        counts.add(cores);
+        return counts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static GraphModel model(String s) {
+        for (GraphModel m : GraphModel.values()) if (m.name().equalsIgnoreCase(s) || m.label().equals(s)) return m;
+        throw new IllegalArgumentException("unknown graph model " + s);
+    }
+
+    private static GraphOrdering ordering(String s) {
+        for (GraphOrdering o : GraphOrdering.values()) if (o.name().equalsIgnoreCase(s) || o.label().equals(s)) return o;
+        throw new IllegalArgumentException("unknown graph ordering " + s);
+    }
+
+    private static ResultCache.Policy policy(String s) {
+        for (ResultCache.Policy p : ResultCache.Policy.values()) if (p.name().equalsIgnoreCase(s) || p.label().equals(s)) return p;
+        throw new IllegalArgumentException("unknown cache policy " + s);
+    }
+
+    private static LoadGenerator.Mode mode(String s) {
+        for (LoadGenerator.Mode m : LoadGenerator.Mode.values()) if (m.name().equalsIgnoreCase(s) || m.label().equals(s)) return m;
+        throw new IllegalArgumentException("unknown load mode " + s);
+    }
+
+    private static QueryServer.Op op(String s) {
+        for (QueryServer.Op o : QueryServer.Op.values()) if (o.name().equalsIgnoreCase(s) || o.label().equals(s)) return o;
+        throw new IllegalArgumentException("unknown query " + s);
+    }
+
+    private static String[] split(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toArray(String[]::new);
+    }
+
+    private static int[] ints(String value) { return Arrays.stream(split(value)).mapToInt(Integer::parseInt).toArray(); }
+
+    private static boolean[] booleans(String value) {
+        String[] parts = split(value);
+        boolean[] out = new boolean[parts.length];
+        for (int i = 0; i < parts.length; i++) out[i] = bool(parts[i]);
+        return out;
+    }
+
+    private static boolean bool(String s) {
+        if (s.equalsIgnoreCase("true")) return true;
+        if (s.equalsIgnoreCase("false")) return false;
+        throw new IllegalArgumentException("expected true or false, got " + s);
+    }
+}
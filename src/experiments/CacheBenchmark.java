@@ -0,0 +1,208 @@
+package experiments;
+
+import algorithms.BFSAlgorithm;
+import algorithms.BellmanFord;
+import algorithms.CachedUnweightedAlgorithm;
+import algorithms.CachedWeightedAlgorithm;
+import algorithms.Dijkstra;
+import algorithms.GraphResult;
+import algorithms.ResultCache;
+import algorithms.UnweightedGraphAlgorithm;
+import algorithms.WeightedGraphAlgorithm;
+import experiments.GraphCache.Cell;
+import utils.CSRGraph;
+import utils.GraphModel;
+
+import java.io.File;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Shortest-path-tree caching: per cell of the {@link BenchmarkConfig} matrix, BFS (unweighted graph), Dijkstra
+ * and Bellman-Ford (weighted graph) answer a stream of cacheQueries start nodes drawn Zipf(cacheSkew) over a
+ * shuffled node ranking, through a {@link ResultCache} of every cacheMB size, cachePolicies policy and
+ * cacheOffHeap setting. One row per combination records hits, misses, evictions, admission rejections, mean
+ * hit and miss latency, and the speedup over paying the mean miss (a run plus storing it) for every query,
+ * after warmups uncached runs. Cached distances and parents of a few sources are checked against their first run, and
+ * a copy of the graph must hit while a copy with one edge changed must miss. Usage as for the main harness,
+ * e.g. {@code java experiments.CacheBenchmark models=GRID,RMAT nodes=100000 cacheMB=16,128 cacheSkew=1.1}.
+ */
+public class CacheBenchmark {
+
+    static final String HEADER = "Algorithm,Model,Directed,Nodes,Edges,Density,Seed,Policy,OffHeap,CacheMB,Queries,Distinct,Skew,"
+            + "Hits,Misses,Evictions,Rejected,HitRate,Entries,CachedMB,EntryKB,FingerprintMs,HitMeanMs,MissMeanMs,"
+            + "TotalMs,Speedup";
+
+    private static final int CHECKED_SOURCES = 8;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkConfig cfg = BenchmarkConfig.parse(args);
+        File outDir = new File(cfg.cacheOutput).getAbsoluteFile().getParentFile();
+        if (outDir != null) outDir.mkdirs();
+        Pattern pick = Pattern.compile(cfg.algorithms);
+
+        List<Cell> cells = new ArrayList<>();
+        for (GraphModel model : cfg.models)
+            for (boolean directed : cfg.directed)
+                for (int n : cfg.nodes)
+                    for (double density : cfg.densities)
+                        for (long seed : cfg.seeds)
+                            cells.add(new Cell(cells.size(), model, directed, n, density, seed));
+
+        try (CsvSink csv = new CsvSink(cfg.cacheOutput, HEADER)) {
+            for (Cell cell : cells) {
+                System.out.printf("%s %s n=%d d=%s seed=%d%n", cell.model.label(), cell.directed ? "directed" : "undirected",
+                        cell.n, cell.density, cell.seed);
+                int[] stream = stream(cfg, cell);
+                BFSAlgorithm bfs = new BFSAlgorithm();
+                Dijkstra dijkstra = new Dijkstra();
+                BellmanFord bellmanFord = new BellmanFord();
+                if (pick.matcher(bfs.name()).matches()) {
+                    runAlgorithm(cfg, cell, GraphAlgorithmBenchmarkVerbose.graph(cfg.graphDir, cell, false), stream,
+                            bfs.name(), cache -> {
+                                UnweightedGraphAlgorithm a = cache == null ? bfs : new CachedUnweightedAlgorithm(bfs, cache);
+                                return (h, s) -> a.runUnweighted(h, s, false);
+                            }, csv);
+                }
+                CSRGraph weighted = null;
+                for (WeightedGraphAlgorithm algo : Arrays.asList(dijkstra, bellmanFord)) {
+                    if (!pick.matcher(algo.name()).matches()) continue;
+                    if (weighted == null) weighted = GraphAlgorithmBenchmarkVerbose.graph(cfg.graphDir, cell, true);
+                    runAlgorithm(cfg, cell, weighted, stream, algo.name(), cache -> {
+                        WeightedGraphAlgorithm a = cache == null ? algo : new CachedWeightedAlgorithm(algo, cache);
+                        return (h, s) -> a.runWeighted(h, s, false);
+                    }, csv);
+                }
+            }
+        }
+        System.out.println("Cache benchmark complete. CSV saved to " + cfg.cacheOutput);
+    }
+
+    /** One algorithm's CSR fast path from a start node. */
+    interface Query {
+        GraphResult run(CSRGraph g, int start);
+    }
+
+    /** The algorithm behind a cache, or run directly when the cache is null. */
+    interface Wrap {
+        Query through(ResultCache cache);
+    }
+
+    /** cacheQueries starts: rank k (1-based) drawn with weight 1 / k^cacheSkew, ranks shuffled over the nodes. */
+    static int[] stream(BenchmarkConfig cfg, Cell cell) {
+        Random rnd = new Random(GraphAlgorithmBenchmarkVerbose.startSeed(cell));
+        int n = cell.n;
+        int[] node = new int[n];
+        for (int i = 0; i < n; i++) node[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = node[i];
+            node[i] = node[j];
+            node[j] = t;
+        }
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) cumulative[k] = sum += Math.pow(k + 1, -cfg.cacheSkew);
+        int[] stream = new int[cfg.cacheQueries];
+        for (int q = 0; q < stream.length; q++) {
+            int k = Arrays.binarySearch(cumulative, rnd.nextDouble() * sum);
+            stream[q] = node[Math.min(n - 1, k < 0 ? -k - 1 : k)];
+        }
+        return stream;
+    }
+
+    static void runAlgorithm(BenchmarkConfig cfg, Cell cell, CSRGraph g, int[] stream, String name, Wrap wrap,
+                             CsvSink csv) throws Exception {
+        long t0 = System.nanoTime();
+        new CSRGraph(g.offsets(), g.targets(), g.weights()).fingerprint(); // g's own may be computed already
+        double fingerprintMs = (System.nanoTime() - t0) / 1e6;
+        g.fingerprint();
+
+        Query plain = wrap.through(null);
+        for (int w = 0; w < cfg.warmups; w++) plain.run(g, stream[w % stream.length]);
+        int distinct = (int) Arrays.stream(stream).distinct().count();
+
+        for (ResultCache.Policy policy : cfg.cachePolicies) {
+            for (boolean offHeap : cfg.cacheOffHeap) {
+                for (int mb : cfg.cacheMB) {
+                    ResultCache cache = new ResultCache((long) mb << 20, policy, offHeap);
+                    Query cached = wrap.through(cache);
+                    Map<Integer, GraphResult> reference = new HashMap<>();
+                    RunStats hitMs = new RunStats(), missMs = new RunStats();
+                    long total = System.nanoTime();
+                    for (int start : stream) {
+                        long hitsBefore = cache.hits();
+                        long s = System.nanoTime();
+                        GraphResult r = cached.run(g, start);
+                        double ms = (System.nanoTime() - s) / 1e6;
+                        boolean hit = cache.hits() > hitsBefore;
+                        (hit ? hitMs : missMs).add(ms);
+                        GraphResult first = reference.get(start);
+                        if (first == null && !hit && reference.size() < CHECKED_SOURCES) reference.put(start, r);
+                        else if (first != null && hit && (!Arrays.equals(first.dist(), r.dist())
+                                || !Arrays.equals(first.parent(), r.parent()) || first.visited() != r.visited())) {
+                            throw new IllegalStateException(String.format("%s from %d: cached result differs from the computed one",
+                                    name, start));
+                        }
+                    }
+                    double totalMs = (System.nanoTime() - total) / 1e6;
+                    row(csv, cell, g, name, cache, mb, stream.length, distinct, cfg.cacheSkew, fingerprintMs, hitMs,
+                            missMs, totalMs);
+                    checkInvalidation(g, name, stream, cache);
+                }
+            }
+        }
+    }
+
+    /** A copy of g with the same content hits the last start's entry (when cached); a changed copy misses. */
+    private static void checkInvalidation(CSRGraph g, String name, int[] stream, ResultCache cache) {
+        if (stream.length == 0 || g.edgeCount() == 0) return;
+        int start = stream[stream.length - 1];
+        if (cache.get(g, name, start) == null) return;
+        CSRGraph same = new CSRGraph(g.offsets().clone(), g.targets().clone(), g.weights() == null ? null : g.weights().clone());
+        int[] targets = g.targets().clone();
+        int[] weights = g.weights() == null ? null : g.weights().clone();
+        if (weights != null) weights[0]++;
+        else targets[0] = (targets[0] + 1) % g.nodeCount();
+        CSRGraph changed = new CSRGraph(g.offsets(), targets, weights);
+        if (cache.get(same, name, start) == null) throw new IllegalStateException(name + ": an identical graph missed the cache");
+        if (cache.get(changed, name, start) != null) throw new IllegalStateException(name + ": a changed graph hit the cache");
+    }
+
+    private static void row(CsvSink csv, Cell cell, CSRGraph g, String name, ResultCache cache, int mb, int queries,
+                            int distinct, double skew, double fingerprintMs, RunStats hitMs, RunStats missMs,
+                            double totalMs) throws Exception {
+        double speedup = missMs.count() == 0 ? 0 : queries * missMs.mean() / totalMs;
+        csv.row(
+                name,
+                cell.model.label(),
+                String.valueOf(cell.directed),
+                String.valueOf(cell.n),
+                String.valueOf(g.edgeCount()),
+                String.valueOf(cell.density),
+                String.valueOf(cell.seed),
+                cache.policy().label(),
+                String.valueOf(cache.offHeap()),
+                String.valueOf(mb),
+                String.valueOf(queries),
+                String.valueOf(distinct),
+                String.valueOf(skew),
+                String.valueOf(cache.hits()),
+                String.valueOf(cache.misses()),
+                String.valueOf(cache.evictions()),
+                String.valueOf(cache.rejections()),
+                String.valueOf(cache.hitRate()),
+                String.valueOf(cache.size()),
+                String.valueOf(cache.bytes() / 1048576.0),
+                cache.size() == 0 ? "" : String.valueOf(cache.bytes() / 1024.0 / cache.size()),
+                String.valueOf(fingerprintMs),
+                hitMs.count() == 0 ? "" : String.valueOf(hitMs.mean()),
+                missMs.count() == 0 ? "" : String.valueOf(missMs.mean()),
+                String.valueOf(totalMs),
+                String.valueOf(speedup)
+        );
+        System.out.printf("  %-12s %-7s %-5s %5d MB  hit rate %5.1f%%  evicted %6d  rejected %6d  hit %8.3f ms  miss %8.3f ms  x%.2f%n",
+                name, cache.policy().label(), cache.offHeap() ? "off" : "heap", mb, 100 * cache.hitRate(), cache.evictions(),
+                cache.rejections(), hitMs.count() == 0 ? 0 : hitMs.mean(), missMs.count() == 0 ? 0 : missMs.mean(), speedup);
+    }
+}
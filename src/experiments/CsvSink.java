@@ -0,0 +1,35 @@
+package experiments;
+
+import utils.CSVUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * The combined results CSV, shared by every benchmark worker: rows are written whole under one lock,
+ * so concurrent cells never interleave inside a line, and flushed as they come so a long sweep can be
+ * watched (or survives a crash) without waiting for the end.
+ */
+public final class CsvSink implements Closeable {
+
+    private final Writer out;
+
+    public CsvSink(String path, String header) throws IOException {
+        out = Files.newBufferedWriter(Paths.get(path));
+        out.append(header).append('\n');
+        out.flush();
+    }
+
+    public synchronized void row(String... cells) throws IOException {
+        CSVUtils.writeRow(out, cells);
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
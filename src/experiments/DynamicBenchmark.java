@@ -0,0 +1,141 @@
+package experiments;
+
+import algorithms.DynamicSSSP;
+import experiments.GraphCache.Cell;
+import utils.CSRGraph;
+import utils.DynamicGraph;
+import utils.GraphModel;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Update stream against {@link DynamicSSSP} on the weighted graphs of the {@link BenchmarkConfig} matrix:
+ * `updates` random edge changes per cell (half insertions of new edges, a quarter deletions, a quarter
+ * reweights; undirected cells change both directions at once), each timed as one incremental repair. At
+ * recomputeSamples evenly spaced points the whole tree is rebuilt from scratch instead, which times the
+ * baseline and checks the incremental distances. Insertions outnumber deletions, so the graph grows along
+ * the stream. One row per cell and update kind. Usage as for the main harness, e.g.
+ * {@code java experiments.DynamicBenchmark models=GRID,RMAT nodes=10000,100000 densities=0.0001 updates=5000}.
+ */
+public class DynamicBenchmark {
+
+    static final String HEADER = "Update,Model,Directed,Nodes,EdgesBefore,EdgesAfter,Density,Seed,Updates,MeanUs,P50Us,P99Us,MeanAffected,RecomputeUs,Speedup";
+
+    enum Kind { INSERT, DELETE, REWEIGHT }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkConfig cfg = BenchmarkConfig.parse(args);
+        File outDir = new File(cfg.dynamicOutput).getAbsoluteFile().getParentFile();
+        if (outDir != null) outDir.mkdirs();
+
+        List<Cell> cells = new ArrayList<>();
+        for (GraphModel model : cfg.models)
+            for (boolean directed : cfg.directed)
+                for (int n : cfg.nodes)
+                    for (double density : cfg.densities)
+                        for (long seed : cfg.seeds)
+                            cells.add(new Cell(cells.size(), model, directed, n, density, seed));
+
+        try (CsvSink csv = new CsvSink(cfg.dynamicOutput, HEADER)) {
+            for (Cell cell : cells) {
+                CSRGraph g = GraphAlgorithmBenchmarkVerbose.graph(cfg.graphDir, cell, true);
+                runCell(cfg, cell, g, csv);
+            }
+        }
+        System.out.println("Dynamic SSSP benchmark complete. CSV saved to " + cfg.dynamicOutput);
+    }
+
+    static void runCell(BenchmarkConfig cfg, Cell cell, CSRGraph g, CsvSink csv) throws Exception {
+        Random rnd = new Random(GraphAlgorithmBenchmarkVerbose.startSeed(cell));
+        int n = cell.n;
+        int maxWeight = Math.max(1, g.maxWeight());
+        DynamicGraph dg = DynamicGraph.fromCSR(g);
+        long edgesBefore = dg.edgeCount();
+        DynamicSSSP sssp = new DynamicSSSP(dg, rnd.nextInt(n));
+
+        Map<Kind, RunStats> times = new EnumMap<>(Kind.class);
+        Map<Kind, long[]> affected = new EnumMap<>(Kind.class);
+        for (Kind k : Kind.values()) {
+            times.put(k, new RunStats());
+            affected.put(k, new long[1]);
+        }
+        RunStats all = new RunStats(), recompute = new RunStats();
+        long allAffected = 0;
+        int every = cfg.recomputeSamples == 0 ? Integer.MAX_VALUE : Math.max(1, cfg.updates / cfg.recomputeSamples);
+
+        for (int i = 0; i < cfg.updates; i++) {
+            double r = rnd.nextDouble();
+            Kind kind = r < 0.5 ? Kind.INSERT : r < 0.75 ? Kind.DELETE : Kind.REWEIGHT;
+            int u, v;
+            if (kind == Kind.INSERT) {
+                int tries = 0;
+                do {
+                    u = rnd.nextInt(n);
+                    v = rnd.nextInt(n);
+                } while ((u == v || dg.weight(u, v) != DynamicGraph.NO_EDGE) && ++tries < 1000);
+                if (u == v || dg.weight(u, v) != DynamicGraph.NO_EDGE) continue; // (nearly) complete graph
+            } else {
+                int tries = 0;
+                do u = rnd.nextInt(n); while (dg.outDegree(u) == 0 && ++tries < 1000);
+                if (dg.outDegree(u) == 0) continue; // no edges left to change
+                v = dg.outTargets(u)[rnd.nextInt(dg.outDegree(u))];
+            }
+            int w = 1 + rnd.nextInt(maxWeight);
+
+            long t0 = System.nanoTime();
+            int touched = apply(sssp, kind, u, v, w);
+            if (!cell.directed) touched += apply(sssp, kind, v, u, w);
+            double us = (System.nanoTime() - t0) / 1e3;
+            times.get(kind).add(us);
+            affected.get(kind)[0] += touched;
+            all.add(us);
+            allAffected += touched;
+
+            if ((i + 1) % every == 0) {
+                int[] incremental = sssp.distances();
+                long r0 = System.nanoTime();
+                sssp.recompute();
+                recompute.add((System.nanoTime() - r0) / 1e3);
+                if (!Arrays.equals(incremental, sssp.distances())) {
+                    throw new IllegalStateException(String.format("%s n=%d: incremental distances diverged after %d updates",
+                            cell.model.label(), n, i + 1));
+                }
+            }
+        }
+
+        System.out.printf("%s %s n=%d d=%s seed=%d  edges %d -> %d%n", cell.model.label(),
+                cell.directed ? "directed" : "undirected", n, cell.density, cell.seed, edgesBefore, dg.edgeCount());
+        for (Kind k : Kind.values()) row(csv, cell, edgesBefore, dg.edgeCount(), k.name(), times.get(k), affected.get(k)[0], recompute);
+        row(csv, cell, edgesBefore, dg.edgeCount(), "ALL", all, allAffected, recompute);
+    }
+
+    private static int apply(DynamicSSSP sssp, Kind kind, int u, int v, int w) {
+        return kind == Kind.DELETE ? sssp.removeEdge(u, v) : sssp.setEdge(u, v, w);
+    }
+
+    private static void row(CsvSink csv, Cell cell, long edgesBefore, long edgesAfter, String kind, RunStats t,
+                            long affected, RunStats recompute) throws Exception {
+        if (t.count() == 0) return;
+        double full = recompute.count() == 0 ? Double.NaN : recompute.median();
+        csv.row(
+                kind,
+                cell.model.label(),
+                String.valueOf(cell.directed),
+                String.valueOf(cell.n),
+                String.valueOf(edgesBefore),
+                String.valueOf(edgesAfter),
+                String.valueOf(cell.density),
+                String.valueOf(cell.seed),
+                String.valueOf(t.count()),
+                String.valueOf(t.mean()),
+                String.valueOf(t.median()),
+                String.valueOf(t.percentile(99)),
+                String.valueOf((double) affected / t.count()),
+                recompute.count() == 0 ? "" : String.valueOf(full),
+                recompute.count() == 0 ? "" : String.valueOf(full / t.mean())
+        );
+        System.out.printf("  %-9s %6d updates  mean %9.1f us  p99 %9.1f us  affected %8.1f  recompute %9.1f us  x%.1f%n",
+                kind, t.count(), t.mean(), t.percentile(99), (double) affected / t.count(), full, full / t.mean());
+    }
+}
@@ -1,141 +1,528 @@
 package experiments;
 
 import algorithms.*;
-import utils.GraphGenerator;
-import utils.WeightedGraphGenerator;
+import experiments.GraphCache.Cell;
+import experiments.GraphCache.Graphs;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import utils.AlgorithmRunEvent;
+import utils.CSRGraph;
+import utils.Counter;
+import utils.Deadline;
+import utils.GraphFile;
+import utils.GraphModel;
+import utils.PriorityQueueType;
+import utils.RunCounters;
+import utils.RunMeter;
+import utils.TraceConverter;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
+/**
+ * Runs the benchmark matrix of {@link BenchmarkConfig} and writes one CSV row per timed run.
+ * <p>
+ * With pinTimedRuns (or a single worker) every timed run happens on the main thread, cell after cell,
+ * while up to cachedCells upcoming cells are generated on the worker pool. Otherwise each of the workers
+ * takes whole cells (generate, then time every algorithm), which is faster but lets cells contend for
+ * cores, and AllocatedBytes then only counts the timing thread.
+ * <p>
+ * With counters on, each CSR-path row also carries the run's {@link Counter} totals (empty for timed-out runs),
+ * and every timed run emits an {@link AlgorithmRunEvent} that a flight recording (jfrOutput, or one started
+ * with -XX:StartFlightRecording) picks up.
+ */
 public class GraphAlgorithmBenchmarkVerbose {
 
-    public static void main(String[] args) throws IOException {
-        // ----- Benchmark settings (tune here) -----
-        boolean[] directedOptions = {true, false};
-        int[] nodeSizes = {100, 500};           // keep reasonable; increase after testing
-        double[] densities = {0.01, 0.05, 0.1}; // sparse -> denser
-        long[] seeds = {42, 1337, 2024};
-        int runsPerGraph = 2;
-        boolean measureMemory = true;
-        boolean verbose = true;
+    static final String HEADER = "Algorithm,Directed,Nodes,Edges,Seed,Run,StartNode,RuntimeMs,MemoryBeforeKB,MemoryAfterKB,MemoryDeltaKB,Visited,Queue,Source,Sink,Flow,Augments,Phases,Threads,NegativeCycle,Model,AllocatedBytes,GcCount,GcPauseMs,ResultBytes,TimedOut,"
+            + "EdgesScanned,Relaxations,QueuePushes,QueuePops,StalePops,Augmentations,Sweeps";
+    static final String SUMMARY_HEADER = "Algorithm,Model,Directed,Nodes,Edges,Density,Seed,Warmups,Samples,MeanMs,MedianMs,P90Ms,P99Ms,StdDevMs,CiHalfWidthMs,TimedOut,StopReason";
 
-        // ----- folders -----
-        new File("../data").mkdirs();    // from src/ working dir, write to ../data
-        new File("../results").mkdirs();
+    private static final long START_SEED = 1234;
 
-        // ----- combined CSV -----
-        FileWriter csv = new FileWriter("../data/all_graph_algorithms_verbose.csv");
-        csv.append("Algorithm,Directed,Nodes,Edges,Seed,Run,StartNode,RuntimeMs,MemoryBeforeKB,MemoryAfterKB,MemoryDeltaKB,Visited\n");
+    public static void main(String[] args) throws Exception {
+        BenchmarkConfig cfg = BenchmarkConfig.parse(args);
+
+        // ----- folders (from the src/ working dir by default) -----
+        for (String out : new String[]{cfg.output, cfg.summary}) {
+            File outDir = new File(out).getAbsoluteFile().getParentFile();
+            if (outDir != null) outDir.mkdirs();
+        }
+        new File(cfg.resultsDir).mkdirs();
+        Counter.setEnabled(cfg.counters);
+        Recording recording = cfg.jfrOutput.isEmpty() ? null : startRecording(cfg.jfrOutput);
+
+        Pattern pick = Pattern.compile(cfg.algorithms);
 
         // unweighted algos
-        List<UnweightedGraphAlgorithm> unweightedAlgos = Arrays.<UnweightedGraphAlgorithm>asList(
+        List<UnweightedGraphAlgorithm> unweightedAlgos = new ArrayList<>(Arrays.<UnweightedGraphAlgorithm>asList(
                 new BFSAlgorithm(),
                 new DFSAlgorithm(),
-                new BipartiteCheck()
-        );
+                new BipartiteCheck(),
+                new TarjanSCC(),
+                new TopologicalSort(),
+                new ArticulationPoints()
+        ));
+        // parallel algos run once per thread count to show scaling
+        for (int t : cfg.threads) {
+            unweightedAlgos.add(new ParallelBFS(t));
+            unweightedAlgos.add(new ConnectedComponents(t));
+            unweightedAlgos.add(new ParallelBipartiteCheck(t));
+        }
+        unweightedAlgos.removeIf(a -> !pick.matcher(a.name()).matches());
 
-        // weighted algos
-        List<WeightedGraphAlgorithm> weightedAlgos = Arrays.<WeightedGraphAlgorithm>asList(
-                new Dijkstra(),
-                new BellmanFord(),
-                new AStar(),
-                new MaxFlow()
-        );
+        // weighted algos (Dijkstra and AStar once per priority queue implementation)
+        List<WeightedGraphAlgorithm> weightedAlgos = new ArrayList<>();
+        for (PriorityQueueType q : PriorityQueueType.values()) weightedAlgos.add(new Dijkstra(q));
+        weightedAlgos.add(new BellmanFord());
+        weightedAlgos.add(new SPFA());
+        for (int t : cfg.threads) weightedAlgos.add(new ParallelBellmanFord(t));
+        for (int t : cfg.threads) weightedAlgos.add(new DeltaStepping(t));
+        // AStar's node-label heuristic is not consistent, so the monotone queues would change its answers
+        for (PriorityQueueType q : PriorityQueueType.values()) if (!q.monotone()) weightedAlgos.add(new AStar(q));
+        weightedAlgos.add(new MaxFlow());
+        weightedAlgos.add(new Dinic());
+        weightedAlgos.add(new PushRelabel(PushRelabel.Selection.FIFO));
+        weightedAlgos.add(new PushRelabel(PushRelabel.Selection.HIGHEST_LABEL));
+        weightedAlgos.removeIf(a -> !pick.matcher(a.name()).matches());
 
-        Random startPicker = new Random(1234);
-
-        for (boolean directed : directedOptions) {
-            for (int n : nodeSizes) {
-                for (double density : densities) {
-                    for (long seed : seeds) {
-                        // generate graphs
-                        Map<Integer, List<Integer>> unweightedGraph =
-                                GraphGenerator.generateDenseGraph(n, density, directed, seed, 1000);
-                        Map<Integer, Map<Integer, Integer>> weightedGraph =
-                                WeightedGraphGenerator.generateWeightedGraph(n, density, directed, seed, 1000);
-
-                        long edgesUnweighted = unweightedGraph.values().stream().mapToLong(List::size).sum();
-                        long edgesWeighted = weightedGraph.values().stream().mapToLong(m -> m.values().size()).sum();
-
-                        // ----- unweighted -----
-                        for (UnweightedGraphAlgorithm algo : unweightedAlgos) {
-                            for (int r = 1; r <= runsPerGraph; r++) {
-                                int start = startPicker.nextInt(n);
-                                if (measureMemory) System.gc();
-                                Runtime rt = Runtime.getRuntime();
-                                long memBefore = measureMemory ? (rt.totalMemory() - rt.freeMemory()) / 1024 : 0;
-                                String verbosePath = verbose
-                                        ? String.format("../results/%s_unweighted_n%d_d%.3f_seed%d_run%d.csv",
-                                        algo.name(), n, density, seed, r)
-                                        : null;
-
-                                long t0 = System.nanoTime();
-                                List<Integer> result = algo.runUnweighted(unweightedGraph, start, verbose, verbosePath);
-                                long t1 = System.nanoTime();
-
-                                long memAfter = measureMemory ? (rt.totalMemory() - rt.freeMemory()) / 1024 : 0;
-                                double runtimeMs = (t1 - t0) / 1e6;
-
-                                csv.append(String.join(",",
-                                        algo.name(),
-                                        String.valueOf(directed),
-                                        String.valueOf(n),
-                                        String.valueOf(edgesUnweighted),
-                                        String.valueOf(seed),
-                                        String.valueOf(r),
-                                        String.valueOf(start),
-                                        String.valueOf(runtimeMs),
-                                        String.valueOf(memBefore),
-                                        String.valueOf(memAfter),
-                                        String.valueOf(memAfter - memBefore),
-                                        String.valueOf(result.size())
-                                )).append("\n");
-                            }
-                        }
+        List<Cell> cells = new ArrayList<>();
+        for (GraphModel model : cfg.models)
+            for (boolean directed : cfg.directed)
+                for (int n : cfg.nodes)
+                    for (double density : cfg.densities)
+                        for (long seed : cfg.seeds)
+                            cells.add(new Cell(cells.size(), model, directed, n, density, seed));
+
+        AtomicInteger workerIds = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(cfg.workers, r -> {
+            Thread t = new Thread(r, "bench-worker-" + workerIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        GraphCache cache = new GraphCache(cfg.cachedCells, workers, cell -> loadGraphs(cfg, cell));
 
-                        // ----- weighted -----
-                        for (WeightedGraphAlgorithm algo : weightedAlgos) {
-                            for (int r = 1; r <= runsPerGraph; r++) {
-                                int start = startPicker.nextInt(n);
-                                if (measureMemory) System.gc();
-                                Runtime rt = Runtime.getRuntime();
-                                long memBefore = measureMemory ? (rt.totalMemory() - rt.freeMemory()) / 1024 : 0;
-                                String verbosePath = verbose
-                                        ? String.format("../results/%s_weighted_n%d_d%.3f_seed%d_run%d.csv",
-                                        algo.name(), n, density, seed, r)
-                                        : null;
-
-                                long t0 = System.nanoTime();
-                                List<Integer> result = algo.runWeighted(weightedGraph, start, verbose, verbosePath);
-                                long t1 = System.nanoTime();
-
-                                long memAfter = measureMemory ? (rt.totalMemory() - rt.freeMemory()) / 1024 : 0;
-                                double runtimeMs = (t1 - t0) / 1e6;
-
-                                csv.append(String.join(",",
-                                        algo.name(),
-                                        String.valueOf(directed),
-                                        String.valueOf(n),
-                                        String.valueOf(edgesWeighted),
-                                        String.valueOf(seed),
-                                        String.valueOf(r),
-                                        String.valueOf(start),
-                                        String.valueOf(runtimeMs),
-                                        String.valueOf(memBefore),
-                                        String.valueOf(memAfter),
-                                        String.valueOf(memAfter - memBefore),
-                                        String.valueOf(result.size())
-                                )).append("\n");
+        try (CsvSink csv = new CsvSink(cfg.output, HEADER);
+             CsvSink summary = new CsvSink(cfg.summary, SUMMARY_HEADER)) {
+            if (cfg.pinTimedRuns || cfg.workers == 1) {
+                RunMeter meter = new RunMeter();
+                RunCounters counters = new RunCounters();
+                for (int i = 0; i < cells.size(); i++) {
+                    for (int j = i; j < Math.min(cells.size(), i + cfg.cachedCells); j++) cache.prefetch(cells.get(j));
+                    Cell cell = cells.get(i);
+                    runCell(cfg, cell, cache.get(cell), unweightedAlgos, weightedAlgos, csv, summary, meter, counters);
+                    cache.release(cell);
+                }
+            } else {
+                AtomicInteger next = new AtomicInteger();
+                List<Future<?>> done = new ArrayList<>();
+                for (int w = 0; w < cfg.workers; w++) {
+                    done.add(workers.submit(() -> {
+                        RunMeter meter = new RunMeter(false); // other workers' allocations are not ours
+                        RunCounters counters = new RunCounters(false); // nor their counts
+                        for (int i; (i = next.getAndIncrement()) < cells.size(); ) {
+                            Cell cell = cells.get(i);
+                            try {
+                                runCell(cfg, cell, cache.get(cell), unweightedAlgos, weightedAlgos, csv, summary, meter,
+                                        counters);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            } finally {
+                                cache.release(cell);
                             }
                         }
-                    }
+                        return null;
+                    }));
                 }
+                for (Future<?> f : done) f.get();
+            }
+        } finally {
+            workers.shutdownNow();
+            if (recording != null) {
+                recording.stop(); // writes the file
+                recording.close();
+                System.out.println("Flight recording saved to " + cfg.jfrOutput);
             }
         }
 
-        csv.close();
+        if (cfg.verbose && cfg.tracesToCsv) {
+            for (Path trace : TraceConverter.listTraces(Paths.get(cfg.resultsDir))) {
+                TraceConverter.toCsv(trace);
+                Files.delete(trace);
+            }
+        }
         System.out.println("✅ Verbose FAANG-style benchmark complete. CSV saved in data/ and per-run logs in results/");
     }
+
+    /**
+     * Every algorithm on one cell: warm-ups, then timed runs until the confidence target, the time budget or
+     * maxRuns, each under what is left of the deadline (see {@link #sample}).
+     */
+    static void runCell(BenchmarkConfig cfg, Cell cell, Graphs g, List<UnweightedGraphAlgorithm> unweightedAlgos,
+                        List<WeightedGraphAlgorithm> weightedAlgos, CsvSink csv, CsvSink summary, RunMeter meter,
+                        RunCounters counters) throws IOException {
+        // G(n, p) graphs (either generator) keep the original trace names; other models add their label
+        String kindSuffix = cell.model == GraphModel.DENSE || cell.model == GraphModel.ERDOS_RENYI
+                ? "" : "_" + cell.model.label();
+
+        // ----- unweighted -----
+        for (UnweightedGraphAlgorithm algo : unweightedAlgos) {
+            sample(cfg, cell, algo.name(), g.unweighted.edgeCount(), summary, (r, start, deadlineMs) -> {
+                if (cfg.gcBeforeRun) System.gc();
+                Runtime rt = Runtime.getRuntime();
+                long memBefore = cfg.measureMemory ? (rt.totalMemory() - rt.freeMemory()) / 1024 : 0;
+                String verbosePath = cfg.verbose && r > 0
+                        ? String.format("%s/%s_unweighted%s_n%d_d%.3f_seed%d_run%d.trace",
+                        cfg.resultsDir, algo.name(), kindSuffix, cell.n, cell.density, cell.seed, r)
+                        : null;
+
+                AlgorithmRunEvent event = new AlgorithmRunEvent();
+                Deadline deadline = Deadline.arm(deadlineMs);
+                event.begin();
+                meter.start();
+                counters.start();
+                long t0 = System.nanoTime();
+                Object result = null;
+                int visited = 0;
+                try {
+                    if (cfg.primitiveGraphs) {
+                        GraphResult res = algo.runUnweighted(g.unweighted, start, false);
+                        result = res;
+                        visited = res.visited();
+                    } else {
+                        List<Integer> order = algo.runUnweighted(g.unweightedMap, start, verbosePath != null, verbosePath);
+                        result = order;
+                        visited = order.size();
+                    }
+                } catch (CancellationException e) {
+                    // abandoned at the deadline; reported below
+                }
+                long t1 = System.nanoTime();
+                counters.stop();
+                meter.stop();
+                event.end();
+                boolean timedOut = deadline.disarm();
+                boolean counted = counted(cfg, algo, timedOut, counters);
+
+                long memAfter = cfg.measureMemory ? (rt.totalMemory() - rt.freeMemory()) / 1024 : 0;
+                double runtimeMs = (t1 - t0) / 1e6;
+                if (r == 0) return new Sample(runtimeMs, timedOut);
+                commit(event, algo.name(), cell, g.unweighted.edgeCount(), r, start, visited, timedOut,
+                        counted ? counters : null);
+                if (cfg.primitiveGraphs && verbosePath != null && !timedOut) {
+                    algo.runUnweighted(g.unweightedMap, start, true, verbosePath);
+                }
+
+                csv.row(
+                        algo.name(),
+                        String.valueOf(cell.directed),
+                        String.valueOf(cell.n),
+                        String.valueOf(g.unweighted.edgeCount()),
+                        String.valueOf(cell.seed),
+                        String.valueOf(r),
+                        String.valueOf(start),
+                        String.valueOf(runtimeMs),
+                        String.valueOf(memBefore),
+                        String.valueOf(memAfter),
+                        String.valueOf(memAfter - memBefore),
+                        timedOut ? "" : String.valueOf(visited),
+                        "", "", "", "", "", "",
+                        threadsOf(algo),
+                        "",
+                        cell.model.label(),
+                        String.valueOf(meter.allocatedBytes()),
+                        String.valueOf(meter.gcCount()),
+                        String.valueOf(meter.gcPauseMs()),
+                        timedOut ? "" : String.valueOf(RunMeter.retainedBytes(result)),
+                        String.valueOf(timedOut),
+                        count(counters, Counter.EDGES_SCANNED, counted),
+                        count(counters, Counter.RELAXATIONS, counted),
+                        count(counters, Counter.QUEUE_PUSHES, counted),
+                        count(counters, Counter.QUEUE_POPS, counted),
+                        count(counters, Counter.STALE_POPS, counted),
+                        count(counters, Counter.AUGMENTATIONS, counted),
+                        count(counters, Counter.SWEEPS, counted)
+                );
+                return new Sample(runtimeMs, timedOut);
+            });
+        }
+
+        // ----- weighted -----
+        for (WeightedGraphAlgorithm algo : weightedAlgos) {
+            sample(cfg, cell, algo.name(), g.weighted.edgeCount(), summary, (r, start, deadlineMs) -> {
+                if (cfg.gcBeforeRun) System.gc();
+                Runtime rt = Runtime.getRuntime();
+                long memBefore = cfg.measureMemory ? (rt.totalMemory() - rt.freeMemory()) / 1024 : 0;
+                String verbosePath = cfg.verbose && r > 0
+                        ? String.format("%s/%s_weighted%s_n%d_d%.3f_seed%d_run%d.trace",
+                        cfg.resultsDir, algo.name(), kindSuffix, cell.n, cell.density, cell.seed, r)
+                        : null;
+
+                // max-flow runs on the CSR path report their source/sink, flow and work counters
+                MaxFlowAlgorithm flowAlgo = cfg.primitiveGraphs && algo instanceof MaxFlowAlgorithm
+                        ? (MaxFlowAlgorithm) algo : null;
+                FlowResult flow = null;
+                // so do the negative-weight shortest-path algorithms, with their rounds and any negative cycle
+                ShortestPathAlgorithm pathAlgo = cfg.primitiveGraphs && algo instanceof ShortestPathAlgorithm
+                        ? (ShortestPathAlgorithm) algo : null;
+                ShortestPathResult paths = null;
+
+                AlgorithmRunEvent event = new AlgorithmRunEvent();
+                Deadline deadline = Deadline.arm(deadlineMs);
+                event.begin();
+                meter.start();
+                counters.start();
+                long t0 = System.nanoTime();
+                Object result = null;
+                int visited = 0;
+                try {
+                    if (flowAlgo != null) {
+                        flow = flowAlgo.maxFlow(g.weighted, start, MaxFlowAlgorithm.sinkFor(start, cell.n));
+                        result = flow;
+                        visited = flow.augments();
+                    } else if (pathAlgo != null) {
+                        paths = pathAlgo.shortestPaths(g.weighted, start);
+                        result = paths;
+                        visited = paths.reached();
+                    } else if (cfg.primitiveGraphs) {
+                        GraphResult res = algo.runWeighted(g.weighted, start, false);
+                        result = res;
+                        visited = res.visited();
+                    } else {
+                        List<Integer> order = algo.runWeighted(g.weightedMap, start, verbosePath != null, verbosePath);
+                        result = order;
+                        visited = order.size();
+                    }
+                } catch (CancellationException e) {
+                    // abandoned at the deadline; reported below
+                }
+                long t1 = System.nanoTime();
+                counters.stop();
+                meter.stop();
+                event.end();
+                boolean timedOut = deadline.disarm();
+                boolean counted = counted(cfg, algo, timedOut, counters);
+
+                long memAfter = cfg.measureMemory ? (rt.totalMemory() - rt.freeMemory()) / 1024 : 0;
+                double runtimeMs = (t1 - t0) / 1e6;
+                if (r == 0) return new Sample(runtimeMs, timedOut);
+                commit(event, algo.name(), cell, g.weighted.edgeCount(), r, start, visited, timedOut,
+                        counted ? counters : null);
+                if (cfg.primitiveGraphs && verbosePath != null && !timedOut) {
+                    algo.runWeighted(g.weightedMap, start, true, verbosePath);
+                }
+
+                csv.row(
+                        algo.name(),
+                        String.valueOf(cell.directed),
+                        String.valueOf(cell.n),
+                        String.valueOf(g.weighted.edgeCount()),
+                        String.valueOf(cell.seed),
+                        String.valueOf(r),
+                        String.valueOf(start),
+                        String.valueOf(runtimeMs),
+                        String.valueOf(memBefore),
+                        String.valueOf(memAfter),
+                        String.valueOf(memAfter - memBefore),
+                        timedOut ? "" : String.valueOf(visited),
+                        algo instanceof PriorityQueueAlgorithm
+                                ? ((PriorityQueueAlgorithm) algo).queueType().label() : "",
+                        flow == null ? "" : String.valueOf(flow.source()),
+                        flow == null ? "" : String.valueOf(flow.sink()),
+                        flow == null ? "" : String.valueOf(flow.flow()),
+                        flow == null ? "" : String.valueOf(flow.augments()),
+                        flow != null ? String.valueOf(flow.phases())
+                                : paths != null ? String.valueOf(paths.rounds()) : "",
+                        threadsOf(algo),
+                        paths == null ? "" : String.valueOf(paths.hasNegativeCycle() ? paths.negativeCycle().length : 0),
+                        cell.model.label(),
+                        String.valueOf(meter.allocatedBytes()),
+                        String.valueOf(meter.gcCount()),
+                        String.valueOf(meter.gcPauseMs()),
+                        timedOut ? "" : String.valueOf(RunMeter.retainedBytes(result)),
+                        String.valueOf(timedOut),
+                        count(counters, Counter.EDGES_SCANNED, counted),
+                        count(counters, Counter.RELAXATIONS, counted),
+                        count(counters, Counter.QUEUE_PUSHES, counted),
+                        count(counters, Counter.QUEUE_POPS, counted),
+                        count(counters, Counter.STALE_POPS, counted),
+                        count(counters, Counter.AUGMENTATIONS, counted),
+                        count(counters, Counter.SWEEPS, counted)
+                );
+                return new Sample(runtimeMs, timedOut);
+            });
+        }
+    }
+
+    /** One call of an algorithm; run 0 is a warm-up (no row, no trace). */
+    interface Trial {
+        Sample run(int r, int start, long deadlineMs) throws IOException;
+    }
+
+    static final class Sample {
+        final double ms;
+        final boolean timedOut;
+
+        Sample(double ms, boolean timedOut) {
+            this.ms = ms;
+            this.timedOut = timedOut;
+        }
+    }
+
+    /**
+     * Warm up, then sample until a stopping rule fires, and write the summary row of one algorithm on one cell.
+     * Every algorithm draws the same start sequence from the cell, so sample r starts at the same node for all
+     * of them however many samples each one takes; warm-ups use the first of those starts. The deadline covers
+     * warm-ups and samples together, and a run that hits it ends the algorithm on this cell.
+     */
+    static void sample(BenchmarkConfig cfg, Cell cell, String algo, long edges, CsvSink summary, Trial trial)
+            throws IOException {
+        Random startPicker = new Random(startSeed(cell));
+        int start = startPicker.nextInt(cell.n);
+        long begin = System.nanoTime();
+        RunStats stats = new RunStats();
+        String stop = "maxRuns";
+        int warmups = 0;
+        for (int r = 1 - cfg.warmups; r <= cfg.maxRuns; r++) {
+            long left = cfg.deadlineMs - (System.nanoTime() - begin) / 1_000_000;
+            if (left <= 0) {
+                stop = "deadline";
+                break;
+            }
+            if (r > 1) start = startPicker.nextInt(cell.n);
+            Sample s = trial.run(Math.max(r, 0), start, left);
+            if (s.timedOut) {
+                stop = "deadline";
+                break;
+            }
+            if (r < 1) {
+                warmups++;
+                continue;
+            }
+            stats.add(s.ms);
+            if (r >= cfg.minRuns && stats.relativeCiHalfWidth() <= cfg.targetCi) {
+                stop = "ci";
+                break;
+            }
+            if (r >= cfg.minRuns && (System.nanoTime() - begin) / 1_000_000 >= cfg.budgetMs) {
+                stop = "budget";
+                break;
+            }
+        }
+
+        summary.row(
+                algo,
+                cell.model.label(),
+                String.valueOf(cell.directed),
+                String.valueOf(cell.n),
+                String.valueOf(edges),
+                String.valueOf(cell.density),
+                String.valueOf(cell.seed),
+                String.valueOf(warmups),
+                String.valueOf(stats.count()),
+                stat(stats, stats.mean()),
+                stat(stats, stats.median()),
+                stat(stats, stats.percentile(90)),
+                stat(stats, stats.percentile(99)),
+                stat(stats, stats.stddev()),
+                stats.count() < 2 ? "" : String.valueOf(stats.ciHalfWidth()),
+                String.valueOf(stop.equals("deadline")),
+                stop
+        );
+    }
+
+    /**
+     * Whether counters hold the run's whole work: the CSR path, not cut short, and pool threads included for a
+     * parallel algorithm (per-thread counting with concurrent workers would see only the calling thread).
+     */
+    private static boolean counted(BenchmarkConfig cfg, Object algo, boolean timedOut, RunCounters counters) {
+        return cfg.primitiveGraphs && !timedOut && (counters.allThreads() || !(algo instanceof ParallelAlgorithm));
+    }
+
+    /** A counter column: empty when counting is off, or when counted is false (map path, cut short, pool threads). */
+    private static String count(RunCounters counters, Counter c, boolean counted) {
+        long v = counters.get(c);
+        return v < 0 || !counted ? "" : String.valueOf(v);
+    }
+
+    /** Fill in and commit a timed run's event, unless no recording wants it; counters null: not counted. */
+    private static void commit(AlgorithmRunEvent event, String algo, Cell cell, int edges, int r, int start,
+                               int visited, boolean timedOut, RunCounters counters) {
+        if (!event.shouldCommit()) return;
+        event.algorithm = algo;
+        event.model = cell.model.label();
+        event.directed = cell.directed;
+        event.nodes = cell.n;
+        event.edges = edges;
+        event.density = cell.density;
+        event.seed = cell.seed;
+        event.run = r;
+        event.startNode = start;
+        event.visited = visited;
+        event.timedOut = timedOut;
+        if (counters != null) event.counters(counters);
+        else event.uncounted();
+        event.commit();
+    }
+
+    /** Flight recording with the JDK's default settings plus every {@link AlgorithmRunEvent}, written to path on stop. */
+    private static Recording startRecording(String path) throws Exception {
+        File outDir = new File(path).getAbsoluteFile().getParentFile();
+        if (outDir != null) outDir.mkdirs();
+        Recording recording = new Recording(Configuration.getConfiguration("default"));
+        recording.enable(AlgorithmRunEvent.class).withoutThreshold();
+        recording.setDestination(Paths.get(path));
+        recording.start();
+        return recording;
+    }
+
+    private static String stat(RunStats stats, double value) {
+        return stats.count() == 0 ? "" : String.valueOf(value);
+    }
+
+    static long startSeed(Cell cell) {
+        long h = START_SEED;
+        h = 31 * h + cell.model.label().hashCode();
+        h = 31 * h + Boolean.hashCode(cell.directed);
+        h = 31 * h + cell.n;
+        h = 31 * h + Double.hashCode(cell.density);
+        return 31 * h + Long.hashCode(cell.seed);
+    }
+
+    /** Graphs of a cell; the map versions are copies holding the same edges. */
+    static Graphs loadGraphs(BenchmarkConfig cfg, Cell cell) {
+        try {
+            return new Graphs(graph(cfg.graphDir, cell, false), graph(cfg.graphDir, cell, true),
+                    !cfg.primitiveGraphs || cfg.verbose);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Generate a graph, or with a cache directory read it from (or save it to) a {@link GraphFile} there. */
+    static CSRGraph graph(String cacheDir, Cell c, boolean weighted) throws IOException {
+        if (cacheDir == null || cacheDir.isEmpty()) return c.model.generate(c.n, c.density, c.directed, c.seed, weighted);
+        return GraphFile.cached(Paths.get(cacheDir, fileName(c, weighted, ".graph")),
+                () -> c.model.generate(c.n, c.density, c.directed, c.seed, weighted));
+    }
+
+    /** Name of the cell's graph file in the cache directory, or of a file derived from it with another suffix. */
+    static String fileName(Cell c, boolean weighted, String suffix) {
+        return String.format("%s_%s_%s_n%d_d%s_seed%d_g%d%s", c.model.label(), weighted ? "weighted" : "unweighted",
+                c.directed ? "directed" : "undirected", c.n, c.density, c.seed, GraphModel.GENERATOR_VERSION, suffix);
+    }
+
+    static String threadsOf(Object algo) {
+        return algo instanceof ParallelAlgorithm ? String.valueOf(((ParallelAlgorithm) algo).threads()) : "";
+    }
 }
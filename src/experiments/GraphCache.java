@@ -0,0 +1,103 @@
+package experiments;
+
+import utils.CSRGraph;
+import utils.GraphModel;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * Graphs of the benchmark cells in flight, shared by every algorithm of a cell.
+ * <p>
+ * prefetch() starts loading a cell on the generator pool while fewer than capacity cells are held, so
+ * generation runs ahead of the timed runs by a bounded amount; get() waits for the cell (loading it on
+ * the caller if nobody prefetched it) and release() drops it once its last algorithm is done.
+ */
+public final class GraphCache {
+
+    /** One (model, directed, n, density, seed) point of the matrix; index is its position in the sweep. */
+    public static final class Cell {
+        public final int index;
+        public final GraphModel model;
+        public final boolean directed;
+        public final int n;
+        public final double density;
+        public final long seed;
+
+        public Cell(int index, GraphModel model, boolean directed, int n, double density, long seed) {
+            this.index = index;
+            this.model = model;
+            this.directed = directed;
+            this.n = n;
+            this.density = density;
+            this.seed = seed;
+        }
+    }
+
+    /** CSR graphs of a cell, plus map copies when the harness needs the map-based paths. */
+    public static final class Graphs {
+        public final CSRGraph unweighted, weighted;
+        public final Map<Integer, List<Integer>> unweightedMap;
+        public final Map<Integer, Map<Integer, Integer>> weightedMap;
+
+        public Graphs(CSRGraph unweighted, CSRGraph weighted, boolean maps) {
+            this.unweighted = unweighted;
+            this.weighted = weighted;
+            this.unweightedMap = maps ? unweighted.toAdjacency() : null;
+            this.weightedMap = maps ? weighted.toWeighted() : null;
+        }
+    }
+
+    private final int capacity;
+    private final ExecutorService generators;
+    private final Function<Cell, Graphs> loader;
+    private final Map<Integer, CompletableFuture<Graphs>> held = new HashMap<>();
+
+    public GraphCache(int capacity, ExecutorService generators, Function<Cell, Graphs> loader) {
+        this.capacity = capacity;
+        this.generators = generators;
+        this.loader = loader;
+    }
+
+    /** Start loading cell in the background unless it is held already or the cache is full. */
+    public synchronized void prefetch(Cell cell) {
+        if (held.containsKey(cell.index) || held.size() >= capacity) return;
+        held.put(cell.index, CompletableFuture.supplyAsync(() -> loader.apply(cell), generators));
+    }
+
+    /** The graphs of cell, waiting for a prefetch in progress or loading them here. */
+    public Graphs get(Cell cell) {
+        CompletableFuture<Graphs> f;
+        boolean mine = false;
+        synchronized (this) {
+            f = held.get(cell.index);
+            if (f == null) {
+                f = new CompletableFuture<>();
+                held.put(cell.index, f);
+                mine = true;
+            }
+        }
+        if (mine) {
+            try {
+                f.complete(loader.apply(cell));
+            } catch (RuntimeException | Error e) {
+                f.completeExceptionally(e);
+            }
+        }
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            Throwable c = e.getCause();
+            if (c instanceof RuntimeException) throw (RuntimeException) c;
+            if (c instanceof Error) throw (Error) c;
+            throw e;
+        }
+    }
+
+    public synchronized void release(Cell cell) {
+        held.remove(cell.index);
+    }
+}
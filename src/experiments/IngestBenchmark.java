@@ -0,0 +1,185 @@
+package experiments;
+
+import experiments.GraphCache.Cell;
+import utils.CSRGraph;
+import utils.EdgeListFile;
+import utils.GraphModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Edge-list ingestion throughput of {@link EdgeListFile} at every configured thread count. With edgeLists
+ * set, each listed file is read once per directed value (weights from the third column when
+ * edgeListWeighted is on) and every thread count must build the same graph. Without it, each weighted cell
+ * of the {@link BenchmarkConfig} matrix is written as a SNAP-style edge list with sparse 63-bit node ids
+ * (in graphDir, reused by later runs, or a temporary file) and the ingested graph is checked against the
+ * generated one. Each reading gets warmups untimed and minRuns timed runs; one row per source and thread
+ * count records the median time, per-phase medians, MB/s and speedup over the first thread count. Usage as
+ * for the main harness, e.g.
+ * {@code java experiments.IngestBenchmark edgeLists=../data/soc-LiveJournal1.txt directed=true threads=1,4,8}.
+ */
+public class IngestBenchmark {
+
+    static final String HEADER = "Source,Directed,Weighted,Threads,Bytes,EdgeLines,Nodes,Edges,Runs,MedianMs,ParseMs,RemapMs,BuildMs,MBPerSec,Speedup";
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkConfig cfg = BenchmarkConfig.parse(args);
+        File outDir = new File(cfg.ingestOutput).getAbsoluteFile().getParentFile();
+        if (outDir != null) outDir.mkdirs();
+
+        try (CsvSink csv = new CsvSink(cfg.ingestOutput, HEADER)) {
+            if (cfg.edgeLists.length > 0) {
+                for (String file : cfg.edgeLists)
+                    for (boolean directed : cfg.directed)
+                        runFile(cfg, Paths.get(file), directed, cfg.edgeListWeighted, null, csv);
+            } else {
+                for (GraphModel model : cfg.models)
+                    for (boolean directed : cfg.directed)
+                        for (int n : cfg.nodes)
+                            for (double density : cfg.densities)
+                                for (long seed : cfg.seeds)
+                                    runCell(cfg, new Cell(0, model, directed, n, density, seed), csv);
+            }
+        }
+        System.out.println("Ingestion benchmark complete. CSV saved to " + cfg.ingestOutput);
+    }
+
+    static void runCell(BenchmarkConfig cfg, Cell cell, CsvSink csv) throws Exception {
+        CSRGraph g = GraphAlgorithmBenchmarkVerbose.graph(cfg.graphDir, cell, true);
+        boolean temporary = cfg.graphDir == null || cfg.graphDir.isEmpty();
+        Path file = temporary ? Files.createTempFile("edges", ".txt")
+                : Paths.get(cfg.graphDir, GraphAlgorithmBenchmarkVerbose.fileName(cell, true, ".txt"));
+        try {
+            if (temporary || !Files.exists(file)) write(g, cell.directed, file);
+            runFile(cfg, file, cell.directed, true, g, csv);
+        } finally {
+            if (temporary) Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Read file at every thread count; with expected set, check the result against it, else check every
+     * thread count against the first.
+     */
+    static void runFile(BenchmarkConfig cfg, Path file, boolean directed, boolean weighted, CSRGraph expected,
+                        CsvSink csv) throws Exception {
+        System.out.printf("%s %s%s, %.1f MB%n", file.getFileName(), directed ? "directed" : "undirected",
+                weighted ? " weighted" : "", Files.size(file) / 1e6);
+        EdgeListFile.Loaded first = null;
+        RunStats base = null;
+        for (int threads : cfg.threads) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                EdgeListFile.Loaded last = null;
+                for (int w = 0; w < cfg.warmups; w++) EdgeListFile.read(file, directed, weighted, pool);
+                RunStats total = new RunStats(), parse = new RunStats(), remap = new RunStats(), build = new RunStats();
+                for (int r = 0; r < cfg.minRuns; r++) {
+                    long t0 = System.nanoTime();
+                    last = EdgeListFile.read(file, directed, weighted, pool);
+                    total.add((System.nanoTime() - t0) / 1e6);
+                    parse.add(last.parseNanos() / 1e6);
+                    remap.add(last.remapNanos() / 1e6);
+                    build.add(last.buildNanos() / 1e6);
+                }
+                if (expected != null) check(expected, last);
+                else if (first != null) same(first, last, threads);
+                if (first == null) {
+                    first = last;
+                    base = total;
+                }
+                row(csv, file, directed, weighted, threads, last, total, parse, remap, build, base);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Every edge of g once, u v w per line, with node u written as {@link #sparseId}; undirected graphs only
+     * list the direction from the smaller node, since they are read back with directed=false.
+     */
+    private static void write(CSRGraph g, boolean directed, Path file) throws IOException {
+        Path tmp = Paths.get(file + ".tmp");
+        int[] off = g.offsets(), adj = g.targets(), wt = g.weights();
+        try (Writer out = Files.newBufferedWriter(tmp)) {
+            out.write("# " + g.nodeCount() + " nodes, " + g.edgeCount() + " edges\n");
+            StringBuilder line = new StringBuilder();
+            for (int u = 0; u < g.nodeCount(); u++) {
+                for (int i = off[u]; i < off[u + 1]; i++) {
+                    if (!directed && adj[i] < u) continue;
+                    line.setLength(0);
+                    line.append(sparseId(u)).append('\t').append(sparseId(adj[i])).append('\t').append(wt[i]).append('\n');
+                    out.append(line);
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Bit-reversed node number: distinct, non-negative and scattered over 63 bits. */
+    static long sparseId(int u) { return Long.reverse(u) >>> 1; }
+
+    static int node(long sparseId) { return (int) Long.reverse(sparseId << 1); }
+
+    /** Ingested graph = generated graph g, up to the dense renumbering. */
+    private static void check(CSRGraph g, EdgeListFile.Loaded l) {
+        CSRGraph h = l.graph();
+        long[] ids = l.originalIds();
+        if (h.edgeCount() != g.edgeCount())
+            throw new IllegalStateException("ingested " + h.edgeCount() + " edges, generated " + g.edgeCount());
+        int[] ho = h.offsets(), ht = h.targets(), hw = h.weights(), go = g.offsets(), gt = g.targets(), gw = g.weights();
+        for (int d = 0; d < h.nodeCount(); d++) {
+            int u = node(ids[d]);
+            int deg = ho[d + 1] - ho[d];
+            if (deg != go[u + 1] - go[u]) throw new IllegalStateException("node " + u + ": degree differs after ingestion");
+            long[] got = new long[deg], want = new long[deg];
+            for (int i = 0; i < deg; i++) {
+                got[i] = (long) node(ids[ht[ho[d] + i]]) << 32 | hw[ho[d] + i];
+                want[i] = (long) gt[go[u] + i] << 32 | gw[go[u] + i];
+            }
+            Arrays.sort(got);
+            if (!Arrays.equals(got, want)) throw new IllegalStateException("node " + u + ": edges differ after ingestion");
+        }
+    }
+
+    private static void same(EdgeListFile.Loaded a, EdgeListFile.Loaded b, int threads) {
+        CSRGraph x = a.graph(), y = b.graph();
+        if (!Arrays.equals(a.originalIds(), b.originalIds()) || !Arrays.equals(x.offsets(), y.offsets())
+                || !Arrays.equals(x.targets(), y.targets()) || !Arrays.equals(x.weights(), y.weights()))
+            throw new IllegalStateException(threads + " threads built a different graph");
+    }
+
+    private static void row(CsvSink csv, Path file, boolean directed, boolean weighted, int threads,
+                            EdgeListFile.Loaded l, RunStats total, RunStats parse, RunStats remap, RunStats build,
+                            RunStats base) throws Exception {
+        double ms = total.median();
+        double mbps = l.bytes() / 1e6 / (ms / 1e3);
+        csv.row(
+                file.getFileName().toString(),
+                String.valueOf(directed),
+                String.valueOf(weighted),
+                String.valueOf(threads),
+                String.valueOf(l.bytes()),
+                String.valueOf(l.edgeLines()),
+                String.valueOf(l.graph().nodeCount()),
+                String.valueOf(l.graph().edgeCount()),
+                String.valueOf(total.count()),
+                String.valueOf(ms),
+                String.valueOf(parse.median()),
+                String.valueOf(remap.median()),
+                String.valueOf(build.median()),
+                String.valueOf(mbps),
+                String.valueOf(base.median() / ms)
+        );
+        System.out.printf("  threads %-3d median %9.2f ms (parse %8.2f, remap %7.2f, build %8.2f)  %7.1f MB/s  x%.2f%n",
+                threads, ms, parse.median(), remap.median(), build.median(), mbps, base.median() / ms);
+    }
+}
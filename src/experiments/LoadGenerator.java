@@ -0,0 +1,300 @@
+package experiments;
+
+import algorithms.AStar;
+import algorithms.BFSAlgorithm;
+import algorithms.Dinic;
+import algorithms.GraphResult;
+import algorithms.Heuristic;
+import utils.CSRGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load against a {@link QueryServer} over HTTP: serverUrl, or one started in-process on a free port for the
+ * first cell of the {@link BenchmarkConfig} matrix. Every query picks a kind from loadOps and its nodes
+ * uniformly at random (seeded). The closed loop runs each of loadClients clients, which send their next query
+ * as soon as the last is answered, so the server sets the pace. The open loop sends Poisson arrivals at each
+ * of loadRates per second however slowly the server answers, and times every query from its scheduled send
+ * time, so queueing delay counts (no coordinated omission). One row per level records requests, answers by
+ * status (200, 503 rejected by admission control, 504 past the time limit, anything else, no answer),
+ * successful answers per second from the first send to the last answer, and latency percentiles over the 200
+ * and 504 answers (a 504 took at least the time limit, so leaving it out would flatter the tail). With an
+ * in-process server, answers for a few random queries are first checked against direct runs. Usage as for
+ * the main harness, e.g.
+ * {@code java experiments.LoadGenerator models=RMAT nodes=200000 densities=0.00005 loadClients=1,8,64}.
+ */
+public class LoadGenerator {
+
+    static final String HEADER = "Target,Nodes,Edges,Mode,Clients,TargetRps,Ops,DurationMs,Requests,Ok,Rejected,TimedOut,"
+            + "Errors,OkPerSec,MeanMs,P50Ms,P99Ms,P999Ms,MaxMs";
+
+    private static final int CHECKED_QUERIES = 16;
+    private static final long SEED = 4321;
+    private static final long DRAIN_MS = 10_000; // open loop: wait this long for stragglers after the last send
+
+    public enum Mode {
+        CLOSED("closed"), OPEN("open");
+
+        private final String label;
+
+        Mode(String label) { this.label = label; }
+
+        public String label() { return label; }
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkConfig cfg = BenchmarkConfig.parse(args);
+        File outDir = new File(cfg.serverOutput).getAbsoluteFile().getParentFile();
+        if (outDir != null) outDir.mkdirs();
+
+        QueryServer embedded = null;
+        String base = cfg.serverUrl;
+        try {
+            if (base.isEmpty()) {
+                CSRGraph g = QueryServer.load(cfg);
+                embedded = QueryServer.open(cfg, g, 0);
+                base = "http://localhost:" + embedded.port();
+                System.out.printf("Embedded server on %s, %d nodes, %d edges (%s threads per request)%n", base,
+                        g.nodeCount(), g.edgeCount(), embedded.virtualThreads() ? "virtual" : "platform");
+            }
+            if (base.endsWith("/")) base = base.substring(0, base.length() - 1);
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            String stats = client.send(get(base + "/stats", cfg), HttpResponse.BodyHandlers.ofString()).body();
+            int n = (int) field(stats, "nodes");
+            long m = field(stats, "edges");
+            if (embedded != null) check(cfg, client, base, embedded.graph());
+
+            try (CsvSink csv = new CsvSink(cfg.serverOutput, HEADER)) {
+                // warm the server's JIT and the client's connections; not recorded
+                closed(cfg, client, base, n, 1, Math.min(2000, cfg.loadDurationMs), new Random(SEED - 1));
+                Random rnd = new Random(SEED);
+                for (Mode mode : cfg.loadModes) {
+                    int[] levels = mode == Mode.CLOSED ? cfg.loadClients : cfg.loadRates;
+                    for (int level : levels) {
+                        Tally t = mode == Mode.CLOSED ? closed(cfg, client, base, n, level, cfg.loadDurationMs, rnd)
+                                : open(cfg, client, base, n, level, cfg.loadDurationMs, rnd);
+                        row(csv, cfg, base, n, m, mode, level, t);
+                    }
+                }
+            }
+        } finally {
+            if (embedded != null) embedded.close();
+        }
+        System.out.println("Load test complete. CSV saved to " + cfg.serverOutput);
+    }
+
+    /** Answers and latencies of one load level; shared by its clients until {@link #freeze}. */
+    static final class Tally {
+        final RunStats latencyMs = new RunStats(); // 200 and 504 answers
+        int requests, ok, rejected, timedOut, errors;
+        long startNanos, lastNanos;
+        private boolean frozen;
+
+        Tally() { startNanos = lastNanos = System.nanoTime(); }
+
+        synchronized void record(int status, double ms) {
+            if (frozen) return;
+            lastNanos = System.nanoTime();
+            requests++;
+            if (status == 200) {
+                ok++;
+                latencyMs.add(ms);
+            } else if (status == 503) {
+                rejected++;
+            } else if (status == 504) {
+                timedOut++;
+                latencyMs.add(ms);
+            } else {
+                errors++;
+            }
+        }
+
+        /** Stop taking answers; the sent requests still unanswered count as errors. */
+        synchronized Tally freeze(int sent) {
+            frozen = true;
+            errors += sent - requests;
+            requests = sent;
+            return this;
+        }
+
+        /** Successful answers per second from the first send to the last answer. */
+        synchronized double okPerSec() {
+            long nanos = lastNanos - startNanos;
+            return nanos > 0 ? ok / (nanos / 1e9) : 0;
+        }
+    }
+
+    /** clients threads, each sending one query at a time for durationMs. */
+    static Tally closed(BenchmarkConfig cfg, HttpClient client, String base, int n, int clients, long durationMs,
+                        Random rnd) throws InterruptedException {
+        long seed = rnd.nextLong();
+        Tally t = new Tally();
+        long end = t.startNanos + durationMs * 1_000_000;
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            Random own = new Random(seed + c);
+            threads[c] = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    HttpRequest req = get(base + query(cfg, n, own), cfg);
+                    long s = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(req, HttpResponse.BodyHandlers.ofString()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    t.record(status, (System.nanoTime() - s) / 1e6);
+                }
+            }, "load-client-" + c);
+            threads[c].start();
+        }
+        for (Thread th : threads) th.join();
+        return t.freeze(t.requests);
+    }
+
+    /** Poisson arrivals at rate per second for durationMs, each timed from its scheduled send time. */
+    static Tally open(BenchmarkConfig cfg, HttpClient client, String base, int n, int rate, long durationMs,
+                      Random rnd) throws InterruptedException {
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        Tally t = new Tally();
+        long end = t.startNanos + durationMs * 1_000_000;
+        double meanGapNanos = 1e9 / rate;
+        long due = t.startNanos;
+        while (true) {
+            due += (long) (-Math.log(1 - rnd.nextDouble()) * meanGapNanos);
+            if (due >= end) break;
+            for (long wait; (wait = due - System.nanoTime()) > 0; ) LockSupport.parkNanos(wait); // may return early
+            long scheduled = due;
+            pending.add(client.sendAsync(get(base + query(cfg, n, rnd), cfg), HttpResponse.BodyHandlers.ofString())
+                    .handle((resp, err) -> {
+                        t.record(err != null ? -1 : resp.statusCode(), (System.nanoTime() - scheduled) / 1e6);
+                        return null;
+                    }));
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).get(DRAIN_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // stragglers count as errors below
+        }
+        return t.freeze(pending.size());
+    }
+
+    /** Path and parameters of one random query. */
+    static String query(BenchmarkConfig cfg, int n, Random rnd) {
+        QueryServer.Op op = cfg.loadOps[rnd.nextInt(cfg.loadOps.length)];
+        int s = rnd.nextInt(n), t = rnd.nextInt(n);
+        switch (op) {
+            case KHOP: return "/khop?source=" + s + "&hops=" + cfg.loadHops;
+            case DIJKSTRA:
+            case ASTAR: return "/path?source=" + s + "&target=" + t + "&algo=" + op.label();
+            case MAXFLOW: return "/maxflow?source=" + s + "&sink=" + t;
+            default: throw new IllegalStateException(op.name());
+        }
+    }
+
+    /**
+     * Server answers for CHECKED_QUERIES random queries of each kind equal direct runs on g. A probe that
+     * passes the server's time limit (504) is counted and skipped, not compared.
+     */
+    static void check(BenchmarkConfig cfg, HttpClient client, String base, CSRGraph g) throws Exception {
+        Random rnd = new Random(SEED + 1);
+        int n = g.nodeCount();
+        BFSAlgorithm bfs = new BFSAlgorithm();
+        AStar aStar = new AStar();
+        Dinic dinic = new Dinic();
+        int skipped = 0;
+        for (int i = 0; i < CHECKED_QUERIES; i++) {
+            int s = rnd.nextInt(n), t = rnd.nextInt(n);
+            int[] level = bfs.runUnweighted(g, s, false).dist();
+            long within = Arrays.stream(level).filter(d -> d != GraphResult.UNREACHED && d <= cfg.loadHops).count();
+            long dist = aStar.search(g, s, t, Heuristic.ZERO, false).value();
+            long flow = dinic.maxFlow(g, s, t).flow();
+            String st = "source=" + s + "&target=" + t;
+            if (!expect(client, cfg, base + "/khop?source=" + s + "&hops=" + cfg.loadHops, "reached", within)) skipped++;
+            if (!expect(client, cfg, base + "/path?" + st + "&algo=dijkstra", "distance", dist)) skipped++;
+            if (!expect(client, cfg, base + "/path?" + st + "&algo=astar", "distance", dist)) skipped++;
+            if (!expect(client, cfg, base + "/maxflow?source=" + s + "&sink=" + t, "flow", flow)) skipped++;
+        }
+        if (skipped > 0) {
+            System.out.printf("Self-check: %d of %d probes passed the %d ms time limit and were not compared%n",
+                    skipped, 4 * CHECKED_QUERIES, cfg.serverTimeLimitMs);
+        }
+    }
+
+    /** Whether url answered 200 with field name equal to want (false: 504, not compared); throws otherwise. */
+    private static boolean expect(HttpClient client, BenchmarkConfig cfg, String url, String name, long want)
+            throws Exception {
+        HttpResponse<String> resp = client.send(get(url, cfg), HttpResponse.BodyHandlers.ofString());
+        if (resp.statusCode() == 504) return false;
+        if (resp.statusCode() != 200) {
+            throw new IllegalStateException(url + " answered " + resp.statusCode() + ": " + resp.body());
+        }
+        long got = field(resp.body(), name);
+        if (got != want) throw new IllegalStateException(String.format("%s: %s %d, expected %d", url, name, got, want));
+        return true;
+    }
+
+    /** GET url, giving up well after the server's own limits would have answered. */
+    private static HttpRequest get(String url, BenchmarkConfig cfg) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(cfg.serverQueueMs + cfg.serverTimeLimitMs + DRAIN_MS))
+                .GET().build();
+    }
+
+    /** An integer field of a one-line JSON answer. */
+    static long field(String json, String name) {
+        Matcher m = Pattern.compile("\"" + name + "\":(-?\\d+)").matcher(json);
+        if (!m.find()) throw new IllegalStateException("no " + name + " in " + json);
+        return Long.parseLong(m.group(1));
+    }
+
+    private static void row(CsvSink csv, BenchmarkConfig cfg, String base, int n, long m, Mode mode, int level,
+                            Tally t) throws IOException {
+        double okPerSec = t.okPerSec();
+        RunStats ms = t.latencyMs;
+        boolean any = ms.count() > 0;
+        String ops = String.join("|", Arrays.stream(cfg.loadOps).map(QueryServer.Op::label).toArray(String[]::new));
+        csv.row(
+                base,
+                String.valueOf(n),
+                String.valueOf(m),
+                mode.label(),
+                mode == Mode.CLOSED ? String.valueOf(level) : "",
+                mode == Mode.OPEN ? String.valueOf(level) : "",
+                ops,
+                String.valueOf(cfg.loadDurationMs),
+                String.valueOf(t.requests),
+                String.valueOf(t.ok),
+                String.valueOf(t.rejected),
+                String.valueOf(t.timedOut),
+                String.valueOf(t.errors),
+                String.valueOf(okPerSec),
+                any ? String.valueOf(ms.mean()) : "",
+                any ? String.valueOf(ms.median()) : "",
+                any ? String.valueOf(ms.percentile(99)) : "",
+                any ? String.valueOf(ms.percentile(99.9)) : "",
+                any ? String.valueOf(ms.percentile(100)) : ""
+        );
+        System.out.printf("  %-6s %-12s %6d req  ok %6d  503 %5d  504 %5d  err %4d  %8.1f ok/s"
+                        + "  p50 %8.3f  p99 %8.3f  p99.9 %8.3f ms%n",
+                mode.label(), mode == Mode.CLOSED ? level + " clients" : level + " rps", t.requests, t.ok, t.rejected,
+                t.timedOut, t.errors, okPerSec, any ? ms.median() : 0, any ? ms.percentile(99) : 0,
+                any ? ms.percentile(99.9) : 0);
+    }
+}
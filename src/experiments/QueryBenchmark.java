@@ -0,0 +1,254 @@
+package experiments;
+
+import algorithms.*;
+import experiments.GraphCache.Cell;
+import utils.CSRGraph;
+import utils.GraphModel;
+import utils.Parallel;
+import utils.PriorityQueueType;
+import utils.RunMeter;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+/**
+ * Point-to-point shortest-path queries on the weighted graphs of the {@link BenchmarkConfig} matrix: the
+ * same random (source, target) pairs for every engine, one CSV row per query with the nodes it settled.
+ * <p>
+ * Dijkstra here is A* with {@link Heuristic#ZERO}, i.e. Dijkstra that stops at the target, so settled
+ * counts compare like for like. Engines with preprocessing report its time once per cell (PreprocessMs).
+ * Every distance is checked against Dijkstra's. {@link QueryEngine}s are also run in batches at each
+ * configured thread count for queries/sec and latency percentiles (queryThroughputOutput), and each engine
+ * gets one querySummaryOutput row per cell with its preprocessing time, shortcut count, index size and mean
+ * speedup over Dijkstra. With a graphDir the contraction hierarchy is saved next to the graph and the queries
+ * go to the copy read back from that file. Usage as for the main harness, e.g.
+ * {@code java experiments.QueryBenchmark models=GEOMETRIC,GRID nodes=100000 densities=0.0001 queries=200}.
+ */
+public class QueryBenchmark {
+
+    static final String HEADER = "Algorithm,Model,Directed,Nodes,Edges,Density,Seed,Query,Source,Target,Distance,Settled,QueryMs,PreprocessMs";
+    static final String THROUGHPUT_HEADER = "Algorithm,Model,Directed,Nodes,Edges,Density,Seed,Threads,Queries,QueriesPerSec,P50Us,P90Us,P99Us,MaxUs";
+    static final String SUMMARY_HEADER = "Algorithm,Model,Directed,Nodes,Edges,Density,Seed,Queries,PreprocessMs,Shortcuts,IndexBytes,MeanSettled,MeanQueryMs,MedianQueryMs,Speedup";
+
+    /** One way to answer queries on one graph, after its preprocessing. */
+    interface Engine {
+        GraphResult query(int source, int target);
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkConfig cfg = BenchmarkConfig.parse(args);
+        for (String out : new String[]{cfg.queryOutput, cfg.queryThroughputOutput, cfg.querySummaryOutput}) {
+            File outDir = new File(out).getAbsoluteFile().getParentFile();
+            if (outDir != null) outDir.mkdirs();
+        }
+        Pattern pick = Pattern.compile(cfg.algorithms);
+
+        List<Cell> cells = new ArrayList<>();
+        for (GraphModel model : cfg.models)
+            for (boolean directed : cfg.directed)
+                for (int n : cfg.nodes)
+                    for (double density : cfg.densities)
+                        for (long seed : cfg.seeds)
+                            cells.add(new Cell(cells.size(), model, directed, n, density, seed));
+
+        try (CsvSink csv = new CsvSink(cfg.queryOutput, HEADER);
+             CsvSink throughputCsv = new CsvSink(cfg.queryThroughputOutput, THROUGHPUT_HEADER);
+             CsvSink summaryCsv = new CsvSink(cfg.querySummaryOutput, SUMMARY_HEADER)) {
+            for (Cell cell : cells) {
+                CSRGraph g = GraphAlgorithmBenchmarkVerbose.graph(cfg.graphDir, cell, true);
+                runCell(cfg, cell, g, pick, csv, throughputCsv, summaryCsv);
+            }
+        }
+        System.out.println("Query benchmark complete. CSV saved to " + cfg.queryOutput);
+    }
+
+    static void runCell(BenchmarkConfig cfg, Cell cell, CSRGraph g, Pattern pick, CsvSink csv, CsvSink throughputCsv,
+                        CsvSink summaryCsv) throws Exception {
+        AStar aStar = new AStar(PriorityQueueType.BINARY_HEAP);
+        Map<String, Engine> engines = new LinkedHashMap<>();
+        Map<String, Double> preprocessMs = new HashMap<>();
+        Map<String, Long> shortcuts = new HashMap<>(), indexBytes = new HashMap<>();
+        Map<String, QueryEngine> batchEngines = new LinkedHashMap<>();
+        engines.put("Dijkstra_P2P", (s, t) -> aStar.search(g, s, t, Heuristic.ZERO, false));
+        if (pick.matcher("Dijkstra_Bidirectional").matches()) {
+            long t0 = System.nanoTime();
+            BidirectionalDijkstra bd = new BidirectionalDijkstra(g);
+            preprocessMs.put("Dijkstra_Bidirectional", (System.nanoTime() - t0) / 1e6);
+            engines.put("Dijkstra_Bidirectional", engine(bd));
+            batchEngines.put("Dijkstra_Bidirectional", bd);
+        }
+        if (pick.matcher("CH").matches()) {
+            long t0 = System.nanoTime();
+            ContractionHierarchy ch = ContractionHierarchy.build(g);
+            preprocessMs.put("CH", (System.nanoTime() - t0) / 1e6);
+            shortcuts.put("CH", (long) ch.shortcutCount());
+            indexBytes.put("CH", ch.indexBytes());
+            if (cfg.graphDir != null && !cfg.graphDir.isEmpty()) {
+                Path file = Paths.get(cfg.graphDir, GraphAlgorithmBenchmarkVerbose.fileName(cell, true, ".ch"));
+                ch.save(file);
+                ch = ContractionHierarchy.load(file);
+            }
+            engines.put("CH", engine(ch));
+            batchEngines.put("CH", ch);
+        }
+        if (pick.matcher("AStar_ALT").matches()) {
+            long t0 = System.nanoTime();
+            Landmarks alt = Landmarks.build(g, cfg.landmarks, cell.seed);
+            preprocessMs.put("AStar_ALT", (System.nanoTime() - t0) / 1e6);
+            indexBytes.put("AStar_ALT", RunMeter.retainedBytes(alt));
+            engines.put("AStar_ALT", (s, t) -> aStar.search(g, s, t, alt, false));
+        }
+        double[] coords = cell.model.coordinates(cell.n, cell.seed);
+        if (coords != null && pick.matcher("AStar_Euclidean").matches()) {
+            long t0 = System.nanoTime();
+            Heuristic euclid = new EuclideanHeuristic(g, coords);
+            preprocessMs.put("AStar_Euclidean", (System.nanoTime() - t0) / 1e6);
+            engines.put("AStar_Euclidean", (s, t) -> aStar.search(g, s, t, euclid, false));
+        }
+
+        Random pairs = new Random(GraphAlgorithmBenchmarkVerbose.startSeed(cell));
+        int[] sources = new int[cfg.queries], targets = new int[cfg.queries];
+        for (int q = 0; q < cfg.queries; q++) {
+            sources[q] = pairs.nextInt(cell.n);
+            targets[q] = pairs.nextInt(cell.n);
+        }
+        for (int w = 0; w < cfg.warmups && cfg.queries > 0; w++) {
+            for (Engine e : engines.values()) e.query(sources[0], targets[0]);
+        }
+
+        Map<String, RunStats> times = new LinkedHashMap<>(), settled = new LinkedHashMap<>();
+        for (String name : engines.keySet()) {
+            times.put(name, new RunStats());
+            settled.put(name, new RunStats());
+        }
+        for (int q = 0; q < cfg.queries; q++) {
+            long expected = 0;
+            for (Map.Entry<String, Engine> e : engines.entrySet()) {
+                String name = e.getKey();
+                long t0 = System.nanoTime();
+                GraphResult r = e.getValue().query(sources[q], targets[q]);
+                double ms = (System.nanoTime() - t0) / 1e6;
+                if (name.equals("Dijkstra_P2P")) expected = r.value();
+                else if (r.value() != expected) {
+                    throw new IllegalStateException(String.format("%s: %d -> %d gave %d, Dijkstra %d",
+                            name, sources[q], targets[q], r.value(), expected));
+                }
+                times.get(name).add(ms);
+                settled.get(name).add(r.visited());
+                if (!pick.matcher(name).matches()) continue;
+                csv.row(
+                        name,
+                        cell.model.label(),
+                        String.valueOf(cell.directed),
+                        String.valueOf(cell.n),
+                        String.valueOf(g.edgeCount()),
+                        String.valueOf(cell.density),
+                        String.valueOf(cell.seed),
+                        String.valueOf(q),
+                        String.valueOf(sources[q]),
+                        String.valueOf(targets[q]),
+                        String.valueOf(r.value()),
+                        String.valueOf(r.visited()),
+                        String.valueOf(ms),
+                        preprocessMs.containsKey(name) ? String.valueOf(preprocessMs.get(name)) : ""
+                );
+            }
+        }
+
+        System.out.printf("%s %s n=%d d=%s seed=%d%n", cell.model.label(), cell.directed ? "directed" : "undirected",
+                cell.n, cell.density, cell.seed);
+        double base = settled.get("Dijkstra_P2P").mean();
+        double baseMs = times.get("Dijkstra_P2P").mean();
+        for (String name : engines.keySet()) {
+            if (!pick.matcher(name).matches()) continue;
+            System.out.printf("  %-22s settled %10.1f (%5.1f%% of Dijkstra)  median %.3f ms%s%n", name,
+                    settled.get(name).mean(), 100 * settled.get(name).mean() / base, times.get(name).median(),
+                    preprocessMs.containsKey(name) ? String.format("  preprocess %.1f ms", preprocessMs.get(name)) : "");
+            summaryCsv.row(
+                    name,
+                    cell.model.label(),
+                    String.valueOf(cell.directed),
+                    String.valueOf(cell.n),
+                    String.valueOf(g.edgeCount()),
+                    String.valueOf(cell.density),
+                    String.valueOf(cell.seed),
+                    String.valueOf(cfg.queries),
+                    preprocessMs.containsKey(name) ? String.valueOf(preprocessMs.get(name)) : "",
+                    shortcuts.containsKey(name) ? String.valueOf(shortcuts.get(name)) : "",
+                    indexBytes.containsKey(name) ? String.valueOf(indexBytes.get(name)) : "",
+                    String.valueOf(settled.get(name).mean()),
+                    String.valueOf(times.get(name).mean()),
+                    String.valueOf(times.get(name).median()),
+                    String.valueOf(baseMs / times.get(name).mean())
+            );
+        }
+
+        for (Map.Entry<String, QueryEngine> e : batchEngines.entrySet()) {
+            throughput(cfg, cell, g, e.getKey(), e.getValue(), sources, targets, throughputCsv);
+        }
+    }
+
+    /** A {@link QueryEngine} as an {@link Engine}: its distance (-1 when unreachable) and settled count. */
+    static Engine engine(QueryEngine q) {
+        return (s, t) -> {
+            int d = q.distance(s, t);
+            return new GraphResult(null, null, null, 0, q.lastSettled(), d == GraphResult.UNREACHED ? -1 : d);
+        };
+    }
+
+    /**
+     * Batch throughput and per-query latency of a {@link QueryEngine} at every configured thread count: one
+     * untimed batch, one timed batch through {@link QueryEngine#distances} for queries/sec, then the same
+     * queries again timed one by one (still fanned out) for the latency percentiles.
+     */
+    static void throughput(BenchmarkConfig cfg, Cell cell, CSRGraph g, String name, QueryEngine engine,
+                           int[] sources, int[] targets, CsvSink csv) throws Exception {
+        int q = sources.length;
+        if (q == 0) return;
+        for (int threads : cfg.threads) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                engine.distances(sources, targets, pool);
+                long t0 = System.nanoTime();
+                engine.distances(sources, targets, pool);
+                double seconds = (System.nanoTime() - t0) / 1e9;
+
+                double[] latencyUs = new double[q];
+                Parallel.forRange(pool, 0, q, QueryEngine.BATCH_GRAIN, (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        long s0 = System.nanoTime();
+                        engine.distance(sources[i], targets[i]);
+                        latencyUs[i] = (System.nanoTime() - s0) / 1e3;
+                    }
+                });
+                RunStats lat = new RunStats();
+                for (double us : latencyUs) lat.add(us);
+
+                csv.row(
+                        name,
+                        cell.model.label(),
+                        String.valueOf(cell.directed),
+                        String.valueOf(cell.n),
+                        String.valueOf(g.edgeCount()),
+                        String.valueOf(cell.density),
+                        String.valueOf(cell.seed),
+                        String.valueOf(threads),
+                        String.valueOf(q),
+                        String.valueOf(q / seconds),
+                        String.valueOf(lat.median()),
+                        String.valueOf(lat.percentile(90)),
+                        String.valueOf(lat.percentile(99)),
+                        String.valueOf(lat.percentile(100))
+                );
+                System.out.printf("  %-22s t%-3d %10.0f queries/s  p50 %.1f us  p99 %.1f us%n", name, threads,
+                        q / seconds, lat.median(), lat.percentile(99));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package experiments;
+
+import algorithms.AStar;
+import algorithms.Dinic;
+import algorithms.FlowResult;
+import algorithms.GraphResult;
+import algorithms.Heuristic;
+import algorithms.Landmarks;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import experiments.GraphCache.Cell;
+import utils.CSRGraph;
+import utils.Deadline;
+import utils.EdgeListFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Embedded HTTP server answering traversal, shortest-path and max-flow queries on one resident weighted graph,
+ * loaded once at startup (see {@link #load}). Endpoints take GET query parameters and answer one line of JSON:
+ * <ul>
+ *   <li>{@code /khop?source=s&hops=k}: nodes within k hops of s (all reachable ones without hops);</li>
+ *   <li>{@code /path?source=s&target=t&algo=dijkstra|astar}: distance (-1 when unreachable), hops and settled
+ *       nodes; astar is guided by ALT landmarks built at startup;</li>
+ *   <li>{@code /maxflow?source=s&sink=t}: Dinic's max flow, augmenting paths and phases;</li>
+ *   <li>{@code /stats}: graph size, in-flight queries and served, rejected, timed-out and failed counts.</li>
+ * </ul>
+ * Every request gets its own thread: a virtual thread on JDK 21 and later, otherwise a platform thread from a
+ * cached pool (the build targets 17, so the virtual-thread executor is looked up reflectively). Admission
+ * control lets at most serverMaxInFlight queries run at once; a request that cannot get in within
+ * serverQueueMs is answered 503. Each query runs under a {@link Deadline} of serverTimeLimitMs and is answered
+ * 504 once it passes: max-flow and k-hop give up at the next phase or level, a shortest-path search within
+ * 4096 pops. Bad parameters get 400, unknown paths 404 and unexpected failures 500, all with an
+ * {@code {"error":...}} body. Usage: {@code java experiments.QueryServer models=RMAT nodes=1000000 densities=0.00001 serverPort=8080}.
+ */
+public final class QueryServer implements Closeable {
+
+    /** Query kinds, by endpoint; labels are also the loadOps names. */
+    public enum Op {
+        KHOP("khop"), DIJKSTRA("dijkstra"), ASTAR("astar"), MAXFLOW("maxflow");
+
+        private final String label;
+
+        Op(String label) { this.label = label; }
+
+        public String label() { return label; }
+    }
+
+    private final CSRGraph graph;
+    private final Landmarks landmarks;
+    private final AStar aStar = new AStar();
+    private final Dinic dinic = new Dinic();
+    private final HttpServer http;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore admission;
+    private final long queueMs, timeLimitMs;
+    private final ConcurrentLinkedQueue<Levels> freeLevels = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder served = new LongAdder(), rejected = new LongAdder(), timedOut = new LongAdder(),
+            failed = new LongAdder();
+
+    /**
+     * Bind to port (0 picks a free one) and start serving graph, which needs weights.
+     * @param landmarkCount ALT landmarks for astar queries, built here
+     */
+    public QueryServer(CSRGraph graph, int port, int maxInFlight, long queueMs, long timeLimitMs, int landmarkCount)
+            throws IOException {
+        if (!graph.isWeighted()) throw new IllegalArgumentException("the query server needs a weighted graph");
+        this.graph = graph;
+        this.landmarks = Landmarks.build(graph, landmarkCount, graph.nodeCount());
+        this.admission = new Semaphore(maxInFlight);
+        this.queueMs = queueMs;
+        this.timeLimitMs = timeLimitMs;
+        ExecutorService virtual = virtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : platformThreadExecutor();
+        this.http = HttpServer.create(new InetSocketAddress(port), 0);
+        http.createContext("/", this::handle);
+        http.setExecutor(executor);
+        http.start();
+    }
+
+    /** The server for cfg's graph and server settings, on port (0 picks a free one). */
+    public static QueryServer open(BenchmarkConfig cfg, CSRGraph graph, int port) throws IOException {
+        return new QueryServer(graph, port, cfg.serverMaxInFlight, cfg.serverQueueMs, cfg.serverTimeLimitMs,
+                cfg.landmarks);
+    }
+
+    /**
+     * The graph to serve: the first edgeLists file (directed as the first directed value, unit weights unless
+     * edgeListWeighted), otherwise the weighted graph of the first cell of the matrix.
+     */
+    public static CSRGraph load(BenchmarkConfig cfg) throws IOException {
+        boolean directed = cfg.directed[0];
+        if (cfg.edgeLists.length > 0) {
+            ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+            try {
+                CSRGraph g = EdgeListFile.read(Paths.get(cfg.edgeLists[0]), directed, cfg.edgeListWeighted, pool).graph();
+                if (g.isWeighted()) return g;
+                int[] unit = new int[g.edgeCount()];
+                Arrays.fill(unit, 1);
+                return new CSRGraph(g.offsets(), g.targets(), unit);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        Cell cell = new Cell(0, cfg.models[0], directed, cfg.nodes[0], cfg.densities[0], cfg.seeds[0]);
+        return GraphAlgorithmBenchmarkVerbose.graph(cfg.graphDir, cell, true);
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkConfig cfg = BenchmarkConfig.parse(args);
+        CSRGraph g = load(cfg);
+        QueryServer server = open(cfg, g, cfg.serverPort);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.printf("Serving %d nodes, %d edges on http://localhost:%d/ (%s threads per request)%n",
+                g.nodeCount(), g.edgeCount(), server.port(), server.virtualThreads() ? "virtual" : "platform");
+        new CountDownLatch(1).await(); // until the process is stopped
+    }
+
+    public int port() { return http.getAddress().getPort(); }
+
+    public CSRGraph graph() { return graph; }
+
+    /** True when requests run on virtual threads (JDK 21+). */
+    public boolean virtualThreads() { return virtualThreads; }
+
+    @Override
+    public void close() {
+        http.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            String path = ex.getRequestURI().getPath();
+            if (path.equals("/stats")) {
+                respond(ex, 200, String.format("{\"nodes\":%d,\"edges\":%d,\"inFlight\":%d,\"served\":%d,"
+                                + "\"rejected\":%d,\"timedOut\":%d,\"failed\":%d,\"virtualThreads\":%b}",
+                        graph.nodeCount(), graph.edgeCount(), inFlight.get(), served.sum(), rejected.sum(),
+                        timedOut.sum(), failed.sum(), virtualThreads));
+                return;
+            }
+            Map<String, String> params;
+            Op op;
+            try {
+                params = params(ex.getRequestURI().getRawQuery());
+                op = op(path, params.getOrDefault("algo", Op.DIJKSTRA.label()));
+            } catch (IllegalArgumentException e) {
+                failed.increment();
+                respond(ex, 400, error(e.getMessage()));
+                return;
+            }
+            if (op == null) {
+                failed.increment();
+                respond(ex, 404, error("unknown query " + path));
+                return;
+            }
+            if (!admit()) {
+                rejected.increment();
+                respond(ex, 503, error("overloaded"));
+                return;
+            }
+            inFlight.incrementAndGet();
+            try {
+                long t0 = System.nanoTime();
+                String answer = null;
+                Deadline deadline = Deadline.arm(timeLimitMs);
+                try {
+                    answer = answer(op, params);
+                } catch (CancellationException e) {
+                    // the deadline passed; answered below
+                } finally {
+                    if (deadline.disarm()) answer = null;
+                }
+                double ms = (System.nanoTime() - t0) / 1e6;
+                if (answer == null) {
+                    timedOut.increment();
+                    respond(ex, 504, String.format(Locale.ROOT,
+                            "{\"error\":\"time limit of %d ms exceeded\",\"ms\":%.3f}", timeLimitMs, ms));
+                } else {
+                    served.increment();
+                    respond(ex, 200, String.format(Locale.ROOT, "{\"op\":\"%s\",%s,\"ms\":%.3f}", op.label(), answer, ms));
+                }
+            } catch (IllegalArgumentException e) {
+                failed.increment();
+                respond(ex, 400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                failed.increment();
+                respond(ex, 500, error("internal error: " + e));
+            } finally {
+                inFlight.decrementAndGet();
+                admission.release();
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    /** Wait up to queueMs for a query slot. */
+    private boolean admit() {
+        try {
+            return admission.tryAcquire(queueMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Op op(String path, String algo) {
+        switch (path) {
+            case "/khop": return Op.KHOP;
+            case "/maxflow": return Op.MAXFLOW;
+            case "/path":
+                if (algo.equals(Op.DIJKSTRA.label())) return Op.DIJKSTRA;
+                if (algo.equals(Op.ASTAR.label())) return Op.ASTAR;
+                throw new IllegalArgumentException("unknown path algorithm " + algo);
+            default: return null;
+        }
+    }
+
+    /** The JSON fields of one answer, without braces. */
+    private String answer(Op op, Map<String, String> params) {
+        int s = node(params, "source");
+        switch (op) {
+            case KHOP: {
+                String hops = params.get("hops");
+                int k = hops == null ? Integer.MAX_VALUE : Integer.parseInt(hops);
+                if (k < 0) throw new IllegalArgumentException("hops must be >= 0");
+                long r = kHop(s, k);
+                return String.format("\"source\":%d,\"hops\":%d,\"reached\":%d,\"levels\":%d", s,
+                        hops == null ? -1 : k, r >>> 32, r & 0xFFFFFFFFL);
+            }
+            case DIJKSTRA:
+            case ASTAR: {
+                int t = node(params, "target");
+                Heuristic h = op == Op.ASTAR ? landmarks : Heuristic.ZERO;
+                GraphResult r = aStar.search(graph, s, t, h, false);
+                int d = (int) r.value();
+                int hopCount = 0;
+                if (d >= 0) for (int v = t; v != s; v = r.parent()[v]) hopCount++;
+                return String.format("\"source\":%d,\"target\":%d,\"distance\":%d,\"hops\":%d,\"settled\":%d",
+                        s, t, d, d < 0 ? -1 : hopCount, r.visited());
+            }
+            case MAXFLOW: {
+                int t = node(params, "sink");
+                FlowResult r = dinic.maxFlow(graph, s, t);
+                return String.format("\"source\":%d,\"sink\":%d,\"flow\":%d,\"augments\":%d,\"phases\":%d",
+                        s, t, r.flow(), r.augments(), r.phases());
+            }
+            default: throw new IllegalStateException(op.name());
+        }
+    }
+
+    private int node(Map<String, String> params, String name) {
+        String v = params.get(name);
+        if (v == null) throw new IllegalArgumentException("missing " + name);
+        int u = Integer.parseInt(v);
+        if (u < 0 || u >= graph.nodeCount()) throw new IllegalArgumentException(name + " " + u + " out of range");
+        return u;
+    }
+
+    /** BFS from s up to k levels; returns reached << 32 | deepest level reached. Gives up at the deadline. */
+    private long kHop(int s, int k) {
+        Levels st = freeLevels.poll();
+        if (st == null) st = new Levels(graph.nodeCount());
+        try {
+            int[] off = graph.offsets(), adj = graph.targets();
+            int[] stamp = st.stamp, q = st.queue;
+            int ver = st.next();
+            int head = 0, tail = 0, depth = 0;
+            q[tail++] = s;
+            stamp[s] = ver;
+            while (head < tail && depth < k) {
+                Deadline.check();
+                int levelEnd = tail;
+                for (; head < levelEnd; head++) {
+                    int u = q[head];
+                    for (int i = off[u], end = off[u + 1]; i < end; i++) {
+                        int v = adj[i];
+                        if (stamp[v] != ver) {
+                            stamp[v] = ver;
+                            q[tail++] = v;
+                        }
+                    }
+                }
+                if (tail > levelEnd) depth++;
+            }
+            return (long) tail << 32 | depth;
+        } finally {
+            freeLevels.add(st);
+        }
+    }
+
+    /** Visited stamps and queue of one k-hop search, handed between requests through a free list. */
+    private static final class Levels {
+        final int[] stamp, queue;
+        int version;
+
+        Levels(int n) {
+            stamp = new int[n];
+            queue = new int[n];
+        }
+
+        int next() {
+            if (++version == 0) {
+                Arrays.fill(stamp, 0);
+                version = 1;
+            }
+            return version;
+        }
+    }
+
+    private static Map<String, String> params(String rawQuery) {
+        Map<String, String> out = new HashMap<>();
+        if (rawQuery == null) return out;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            out.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    /** {"error":"message"}, with message escaped as a JSON string. */
+    private static String error(String message) {
+        StringBuilder sb = new StringBuilder("{\"error\":\"");
+        for (char c : String.valueOf(message).toCharArray()) {
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append("\"}").toString();
+    }
+
+    private static void respond(HttpExchange ex, int status, String json) throws IOException {
+        byte[] body = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /** Executors.newVirtualThreadPerTaskExecutor() where the running JDK has it (21+), else null. */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /** A thread per concurrent request, kept around briefly for the next one. */
+    private static ExecutorService platformThreadExecutor() {
+        AtomicInteger ids = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "query-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+}
@@ -0,0 +1,162 @@
+package experiments;
+
+import algorithms.BFSAlgorithm;
+import algorithms.BellmanFord;
+import algorithms.Dijkstra;
+import algorithms.GraphResult;
+import experiments.GraphCache.Cell;
+import utils.CSRGraph;
+import utils.GraphModel;
+import utils.GraphOrdering;
+import utils.Permutation;
+
+import java.io.File;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Traversals on relabelled graphs: every cell of the {@link BenchmarkConfig} matrix is reordered with each of
+ * the configured orderings, and BFS (unweighted graph), Dijkstra and Bellman-Ford (weighted graph) run from the
+ * same minRuns random start nodes, mapped to their new ids, on the original and on each relabelled graph.
+ * Reordering is timed like a run (warmups, then minRuns samples) on a graph without cached views. One row per
+ * ordering and algorithm records the locality score, the median run, the speedup over the original ids, and
+ * what it nets after paying for the reordering: NetGainMs is the time saved over minRuns runs minus the
+ * reordering, BreakEvenRuns the runs it takes to pay for it. Distances mapped back to original ids are
+ * checked against the original graph. Usage as for the main harness, e.g.
+ * {@code java experiments.ReorderBenchmark models=RMAT,GRID nodes=1000000 densities=0.000005 orderings=rcm,gorder}.
+ */
+public class ReorderBenchmark {
+
+    static final String HEADER = "Ordering,Algorithm,Model,Directed,Nodes,Edges,Density,Seed,ReorderMs,LogGap,Runs,MedianMs,BaselineMs,Speedup,SavedMsPerRun,BreakEvenRuns,NetGainMs";
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkConfig cfg = BenchmarkConfig.parse(args);
+        File outDir = new File(cfg.reorderOutput).getAbsoluteFile().getParentFile();
+        if (outDir != null) outDir.mkdirs();
+
+        List<Cell> cells = new ArrayList<>();
+        for (GraphModel model : cfg.models)
+            for (boolean directed : cfg.directed)
+                for (int n : cfg.nodes)
+                    for (double density : cfg.densities)
+                        for (long seed : cfg.seeds)
+                            cells.add(new Cell(cells.size(), model, directed, n, density, seed));
+
+        try (CsvSink csv = new CsvSink(cfg.reorderOutput, HEADER)) {
+            for (Cell cell : cells) {
+                System.out.printf("%s %s n=%d d=%s seed=%d%n", cell.model.label(), cell.directed ? "directed" : "undirected",
+                        cell.n, cell.density, cell.seed);
+                BFSAlgorithm bfs = new BFSAlgorithm();
+                Dijkstra dijkstra = new Dijkstra();
+                BellmanFord bellmanFord = new BellmanFord();
+                runGraph(cfg, cell, GraphAlgorithmBenchmarkVerbose.graph(cfg.graphDir, cell, false), Collections.singletonList(
+                        new Traversal(bfs.name(), (h, s) -> bfs.runUnweighted(h, s, false))), csv);
+                runGraph(cfg, cell, GraphAlgorithmBenchmarkVerbose.graph(cfg.graphDir, cell, true), Arrays.asList(
+                        new Traversal(dijkstra.name(), (h, s) -> dijkstra.runWeighted(h, s, false)),
+                        new Traversal(bellmanFord.name(), (h, s) -> bellmanFord.runWeighted(h, s, false))), csv);
+            }
+        }
+        System.out.println("Reordering benchmark complete. CSV saved to " + cfg.reorderOutput);
+    }
+
+    /** Every ordering against the original ids of g, for each algorithm (all weighted or all unweighted). */
+    static void runGraph(BenchmarkConfig cfg, Cell cell, CSRGraph g, List<Traversal> algos, CsvSink csv)
+            throws Exception {
+        Random rnd = new Random(GraphAlgorithmBenchmarkVerbose.startSeed(cell));
+        int[] starts = new int[cfg.minRuns];
+        for (int i = 0; i < starts.length; i++) starts[i] = rnd.nextInt(cell.n);
+
+        Map<Traversal, RunStats> baseline = new HashMap<>();
+        Map<Traversal, int[]> expected = new HashMap<>();
+        for (Traversal algo : algos) {
+            baseline.put(algo, time(cfg, starts.length, r -> algo.body.run(g, starts[r])));
+            expected.put(algo, algo.body.run(g, starts[0]).dist());
+        }
+
+        for (GraphOrdering ordering : cfg.orderings) {
+            Permutation[] perm = new Permutation[1];
+            CSRGraph[] relabelled = new CSRGraph[1];
+            RunStats reorder = ordering == GraphOrdering.ORIGINAL ? null : time(cfg, starts.length, r -> {
+                CSRGraph fresh = new CSRGraph(g.offsets(), g.targets(), g.weights()); // no cached reverse/undirected
+                perm[0] = ordering.compute(fresh);
+                relabelled[0] = perm[0].apply(fresh);
+            });
+            CSRGraph h = reorder == null ? g : relabelled[0];
+            double gap = GraphOrdering.meanLogGap(h);
+
+            for (Traversal algo : algos) {
+                RunStats stats;
+                if (reorder == null) {
+                    stats = baseline.get(algo);
+                } else {
+                    int[] mapped = new int[starts.length];
+                    for (int i = 0; i < starts.length; i++) mapped[i] = perm[0].toNew(starts[i]);
+                    stats = time(cfg, mapped.length, r -> algo.body.run(h, mapped[r]));
+                    int[] dist = perm[0].valuesToOriginal(algo.body.run(h, mapped[0]).dist());
+                    if (!Arrays.equals(dist, expected.get(algo))) {
+                        throw new IllegalStateException(String.format("%s on %s ids: distances differ from the original graph",
+                                algo.name, ordering.label()));
+                    }
+                }
+                row(csv, cell, g, ordering, algo.name, reorder == null ? 0 : reorder.median(), gap,
+                        starts.length, stats, baseline.get(algo));
+            }
+        }
+    }
+
+    /** One algorithm's CSR fast path under its name. */
+    static final class Traversal {
+        final String name;
+        final Body body;
+
+        Traversal(String name, Body body) {
+            this.name = name;
+            this.body = body;
+        }
+    }
+
+    interface Body {
+        GraphResult run(CSRGraph g, int start);
+    }
+
+    /** warmups untimed calls, then runs timed ones; body gets the run index (warm-ups reuse the first ones). */
+    private static RunStats time(BenchmarkConfig cfg, int runs, IntConsumer body) {
+        for (int w = 0; w < cfg.warmups; w++) body.accept(w % runs);
+        RunStats stats = new RunStats();
+        for (int r = 0; r < runs; r++) {
+            long t0 = System.nanoTime();
+            body.accept(r);
+            stats.add((System.nanoTime() - t0) / 1e6);
+        }
+        return stats;
+    }
+
+    private static void row(CsvSink csv, Cell cell, CSRGraph g, GraphOrdering ordering, String algo, double reorderMs,
+                            double gap, int runs, RunStats stats, RunStats baseline) throws Exception {
+        double ms = stats.median(), base = baseline.median();
+        double saved = base - ms;
+        double net = runs * saved - reorderMs;
+        String breakEven = ordering == GraphOrdering.ORIGINAL ? "0" : saved > 0 ? String.valueOf(reorderMs / saved) : "";
+        csv.row(
+                ordering.label(),
+                algo,
+                cell.model.label(),
+                String.valueOf(cell.directed),
+                String.valueOf(cell.n),
+                String.valueOf(g.edgeCount()),
+                String.valueOf(cell.density),
+                String.valueOf(cell.seed),
+                String.valueOf(reorderMs),
+                String.valueOf(gap),
+                String.valueOf(runs),
+                String.valueOf(ms),
+                String.valueOf(base),
+                String.valueOf(base / ms),
+                String.valueOf(saved),
+                breakEven,
+                String.valueOf(net)
+        );
+        System.out.printf("  %-9s %-12s gap %5.2f  reorder %9.2f ms  median %9.2f ms  x%.2f  break-even %s runs%n",
+                ordering.label(), algo, gap, reorderMs, ms, base / ms, breakEven.isEmpty() ? "never" : breakEven);
+    }
+}
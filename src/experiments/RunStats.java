@@ -0,0 +1,68 @@
+package experiments;
+
+import java.util.Arrays;
+
+/**
+ * Running sample of run times (ms) for one algorithm on one cell, with the summary statistics the harness
+ * stops on and reports. Confidence intervals are 95% Student-t intervals of the mean.
+ */
+public final class RunStats {
+
+    // two-sided 95% Student t quantiles for 1..30 degrees of freedom
+    private static final double[] T95 = {12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042};
+
+    private double[] samples = new double[16];
+    private int count;
+    private double sum, sumSq;
+
+    public void add(double ms) {
+        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+        samples[count++] = ms;
+        sum += ms;
+        sumSq += ms * ms;
+    }
+
+    public int count() { return count; }
+
+    public double mean() { return count == 0 ? Double.NaN : sum / count; }
+
+    /** Sample standard deviation; 0 for a single sample. */
+    public double stddev() {
+        if (count < 2) return count == 0 ? Double.NaN : 0;
+        double var = (sumSq - sum * sum / count) / (count - 1);
+        return Math.sqrt(Math.max(0, var));
+    }
+
+    /** Nearest-rank percentile, p in (0, 100]. */
+    public double percentile(double p) {
+        if (count == 0) return Double.NaN;
+        double[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100 * count);
+        return sorted[Math.max(0, Math.min(count, rank) - 1)];
+    }
+
+    public double median() {
+        if (count == 0) return Double.NaN;
+        double[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return count % 2 == 1 ? sorted[count / 2] : (sorted[count / 2 - 1] + sorted[count / 2]) / 2;
+    }
+
+    /** Half-width of the 95% confidence interval of the mean; infinite below two samples. */
+    public double ciHalfWidth() {
+        if (count < 2) return Double.POSITIVE_INFINITY;
+        int df = count - 1;
+        double t = df <= T95.length ? T95[df - 1] : 1.96 + 2.4 / df;
+        return t * stddev() / Math.sqrt(count);
+    }
+
+    /** ciHalfWidth() / mean(), the stopping criterion. */
+    public double relativeCiHalfWidth() {
+        double half = ciHalfWidth();
+        if (half == 0) return 0;
+        return half / Math.abs(mean());
+    }
+}
@@ -0,0 +1,92 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for one timed run of the benchmark harness: its duration, the matrix cell it ran
+ * on and its {@link Counter} totals, so a recording lines up with the sweep (filter on algorithm, nodes,
+ * density and seed in JMC). Costs a field check per run unless a recording enables it, e.g. with
+ * -XX:StartFlightRecording or the harness's jfrOutput setting.
+ */
+@Name("graphs.AlgorithmRun")
+@Label("Algorithm Run")
+@Category("Graph Benchmark")
+@Description("One timed algorithm run with its benchmark cell and work counters")
+@StackTrace(false)
+public final class AlgorithmRunEvent extends Event {
+
+    @Label("Algorithm")
+    public String algorithm;
+
+    @Label("Model")
+    public String model;
+
+    @Label("Directed")
+    public boolean directed;
+
+    @Label("Nodes")
+    public int nodes;
+
+    @Label("Edges")
+    public int edges;
+
+    @Label("Density")
+    public double density;
+
+    @Label("Seed")
+    public long seed;
+
+    @Label("Run")
+    public int run;
+
+    @Label("Start Node")
+    public int startNode;
+
+    @Label("Visited")
+    public int visited;
+
+    @Label("Timed Out")
+    public boolean timedOut;
+
+    @Label("Edges Scanned")
+    public long edgesScanned;
+
+    @Label("Relaxations")
+    public long relaxations;
+
+    @Label("Queue Pushes")
+    public long queuePushes;
+
+    @Label("Queue Pops")
+    public long queuePops;
+
+    @Label("Stale Pops")
+    public long stalePops;
+
+    @Label("Augmentations")
+    public long augmentations;
+
+    @Label("Sweeps")
+    public long sweeps;
+
+    /** Copy the counters of a finished run (-1 each when counting was disabled). */
+    public void counters(RunCounters c) {
+        edgesScanned = c.get(Counter.EDGES_SCANNED);
+        relaxations = c.get(Counter.RELAXATIONS);
+        queuePushes = c.get(Counter.QUEUE_PUSHES);
+        queuePops = c.get(Counter.QUEUE_POPS);
+        stalePops = c.get(Counter.STALE_POPS);
+        augmentations = c.get(Counter.AUGMENTATIONS);
+        sweeps = c.get(Counter.SWEEPS);
+    }
+
+    /** Mark the counters unknown (-1 each), for runs whose counts are missing or incomplete. */
+    public void uncounted() {
+        edgesScanned = relaxations = queuePushes = queuePops = stalePops = augmentations = sweeps = -1;
+    }
+}
@@ -0,0 +1,285 @@
+package utils;
+
+import java.util.*;
+
+/**
+ * Immutable compressed-sparse-row graph.
+ * The out-edges of node u are targets[offsets[u] .. offsets[u+1]-1]; for weighted graphs
+ * weights[i] is the weight of the edge stored at targets[i]. Nodes are 0..n-1.
+ * The backing arrays are exposed directly for tight loops and must not be modified.
+ */
+public final class CSRGraph {
+
+    private final int n;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights; // null for unweighted graphs
+    private int maxWeight = -1;  // computed on first use
+    private volatile long fingerprint; // 0 until computed, see fingerprint()
+    private volatile CSRGraph reverse; // cached transpose, see reverse()
+    private int[] reverseEdgeIds;
+    private volatile CSRGraph undirected; // cached, see undirected()
+
+    public CSRGraph(int[] offsets, int[] targets, int[] weights) {
+        if (offsets.length == 0) throw new IllegalArgumentException("offsets must have n+1 entries");
+        if (offsets[offsets.length - 1] != targets.length)
+            throw new IllegalArgumentException("offsets[n] must equal targets.length");
+        if (weights != null && weights.length != targets.length)
+            throw new IllegalArgumentException("weights.length must equal targets.length");
+        this.n = offsets.length - 1;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    public int nodeCount() { return n; }
+
+    public int edgeCount() { return targets.length; }
+
+    public boolean isWeighted() { return weights != null; }
+
+    public int degree(int u) { return offsets[u + 1] - offsets[u]; }
+
+    public int[] offsets() { return offsets; }
+
+    public int[] targets() { return targets; }
+
+    /** @return edge weights parallel to targets(), or null for an unweighted graph */
+    public int[] weights() { return weights; }
+
+    /** @return largest edge weight, 1 for an unweighted graph, 0 for an edgeless one */
+    public int maxWeight() {
+        if (maxWeight < 0) {
+            int max = 0;
+            if (weights == null) max = targets.length > 0 ? 1 : 0;
+            else for (int w : weights) max = Math.max(max, w);
+            maxWeight = max;
+        }
+        return maxWeight;
+    }
+
+    /**
+     * 64-bit structural hash of n, offsets, targets and weights, computed on first use. Graphs with the same
+     * content get the same fingerprint wherever they came from, and any change to the edges, their order or
+     * their weights gives (with overwhelming probability) a different one, so results can be keyed by it.
+     */
+    public long fingerprint() {
+        long f = fingerprint;
+        if (f == 0) {
+            long h = mix(0x9E3779B97F4A7C15L, n);
+            h = hash(h, offsets);
+            h = hash(h, targets);
+            h = weights == null ? mix(h, -1) : hash(h, weights);
+            f = h == 0 ? 1 : h; // 0 means not computed yet
+            fingerprint = f;
+        }
+        return f;
+    }
+
+    /** Four independent lanes, so the multiplies of consecutive ints overlap. */
+    private static long hash(long seed, int[] a) {
+        long h0 = seed, h1 = ~seed, h2 = Long.rotateLeft(seed, 21), h3 = Long.rotateLeft(seed, 42);
+        int i = 0;
+        for (; i + 4 <= a.length; i += 4) {
+            h0 = mix(h0, a[i]);
+            h1 = mix(h1, a[i + 1]);
+            h2 = mix(h2, a[i + 2]);
+            h3 = mix(h3, a[i + 3]);
+        }
+        for (; i < a.length; i++) h0 = mix(h0, a[i]);
+        long h = mix(h0, a.length);
+        h = h * 31 + Long.rotateLeft(h1, 17);
+        h = h * 31 + Long.rotateLeft(h2, 29);
+        return h * 31 + Long.rotateLeft(h3, 43);
+    }
+
+    private static long mix(long h, int x) {
+        h = Long.rotateLeft(h ^ (x * 0xC2B2AE3D27D4EB4FL), 31) * 0x9E3779B185EBCA87L;
+        return h ^ (h >>> 29);
+    }
+
+    /** Cached {@link #transpose}; built on first use, shared by every caller of this graph. */
+    public CSRGraph reverse() {
+        CSRGraph r = reverse;
+        if (r == null) {
+            synchronized (this) {
+                r = reverse;
+                if (r == null) {
+                    int[] ids = new int[targets.length];
+                    r = transpose(ids);
+                    reverseEdgeIds = ids;
+                    reverse = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    /** Edge ids matching {@link #reverse()}: position i of the reverse graph is edge reverseEdgeIds()[i] here. */
+    public int[] reverseEdgeIds() {
+        reverse();
+        return reverseEdgeIds;
+    }
+
+    /**
+     * Cached underlying undirected graph: this graph itself when every edge u -> v has a matching v -> u
+     * (multiplicities included, as in the generators' undirected graphs), otherwise a graph whose row u lists
+     * each distinct out- and in-neighbour of u once. Weights are dropped in the second case.
+     */
+    public CSRGraph undirected() {
+        CSRGraph u = undirected;
+        if (u == null) {
+            synchronized (this) {
+                u = undirected;
+                if (u == null) {
+                    u = isSymmetric() ? this : symmetrize();
+                    undirected = u;
+                }
+            }
+        }
+        return u;
+    }
+
+    /** Whether each row of the reverse graph holds the same neighbours, with the same counts, as the forward row. */
+    private boolean isSymmetric() {
+        CSRGraph r = reverse();
+        int[] rOff = r.offsets, rAdj = r.targets;
+        int[] count = new int[n];
+        for (int u = 0; u < n; u++) {
+            if (offsets[u + 1] - offsets[u] != rOff[u + 1] - rOff[u]) return false;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) count[targets[i]]++;
+            boolean same = true;
+            for (int i = rOff[u]; i < rOff[u + 1]; i++) if (count[rAdj[i]]-- == 0) same = false;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) count[targets[i]] = 0;
+            if (!same) return false;
+        }
+        return true;
+    }
+
+    private CSRGraph symmetrize() {
+        CSRGraph r = reverse();
+        int[] rOff = r.offsets, rAdj = r.targets;
+        int[] mark = new int[n]; // u + 1 once v is in row u
+        int[] off = new int[n + 1];
+        int[] adj = new int[2 * targets.length];
+        int size = 0;
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                if (mark[v] != u + 1) {
+                    mark[v] = u + 1;
+                    adj[size++] = v;
+                }
+            }
+            for (int i = rOff[u]; i < rOff[u + 1]; i++) {
+                int v = rAdj[i];
+                if (mark[v] != u + 1) {
+                    mark[v] = u + 1;
+                    adj[size++] = v;
+                }
+            }
+            off[u + 1] = size;
+        }
+        return new CSRGraph(off, Arrays.copyOf(adj, size), null);
+    }
+
+    /**
+     * Reverse graph: row v lists the sources of v's in-edges in ascending order (weights follow their edge).
+     * @param edgeIds if non-null (length edgeCount()), edgeIds[i] receives the index in this graph of the
+     *                edge stored at position i of the reverse graph
+     */
+    public CSRGraph transpose(int[] edgeIds) {
+        int m = targets.length;
+        int[] rOff = new int[n + 1];
+        for (int i = 0; i < m; i++) rOff[targets[i] + 1]++;
+        for (int v = 0; v < n; v++) rOff[v + 1] += rOff[v];
+        int[] fill = Arrays.copyOf(rOff, n);
+        int[] rAdj = new int[m];
+        int[] rWt = weights == null ? null : new int[m];
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int j = fill[targets[i]]++;
+                rAdj[j] = u;
+                if (rWt != null) rWt[j] = weights[i];
+                if (edgeIds != null) edgeIds[j] = i;
+            }
+        }
+        return new CSRGraph(rOff, rAdj, rWt);
+    }
+
+    /**
+     * Pack per-node neighbour rows into CSR form.
+     * @param rows rows[u][0..deg[u]-1] are the targets of u
+     * @param rowWeights parallel weight rows, or null for an unweighted graph
+     * @param deg number of used entries in each row
+     */
+    static CSRGraph pack(int[][] rows, int[][] rowWeights, int[] deg) {
+        int n = rows.length;
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) offsets[u + 1] = offsets[u] + deg[u];
+        int[] targets = new int[offsets[n]];
+        int[] weights = rowWeights == null ? null : new int[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            System.arraycopy(rows[u], 0, targets, offsets[u], deg[u]);
+            if (weights != null) System.arraycopy(rowWeights[u], 0, weights, offsets[u], deg[u]);
+        }
+        return new CSRGraph(offsets, targets, weights);
+    }
+
+    /** Adjacency list for the map-based paths, keeping neighbour order (inverse of {@link #fromAdjacency}). */
+    public Map<Integer, List<Integer>> toAdjacency() {
+        Map<Integer, List<Integer>> g = new HashMap<>();
+        for (int u = 0; u < n; u++) {
+            List<Integer> row = new ArrayList<>(degree(u));
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) row.add(targets[i]);
+            g.put(u, row);
+        }
+        return g;
+    }
+
+    /** Weighted adjacency map for the map-based paths (inverse of {@link #fromWeighted}); needs weights. */
+    public Map<Integer, Map<Integer, Integer>> toWeighted() {
+        if (weights == null) throw new IllegalStateException("graph is unweighted");
+        Map<Integer, Map<Integer, Integer>> g = new HashMap<>();
+        for (int u = 0; u < n; u++) {
+            Map<Integer, Integer> row = new HashMap<>();
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) row.put(targets[i], weights[i]);
+            g.put(u, row);
+        }
+        return g;
+    }
+
+    /** Convert an adjacency list keyed 0..n-1, keeping neighbour order. */
+    public static CSRGraph fromAdjacency(Map<Integer, List<Integer>> graph) {
+        int n = graph.size();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + graph.getOrDefault(u, Collections.emptyList()).size();
+        }
+        int[] targets = new int[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            int i = offsets[u];
+            for (int v : graph.getOrDefault(u, Collections.emptyList())) targets[i++] = v;
+        }
+        return new CSRGraph(offsets, targets, null);
+    }
+
+    /** Convert a weighted adjacency map keyed 0..n-1; each row is sorted by target. */
+    public static CSRGraph fromWeighted(Map<Integer, Map<Integer, Integer>> graph) {
+        int n = graph.size();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + graph.getOrDefault(u, Collections.emptyMap()).size();
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            int i = offsets[u];
+            for (Map.Entry<Integer, Integer> e : new TreeMap<>(graph.getOrDefault(u, Collections.emptyMap())).entrySet()) {
+                targets[i] = e.getKey();
+                weights[i++] = e.getValue();
+            }
+        }
+        return new CSRGraph(offsets, targets, weights);
+    }
+}
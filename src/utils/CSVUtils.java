@@ -1,10 +1,10 @@
 package utils;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 
 public class CSVUtils {
-    public static void writeRow(FileWriter fw, String... cols) throws IOException {
+    public static void writeRow(Writer fw, String... cols) throws IOException {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < cols.length; i++) {
             if (i > 0) sb.append(',');
@@ -19,7 +19,7 @@ public class CSVUtils {
         fw.append(sb.toString());
     }
 
-    public static void closeQuietly(FileWriter fw) {
+    public static void closeQuietly(Writer fw) {
         if (fw != null) {
             try { fw.flush(); fw.close(); } catch (Exception ignored) {}
         }
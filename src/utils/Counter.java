@@ -0,0 +1,78 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Work counters every algorithm reports once per run, so a slower run can be told apart as more edges,
+ * more heap traffic or more rounds.
+ * <p>
+ * Hot loops count in local variables and hand the totals to {@link #add} when they finish (parallel
+ * algorithms once per task), so the loops themselves never touch shared state. add() goes to a per-thread
+ * long[] with no boxing or synchronization, and does nothing at all while counting is disabled, which is the
+ * default. {@link RunCounters} reads the per-thread totals around a run.
+ */
+public enum Counter {
+    /** Adjacency entries read. */
+    EDGES_SCANNED("EdgesScanned"),
+    /** Distance (or label) improvements, successful pushes of flow included. */
+    RELAXATIONS("Relaxations"),
+    /** Entries added to a queue, stack, heap or bucket. */
+    QUEUE_PUSHES("QueuePushes"),
+    /** Entries taken out again, stale ones included. */
+    QUEUE_POPS("QueuePops"),
+    /** Popped entries skipped because the node was settled or improved since they were added. */
+    STALE_POPS("StalePops"),
+    /** Augmenting paths (max-flow) or relabels (push-relabel). */
+    AUGMENTATIONS("Augmentations"),
+    /** Passes over the whole graph or frontier: Bellman-Ford rounds, BFS levels, blocking-flow phases. */
+    SWEEPS("Sweeps");
+
+    private static final Counter[] ALL = values();
+    private static final List<Slot> SLOTS = new ArrayList<>();
+    private static final ThreadLocal<Slot> LOCAL = ThreadLocal.withInitial(Counter::register);
+    private static volatile boolean enabled;
+
+    private final String column;
+
+    Counter(String column) { this.column = column; }
+
+    /** Name of the counter's CSV column. */
+    public String column() { return column; }
+
+    /** Add delta to this thread's count; a no-op while counting is disabled. */
+    public void add(long delta) {
+        if (enabled && delta != 0) LOCAL.get().values[ordinal()] += delta;
+    }
+
+    public static boolean enabled() { return enabled; }
+
+    public static void setEnabled(boolean on) { enabled = on; }
+
+    /** Counts of every thread that ever counted, or of the calling thread only, by ordinal. */
+    static long[] snapshot(boolean allThreads) {
+        long[] sum = new long[ALL.length];
+        if (!allThreads) {
+            long[] own = LOCAL.get().values;
+            System.arraycopy(own, 0, sum, 0, sum.length);
+            return sum;
+        }
+        synchronized (SLOTS) {
+            for (Slot s : SLOTS) for (int i = 0; i < sum.length; i++) sum[i] += s.values[i];
+        }
+        return sum;
+    }
+
+    private static Slot register() {
+        Slot s = new Slot();
+        synchronized (SLOTS) {
+            SLOTS.add(s);
+        }
+        return s;
+    }
+
+    /** One thread's totals; kept after the thread dies so its counts still add up. */
+    private static final class Slot {
+        final long[] values = new long[ALL.length];
+    }
+}
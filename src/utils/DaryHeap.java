@@ -0,0 +1,112 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed d-ary min-heap: heap[] holds node ids, pos[] maps a node back to its slot.
+ */
+public final class DaryHeap implements IntPriorityQueue {
+
+    private final int d;
+    private final int[] heap;
+    private final int[] pos;  // -1 when not queued
+    private final int[] keys;
+    private int size;
+
+    public DaryHeap(int n, int d) {
+        if (d < 2) throw new IllegalArgumentException("d must be >= 2");
+        this.d = d;
+        this.heap = new int[n];
+        this.pos = new int[n];
+        this.keys = new int[n];
+        Arrays.fill(pos, -1);
+    }
+
+    @Override
+    public boolean isEmpty() { return size == 0; }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public boolean contains(int node) { return pos[node] >= 0; }
+
+    @Override
+    public int key(int node) { return keys[node]; }
+
+    @Override
+    public void insert(int node, int key) {
+        keys[node] = key;
+        heap[size] = node;
+        siftUp(size++, node);
+    }
+
+    @Override
+    public void decreaseKey(int node, int key) {
+        if (key >= keys[node]) return;
+        keys[node] = key;
+        siftUp(pos[node], node);
+    }
+
+    /** Node with the smallest key, left in place. */
+    public int peekMin() {
+        if (size == 0) throw new NoSuchElementException();
+        return heap[0];
+    }
+
+    /** Empty the heap in O(size), so a long-lived heap can be reused without touching all n slots. */
+    public void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    @Override
+    public int pollMin() {
+        if (size == 0) throw new NoSuchElementException();
+        int top = heap[0];
+        pos[top] = -1;
+        if (--size > 0) siftDown(heap[size]);
+        return top;
+    }
+
+    private void siftUp(int i, int node) {
+        int k = keys[node];
+        while (i > 0) {
+            int p = (i - 1) / d;
+            int pn = heap[p];
+            if (keys[pn] <= k) break;
+            heap[i] = pn;
+            pos[pn] = i;
+            i = p;
+        }
+        heap[i] = node;
+        pos[node] = i;
+    }
+
+    // places node (the former last element) starting from the root
+    private void siftDown(int node) {
+        int k = keys[node];
+        int i = 0;
+        while (true) {
+            int c = d * i + 1;
+            if (c >= size) break;
+            int end = Math.min(c + d, size);
+            int best = c;
+            int bestKey = keys[heap[c]];
+            for (int j = c + 1; j < end; j++) {
+                int kj = keys[heap[j]];
+                if (kj < bestKey) {
+                    best = j;
+                    bestKey = kj;
+                }
+            }
+            if (bestKey >= k) break;
+            heap[i] = heap[best];
+            pos[heap[i]] = i;
+            i = best;
+        }
+        heap[i] = node;
+        pos[node] = i;
+    }
+}
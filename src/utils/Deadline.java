@@ -0,0 +1,54 @@
+package utils;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wall-clock deadline for one run, enforced cooperatively: when it passes, the running thread is
+ * interrupted, and the algorithms that can run away (Bellman-Ford family, max-flow) call {@link #check}
+ * once per round, phase or augmenting path and give up with a {@link CancellationException}.
+ */
+public final class Deadline {
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "run-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Thread runner;
+    private final AtomicBoolean armed = new AtomicBoolean(true);
+    private final ScheduledFuture<?> timer;
+
+    private Deadline(long millis) {
+        runner = Thread.currentThread();
+        timer = TIMER.schedule(() -> {
+            if (armed.compareAndSet(true, false)) runner.interrupt();
+        }, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Throw CancellationException if this thread's deadline has passed. */
+    public static void check() {
+        if (Thread.currentThread().isInterrupted()) throw new CancellationException("run deadline passed");
+    }
+
+    /** Start a deadline for the calling thread, millis from now. */
+    public static Deadline arm(long millis) {
+        return new Deadline(millis);
+    }
+
+    /**
+     * Stop the deadline; call from the thread that armed it once the run is over, however it ended.
+     * Clears the interrupt the deadline caused. @return true if the deadline passed
+     */
+    public boolean disarm() {
+        if (armed.compareAndSet(true, false)) {
+            timer.cancel(false);
+            return false;
+        }
+        // fired: wait for the interrupt to land, then clear it so the next run starts clean
+        while (!runner.isInterrupted()) Thread.onSpinWait();
+        Thread.interrupted();
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Dial's bucket queue: a circular array of buckets, one per key value, wide enough that all
+ * queued keys fit within [current minimum, current minimum + maxKeyStep]. Pops scan forward
+ * from the last extracted key, so a run costs O(m + maxKey) for small integer weights.
+ */
+public final class DialQueue implements IntPriorityQueue {
+
+    private final int[] head;
+    private final int mask;
+    private final int[] keys;
+    private final int[] next;
+    private final int[] prev;
+    private final boolean[] queued;
+    private int cursor; // last extracted key
+    private int size;
+
+    public DialQueue(int n, int maxKeyStep) {
+        if (maxKeyStep < 0) throw new IllegalArgumentException("maxKeyStep must be >= 0");
+        int buckets = Integer.highestOneBit(Math.max(1, maxKeyStep)) << 1;
+        head = new int[buckets];
+        mask = buckets - 1;
+        keys = new int[n];
+        next = new int[n];
+        prev = new int[n];
+        queued = new boolean[n];
+        Arrays.fill(head, -1);
+    }
+
+    @Override
+    public boolean isEmpty() { return size == 0; }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public boolean contains(int node) { return queued[node]; }
+
+    @Override
+    public int key(int node) { return keys[node]; }
+
+    @Override
+    public void insert(int node, int key) {
+        key = checkKey(key);
+        keys[node] = key;
+        queued[node] = true;
+        push(node);
+        size++;
+    }
+
+    @Override
+    public void decreaseKey(int node, int key) {
+        key = checkKey(key);
+        if (key >= keys[node]) return;
+        unlink(node);
+        keys[node] = key;
+        push(node);
+    }
+
+    @Override
+    public int pollMin() {
+        if (size == 0) throw new NoSuchElementException();
+        while (head[cursor & mask] == -1) cursor++;
+        int top = head[cursor & mask];
+        unlink(top);
+        queued[top] = false;
+        size--;
+        return top;
+    }
+
+    private int checkKey(int key) {
+        if (key < cursor) return cursor;
+        if (key - cursor > mask)
+            throw new IllegalStateException("key " + key + " exceeds bucket span " + (mask + 1) + " from " + cursor);
+        return key;
+    }
+
+    private void push(int node) {
+        int b = keys[node] & mask;
+        prev[node] = -1;
+        next[node] = head[b];
+        if (head[b] != -1) prev[head[b]] = node;
+        head[b] = node;
+    }
+
+    private void unlink(int node) {
+        int p = prev[node], nx = next[node];
+        if (p == -1) head[keys[node] & mask] = nx;
+        else next[p] = nx;
+        if (nx != -1) prev[nx] = p;
+    }
+}
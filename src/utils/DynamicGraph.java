@@ -0,0 +1,152 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Mutable weighted directed graph on nodes 0..n-1, for workloads that change a few edges at a time.
+ * <p>
+ * Every node keeps growable out- and in-rows (parallel target and weight arrays), so inserting, deleting or
+ * reweighting an edge costs O(degree) and both directions can be walked, which incremental shortest paths need.
+ * There is at most one edge per ordered pair; an undirected edge is two directed ones, updated separately.
+ * Not thread-safe.
+ */
+public final class DynamicGraph {
+
+    /** Returned by the update methods when the edge did not exist. */
+    public static final int NO_EDGE = -1;
+
+    private final int n;
+    private final int[][] outTo, outWt, inFrom, inWt;
+    private final int[] outDeg, inDeg;
+    private long m;
+
+    public DynamicGraph(int n) {
+        this.n = n;
+        outTo = new int[n][];
+        outWt = new int[n][];
+        inFrom = new int[n][];
+        inWt = new int[n][];
+        outDeg = new int[n];
+        inDeg = new int[n];
+        int[] empty = new int[0];
+        Arrays.fill(outTo, empty);
+        Arrays.fill(outWt, empty);
+        Arrays.fill(inFrom, empty);
+        Arrays.fill(inWt, empty);
+    }
+
+    /** Copy of a weighted CSR graph; parallel edges keep their lightest weight. */
+    public static DynamicGraph fromCSR(CSRGraph g) {
+        if (!g.isWeighted()) throw new IllegalArgumentException("graph is unweighted");
+        int n = g.nodeCount();
+        DynamicGraph d = new DynamicGraph(n);
+        int[] off = g.offsets(), adj = g.targets(), wt = g.weights();
+        int[] rowOf = new int[n], slot = new int[n]; // slot[v] is v's place in row rowOf[v] - 1
+        for (int u = 0; u < n; u++) {
+            d.outTo[u] = new int[Math.max(4, g.degree(u))];
+            d.outWt[u] = new int[d.outTo[u].length];
+            for (int i = off[u]; i < off[u + 1]; i++) {
+                int v = adj[i];
+                if (rowOf[v] == u + 1) {
+                    if (wt[i] < d.outWt[u][slot[v]]) d.setEdge(u, v, wt[i]); // rare: a parallel edge
+                    continue;
+                }
+                rowOf[v] = u + 1;
+                slot[v] = d.outDeg[u];
+                append(d.outTo, d.outWt, d.outDeg, u, v, wt[i]);
+                append(d.inFrom, d.inWt, d.inDeg, v, u, wt[i]);
+                d.m++;
+            }
+        }
+        return d;
+    }
+
+    /** Snapshot in CSR form, rows in insertion order. */
+    public CSRGraph toCSR() {
+        int[] off = new int[n + 1];
+        for (int u = 0; u < n; u++) off[u + 1] = off[u] + outDeg[u];
+        int[] adj = new int[off[n]], wt = new int[off[n]];
+        for (int u = 0; u < n; u++) {
+            System.arraycopy(outTo[u], 0, adj, off[u], outDeg[u]);
+            System.arraycopy(outWt[u], 0, wt, off[u], outDeg[u]);
+        }
+        return new CSRGraph(off, adj, wt);
+    }
+
+    public int nodeCount() { return n; }
+
+    public long edgeCount() { return m; }
+
+    public int outDegree(int u) { return outDeg[u]; }
+
+    public int inDegree(int v) { return inDeg[v]; }
+
+    /** Row backing arrays: only the first outDegree(u) / inDegree(v) entries are valid, and they move on updates. */
+    public int[] outTargets(int u) { return outTo[u]; }
+
+    public int[] outWeights(int u) { return outWt[u]; }
+
+    public int[] inSources(int v) { return inFrom[v]; }
+
+    public int[] inWeights(int v) { return inWt[v]; }
+
+    /** @return weight of u -> v, or NO_EDGE */
+    public int weight(int u, int v) {
+        int i = indexOf(outTo[u], outDeg[u], v);
+        return i < 0 ? NO_EDGE : outWt[u][i];
+    }
+
+    /**
+     * Insert u -> v or change its weight.
+     * @param w non-negative weight
+     * @return the previous weight, or NO_EDGE if the edge is new
+     */
+    public int setEdge(int u, int v, int w) {
+        if (w < 0) throw new IllegalArgumentException("negative weight " + w);
+        int i = indexOf(outTo[u], outDeg[u], v);
+        if (i >= 0) {
+            int old = outWt[u][i];
+            outWt[u][i] = w;
+            inWt[v][indexOf(inFrom[v], inDeg[v], u)] = w;
+            return old;
+        }
+        append(outTo, outWt, outDeg, u, v, w);
+        append(inFrom, inWt, inDeg, v, u, w);
+        m++;
+        return NO_EDGE;
+    }
+
+    /** @return the removed edge's weight, or NO_EDGE if there was no u -> v */
+    public int removeEdge(int u, int v) {
+        int i = indexOf(outTo[u], outDeg[u], v);
+        if (i < 0) return NO_EDGE;
+        int old = outWt[u][i];
+        removeAt(outTo, outWt, outDeg, u, i);
+        removeAt(inFrom, inWt, inDeg, v, indexOf(inFrom[v], inDeg[v], u));
+        m--;
+        return old;
+    }
+
+    private static int indexOf(int[] row, int size, int x) {
+        for (int i = 0; i < size; i++) if (row[i] == x) return i;
+        return -1;
+    }
+
+    private static void append(int[][] nodes, int[][] weights, int[] deg, int u, int v, int w) {
+        int d = deg[u];
+        if (d == nodes[u].length) {
+            nodes[u] = Arrays.copyOf(nodes[u], Math.max(4, 2 * d));
+            weights[u] = Arrays.copyOf(weights[u], nodes[u].length);
+        }
+        nodes[u][d] = v;
+        weights[u][d] = w;
+        deg[u] = d + 1;
+    }
+
+    // swap-remove: row order is not meaningful
+    private static void removeAt(int[][] nodes, int[][] weights, int[] deg, int u, int i) {
+        int last = --deg[u];
+        nodes[u][i] = nodes[u][last];
+        weights[u][i] = weights[u][last];
+    }
+}
@@ -0,0 +1,389 @@
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Text edge lists (SNAP, DIMACS, CSV) ingested into a {@link CSRGraph} with dense ids.
+ * <p>
+ * One edge per line: two decimal node ids and, when read as weighted, an optional integer weight (default 1,
+ * decimals truncated), separated by spaces, tabs or commas; further columns are ignored. Lines starting with
+ * '#', '%', 'c' or 'p' are skipped, and a leading 'a' or 'e' (DIMACS arcs and edges) is dropped. Node ids
+ * may be any non-negative long; they are renumbered 0..n-1 in order of first appearance, so only nodes that
+ * occur in some edge exist, and {@link Loaded#originalIds()} maps them back.
+ * <p>
+ * The file is split at line boundaries into CHUNK_BYTES pieces, each memory-mapped and parsed on the pool
+ * straight from the mapped bytes, with no String per line; each piece numbers its own ids in a
+ * {@link LongIntHashMap}. The pieces' ids are then merged in file order into the global numbering, and the
+ * CSR is built in two passes: count degrees, then fill rows through atomic cursors. Rows are finally sorted
+ * by target with duplicate edges merged (keeping the smallest weight), and self-loops are dropped, as in the
+ * generated graphs.
+ */
+public final class EdgeListFile {
+
+    private static final int CHUNK_BYTES = 1 << 24;
+    private static final int ROW_BLOCK = 1024;
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private EdgeListFile() {}
+
+    /**
+     * Usage: java utils.EdgeListFile &lt;edges.txt&gt; &lt;out.graph&gt; [undirected] [weighted] converts an
+     * edge list into a {@link GraphFile} on all cores and prints the ingestion throughput.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: java utils.EdgeListFile <edges.txt> <out.graph> [undirected] [weighted]");
+            System.exit(2);
+        }
+        List<String> flags = Arrays.asList(args).subList(2, args.length);
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            Loaded l = read(Paths.get(args[0]), !flags.contains("undirected"), flags.contains("weighted"), pool);
+            GraphFile.write(l.graph(), Paths.get(args[1]));
+            System.out.printf("%s: n=%d m=%d from %d edge lines, %.1f MB/s (parse %.0f ms, remap %.0f ms, build %.0f ms)%n",
+                    args[0], l.graph().nodeCount(), l.graph().edgeCount(), l.edgeLines(), l.megabytesPerSecond(),
+                    l.parseNanos() / 1e6, l.remapNanos() / 1e6, l.buildNanos() / 1e6);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** An ingested graph with its original node ids and the time each phase took. */
+    public static final class Loaded {
+        private final CSRGraph graph;
+        private final long[] originalIds;
+        private final long bytes, edgeLines, parseNanos, remapNanos, buildNanos;
+
+        Loaded(CSRGraph graph, long[] originalIds, long bytes, long edgeLines, long parseNanos, long remapNanos,
+               long buildNanos) {
+            this.graph = graph;
+            this.originalIds = originalIds;
+            this.bytes = bytes;
+            this.edgeLines = edgeLines;
+            this.parseNanos = parseNanos;
+            this.remapNanos = remapNanos;
+            this.buildNanos = buildNanos;
+        }
+
+        public CSRGraph graph() { return graph; }
+
+        /** originalIds()[u] is the id node u had in the file; must not be modified. */
+        public long[] originalIds() { return originalIds; }
+
+        /** Size of the file. */
+        public long bytes() { return bytes; }
+
+        /** Lines that held an edge, self-loops and duplicates included. */
+        public long edgeLines() { return edgeLines; }
+
+        public long parseNanos() { return parseNanos; }
+
+        public long remapNanos() { return remapNanos; }
+
+        public long buildNanos() { return buildNanos; }
+
+        public long totalNanos() { return parseNanos + remapNanos + buildNanos; }
+
+        /** Ingestion throughput in 10^6 bytes of text per second. */
+        public double megabytesPerSecond() { return bytes / 1e6 / (totalNanos() / 1e9); }
+    }
+
+    /**
+     * Read an edge list on pool.
+     *
+     * @param directed false adds every edge in both directions
+     * @param weighted take weights from the third column; false ignores it and builds an unweighted graph
+     */
+    public static Loaded read(Path path, boolean directed, boolean weighted, ForkJoinPool pool) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long t0 = System.nanoTime();
+            Chunk[] chunks = split(ch, size, weighted);
+            try {
+                Parallel.forEach(pool, chunks.length, c -> chunks[c].parse(ch));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for (Chunk c : chunks) {
+                if (c.badLine >= 0) throw new IOException(path + ": malformed edge at byte " + c.badLine);
+            }
+
+            long t1 = System.nanoTime();
+            long[] ids = merge(chunks);
+            long t2 = System.nanoTime();
+            CSRGraph g = build(chunks, ids.length, directed, weighted, pool);
+            long t3 = System.nanoTime();
+
+            long lines = 0;
+            for (Chunk c : chunks) lines += c.lines;
+            return new Loaded(g, ids, size, lines, t1 - t0, t2 - t1, t3 - t2);
+        }
+    }
+
+    /** Chunks of about CHUNK_BYTES, each starting at a line start. */
+    private static Chunk[] split(FileChannel ch, long size, boolean weighted) throws IOException {
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        for (long nominal = CHUNK_BYTES; nominal < size; nominal += CHUNK_BYTES) {
+            long p = Math.max(nominal, starts.get(starts.size() - 1));
+            p = lineStart(ch, buf, p - 1, size);
+            if (p < size && p > starts.get(starts.size() - 1)) starts.add(p);
+        }
+        Chunk[] chunks = new Chunk[starts.size()];
+        for (int i = 0; i < chunks.length; i++) {
+            long end = i + 1 < chunks.length ? starts.get(i + 1) : size;
+            chunks[i] = new Chunk(starts.get(i), end, weighted);
+        }
+        return chunks;
+    }
+
+    /** Position just after the first '\n' at or after from (size when there is none). */
+    private static long lineStart(FileChannel ch, ByteBuffer buf, long from, long size) throws IOException {
+        long pos = from;
+        while (pos < size) {
+            buf.clear();
+            int read = ch.read(buf, pos);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) if (buf.get(i) == '\n') return pos + i + 1;
+            pos += read;
+        }
+        return size;
+    }
+
+    /** Number every chunk's ids in file order; returns the original id of each dense id. */
+    private static long[] merge(Chunk[] chunks) {
+        int distinct = 0;
+        for (Chunk c : chunks) distinct = Math.max(distinct, c.distinct);
+        LongIntHashMap global = new LongIntHashMap(distinct);
+        long[] original = new long[Math.max(16, distinct)];
+        int n = 0;
+        for (Chunk c : chunks) {
+            int[] toGlobal = new int[c.distinct];
+            for (int i = 0; i < c.distinct; i++) {
+                int id = global.putIfAbsent(c.ids[i], n);
+                if (id == LongIntHashMap.MISSING) {
+                    if (n == original.length) original = Arrays.copyOf(original, (int) Math.min(Integer.MAX_VALUE - 8, 2L * n));
+                    original[n] = c.ids[i];
+                    id = n++;
+                }
+                toGlobal[i] = id;
+            }
+            c.toGlobal = toGlobal;
+            c.local = null;
+            c.ids = null;
+        }
+        return Arrays.copyOf(original, n);
+    }
+
+    private static CSRGraph build(Chunk[] chunks, int n, boolean directed, boolean weighted, ForkJoinPool pool)
+            throws IOException {
+        long m = 0;
+        for (Chunk c : chunks) m += (long) c.tails.size() * (directed ? 1 : 2);
+        if (m > Integer.MAX_VALUE - 8) throw new IOException(m + " edges do not fit a CSR array");
+
+        // pass 1: global ids and degrees
+        int[] deg = new int[n];
+        Parallel.forEach(pool, chunks.length, k -> {
+            Chunk c = chunks[k];
+            int[] tails = c.tails.array(), heads = c.heads.array(), toGlobal = c.toGlobal;
+            for (int i = 0; i < c.tails.size(); i++) {
+                int u = toGlobal[tails[i]], v = toGlobal[heads[i]];
+                tails[i] = u;
+                heads[i] = v;
+                INTS.getAndAdd(deg, u, 1);
+                if (!directed) INTS.getAndAdd(deg, v, 1);
+            }
+        });
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) offsets[u + 1] = offsets[u] + deg[u];
+
+        // pass 2: fill rows through per-row cursors, in whatever order the chunks get there
+        int[] targets = new int[(int) m];
+        int[] weights = weighted ? new int[(int) m] : null;
+        int[] cursor = Arrays.copyOf(offsets, n);
+        Parallel.forEach(pool, chunks.length, k -> {
+            Chunk c = chunks[k];
+            int[] tails = c.tails.array(), heads = c.heads.array(), wts = weighted ? c.weights.array() : null;
+            for (int i = 0; i < c.tails.size(); i++) {
+                int u = tails[i], v = heads[i];
+                int at = (int) INTS.getAndAdd(cursor, u, 1);
+                targets[at] = v;
+                if (weighted) weights[at] = wts[i];
+                if (!directed) {
+                    at = (int) INTS.getAndAdd(cursor, v, 1);
+                    targets[at] = u;
+                    if (weighted) weights[at] = wts[i];
+                }
+            }
+            c.tails = c.heads = c.weights = null;
+        });
+
+        // sort every row, merge duplicates in place and record the kept degree
+        Parallel.forRange(pool, 0, n, ROW_BLOCK, (from, to) -> {
+            long[] row = new long[16];
+            for (int u = from; u < to; u++) {
+                int start = offsets[u], d = offsets[u + 1] - start;
+                if (row.length < d) row = new long[Math.max(d, 2 * row.length)];
+                // target in the high half, weight biased to sort as unsigned in the low half: smallest first
+                for (int i = 0; i < d; i++)
+                    row[i] = (long) targets[start + i] << 32 | (weighted ? (weights[start + i] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL : 0);
+                Arrays.sort(row, 0, d);
+                int kept = 0;
+                for (int i = 0; i < d; i++) {
+                    int v = (int) (row[i] >>> 32);
+                    if (kept > 0 && targets[start + kept - 1] == v) continue;
+                    targets[start + kept] = v;
+                    if (weighted) weights[start + kept] = (int) row[i] ^ Integer.MIN_VALUE;
+                    kept++;
+                }
+                deg[u] = kept;
+            }
+        });
+
+        int[] packed = new int[n + 1];
+        for (int u = 0; u < n; u++) packed[u + 1] = packed[u] + deg[u];
+        if (packed[n] == m) return new CSRGraph(offsets, targets, weights);
+        int[] pTargets = new int[packed[n]];
+        int[] pWeights = weighted ? new int[packed[n]] : null;
+        Parallel.forRange(pool, 0, n, ROW_BLOCK, (from, to) -> {
+            for (int u = from; u < to; u++) {
+                System.arraycopy(targets, offsets[u], pTargets, packed[u], deg[u]);
+                if (weighted) System.arraycopy(weights, offsets[u], pWeights, packed[u], deg[u]);
+            }
+        });
+        return new CSRGraph(packed, pTargets, pWeights);
+    }
+
+    /** Lines [start, end) of the file, parsed into edges between chunk-local ids. */
+    private static final class Chunk {
+        final long start, end;
+        final boolean weighted;
+        LongIntHashMap local = new LongIntHashMap(1 << 12);
+        long[] ids = new long[1 << 12]; // original id of each local id, in order of first appearance
+        int distinct;
+        IntArrayList tails = new IntArrayList(1 << 12), heads = new IntArrayList(1 << 12), weights;
+        int[] toGlobal;
+        long lines;
+        long badLine = -1; // file offset of the first line that is not an edge, comment or blank
+
+        Chunk(long start, long end, boolean weighted) {
+            this.start = start;
+            this.end = end;
+            this.weighted = weighted;
+            if (weighted) weights = new IntArrayList(1 << 12);
+        }
+
+        void parse(FileChannel ch) {
+            MappedByteBuffer buf;
+            try {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int len = buf.limit();
+            int p = 0;
+            while (p < len) {
+                int line = p;
+                byte c = buf.get(p);
+                if (c == '#' || c == '%' || c == 'c' || c == 'p') {
+                    p = nextLine(buf, p, len);
+                    continue;
+                }
+                if (c == 'a' || c == 'e') p++;
+                p = skipSeparators(buf, p, len);
+                if (p == len || buf.get(p) == '\n') { // blank line
+                    p = nextLine(buf, p, len);
+                    continue;
+                }
+
+                int q = digits(buf, p, len);
+                if (q == p) {
+                    badLine = start + line;
+                    return;
+                }
+                long u = number(buf, p, q);
+                p = skipSeparators(buf, q, len);
+                q = digits(buf, p, len);
+                if (q == p) {
+                    badLine = start + line;
+                    return;
+                }
+                long v = number(buf, p, q);
+                p = q;
+
+                int w = 1;
+                if (weighted) {
+                    p = skipSeparators(buf, p, len);
+                    boolean negative = p < len && buf.get(p) == '-';
+                    int from = negative ? p + 1 : p;
+                    q = digits(buf, from, len);
+                    if (q > from) {
+                        long x = q - from > 10 ? Long.MAX_VALUE : number(buf, from, q);
+                        if (x > Integer.MAX_VALUE) {
+                            badLine = start + line;
+                            return;
+                        }
+                        w = (int) (negative ? -x : x);
+                    }
+                }
+                p = nextLine(buf, p, len);
+
+                lines++;
+                int a = localId(u), b = localId(v);
+                if (a == b) continue; // self-loop: the node exists, the edge does not
+                tails.add(a);
+                heads.add(b);
+                if (weighted) weights.add(w);
+            }
+        }
+
+        private int localId(long id) {
+            int known = local.putIfAbsent(id, distinct);
+            if (known != LongIntHashMap.MISSING) return known;
+            if (distinct == ids.length) ids = Arrays.copyOf(ids, 2 * distinct);
+            ids[distinct] = id;
+            return distinct++;
+        }
+
+        private static int nextLine(ByteBuffer buf, int p, int len) {
+            while (p < len && buf.get(p) != '\n') p++;
+            return p + 1;
+        }
+
+        private static int skipSeparators(ByteBuffer buf, int p, int len) {
+            while (p < len) {
+                byte c = buf.get(p);
+                if (c != ' ' && c != '\t' && c != ',' && c != '\r') break;
+                p++;
+            }
+            return p;
+        }
+
+        /** End of the run of decimal digits starting at p. */
+        private static int digits(ByteBuffer buf, int p, int len) {
+            while (p < len && ((buf.get(p) - '0') & 0xFF) < 10) p++;
+            return p;
+        }
+
+        /** Digits [p, q) as a long; ids past Long.MAX_VALUE wrap around. */
+        private static long number(ByteBuffer buf, int p, int q) {
+            long x = 0;
+            for (int i = p; i < q; i++) x = 10 * x + (buf.get(i) - '0');
+            return x;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Versioned binary CSR file, written once and opened by later runs through {@link FileChannel#map}.
+ * <p>
+ * Layout (little-endian): a HEADER_BYTES header (int MAGIC, int VERSION, int flags, int reserved,
+ * long n, long m, long CRC32C of everything after the header, zero padding), then offsets (n+1 ints),
+ * targets (m ints) and, when flags has WEIGHTED, weights (m ints). Files are written to a temporary name
+ * and moved into place, so concurrent JVMs never see a partial graph; once written they only ever get
+ * mapped read-only and so share the page cache.
+ */
+public final class GraphFile {
+
+    public static final int MAGIC = 0x48505247; // "GRPH" little-endian
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 64;
+    public static final int WEIGHTED = 1;
+
+    private static final int CHUNK_INTS = 1 << 16;
+
+    private GraphFile() {}
+
+    /** Usage: java utils.GraphFile &lt;file.graph&gt;... prints each header and checks its checksum. */
+    public static void main(String[] args) throws IOException {
+        boolean ok = true;
+        for (String a : args) {
+            Mapped g = map(Paths.get(a));
+            boolean valid = g.verify();
+            ok &= valid;
+            System.out.printf("%s: n=%d m=%d %s checksum %s%n", a, g.nodeCount(), g.edgeCount(),
+                    g.isWeighted() ? "weighted" : "unweighted", valid ? "ok" : "MISMATCH");
+        }
+        if (!ok) System.exit(1);
+    }
+
+    /** Read-only view of a mapped graph file; the buffers are slices of the mapping, not copies. */
+    public static final class Mapped {
+        private final int n, m;
+        private final ByteBuffer[] sections; // raw bytes of offsets, targets[, weights]
+        private final IntBuffer offsets, targets, weights;
+        private final long checksum;
+
+        private Mapped(int n, int m, ByteBuffer[] sections, long checksum) {
+            this.n = n;
+            this.m = m;
+            this.sections = sections;
+            this.offsets = sections[0].asIntBuffer();
+            this.targets = sections[1].asIntBuffer();
+            this.weights = sections.length > 2 ? sections[2].asIntBuffer() : null;
+            this.checksum = checksum;
+        }
+
+        public int nodeCount() { return n; }
+
+        public int edgeCount() { return m; }
+
+        public boolean isWeighted() { return weights != null; }
+
+        public int degree(int u) { return offsets.get(u + 1) - offsets.get(u); }
+
+        /** Absolute-get views (n+1, m and m ints); duplicate() them before relative reads. */
+        public IntBuffer offsets() { return offsets; }
+
+        public IntBuffer targets() { return targets; }
+
+        /** @return null for an unweighted graph */
+        public IntBuffer weights() { return weights; }
+
+        /** Recompute the body checksum against the header; touches every page. */
+        public boolean verify() {
+            CRC32C crc = new CRC32C();
+            for (ByteBuffer s : sections) crc.update(s.duplicate());
+            return crc.getValue() == checksum;
+        }
+
+        /** Bulk-copy the sections into a heap CSRGraph (a memory copy per section, no parsing). */
+        public CSRGraph toCSR() {
+            int[] off = new int[n + 1];
+            int[] adj = new int[m];
+            offsets.duplicate().get(off);
+            targets.duplicate().get(adj);
+            int[] wt = null;
+            if (weights != null) {
+                wt = new int[m];
+                weights.duplicate().get(wt);
+            }
+            return new CSRGraph(off, adj, wt);
+        }
+    }
+
+    /** Write g to path (replacing it) via a temporary file in the same directory. */
+    public static void write(CSRGraph g, Path path) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ch.position(HEADER_BYTES);
+                CRC32C crc = new CRC32C();
+                ByteBuffer buf = ByteBuffer.allocateDirect(CHUNK_INTS * 4).order(ByteOrder.LITTLE_ENDIAN);
+                writeInts(ch, buf, crc, g.offsets());
+                writeInts(ch, buf, crc, g.targets());
+                if (g.isWeighted()) writeInts(ch, buf, crc, g.weights());
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(g.isWeighted() ? WEIGHTED : 0).putInt(0)
+                        .putLong(g.nodeCount()).putLong(g.edgeCount()).putLong(crc.getValue());
+                header.clear();
+                while (header.hasRemaining()) ch.write(header, header.position());
+                ch.force(false);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Map path read-only and check its header (not the checksum; see {@link Mapped#verify}). */
+    public static Mapped map(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES) throw new IOException(path + " is not a graph file");
+            ByteBuffer h = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (h.getInt(0) != MAGIC) throw new IOException(path + " is not a graph file");
+            int version = h.getInt(4);
+            if (version != VERSION) throw new IOException(path + ": unsupported graph file version " + version);
+            boolean weighted = (h.getInt(8) & WEIGHTED) != 0;
+            long n = h.getLong(16), m = h.getLong(24);
+            long body = 4 * ((n + 1) + m * (weighted ? 2 : 1));
+            if (n < 0 || m < 0 || n >= Integer.MAX_VALUE || m > Integer.MAX_VALUE || size != HEADER_BYTES + body)
+                throw new IOException(path + ": size " + size + " does not match n=" + n + ", m=" + m);
+
+            ByteBuffer[] sections = new ByteBuffer[weighted ? 3 : 2];
+            sections[0] = section(ch, HEADER_BYTES, n + 1);
+            sections[1] = section(ch, HEADER_BYTES + 4 * (n + 1), m);
+            if (weighted) sections[2] = section(ch, HEADER_BYTES + 4 * (n + 1 + m), m);
+            // the mappings stay valid after the channel is closed
+            return new Mapped((int) n, (int) m, sections, h.getLong(32));
+        }
+    }
+
+    /** Map and copy into a heap CSRGraph, optionally verifying the checksum first. */
+    public static CSRGraph read(Path path, boolean verify) throws IOException {
+        Mapped g = map(path);
+        if (verify && !g.verify()) throw new IOException(path + ": checksum mismatch");
+        return g.toCSR();
+    }
+
+    /**
+     * Read path if it exists and its checksum matches, else build the graph and write it there for the next run.
+     * A file that cannot be read or fails the checksum is rebuilt and overwritten.
+     */
+    public static CSRGraph cached(Path path, Supplier<CSRGraph> build) throws IOException {
+        if (Files.exists(path)) {
+            try {
+                return read(path, true);
+            } catch (IOException e) {
+                // corrupt, truncated or foreign file: fall through and rebuild it
+            }
+        }
+        CSRGraph g = build.get();
+        write(g, path);
+        return g;
+    }
+
+    private static ByteBuffer section(FileChannel ch, long pos, long ints) throws IOException {
+        if (4 * ints > Integer.MAX_VALUE) throw new IOException("section of " + ints + " ints is too large to map");
+        return ch.map(FileChannel.MapMode.READ_ONLY, pos, 4 * ints).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Append a as little-endian ints at the channel position, buf.capacity() / 4 ints at a time through buf,
+     * updating crc; shared with the other binary formats written next to graph files.
+     */
+    public static void writeInts(FileChannel ch, ByteBuffer buf, CRC32C crc, int[] a) throws IOException {
+        int chunk = buf.capacity() / 4;
+        for (int i = 0; i < a.length; i += chunk) {
+            int len = Math.min(chunk, a.length - i);
+            buf.clear();
+            buf.asIntBuffer().put(a, i, len);
+            buf.limit(4 * len);
+            crc.update(buf.duplicate());
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+    }
+}
@@ -37,4 +37,34 @@ public class GraphGenerator {
         }
         return g;
     }
+
+    /**
+     * Same model and RNG draws as {@link #generateDenseGraph}, written straight into CSR form,
+     * so a given seed yields the same edges in the same order as the map-based graph.
+     */
+    public static CSRGraph generateCSRGraph(int n, double density, boolean directed, long seed,
+                                            int maxDegreeCap) {
+        Random rnd = new Random(seed);
+        int[][] rows = new int[n][4];
+        int[] deg = new int[n];
+
+        for (int u = 0; u < n; u++) {
+            for (int v = 0; v < n; v++) {
+                if (u == v) continue;
+                if (rnd.nextDouble() < density) {
+                    if (maxDegreeCap > 0 && deg[u] >= maxDegreeCap) continue;
+                    append(rows, deg, u, v);
+                    if (!directed && (maxDegreeCap <= 0 || deg[v] < maxDegreeCap)) {
+                        append(rows, deg, v, u);
+                    }
+                }
+            }
+        }
+        return CSRGraph.pack(rows, null, deg);
+    }
+
+    private static void append(int[][] rows, int[] deg, int u, int v) {
+        if (deg[u] == rows[u].length) rows[u] = Arrays.copyOf(rows[u], rows[u].length * 2);
+        rows[u][deg[u]++] = v;
+    }
 }
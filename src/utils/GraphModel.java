@@ -0,0 +1,62 @@
+package utils;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Random graph families the benchmark can run on. All but DENSE come from {@link ParallelGraphGenerator}
+ * in O(n + m); density is the edge probability, or for the other models the matching average degree
+ * density * (n-1). GRID ignores density and GEOMETRIC and GRID are always symmetric.
+ */
+public enum GraphModel {
+    /** The original one-draw-per-pair generator; same graphs as {@link GraphGenerator#generateCSRGraph}. */
+    DENSE("dense"),
+    ERDOS_RENYI("er"),
+    RMAT("rmat"),
+    GEOMETRIC("geometric"),
+    GRID("grid"),
+    BARABASI_ALBERT("ba");
+
+    /** Part of every cached graph's file name: bump it whenever a model generates other edges for the same arguments. */
+    public static final int GENERATOR_VERSION = 1;
+
+    private static final int DENSE_DEGREE_CAP = 1000;
+
+    private final String label;
+
+    GraphModel(String label) { this.label = label; }
+
+    /** Short name used in file names and the benchmark CSV. */
+    public String label() { return label; }
+
+    /** Generate on the common fork-join pool. */
+    public CSRGraph generate(int n, double density, boolean directed, long seed, boolean weighted) {
+        return generate(n, density, directed, seed, weighted, ForkJoinPool.commonPool());
+    }
+
+    public CSRGraph generate(int n, double density, boolean directed, long seed, boolean weighted, ForkJoinPool pool) {
+        switch (this) {
+            case DENSE:
+                return weighted
+                        ? WeightedGraphGenerator.generateWeightedCSRGraph(n, density, directed, seed, DENSE_DEGREE_CAP)
+                        : GraphGenerator.generateCSRGraph(n, density, directed, seed, DENSE_DEGREE_CAP);
+            case ERDOS_RENYI: return ParallelGraphGenerator.erdosRenyi(n, density, directed, seed, weighted, pool);
+            case RMAT: return ParallelGraphGenerator.rmat(n, density, directed, seed, weighted, pool);
+            case GEOMETRIC: return ParallelGraphGenerator.randomGeometric(n, density, seed, weighted, null, pool);
+            case GRID: return ParallelGraphGenerator.grid(n, seed, weighted, null, pool);
+            case BARABASI_ALBERT: return ParallelGraphGenerator.barabasiAlbert(n, density, directed, seed, weighted, pool);
+            default: throw new IllegalStateException(name());
+        }
+    }
+
+    /**
+     * Node positions of the graph generate() returns for this n and seed (x at 2u, y at 2u+1), computed
+     * without the edges; null for models without a geometry. Geometric heuristics need these.
+     */
+    public double[] coordinates(int n, long seed) {
+        switch (this) {
+            case GEOMETRIC: return ParallelGraphGenerator.randomPoints(n, seed, ForkJoinPool.commonPool());
+            case GRID: return ParallelGraphGenerator.gridPoints(n);
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Node orderings that relabel a graph for cache locality: neighbours that get nearby ids share cache lines
+ * in the per-node arrays every traversal touches. Each one computes a {@link Permutation}; structure comes
+ * from {@link CSRGraph#undirected()}, so directed graphs are ordered by their underlying undirected graph.
+ */
+public enum GraphOrdering {
+    /** The generator's ids, as the baseline. */
+    ORIGINAL("original"),
+    /** Descending degree, ties by id: hubs, which most edges lead to, share a few cache lines. */
+    DEGREE("degree"),
+    /** BFS visit order from the highest-degree node, each further component from its smallest unvisited id. */
+    BFS("bfs"),
+    /**
+     * Reverse Cuthill-McKee: BFS from a pseudo-peripheral low-degree node with neighbours taken in ascending
+     * degree, reversed; keeps the bandwidth (largest id gap of an edge) small on mesh-like graphs.
+     */
+    RCM("rcm"),
+    /**
+     * Gorder-style greedy (Wei et al.): the next id goes to the node most related to the last WINDOW nodes
+     * placed, counting edges to them and neighbours shared with them. Nodes above HUB_DEGREE are not expanded
+     * for the shared-neighbour counts, which keeps the cost near O(sum of capped degree squared); the paper's
+     * sqrt(n) cap costs seconds per million nodes on RMAT, where a few hundred nodes have degree in the hundreds.
+     */
+    GORDER("gorder");
+
+    private static final int WINDOW = 5;
+    private static final int HUB_DEGREE = 64;
+
+    private final String label;
+
+    GraphOrdering(String label) { this.label = label; }
+
+    /** Short name used in the benchmark CSV. */
+    public String label() { return label; }
+
+    public Permutation compute(CSRGraph g) {
+        int n = g.nodeCount();
+        switch (this) {
+            case ORIGINAL: return Permutation.identity(n);
+            case DEGREE: return Permutation.fromOrder(byDegree(g.undirected(), true));
+            case BFS: return Permutation.fromOrder(bfs(g.undirected()));
+            case RCM: return Permutation.fromOrder(rcm(g.undirected()));
+            case GORDER: return Permutation.fromOrder(gorder(g.undirected()));
+            default: throw new IllegalStateException(name());
+        }
+    }
+
+    /** Relabelled copy of g; shorthand for compute(g).apply(g). */
+    public CSRGraph apply(CSRGraph g) { return compute(g).apply(g); }
+
+    /**
+     * Mean log2(1 + |u - v|) over the edges u -> v: a cheap locality score, lower when edges join nearby ids
+     * (0 only for self-loops, a little under log2(n) for random ids).
+     */
+    public static double meanLogGap(CSRGraph g) {
+        int[] off = g.offsets(), adj = g.targets();
+        double sum = 0;
+        for (int u = 0; u < g.nodeCount(); u++)
+            for (int i = off[u]; i < off[u + 1]; i++) sum += 31 - Integer.numberOfLeadingZeros(1 + Math.abs(u - adj[i]));
+        return g.edgeCount() == 0 ? 0 : sum / g.edgeCount();
+    }
+
+    /** All nodes by degree (counting sort), ties by id. */
+    private static int[] byDegree(CSRGraph g, boolean descending) {
+        int n = g.nodeCount();
+        int maxDeg = 0;
+        for (int u = 0; u < n; u++) maxDeg = Math.max(maxDeg, g.degree(u));
+        int[] start = new int[maxDeg + 2];
+        for (int u = 0; u < n; u++) start[(descending ? maxDeg - g.degree(u) : g.degree(u)) + 1]++;
+        for (int d = 0; d <= maxDeg; d++) start[d + 1] += start[d];
+        int[] order = new int[n];
+        for (int u = 0; u < n; u++) order[start[descending ? maxDeg - g.degree(u) : g.degree(u)]++] = u;
+        return order;
+    }
+
+    private static int[] bfs(CSRGraph g) {
+        int n = g.nodeCount();
+        int[] off = g.offsets(), adj = g.targets();
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        int hub = 0;
+        for (int u = 1; u < n; u++) if (g.degree(u) > g.degree(hub)) hub = u;
+        int tail = 0;
+        for (int s = -1; s < n; s++) {
+            int root = s < 0 ? hub : s;
+            if (n == 0 || seen[root]) continue;
+            seen[root] = true;
+            order[tail++] = root;
+            for (int head = tail - 1; head < tail; head++) {
+                int u = order[head];
+                for (int i = off[u]; i < off[u + 1]; i++) {
+                    int v = adj[i];
+                    if (!seen[v]) {
+                        seen[v] = true;
+                        order[tail++] = v;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    private static int[] rcm(CSRGraph g) {
+        int n = g.nodeCount();
+        int[] off = g.offsets(), adj = g.targets();
+        int[] order = new int[n];
+        int[] level = new int[n];
+        Arrays.fill(level, -1);
+        int[] scratch = new int[n];      // BFS queue of the peripheral search
+        long[] row = new long[16];       // (degree, node) of the neighbours being appended
+        int tail = 0;
+        for (int s : byDegree(g, false)) {
+            if (level[s] >= 0) continue;
+            int root = peripheral(g, s, level, scratch);
+            level[root] = 0;
+            order[tail++] = root;
+            for (int head = tail - 1; head < tail; head++) {
+                int u = order[head];
+                int k = 0;
+                for (int i = off[u]; i < off[u + 1]; i++) {
+                    int v = adj[i];
+                    if (level[v] < 0) {
+                        level[v] = level[u] + 1;
+                        if (k == row.length) row = Arrays.copyOf(row, 2 * k);
+                        row[k++] = (long) g.degree(v) << 32 | v;
+                    }
+                }
+                Arrays.sort(row, 0, k);
+                for (int i = 0; i < k; i++) order[tail++] = (int) row[i];
+            }
+        }
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return order;
+    }
+
+    /**
+     * One George-Liu step: BFS from s and return the lowest-degree node of the last level, a node of large
+     * eccentricity. Leaves level[] as it found it.
+     */
+    private static int peripheral(CSRGraph g, int s, int[] level, int[] queue) {
+        int[] off = g.offsets(), adj = g.targets();
+        int tail = 0;
+        queue[tail++] = s;
+        level[s] = 0;
+        for (int head = 0; head < tail; head++) {
+            int u = queue[head];
+            for (int i = off[u]; i < off[u + 1]; i++) {
+                int v = adj[i];
+                if (level[v] < 0) {
+                    level[v] = level[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        int last = level[queue[tail - 1]], best = queue[tail - 1];
+        for (int i = tail - 1; i >= 0 && level[queue[i]] == last; i--) if (g.degree(queue[i]) < g.degree(best)) best = queue[i];
+        for (int i = 0; i < tail; i++) level[queue[i]] = -1;
+        return best;
+    }
+
+    private static int[] gorder(CSRGraph g) {
+        int n = g.nodeCount();
+        int[] off = g.offsets(), adj = g.targets();
+        int maxDeg = 0, hub = 0;
+        for (int u = 0; u < n; u++) {
+            if (g.degree(u) > maxDeg) {
+                maxDeg = g.degree(u);
+                hub = u;
+            }
+        }
+        // a node's score counts at most 2 * degree edges and shared neighbours per window node, and the
+        // window briefly holds WINDOW + 1 nodes
+        UnitHeap heap = new UnitHeap(n, (WINDOW + 1) * 2 * maxDeg);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            int v = i == 0 ? hub : heap.pollMax();
+            heap.remove(v);
+            order[i] = v;
+            relate(v, +1, off, adj, heap);
+            if (i >= WINDOW) relate(order[i - WINDOW], -1, off, adj, heap);
+        }
+        return order;
+    }
+
+    /** Add delta to the scores of v's neighbours and of the neighbours they share with v. */
+    private static void relate(int v, int delta, int[] off, int[] adj, UnitHeap heap) {
+        for (int i = off[v]; i < off[v + 1]; i++) {
+            int x = adj[i];
+            heap.add(x, delta);
+            if (off[x + 1] - off[x] > HUB_DEGREE) continue;
+            for (int j = off[x]; j < off[x + 1]; j++) if (adj[j] != v) heap.add(adj[j], delta);
+        }
+    }
+
+    /**
+     * Max-priority queue for small integer keys that change by one: a doubly linked list per key, so
+     * increments, decrements and removals are O(1) and polling only walks down from the highest key.
+     */
+    private static final class UnitHeap {
+        final int[] key, prev, next, head;
+        final boolean[] removed;
+        int top;
+
+        UnitHeap(int n, int maxKey) {
+            key = new int[n];
+            prev = new int[n];
+            next = new int[n];
+            head = new int[maxKey + 1];
+            removed = new boolean[n];
+            Arrays.fill(head, -1);
+            for (int u = n - 1; u >= 0; u--) link(u);
+        }
+
+        void add(int u, int delta) {
+            if (removed[u]) return;
+            unlink(u);
+            key[u] += delta;
+            link(u);
+            if (key[u] > top) top = key[u];
+        }
+
+        int pollMax() {
+            while (head[top] < 0) top--;
+            return head[top];
+        }
+
+        void remove(int u) {
+            if (removed[u]) return;
+            unlink(u);
+            removed[u] = true;
+        }
+
+        private void link(int u) {
+            int h = head[key[u]];
+            prev[u] = -1;
+            next[u] = h;
+            if (h >= 0) prev[h] = u;
+            head[key[u]] = u;
+        }
+
+        private void unlink(int u) {
+            if (prev[u] >= 0) next[prev[u]] = next[u];
+            else head[key[u]] = next[u];
+            if (next[u] >= 0) prev[next[u]] = prev[u];
+        }
+    }
+}
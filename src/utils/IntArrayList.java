@@ -0,0 +1,58 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable int array, for hot paths that would otherwise fill a List&lt;Integer&gt;.
+ */
+public final class IntArrayList {
+
+    private int[] data;
+    private int size;
+
+    public IntArrayList() { this(16); }
+
+    public IntArrayList(int initialCapacity) {
+        data = new int[Math.max(4, initialCapacity)];
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public int get(int i) {
+        if (i >= size) throw new IndexOutOfBoundsException(i + " >= " + size);
+        return data[i];
+    }
+
+    public void set(int i, int value) {
+        if (i >= size) throw new IndexOutOfBoundsException(i + " >= " + size);
+        data[i] = value;
+    }
+
+    public void add(int value) {
+        if (size == data.length) data = Arrays.copyOf(data, size * 2);
+        data[size++] = value;
+    }
+
+    /** Remove and return the last element. */
+    public int pop() {
+        if (size == 0) throw new IndexOutOfBoundsException("empty");
+        return data[--size];
+    }
+
+    public void clear() { size = 0; }
+
+    /** Backing array; only the first size() entries are valid. */
+    public int[] array() { return data; }
+
+    public int[] toArray() { return Arrays.copyOf(data, size); }
+
+    public List<Integer> toList() {
+        List<Integer> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) out.add(data[i]);
+        return out;
+    }
+}
@@ -0,0 +1,33 @@
+package utils;
+
+/**
+ * Addressable min-priority queue over node ids 0..n-1 with int keys.
+ * A node is queued at most once; decreaseKey lowers the key of a queued node in place,
+ * so callers never see stale entries.
+ * Monotone implementations (radix heap, Dial buckets) require every key to be at least the
+ * last extracted key and clamp smaller keys up to it.
+ */
+public interface IntPriorityQueue {
+
+    boolean isEmpty();
+
+    int size();
+
+    boolean contains(int node);
+
+    /** @return current key of a queued node */
+    int key(int node);
+
+    void insert(int node, int key);
+
+    /** Lower the key of a queued node; a key that is not smaller is ignored. */
+    void decreaseKey(int node, int key);
+
+    /** Remove and return the node with the smallest key. */
+    int pollMin();
+
+    default void insertOrDecrease(int node, int key) {
+        if (contains(node)) decreaseKey(node, key);
+        else insert(node, key);
+    }
+}
@@ -0,0 +1,84 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from long keys to non-negative int values, without boxing: linear probing over
+ * parallel key/value arrays, with a value of -1 marking an empty slot. Keys may be any long. Not thread-safe
+ * for writers; concurrent get() calls on a map nobody modifies are fine.
+ */
+public final class LongIntHashMap {
+
+    public static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntHashMap() { this(16); }
+
+    public LongIntHashMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(4, (int) Math.min(1 << 30, expected * 2L)) - 1) << 1;
+        keys = new long[cap];
+        values = new int[cap];
+        Arrays.fill(values, MISSING);
+        mask = cap - 1;
+    }
+
+    public int size() { return size; }
+
+    /** @return the value of key, or MISSING */
+    public int get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            int v = values[i];
+            if (v == MISSING || keys[i] == key) return v;
+        }
+    }
+
+    /**
+     * Map key to value unless it is already mapped.
+     *
+     * @return the value already mapped to key, or MISSING when value was inserted
+     */
+    public int putIfAbsent(long key, int value) {
+        if (value < 0) throw new IllegalArgumentException("values must be >= 0, got " + value);
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            int v = values[i];
+            if (v == MISSING) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size > (mask >> 1)) grow(); // keep the load factor at or below 1/2
+                return MISSING;
+            }
+            if (keys[i] == key) return v;
+        }
+    }
+
+    private int slot(long key) {
+        // fmix64 of MurmurHash3: sequential ids spread over the whole table
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    private void grow() {
+        if (keys.length == 1 << 30) throw new IllegalStateException("map is full at " + size + " keys");
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(values, MISSING);
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == MISSING) continue;
+            int i = slot(oldKeys[j]);
+            while (values[i] != MISSING) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
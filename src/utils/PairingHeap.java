@@ -0,0 +1,116 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Pairing heap over node ids. Tree links live in parallel int arrays; prev[x] is the left
+ * sibling of x, or its parent when x is a first child. Deletion uses the two-pass merge.
+ */
+public final class PairingHeap implements IntPriorityQueue {
+
+    private final int[] keys;
+    private final int[] child;
+    private final int[] next;
+    private final int[] prev;
+    private final boolean[] queued;
+    private final int[] pairs; // scratch for the two-pass merge
+    private int root = -1;
+    private int size;
+
+    public PairingHeap(int n) {
+        keys = new int[n];
+        child = new int[n];
+        next = new int[n];
+        prev = new int[n];
+        queued = new boolean[n];
+        pairs = new int[n];
+        Arrays.fill(child, -1);
+        Arrays.fill(next, -1);
+        Arrays.fill(prev, -1);
+    }
+
+    @Override
+    public boolean isEmpty() { return size == 0; }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public boolean contains(int node) { return queued[node]; }
+
+    @Override
+    public int key(int node) { return keys[node]; }
+
+    @Override
+    public void insert(int node, int key) {
+        keys[node] = key;
+        queued[node] = true;
+        size++;
+        root = root == -1 ? node : link(root, node);
+    }
+
+    @Override
+    public void decreaseKey(int node, int key) {
+        if (key >= keys[node]) return;
+        keys[node] = key;
+        if (node == root) return;
+        // cut the subtree rooted at node and merge it back with the root
+        int p = prev[node];
+        if (child[p] == node) child[p] = next[node];
+        else next[p] = next[node];
+        if (next[node] != -1) prev[next[node]] = p;
+        next[node] = -1;
+        prev[node] = -1;
+        root = link(root, node);
+    }
+
+    @Override
+    public int pollMin() {
+        if (size == 0) throw new NoSuchElementException();
+        int top = root;
+        root = mergePairs(child[top]);
+        child[top] = -1;
+        queued[top] = false;
+        size--;
+        return top;
+    }
+
+    // both arguments are detached roots
+    private int link(int a, int b) {
+        if (keys[b] < keys[a]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int c = child[a];
+        next[b] = c;
+        if (c != -1) prev[c] = b;
+        prev[b] = a;
+        child[a] = b;
+        return a;
+    }
+
+    private int mergePairs(int first) {
+        if (first == -1) return -1;
+        int cnt = 0;
+        int x = first;
+        while (x != -1) {
+            int a = x;
+            int b = next[a];
+            next[a] = -1;
+            prev[a] = -1;
+            if (b == -1) {
+                pairs[cnt++] = a;
+                break;
+            }
+            x = next[b];
+            next[b] = -1;
+            prev[b] = -1;
+            pairs[cnt++] = link(a, b);
+        }
+        int r = pairs[--cnt];
+        while (cnt > 0) r = link(pairs[--cnt], r);
+        return r;
+    }
+}
@@ -0,0 +1,64 @@
+package utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Fork-join helpers for the parallel algorithms: split an index range into tasks on a given pool.
+ */
+public final class Parallel {
+
+    private Parallel() {}
+
+    /** Body over a half-open index range [from, to). */
+    public interface RangeBody {
+        void run(int from, int to);
+    }
+
+    /**
+     * Run body over [from, to) in pieces of at most grain indices. Runs inline on the caller
+     * when the range fits one piece or the pool is single-threaded.
+     */
+    public static void forRange(ForkJoinPool pool, int from, int to, int grain, RangeBody body) {
+        if (to - from <= grain || pool.getParallelism() <= 1) {
+            body.run(from, to);
+            return;
+        }
+        pool.invoke(new RangeTask(from, to, Math.max(1, grain), body));
+    }
+
+    /** Run body(i) for each i in [0, count), one task per index; for pre-split chunks. */
+    public static void forEach(ForkJoinPool pool, int count, IntConsumer body) {
+        if (count <= 1 || pool.getParallelism() <= 1) {
+            for (int i = 0; i < count; i++) body.accept(i);
+            return;
+        }
+        pool.invoke(new RangeTask(0, count, 1, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) body.accept(i);
+        }));
+    }
+
+    @SuppressWarnings("serial") // never serialized; body is not Serializable either
+    private static final class RangeTask extends RecursiveAction {
+        private final int from, to, grain;
+        private final RangeBody body;
+
+        RangeTask(int from, int to, int grain, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, grain, body), new RangeTask(mid, to, grain, body));
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package utils;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * O(n + m) random graph generators that write CSR directly, split across a fork-join pool.
+ * <p>
+ * Work is cut into fixed blocks (of rows, points or edges), each with its own {@link SplittableRandom}
+ * split off the seed in block order, so a seed gives the same graph at any thread count.
+ * Weights are 1..20 like the older generators, except random geometric graphs, where they follow distance.
+ * Undirected graphs hold both directions of every edge with the same weight; rows are sorted by target and
+ * carry no self-loops or duplicates.
+ */
+public final class ParallelGraphGenerator {
+
+    private static final int ROW_BLOCK = 1024;
+    private static final int EDGE_BLOCK = 1 << 16;
+    private static final int MAX_WEIGHT = 20;
+    // R-MAT quadrant probabilities (Graph500); d = 1 - A - B - C
+    private static final double RMAT_A = 0.57, RMAT_B = 0.19, RMAT_C = 0.19;
+
+    private ParallelGraphGenerator() {}
+
+    /**
+     * Erdős–Rényi G(n, p): each ordered pair (each unordered pair when undirected) is an edge with
+     * probability density. Geometric skipping jumps straight to the next edge of a row, so the cost is
+     * O(n + m) instead of one draw per pair.
+     */
+    public static CSRGraph erdosRenyi(int n, double density, boolean directed, long seed, boolean weighted,
+                                      ForkJoinPool pool) {
+        checkEdges(density * n * (double) (n - 1));
+        double logQ = density < 1 ? Math.log1p(-density) : 0;
+        int blocks = (n + ROW_BLOCK - 1) / ROW_BLOCK;
+        SplittableRandom[] rngs = split(seed, blocks);
+        int[] deg = new int[n];
+        IntArrayList[] out = new IntArrayList[blocks];
+        Parallel.forEach(pool, blocks, b -> {
+            SplittableRandom rnd = rngs[b];
+            IntArrayList targets = new IntArrayList();
+            for (int u = b * ROW_BLOCK, end = Math.min(n, u + ROW_BLOCK); u < end; u++) {
+                int before = targets.size();
+                // candidates: directed v != u as positions 0..n-2; undirected v > u as positions 0..n-u-2
+                long count = directed ? n - 1 : n - 1 - u;
+                if (density > 0) {
+                    for (long k = skip(rnd, logQ, density); k < count; k += 1 + skip(rnd, logQ, density)) {
+                        targets.add(directed ? (k < u ? (int) k : (int) k + 1) : u + 1 + (int) k);
+                    }
+                }
+                deg[u] = targets.size() - before;
+            }
+            out[b] = targets;
+        });
+        CSRGraph g = concat(deg, out, weighted, seed, directed, pool);
+        return directed ? g : symmetrize(g, pool);
+    }
+
+    /**
+     * R-MAT power-law graph: density * n * (n-1) edge draws (half that for undirected), each descending the
+     * adjacency matrix by quadrants with the Graph500 probabilities. Node labels are shuffled so hubs are
+     * not clustered at low ids. Self-loops are redrawn and duplicates dropped, so the graph can end up a
+     * little under the target edge count.
+     */
+    public static CSRGraph rmat(int n, double density, boolean directed, long seed, boolean weighted,
+                                ForkJoinPool pool) {
+        double target = density * n * (double) (n - 1) / (directed ? 1 : 2);
+        checkEdges(target * (directed ? 1 : 2));
+        int m = (int) Math.round(target);
+        if (n < 2) m = 0;
+        int scale = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+        SplittableRandom root = new SplittableRandom(seed);
+        int[] perm = shuffledIds(n, root.split());
+        int blocks = (m + EDGE_BLOCK - 1) / EDGE_BLOCK;
+        SplittableRandom[] rngs = split(root.nextLong(), blocks);
+        long[] keys = new long[m];
+        int mEdges = m;
+        Parallel.forEach(pool, blocks, b -> {
+            SplittableRandom rnd = rngs[b];
+            for (int i = b * EDGE_BLOCK, end = Math.min(mEdges, i + EDGE_BLOCK); i < end; i++) {
+                int u, v;
+                do {
+                    u = 0;
+                    v = 0;
+                    for (int bit = scale - 1; bit >= 0; bit--) {
+                        double r = rnd.nextDouble();
+                        if (r >= RMAT_A + RMAT_B) u |= 1 << bit;
+                        if (r >= RMAT_A && r < RMAT_A + RMAT_B || r >= RMAT_A + RMAT_B + RMAT_C) v |= 1 << bit;
+                    }
+                } while (u >= n || v >= n || u == v);
+                u = perm[u];
+                v = perm[v];
+                keys[i] = directed || u < v ? key(u, v) : key(v, u);
+            }
+        });
+        CSRGraph g = fromKeys(n, keys, directed, seed, weighted, pool);
+        return directed ? g : symmetrize(g, pool);
+    }
+
+    /**
+     * Random geometric graph: n points uniform in the unit square, joined when closer than the radius that
+     * gives an expected degree of density * (n-1). Always symmetric, whatever directed says. Weights scale
+     * with distance (1 for touching points, 20 at the radius), so the coordinates give an admissible A* bound.
+     * @param coords if non-null (length 2n), receives x at 2u and y at 2u+1
+     */
+    public static CSRGraph randomGeometric(int n, double density, long seed, boolean weighted, double[] coords,
+                                           ForkJoinPool pool) {
+        checkEdges(density * n * (double) (n - 1));
+        double[] xy = randomPoints(n, seed, pool);
+        if (coords != null) System.arraycopy(xy, 0, coords, 0, 2 * n);
+        int blocks = (n + ROW_BLOCK - 1) / ROW_BLOCK;
+        double radius = n < 2 ? 0 : Math.min(Math.sqrt(2), Math.sqrt(density * (n - 1) / (Math.PI * n)));
+        double r2 = radius * radius;
+
+        // bucket points into cells at least radius wide; neighbours are in the 3x3 cells around a point
+        int side = radius > 0 ? Math.max(1, Math.min((int) (1 / radius), (int) Math.sqrt(n) + 1)) : 1;
+        int[] cellStart = new int[side * side + 1];
+        int[] cellOf = new int[n];
+        for (int u = 0; u < n; u++) {
+            cellOf[u] = cell(xy[2 * u + 1], side) * side + cell(xy[2 * u], side);
+            cellStart[cellOf[u] + 1]++;
+        }
+        for (int c = 0; c < side * side; c++) cellStart[c + 1] += cellStart[c];
+        int[] fill = Arrays.copyOf(cellStart, side * side);
+        int[] points = new int[n];
+        for (int u = 0; u < n; u++) points[fill[cellOf[u]]++] = u;
+
+        int[] deg = new int[n];
+        IntArrayList[] out = new IntArrayList[blocks];
+        IntArrayList[] outWeights = new IntArrayList[blocks];
+        Parallel.forEach(pool, blocks, b -> {
+            IntArrayList targets = new IntArrayList();
+            IntArrayList weights = weighted ? new IntArrayList() : null;
+            IntArrayList row = new IntArrayList();
+            for (int u = b * ROW_BLOCK, end = Math.min(n, u + ROW_BLOCK); u < end; u++) {
+                if (r2 > 0) {
+                    int cx = cellOf[u] % side, cy = cellOf[u] / side;
+                    row.clear();
+                    for (int y = Math.max(0, cy - 1); y <= Math.min(side - 1, cy + 1); y++) {
+                        for (int x = Math.max(0, cx - 1); x <= Math.min(side - 1, cx + 1); x++) {
+                            int c = y * side + x;
+                            for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+                                int v = points[i];
+                                if (v != u && dist2(xy, u, v) <= r2) row.add(v);
+                            }
+                        }
+                    }
+                    int[] a = row.array();
+                    Arrays.sort(a, 0, row.size());
+                    for (int i = 0; i < row.size(); i++) {
+                        targets.add(a[i]);
+                        if (weighted) {
+                            int w = 1 + (int) ((MAX_WEIGHT - 1) * Math.sqrt(dist2(xy, u, a[i])) / radius);
+                            weights.add(Math.min(MAX_WEIGHT, w));
+                        }
+                    }
+                    deg[u] = row.size();
+                }
+            }
+            out[b] = targets;
+            outWeights[b] = weights;
+        });
+        return concat(deg, out, weighted ? outWeights : null, pool);
+    }
+
+    /** The points of {@link #randomGeometric} for the same n and seed: x at 2u and y at 2u+1. */
+    public static double[] randomPoints(int n, long seed, ForkJoinPool pool) {
+        double[] xy = new double[2 * n];
+        int blocks = (n + ROW_BLOCK - 1) / ROW_BLOCK;
+        SplittableRandom[] rngs = split(seed, blocks);
+        Parallel.forEach(pool, blocks, b -> {
+            SplittableRandom rnd = rngs[b];
+            for (int u = b * ROW_BLOCK, end = Math.min(n, u + ROW_BLOCK); u < end; u++) {
+                xy[2 * u] = rnd.nextDouble();
+                xy[2 * u + 1] = rnd.nextDouble();
+            }
+        });
+        return xy;
+    }
+
+    /** The lattice positions of {@link #grid}: column at 2u and row at 2u+1. */
+    public static double[] gridPoints(int n) {
+        int width = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+        double[] xy = new double[2 * n];
+        for (int u = 0; u < n; u++) {
+            xy[2 * u] = u % width;
+            xy[2 * u + 1] = u / width;
+        }
+        return xy;
+    }
+
+    /**
+     * Road-like grid: nodes row-major on a ceil(sqrt(n))-wide lattice (last row partial), each joined to its
+     * up/down/left/right neighbours in both directions. Degree is at most 4 and the diameter about 2 sqrt(n),
+     * which is what makes it road-like; density does not apply.
+     * @param coords if non-null (length 2n), receives the lattice column at 2u and row at 2u+1
+     */
+    public static CSRGraph grid(int n, long seed, boolean weighted, double[] coords, ForkJoinPool pool) {
+        int width = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            int x = u % width;
+            int d = (x > 0 ? 1 : 0) + (x + 1 < width && u + 1 < n ? 1 : 0) + (u >= width ? 1 : 0) + (u + width < n ? 1 : 0);
+            offsets[u + 1] = offsets[u] + d;
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = weighted ? new int[offsets[n]] : null;
+        Parallel.forRange(pool, 0, n, ROW_BLOCK, (from, to) -> {
+            for (int u = from; u < to; u++) {
+                int x = u % width;
+                int i = offsets[u];
+                // ascending target order: up, left, right, down
+                if (u >= width) targets[i++] = u - width;
+                if (x > 0) targets[i++] = u - 1;
+                if (x + 1 < width && u + 1 < n) targets[i++] = u + 1;
+                if (u + width < n) targets[i++] = u + width;
+                if (weighted) {
+                    for (int j = offsets[u]; j < i; j++) weights[j] = weight(seed, u, targets[j], false);
+                }
+                if (coords != null) {
+                    coords[2 * u] = x;
+                    coords[2 * u + 1] = u / width;
+                }
+            }
+        });
+        return new CSRGraph(offsets, targets, weights);
+    }
+
+    /**
+     * Barabási–Albert preferential attachment: starts from a clique on k+1 nodes, then each new node links to
+     * k distinct earlier nodes picked with probability proportional to degree, where k = density * (n-1) / 2
+     * (at least 1) so the average degree matches the other models. Directed graphs keep only the new-to-old
+     * edges. Attachment is inherently sequential; only the CSR assembly runs on the pool.
+     */
+    public static CSRGraph barabasiAlbert(int n, double density, boolean directed, long seed, boolean weighted,
+                                          ForkJoinPool pool) {
+        int k = (int) Math.max(1, Math.min(n - 1, Math.round(density * (n - 1) / 2)));
+        int core = Math.min(n, k + 1);
+        long m = (long) core * (core - 1) / 2 + (long) (n - core) * k;
+        checkEdges(2.0 * m);
+        SplittableRandom rnd = new SplittableRandom(seed);
+        long[] keys = new long[(int) m];
+        int[] ends = new int[(int) (2 * m)]; // every edge endpoint once: a uniform pick is degree-proportional
+        int e = 0;
+        for (int u = 0; u < core; u++) {
+            for (int v = 0; v < u; v++) {
+                keys[e] = directed ? key(u, v) : key(v, u);
+                ends[2 * e] = u;
+                ends[2 * e + 1] = v;
+                e++;
+            }
+        }
+        int[] pickedBy = new int[n];
+        Arrays.fill(pickedBy, -1);
+        for (int u = core; u < n; u++) {
+            int ends0 = 2 * e; // only earlier edges count toward this node's picks
+            for (int j = 0; j < k; j++) {
+                int v;
+                do {
+                    v = ends[rnd.nextInt(ends0)];
+                } while (pickedBy[v] == u);
+                pickedBy[v] = u;
+                keys[e] = directed ? key(u, v) : key(v, u);
+                ends[2 * e] = u;
+                ends[2 * e + 1] = v;
+                e++;
+            }
+        }
+        CSRGraph g = fromKeys(n, keys, directed, seed, weighted, pool);
+        return directed ? g : symmetrize(g, pool);
+    }
+
+    // ---- assembly ----
+
+    /** Concatenate per-block target lists (blocks of ROW_BLOCK consecutive rows) and add hashed weights. */
+    private static CSRGraph concat(int[] deg, IntArrayList[] blocks, boolean weighted, long seed, boolean directed,
+                                   ForkJoinPool pool) {
+        CSRGraph g = concat(deg, blocks, null, pool);
+        if (!weighted) return g;
+        int[] off = g.offsets();
+        int[] adj = g.targets();
+        int[] wt = new int[adj.length];
+        Parallel.forRange(pool, 0, deg.length, ROW_BLOCK, (from, to) -> {
+            for (int u = from; u < to; u++) {
+                for (int i = off[u]; i < off[u + 1]; i++) wt[i] = weight(seed, u, adj[i], directed);
+            }
+        });
+        return new CSRGraph(off, adj, wt);
+    }
+
+    private static CSRGraph concat(int[] deg, IntArrayList[] blocks, IntArrayList[] blockWeights, ForkJoinPool pool) {
+        int n = deg.length;
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) offsets[u + 1] = offsets[u] + deg[u];
+        int[] targets = new int[offsets[n]];
+        int[] weights = blockWeights == null ? null : new int[offsets[n]];
+        Parallel.forEach(pool, blocks.length, b -> {
+            int at = offsets[b * ROW_BLOCK];
+            System.arraycopy(blocks[b].array(), 0, targets, at, blocks[b].size());
+            if (weights != null) System.arraycopy(blockWeights[b].array(), 0, weights, at, blocks[b].size());
+        });
+        return new CSRGraph(offsets, targets, weights);
+    }
+
+    /** CSR from (tail, head) keys: sorted, duplicates dropped. */
+    private static CSRGraph fromKeys(int n, long[] keys, boolean directed, long seed, boolean weighted,
+                                     ForkJoinPool pool) {
+        if (keys.length > 1) Arrays.parallelSort(keys);
+        int m = 0;
+        for (int i = 0; i < keys.length; i++) if (i == 0 || keys[i] != keys[i - 1]) keys[m++] = keys[i];
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) offsets[(int) (keys[i] >>> 32) + 1]++;
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+        int[] targets = new int[m];
+        int[] weights = weighted ? new int[m] : null;
+        int edges = m;
+        Parallel.forRange(pool, 0, edges, EDGE_BLOCK, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                targets[i] = (int) keys[i];
+                if (weights != null) weights[i] = weight(seed, (int) (keys[i] >>> 32), targets[i], directed);
+            }
+        });
+        return new CSRGraph(offsets, targets, weights);
+    }
+
+    /**
+     * Undirected graph from its upper half (row u holds only targets above u, ascending): row v of the result
+     * is v's in-edges from the transpose (all below v) followed by its own row, so it stays sorted.
+     */
+    private static CSRGraph symmetrize(CSRGraph upper, ForkJoinPool pool) {
+        int n = upper.nodeCount();
+        CSRGraph lower = upper.transpose(null);
+        int[] uo = upper.offsets(), ut = upper.targets(), uw = upper.weights();
+        int[] lo = lower.offsets(), lt = lower.targets(), lw = lower.weights();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) offsets[u + 1] = offsets[u] + (lo[u + 1] - lo[u]) + (uo[u + 1] - uo[u]);
+        int[] targets = new int[offsets[n]];
+        int[] weights = uw == null ? null : new int[offsets[n]];
+        Parallel.forRange(pool, 0, n, ROW_BLOCK, (from, to) -> {
+            for (int u = from; u < to; u++) {
+                int below = lo[u + 1] - lo[u];
+                System.arraycopy(lt, lo[u], targets, offsets[u], below);
+                System.arraycopy(ut, uo[u], targets, offsets[u] + below, uo[u + 1] - uo[u]);
+                if (weights != null) {
+                    System.arraycopy(lw, lo[u], weights, offsets[u], below);
+                    System.arraycopy(uw, uo[u], weights, offsets[u] + below, uo[u + 1] - uo[u]);
+                }
+            }
+        });
+        return new CSRGraph(offsets, targets, weights);
+    }
+
+    // ---- helpers ----
+
+    private static void checkEdges(double expected) {
+        if (expected > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("about " + (long) expected + " edges do not fit a CSR array");
+    }
+
+    /** One generator per block, split off the seed in block order. */
+    private static SplittableRandom[] split(long seed, int blocks) {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] rngs = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) rngs[b] = root.split();
+        return rngs;
+    }
+
+    /** Failures before the next success of a Bernoulli(p) sequence; logQ = log(1 - p). */
+    private static long skip(SplittableRandom rnd, double logQ, double p) {
+        if (p >= 1) return 0;
+        double s = Math.floor(Math.log(1 - rnd.nextDouble()) / logQ);
+        return s >= Long.MAX_VALUE / 2 ? Long.MAX_VALUE / 2 : (long) s;
+    }
+
+    private static int[] shuffledIds(int n, SplittableRandom rnd) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = perm[i];
+            perm[i] = perm[j];
+            perm[j] = t;
+        }
+        return perm;
+    }
+
+    private static long key(int u, int v) { return ((long) u << 32) | v; }
+
+    /** Weight 1..20 hashed from (seed, edge), so it needs no shared RNG; undirected edges hash as (min, max). */
+    static int weight(long seed, int u, int v, boolean directed) {
+        long k = directed || u < v ? key(u, v) : key(v, u);
+        long z = seed + k * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return 1 + (int) Long.remainderUnsigned(z, MAX_WEIGHT);
+    }
+
+    private static int cell(double c, int side) { return Math.min(side - 1, (int) (c * side)); }
+
+    private static double dist2(double[] xy, int u, int v) {
+        double dx = xy[2 * u] - xy[2 * v], dy = xy[2 * u + 1] - xy[2 * v + 1];
+        return dx * dx + dy * dy;
+    }
+}
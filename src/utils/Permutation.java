@@ -0,0 +1,104 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Relabelling of nodes 0..n-1, kept in both directions: forward maps an original id to its new id and
+ * inverse maps a new id back. {@link #apply} builds the relabelled graph, and the toOriginal methods map
+ * per-node results computed on it back to original ids, so callers never see the new labels.
+ */
+public final class Permutation {
+
+    private final int[] forward; // original -> new
+    private final int[] inverse; // new -> original
+
+    private Permutation(int[] forward, int[] inverse) {
+        this.forward = forward;
+        this.inverse = inverse;
+    }
+
+    public static Permutation identity(int n) {
+        int[] id = new int[n];
+        for (int i = 0; i < n; i++) id[i] = i;
+        return new Permutation(id, id.clone());
+    }
+
+    /** @param order order[i] is the original node that gets new id i; every node must appear once */
+    public static Permutation fromOrder(int[] order) {
+        int n = order.length;
+        int[] forward = new int[n];
+        Arrays.fill(forward, -1);
+        for (int i = 0; i < n; i++) {
+            if (forward[order[i]] != -1) throw new IllegalArgumentException("node " + order[i] + " placed twice");
+            forward[order[i]] = i;
+        }
+        return new Permutation(forward, order.clone());
+    }
+
+    public int size() { return forward.length; }
+
+    public int toNew(int original) { return forward[original]; }
+
+    public int toOriginal(int node) { return inverse[node]; }
+
+    /** Original -> new id; must not be modified. */
+    public int[] forward() { return forward; }
+
+    /** New -> original id; must not be modified. */
+    public int[] inverse() { return inverse; }
+
+    /**
+     * The graph with every node relabelled: row i is the row of original node inverse[i], its targets mapped
+     * through forward and sorted ascending (weights follow their edge), so a scan of the new graph walks
+     * memory in id order wherever the ordering put neighbours close together.
+     */
+    public CSRGraph apply(CSRGraph g) {
+        int n = g.nodeCount();
+        if (n != size()) throw new IllegalArgumentException("permutation of " + size() + " nodes, graph has " + n);
+        int[] off = g.offsets(), adj = g.targets(), wt = g.weights();
+        int[] nOff = new int[n + 1];
+        for (int i = 0; i < n; i++) nOff[i + 1] = nOff[i] + g.degree(inverse[i]);
+        int[] nAdj = new int[adj.length];
+        int[] nWt = wt == null ? null : new int[adj.length];
+        long[] row = wt == null ? null : new long[16];
+        for (int i = 0; i < n; i++) {
+            int u = inverse[i], from = off[u], d = off[u + 1] - from, to = nOff[i];
+            if (wt == null) {
+                for (int k = 0; k < d; k++) nAdj[to + k] = forward[adj[from + k]];
+                Arrays.sort(nAdj, to, to + d);
+            } else {
+                // sort (target, weight) pairs by target, packed in one long
+                if (row.length < d) row = new long[Math.max(d, 2 * row.length)];
+                for (int k = 0; k < d; k++) row[k] = (long) forward[adj[from + k]] << 32 | (wt[from + k] & 0xFFFFFFFFL);
+                Arrays.sort(row, 0, d);
+                for (int k = 0; k < d; k++) {
+                    nAdj[to + k] = (int) (row[k] >>> 32);
+                    nWt[to + k] = (int) row[k];
+                }
+            }
+        }
+        return new CSRGraph(nOff, nAdj, nWt);
+    }
+
+    /** Per-node values computed on the relabelled graph, re-indexed by original id. */
+    public int[] valuesToOriginal(int[] byNew) {
+        int n = size();
+        int[] out = new int[n];
+        for (int u = 0; u < n; u++) out[u] = byNew[forward[u]];
+        return out;
+    }
+
+    /**
+     * Per-node node ids computed on the relabelled graph (parents, component labels, ...), re-indexed by
+     * original id and translated to original ids; negative entries (no node) are kept as they are.
+     */
+    public int[] nodesToOriginal(int[] byNew) {
+        int n = size();
+        int[] out = new int[n];
+        for (int u = 0; u < n; u++) {
+            int v = byNew[forward[u]];
+            out[u] = v < 0 ? v : inverse[v];
+        }
+        return out;
+    }
+}
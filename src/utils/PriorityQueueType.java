@@ -0,0 +1,42 @@
+package utils;
+
+/**
+ * The {@link IntPriorityQueue} implementations Dijkstra and AStar can be configured with.
+ */
+public enum PriorityQueueType {
+    BINARY_HEAP("binary"),
+    DARY4_HEAP("dary4"),
+    DARY8_HEAP("dary8"),
+    PAIRING_HEAP("pairing"),
+    RADIX_HEAP("radix"),
+    DIAL("dial");
+
+    private final String label;
+
+    PriorityQueueType(String label) { this.label = label; }
+
+    /** Short name used in algorithm names and the benchmark CSV. */
+    public String label() { return label; }
+
+    /**
+     * True for RADIX_HEAP and DIAL, which raise a key below the last extracted one to that key, so they need
+     * keys that never drop below it (Dijkstra, or A* with a consistent heuristic).
+     */
+    public boolean monotone() { return this == RADIX_HEAP || this == DIAL; }
+
+    /**
+     * @param n number of nodes (ids 0..n-1)
+     * @param maxKeyStep upper bound on (inserted key - current minimum key); only DIAL uses it
+     */
+    public IntPriorityQueue create(int n, int maxKeyStep) {
+        switch (this) {
+            case BINARY_HEAP: return new DaryHeap(n, 2);
+            case DARY4_HEAP: return new DaryHeap(n, 4);
+            case DARY8_HEAP: return new DaryHeap(n, 8);
+            case PAIRING_HEAP: return new PairingHeap(n);
+            case RADIX_HEAP: return new RadixHeap(n);
+            case DIAL: return new DialQueue(n, maxKeyStep);
+            default: throw new IllegalStateException(name());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Monotone radix heap with decrease-key. A key k sits in bucket 0 when k == last extracted
+ * key, otherwise in bucket (index of the highest bit where k and last differ) + 1, so every
+ * bucket but 0 is redistributed into strictly lower buckets at most once per bit.
+ */
+public final class RadixHeap implements IntPriorityQueue {
+
+    private static final int BUCKETS = 33;
+
+    private final int[] head = new int[BUCKETS];
+    private final int[] keys;
+    private final int[] next;
+    private final int[] prev;
+    private final int[] bucketOf; // -1 when not queued
+    private int last;
+    private int size;
+
+    public RadixHeap(int n) {
+        keys = new int[n];
+        next = new int[n];
+        prev = new int[n];
+        bucketOf = new int[n];
+        Arrays.fill(head, -1);
+        Arrays.fill(bucketOf, -1);
+    }
+
+    @Override
+    public boolean isEmpty() { return size == 0; }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public boolean contains(int node) { return bucketOf[node] >= 0; }
+
+    @Override
+    public int key(int node) { return keys[node]; }
+
+    @Override
+    public void insert(int node, int key) {
+        if (key < last) key = last;
+        keys[node] = key;
+        push(node, bucket(key));
+        size++;
+    }
+
+    @Override
+    public void decreaseKey(int node, int key) {
+        if (key < last) key = last;
+        if (key >= keys[node]) return;
+        keys[node] = key;
+        int b = bucket(key);
+        if (b != bucketOf[node]) {
+            unlink(node);
+            push(node, b);
+        }
+    }
+
+    @Override
+    public int pollMin() {
+        if (size == 0) throw new NoSuchElementException();
+        if (head[0] == -1) {
+            int i = 1;
+            while (head[i] == -1) i++;
+            int min = Integer.MAX_VALUE;
+            for (int x = head[i]; x != -1; x = next[x]) min = Math.min(min, keys[x]);
+            last = min;
+            int x = head[i];
+            head[i] = -1;
+            while (x != -1) {
+                int nx = next[x];
+                push(x, bucket(keys[x]));
+                x = nx;
+            }
+        }
+        int top = head[0];
+        unlink(top);
+        bucketOf[top] = -1;
+        size--;
+        return top;
+    }
+
+    private int bucket(int key) {
+        return key == last ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void push(int node, int b) {
+        bucketOf[node] = b;
+        prev[node] = -1;
+        next[node] = head[b];
+        if (head[b] != -1) prev[head[b]] = node;
+        head[b] = node;
+    }
+
+    private void unlink(int node) {
+        int p = prev[node], nx = next[node];
+        if (p == -1) head[bucketOf[node]] = nx;
+        else next[p] = nx;
+        if (nx != -1) prev[nx] = p;
+    }
+}
@@ -0,0 +1,41 @@
+package utils;
+
+/**
+ * The {@link Counter} totals of one run: snapshot before and after, like {@link RunMeter}. Counts of a
+ * parallel algorithm's pool threads are included unless only the calling thread is counted, which is what
+ * runs that overlap with other runs need. Values are -1 while counting is disabled.
+ */
+public final class RunCounters {
+
+    private final boolean allThreads;
+    private long[] before;
+    private final long[] delta = new long[Counter.values().length];
+    private boolean measured;
+
+    public RunCounters() { this(true); }
+
+    /** @param allThreads false to count only the calling thread, e.g. when other runs overlap */
+    public RunCounters(boolean allThreads) { this.allThreads = allThreads; }
+
+    /** Whether pool threads' counts are included, i.e. whether a parallel algorithm's totals are complete. */
+    public boolean allThreads() { return allThreads; }
+
+    /** Snapshot the counters; call right before the measured code. */
+    public RunCounters start() {
+        measured = Counter.enabled();
+        if (measured) before = Counter.snapshot(allThreads);
+        return this;
+    }
+
+    /** Read the counters again; call right after the measured code. */
+    public RunCounters stop() {
+        if (measured) {
+            long[] after = Counter.snapshot(allThreads);
+            for (int i = 0; i < delta.length; i++) delta[i] = after[i] - before[i];
+        }
+        return this;
+    }
+
+    /** What the run added to c, or -1 when counting was disabled. */
+    public long get(Counter c) { return measured ? delta[c.ordinal()] : -1; }
+}
@@ -0,0 +1,188 @@
+package utils;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Allocation and GC accounting for one timed run, from the JVM's own counters instead of heap usage deltas.
+ * <p>
+ * Allocated bytes come from com.sun.management.ThreadMXBean: the calling thread's exact count plus the
+ * growth of every other live thread's count (fork-join workers, the trace drainer), so bytes allocated by a
+ * thread that starts and dies inside the run are missed. GC count and pause time are summed over all
+ * collectors. Values are -1 where the JVM does not provide them.
+ */
+public final class RunMeter {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    private static final List<GarbageCollectorMXBean> GCS = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private final boolean allThreads;
+    private final Map<Long, Long> othersBefore = new HashMap<>();
+    private long selfBefore, gcCountBefore, gcTimeBefore;
+    private long allocated = -1, gcCount = -1, gcTimeMs = -1;
+
+    public RunMeter() { this(true); }
+
+    /** @param allThreads false to count only the calling thread's allocations, e.g. when other runs overlap */
+    public RunMeter(boolean allThreads) { this.allThreads = allThreads; }
+
+    /** True if allocated bytes can be measured on this JVM. */
+    public static boolean allocationSupported() { return THREADS != null; }
+
+    /** Snapshot the counters; call right before the measured code. */
+    public RunMeter start() {
+        othersBefore.clear();
+        long self = Thread.currentThread().getId();
+        if (THREADS != null && allThreads) {
+            long[] ids = THREADS.getAllThreadIds();
+            long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) if (ids[i] != self && bytes[i] >= 0) othersBefore.put(ids[i], bytes[i]);
+        }
+        gcCountBefore = totalGcCount();
+        gcTimeBefore = totalGcTime();
+        if (THREADS != null) selfBefore = THREADS.getCurrentThreadAllocatedBytes(); // last, so the snapshot is not counted
+        return this;
+    }
+
+    /** Read the counters again; call right after the measured code. */
+    public RunMeter stop() {
+        long selfAfter = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0; // first, same reason
+        long gcCountAfter = totalGcCount();
+        long gcTimeAfter = totalGcTime();
+        if (THREADS != null) {
+            long self = Thread.currentThread().getId();
+            long sum = selfAfter - selfBefore;
+            long[] ids = allThreads ? THREADS.getAllThreadIds() : new long[0];
+            long[] bytes = allThreads ? THREADS.getThreadAllocatedBytes(ids) : new long[0];
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == self || bytes[i] < 0) continue;
+                sum += bytes[i] - othersBefore.getOrDefault(ids[i], 0L);
+            }
+            allocated = sum;
+        }
+        gcCount = gcCountBefore < 0 ? -1 : gcCountAfter - gcCountBefore;
+        gcTimeMs = gcTimeBefore < 0 ? -1 : gcTimeAfter - gcTimeBefore;
+        return this;
+    }
+
+    /** Bytes allocated by all threads between start() and stop(). */
+    public long allocatedBytes() { return allocated; }
+
+    /** Collections that ran between start() and stop(). */
+    public long gcCount() { return gcCount; }
+
+    /** Accumulated collection time between start() and stop(), in ms (concurrent phases included). */
+    public long gcPauseMs() { return gcTimeMs; }
+
+    private static long totalGcCount() {
+        long sum = 0;
+        for (GarbageCollectorMXBean gc : GCS) {
+            if (gc.getCollectionCount() < 0) return -1;
+            sum += gc.getCollectionCount();
+        }
+        return sum;
+    }
+
+    private static long totalGcTime() {
+        long sum = 0;
+        for (GarbageCollectorMXBean gc : GCS) {
+            if (gc.getCollectionTime() < 0) return -1;
+            sum += gc.getCollectionTime();
+        }
+        return sum;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            java.lang.management.ThreadMXBean t = ManagementFactory.getThreadMXBean();
+            if (!(t instanceof com.sun.management.ThreadMXBean)) return null;
+            com.sun.management.ThreadMXBean s = (com.sun.management.ThreadMXBean) t;
+            if (!s.isThreadAllocatedMemorySupported()) return null;
+            if (!s.isThreadAllocatedMemoryEnabled()) s.setThreadAllocatedMemoryEnabled(true);
+            return s;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+
+    // ---- retained size ----
+
+    private static final int HEADER = 12, ARRAY_HEADER = 16, REF = 4; // 64-bit JVM with compressed oops
+
+    /**
+     * Estimated bytes reachable from result: arrays, boxed values, collections and maps, and the fields of
+     * this project's own classes (followed by reflection). Shared objects are counted once; JDK objects other
+     * than those listed count as their shell only.
+     */
+    public static long retainedBytes(Object result) {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> todo = new ArrayDeque<>();
+        if (result != null) todo.push(result);
+        long total = 0;
+        while (!todo.isEmpty()) {
+            Object o = todo.pop();
+            if (!seen.add(o)) continue;
+            Class<?> c = o.getClass();
+            if (c.isArray()) {
+                int len = Array.getLength(o);
+                Class<?> e = c.getComponentType();
+                total += align(ARRAY_HEADER + (long) len * (e.isPrimitive() ? primitiveBytes(e) : REF));
+                if (!e.isPrimitive()) for (Object x : (Object[]) o) if (x != null) todo.push(x);
+            } else if (o instanceof Number || o instanceof Boolean || o instanceof Character) {
+                total += o instanceof Long || o instanceof Double ? 24 : 16;
+            } else if (o instanceof Collection) {
+                // backing array plus object header and size field
+                Collection<?> col = (Collection<?>) o;
+                total += align(HEADER + 12) + align(ARRAY_HEADER + (long) col.size() * REF);
+                for (Object x : col) if (x != null) todo.push(x);
+            } else if (o instanceof Map) {
+                Map<?, ?> m = (Map<?, ?>) o;
+                // HashMap-like: power-of-two table at load factor 0.75 plus a 32-byte node per entry
+                long table = 1;
+                while (table * 3 < m.size() * 4L) table <<= 1;
+                total += align(HEADER + 36) + align(ARRAY_HEADER + table * REF) + 32L * m.size();
+                for (Map.Entry<?, ?> en : m.entrySet()) {
+                    if (en.getKey() != null) todo.push(en.getKey());
+                    if (en.getValue() != null) todo.push(en.getValue());
+                }
+            } else {
+                total += shallow(o, todo);
+            }
+        }
+        return total;
+    }
+
+    private static long shallow(Object o, Deque<Object> todo) {
+        long size = HEADER;
+        boolean own = !o.getClass().getName().startsWith("java");
+        for (Class<?> c = o.getClass(); c != null; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                if (Modifier.isStatic(f.getModifiers())) continue;
+                Class<?> t = f.getType();
+                size += t.isPrimitive() ? primitiveBytes(t) : REF;
+                if (own && !t.isPrimitive()) {
+                    try {
+                        f.setAccessible(true);
+                        Object v = f.get(o);
+                        if (v != null) todo.push(v);
+                    } catch (ReflectiveOperationException | RuntimeException ignored) {
+                    }
+                }
+            }
+        }
+        return align(size);
+    }
+
+    private static int primitiveBytes(Class<?> t) {
+        if (t == long.class || t == double.class) return 8;
+        if (t == int.class || t == float.class) return 4;
+        if (t == short.class || t == char.class) return 2;
+        return 1;
+    }
+
+    private static long align(long bytes) { return (bytes + 7) & ~7L; }
+}
@@ -0,0 +1,88 @@
+package utils;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Offline conversion of binary traces ({@link TraceWriter}) to the per-run CSV layouts the dashboard reads.
+ * <p>
+ * Usage: java utils.TraceConverter [--delete] &lt;file.trace | directory&gt;...
+ * Each x.trace becomes x.csv next to it; directories are scanned for *.trace (not recursively).
+ * --delete removes each trace once its CSV is written.
+ */
+public class TraceConverter {
+
+    public static void main(String[] args) throws IOException {
+        boolean delete = false;
+        List<Path> traces = new ArrayList<>();
+        for (String a : args) {
+            if (a.equals("--delete")) {
+                delete = true;
+                continue;
+            }
+            Path p = Paths.get(a);
+            if (Files.isDirectory(p)) traces.addAll(listTraces(p));
+            else traces.add(p);
+        }
+        if (traces.isEmpty()) {
+            System.err.println("usage: java utils.TraceConverter [--delete] <file.trace | directory>...");
+            System.exit(1);
+        }
+        for (Path t : traces) {
+            Path csv = toCsv(t);
+            if (delete) Files.delete(t);
+            System.out.println(t + " -> " + csv);
+        }
+    }
+
+    /** *.trace files directly inside dir, sorted by name. */
+    public static List<Path> listTraces(Path dir) throws IOException {
+        List<Path> out = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.trace")) {
+            for (Path p : ds) out.add(p);
+        }
+        Collections.sort(out);
+        return out;
+    }
+
+    /** Convert trace to the CSV next to it (same name, .csv extension). @return the CSV path */
+    public static Path toCsv(Path trace) throws IOException {
+        String name = trace.getFileName().toString();
+        String base = name.endsWith(".trace") ? name.substring(0, name.length() - ".trace".length()) : name;
+        Path csv = trace.resolveSibling(base + ".csv");
+        toCsv(trace, csv);
+        return csv;
+    }
+
+    public static void toCsv(Path trace, Path csv) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(trace), 1 << 16));
+             Writer out = Files.newBufferedWriter(csv)) {
+            if (in.readInt() != TraceWriter.MAGIC) throw new IOException(trace + " is not a trace file");
+            int version = in.readInt();
+            if (version != TraceWriter.VERSION) throw new IOException(trace + ": unsupported trace version " + version);
+            TraceLayout layout = TraceLayout.valueOf(in.readUTF());
+            TraceLayout.Formatter f = layout.formatter();
+            out.append(layout.header()).append('\n');
+
+            TraceLayout.Event e = new TraceLayout.Event();
+            e.layout = layout;
+            byte[] rec = new byte[TraceWriter.RECORD_BYTES];
+            DataInputStream r = new DataInputStream(new ByteArrayInputStream(rec));
+            while (in.read(rec, 0, 1) == 1) {
+                in.readFully(rec, 1, rec.length - 1);
+                r.reset();
+                e.step = r.readInt();
+                e.action = r.readInt();
+                e.node = r.readInt();
+                e.neighbor = r.readInt();
+                e.v0 = r.readLong();
+                e.v1 = r.readLong();
+                e.v2 = r.readLong();
+                e.v3 = r.readLong();
+                String[] row = f.row(e);
+                if (row != null) CSVUtils.writeRow(out, row);
+            }
+        }
+    }
+}
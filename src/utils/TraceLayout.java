@@ -0,0 +1,169 @@
+package utils;
+
+import java.util.*;
+
+/**
+ * CSV layouts of the per-run traces, one per algorithm family, with the action names each one records.
+ * Algorithms write {@link TraceWriter} events with action codes from {@link #action}; {@link TraceConverter}
+ * maps them back to these headers. Most layouts copy record fields straight into columns
+ * (tokens step, action, node, neighbor, v0..v3); the rest rebuild derived columns by replaying the events.
+ */
+public enum TraceLayout {
+
+    /** Queue and visited set are replayed from the events instead of being recorded at every step. */
+    BFS("Step,Action,Node,QueueState,VisitedSet", null, "EnqueueStart", "Dequeue", "Enqueue") {
+        @Override
+        public Formatter formatter() {
+            Deque<Integer> q = new ArrayDeque<>();
+            Set<Integer> visited = new HashSet<>();
+            return e -> {
+                String a = e.actionName();
+                if (a.equals("Dequeue")) {
+                    q.poll();
+                } else {
+                    q.add(e.node);
+                    visited.add(e.node);
+                }
+                return new String[]{cell(e.step), a, cell(e.node), q.toString(), visited.toString()};
+            };
+        }
+    },
+    /** Visit events carry in v0 how many already-visited entries were popped silently before them. */
+    DFS("Step,Action,Node,StackState,VisitedSet", null, "PushStart", "Visit", "Push") {
+        @Override
+        public Formatter formatter() {
+            Deque<Integer> stack = new ArrayDeque<>();
+            Set<Integer> visited = new HashSet<>();
+            return e -> {
+                String a = e.actionName();
+                if (a.equals("Visit")) {
+                    for (long i = 0; i <= e.v0; i++) stack.pop();
+                    visited.add(e.node);
+                } else {
+                    stack.push(e.node);
+                }
+                return new String[]{cell(e.step), a, cell(e.node), stack.toString(), visited.toString()};
+            };
+        }
+    },
+    /** Discover/Finish rows of the DFS engine (Value = preorder number), then the algorithm's result rows. */
+    DEPTH_FIRST("Step,Action,Node,Neighbor,Value", "step,action,node,neighbor,v0",
+            "Discover", "Finish", "Component", "CycleNode", "ArticulationPoint", "Bridge"),
+    BIPARTITE("Step,Action,Node,Neighbor,ColorNode,ColorNeighbor", "step,action,node,neighbor,v0,v1",
+            "ColorStart", "ColorAssign", "Conflict"),
+    DIJKSTRA("Step,Action,Node,Neighbor,OldDist,NewDist,QueueSize", "step,action,node,neighbor,v0,v1,v2",
+            "Settle", "Relax"),
+    /** NewF is NewG + H. */
+    ASTAR("Step,Action,Node,Neighbor,OldG,NewG,H,NewF,OpenSize", null, "Pop", "ReachedGoal", "Relax") {
+        @Override
+        public Formatter formatter() {
+            return e -> new String[]{cell(e.step), e.actionName(), cell(e.node), cell(e.neighbor), cell(e.v0),
+                    cell(e.v1), cell(e.v2), e.v1 == TraceWriter.NONE ? "" : String.valueOf(e.v1 + e.v2), cell(e.v3)};
+        }
+    },
+    /** Negative-cycle edges have no iteration and are labelled NC. */
+    BELLMAN_FORD("Iteration,Action,U,V,OldDist,NewDist", null, "Relax", "NegativeCycle") {
+        @Override
+        public Formatter formatter() {
+            return e -> new String[]{e.step == TraceWriter.NO_NODE ? "NC" : cell(e.step), e.actionName(),
+                    cell(e.node), cell(e.neighbor), cell(e.v0), cell(e.v1)};
+        }
+    },
+    SPFA("Step,Action,Node,Neighbor,OldDist,NewDist,QueueSize", "step,action,node,neighbor,v0,v1,v2",
+            "Skip", "Relax", "NegativeCycle"),
+    PARALLEL_BELLMAN_FORD("Round,ActiveEdges,Relaxations,NegativeCycle", "step,v0,v1,v2", "Round"),
+    DELTA_STEPPING("Bucket,Phase,Kind,FrontierSize,Improved", "v0,step,action,v1,v2", "Light", "Heavy"),
+    PARALLEL_BFS("Level,Direction,FrontierSize,FrontierEdges,UnexploredEdges", "step,action,v0,v1,v2",
+            "TopDown", "BottomUp"),
+    /** Root is the giant set's root on LargestComponent rows; Work is edges linked, sample hits or nodes scanned. */
+    CONNECTED_COMPONENTS("Phase,Action,Root,Work,Sets", "step,action,node,v0,v1",
+            "NeighborRound", "LargestComponent", "Finish"),
+    /** Conflict rows carry the odd edge and the cycle length, then one CycleNode row per cycle node. */
+    PARALLEL_BIPARTITE("Step,Action,Node,Neighbor,Count", "step,action,node,neighbor,v0",
+            "Conflict", "CycleNode", "Bipartite"),
+    /** PathNode events (node only) spell out the path that the following Augment event closes. */
+    EDMONDS_KARP("Augment,Path,PathFlow,TotalFlow", null, "PathNode", "Augment") {
+        @Override
+        public Formatter formatter() { return pathFormatter(); }
+    },
+    DINIC("Phase,Path,PathFlow,TotalFlow", null, "PathNode", "Augment") {
+        @Override
+        public Formatter formatter() { return pathFormatter(); }
+    },
+    PUSH_RELABEL("Step,Action,Node,Neighbor,Amount,Height,TotalFlow", "step,action,node,neighbor,v0,v1,v2",
+            "Push", "Relabel", "Gap", "GlobalRelabel");
+
+    /** One decoded record. Reused between records by the converter. */
+    public static final class Event {
+        public TraceLayout layout;
+        public int step, action, node, neighbor;
+        public long v0, v1, v2, v3;
+
+        public String actionName() { return layout.actions[action]; }
+    }
+
+    /** Turns the events of one run into CSV rows, in order; may keep replay state. */
+    public interface Formatter {
+        /** @return the row for e, or null if e only feeds later rows */
+        String[] row(Event e);
+    }
+
+    private final String header;
+    private final String[] columns; // field tokens, null when formatter() is overridden
+    private final String[] actions;
+
+    TraceLayout(String header, String columns, String... actions) {
+        this.header = header;
+        this.columns = columns == null ? null : columns.split(",");
+        this.actions = actions;
+    }
+
+    /** CSV header line, without the newline. */
+    public String header() { return header; }
+
+    /** Code of an action name, for the {@link TraceWriter#event} calls. */
+    public int action(String name) {
+        for (int i = 0; i < actions.length; i++) if (actions[i].equals(name)) return i;
+        throw new IllegalArgumentException(name() + " has no action " + name);
+    }
+
+    /** A fresh formatter for one trace file. */
+    public Formatter formatter() {
+        String[] cols = columns;
+        return e -> {
+            String[] row = new String[cols.length];
+            for (int i = 0; i < cols.length; i++) {
+                switch (cols[i]) {
+                    case "step": row[i] = cell(e.step); break;
+                    case "action": row[i] = e.actionName(); break;
+                    case "node": row[i] = cell(e.node); break;
+                    case "neighbor": row[i] = cell(e.neighbor); break;
+                    case "v0": row[i] = cell(e.v0); break;
+                    case "v1": row[i] = cell(e.v1); break;
+                    case "v2": row[i] = cell(e.v2); break;
+                    case "v3": row[i] = cell(e.v3); break;
+                    default: throw new IllegalStateException("bad column token " + cols[i]);
+                }
+            }
+            return row;
+        };
+    }
+
+    /** Augment events: step, v0 = path flow, v1 = total flow; the path is "[a, b, ...]" like before. */
+    static Formatter pathFormatter() {
+        StringBuilder path = new StringBuilder();
+        return e -> {
+            if (e.actionName().equals("PathNode")) {
+                path.append(path.length() == 0 ? "[" : ", ").append(e.node);
+                return null;
+            }
+            String p = path.length() == 0 ? "[]" : path.append(']').toString();
+            path.setLength(0);
+            return new String[]{cell(e.step), p, cell(e.v0), cell(e.v1)};
+        };
+    }
+
+    static String cell(int v) { return v == TraceWriter.NO_NODE ? "" : String.valueOf(v); }
+
+    static String cell(long v) { return v == TraceWriter.NONE ? "" : String.valueOf(v); }
+}
@@ -0,0 +1,184 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Binary per-run trace: fixed-size event records go into a preallocated ring and a background
+ * thread drains them to one file, so a traced step costs the algorithm a handful of stores.
+ * <p>
+ * File layout (big-endian): int MAGIC, int VERSION, UTF layout name, then RECORD_BYTES per event:
+ * int step, int action, int node, int neighbor, long v0..v3. Absent fields hold NO_NODE / NONE.
+ * {@link TraceConverter} turns a trace back into the CSV of its {@link TraceLayout}.
+ * Events must come from a single thread.
+ */
+public final class TraceWriter implements Closeable {
+
+    public static final int MAGIC = 0x47545243; // "GTRC"
+    public static final int VERSION = 1;
+    public static final int RECORD_BYTES = 48;
+
+    /** Absent step/node/neighbor; written as an empty CSV cell. */
+    public static final int NO_NODE = Integer.MIN_VALUE;
+    /** Absent value; written as an empty CSV cell. */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final int SLOT_LONGS = 6;          // step|action, node|neighbor, v0..v3
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final int BATCH = 1024;            // records per channel write
+    private static final long IDLE_PARK_NANOS = 100_000;
+
+    private static final VarHandle PUBLISHED;
+    private static final VarHandle CONSUMED;
+
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            PUBLISHED = l.findVarHandle(TraceWriter.class, "published", long.class);
+            CONSUMED = l.findVarHandle(TraceWriter.class, "consumed", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long[] ring;
+    private final int mask;
+    private final FileChannel channel;
+    private final Thread drainer;
+
+    private long produced;             // producer only
+    private long consumedCache;        // producer's last look at consumed
+    private long published;            // written with release by the producer
+    private long consumed;             // written with release by the drainer
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    private TraceWriter(FileChannel channel, int capacity) {
+        this.channel = channel;
+        this.ring = new long[capacity * SLOT_LONGS];
+        this.mask = capacity - 1;
+        this.drainer = new Thread(this::drain, "trace-writer");
+        drainer.setDaemon(true);
+    }
+
+    /** Create (or truncate) path, write the header and start the drain thread. */
+    public static TraceWriter open(String path, TraceLayout layout) throws IOException {
+        FileChannel ch = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        byte[] name = layout.name().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(10 + name.length);
+        header.putInt(MAGIC).putInt(VERSION).putShort((short) name.length).put(name).flip();
+        while (header.hasRemaining()) ch.write(header);
+        TraceWriter tw = new TraceWriter(ch, DEFAULT_CAPACITY);
+        tw.drainer.start();
+        return tw;
+    }
+
+    public void event(int step, int action, int node) {
+        event(step, action, node, NO_NODE, NONE, NONE, NONE, NONE);
+    }
+
+    public void event(int step, int action, int node, int neighbor) {
+        event(step, action, node, neighbor, NONE, NONE, NONE, NONE);
+    }
+
+    public void event(int step, int action, int node, int neighbor, long v0) {
+        event(step, action, node, neighbor, v0, NONE, NONE, NONE);
+    }
+
+    public void event(int step, int action, int node, int neighbor, long v0, long v1) {
+        event(step, action, node, neighbor, v0, v1, NONE, NONE);
+    }
+
+    public void event(int step, int action, int node, int neighbor, long v0, long v1, long v2) {
+        event(step, action, node, neighbor, v0, v1, v2, NONE);
+    }
+
+    public void event(int step, int action, int node, int neighbor, long v0, long v1, long v2, long v3) {
+        long p = produced;
+        if (p - consumedCache > mask) awaitSpace(p);
+        int i = (int) (p & mask) * SLOT_LONGS;
+        long[] r = ring;
+        r[i] = ((long) step << 32) | (action & 0xFFFFFFFFL);
+        r[i + 1] = ((long) node << 32) | (neighbor & 0xFFFFFFFFL);
+        r[i + 2] = v0;
+        r[i + 3] = v1;
+        r[i + 4] = v2;
+        r[i + 5] = v3;
+        produced = p + 1;
+        PUBLISHED.setRelease(this, p + 1);
+    }
+
+    private void awaitSpace(long p) {
+        while (p - (consumedCache = (long) CONSUMED.getAcquire(this)) > mask) {
+            if (failure != null || !drainer.isAlive()) throw new IllegalStateException("trace writer stopped", failure);
+            LockSupport.unpark(drainer);
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Drain what is left, close the file and rethrow any write failure. */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) throw failure;
+    }
+
+    public static void closeQuietly(TraceWriter tw) {
+        if (tw != null) {
+            try { tw.close(); } catch (Exception ignored) {}
+        }
+    }
+
+    private void drain() {
+        ByteBuffer buf = ByteBuffer.allocateDirect(BATCH * RECORD_BYTES);
+        try (FileChannel ch = channel) {
+            long c = 0;
+            while (true) {
+                boolean last = closed;             // read before published: everything before close() is visible
+                long p = (long) PUBLISHED.getAcquire(this);
+                if (p == c) {
+                    if (last) break;
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+                while (c < p) {
+                    int i = (int) (c & mask) * SLOT_LONGS;
+                    buf.putInt((int) (ring[i] >>> 32)).putInt((int) ring[i])
+                            .putInt((int) (ring[i + 1] >>> 32)).putInt((int) ring[i + 1])
+                            .putLong(ring[i + 2]).putLong(ring[i + 3]).putLong(ring[i + 4]).putLong(ring[i + 5]);
+                    c++;
+                    if (!buf.hasRemaining()) {
+                        CONSUMED.setRelease(this, c);
+                        flush(ch, buf);
+                    }
+                }
+                CONSUMED.setRelease(this, c);
+                flush(ch, buf);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private static void flush(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+}
@@ -38,4 +38,74 @@ public class WeightedGraphGenerator {
         }
         return g;
     }
+
+    /**
+     * Same model and RNG draws as {@link #generateWeightedGraph}, written straight into CSR form.
+     * Re-drawn undirected pairs overwrite the earlier weight exactly like the map version, and
+     * each row is sorted by target, so for a given seed both graphs hold the same weighted edges.
+     */
+    public static CSRGraph generateWeightedCSRGraph(int n, double density, boolean directed, long seed,
+                                                    int maxDegreeCap) {
+        Random rnd = new Random(seed);
+        int[][] rows = new int[n][4];
+        int[][] wts = new int[n][4];
+        // twin[u][j]: index of u inside the row of rows[u][j], for back edges added while that node was processed
+        int[][] twin = directed ? null : new int[n][4];
+        int[] deg = new int[n];
+        int[] pos = new int[n];
+        int[] stamp = new int[n];
+        Arrays.fill(stamp, -1);
+
+        for (int u = 0; u < n; u++) {
+            if (!directed) {
+                // rows[u] only holds back edges from nodes < u here; index them for overwrites
+                for (int j = 0; j < deg[u]; j++) {
+                    pos[rows[u][j]] = j;
+                    stamp[rows[u][j]] = u;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                if (u == v) continue;
+                if (rnd.nextDouble() < density) {
+                    if (maxDegreeCap > 0 && deg[u] >= maxDegreeCap) continue;
+                    int w = 1 + rnd.nextInt(20); // weights 1..20
+                    if (!directed && stamp[v] == u) {
+                        // pair already exists from v's pass: overwrite both directions in place
+                        int j = pos[v];
+                        wts[u][j] = w;
+                        if (maxDegreeCap <= 0 || deg[v] < maxDegreeCap) wts[v][twin[u][j]] = w;
+                        continue;
+                    }
+                    int i = append(rows, wts, deg, u, v, w);
+                    if (!directed && (maxDegreeCap <= 0 || deg[v] < maxDegreeCap)) {
+                        int j = append(rows, wts, deg, v, u, w);
+                        if (twin[v].length < rows[v].length) twin[v] = Arrays.copyOf(twin[v], rows[v].length);
+                        twin[v][j] = i;
+                    }
+                }
+            }
+        }
+
+        long[] packed = new long[0];
+        for (int u = 0; u < n; u++) {
+            if (packed.length < deg[u]) packed = new long[deg[u]];
+            for (int j = 0; j < deg[u]; j++) packed[j] = ((long) rows[u][j] << 32) | wts[u][j];
+            Arrays.sort(packed, 0, deg[u]);
+            for (int j = 0; j < deg[u]; j++) {
+                rows[u][j] = (int) (packed[j] >>> 32);
+                wts[u][j] = (int) packed[j];
+            }
+        }
+        return CSRGraph.pack(rows, wts, deg);
+    }
+
+    private static int append(int[][] rows, int[][] wts, int[] deg, int u, int v, int w) {
+        if (deg[u] == rows[u].length) {
+            rows[u] = Arrays.copyOf(rows[u], rows[u].length * 2);
+            wts[u] = Arrays.copyOf(wts[u], wts[u].length * 2);
+        }
+        wts[u][deg[u]] = w;
+        rows[u][deg[u]] = v;
+        return deg[u]++;
+    }
 }